@@ -0,0 +1,56 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import org.lisoft.lsml.model.loadout.Loadout;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of importing and exporting loadouts, both as LSML links and as garage files.
+ *
+ * @author Li Song
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExportBenchmarks {
+
+  @Benchmark
+  public void encodeLsml(StockLoadouts aStock, Blackhole aBlackhole) {
+    for (final Loadout loadout : aStock.loadouts) {
+      aBlackhole.consume(aStock.core.loadoutCoder().encodeLSML(loadout));
+    }
+  }
+
+  @Benchmark
+  public void loadGarage(StockLoadouts aStock, Blackhole aBlackhole) {
+    aBlackhole.consume(aStock.garageSerializer.load(new ByteArrayInputStream(aStock.garage)));
+  }
+
+  @Benchmark
+  public void parseLsml(StockLoadouts aStock, Blackhole aBlackhole) throws Exception {
+    for (final String link : aStock.links) {
+      aBlackhole.consume(aStock.core.loadoutCoder().parse(link));
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.benchmark;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.lisoft.lsml.command.CmdAutoAddItem;
+import org.lisoft.lsml.model.ItemDB;
+import org.lisoft.lsml.model.loadout.ConfiguredComponent;
+import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.metrics.HeatDissipation;
+import org.lisoft.lsml.model.metrics.MaxSustainedDPS;
+import org.lisoft.lsml.model.metrics.helpers.ComponentDestructionSimulator;
+import org.lisoft.mwo_data.equipment.Item;
+import org.lisoft.mwo_data.modifiers.Modifier;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the hot paths used while editing a loadout, each benchmark runs over every stock
+ * loadout.
+ *
+ * @author Li Song
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadoutBenchmarks {
+
+  @Benchmark
+  public void attributeValue(StockLoadouts aStock, Blackhole aBlackhole) {
+    for (final Loadout loadout : aStock.loadouts) {
+      final Collection<Modifier> modifiers = loadout.getAllModifiers();
+      for (final ConfiguredComponent component : loadout.getComponents()) {
+        aBlackhole.consume(component.getInternalComponent().getHitPoints(modifiers));
+      }
+      aBlackhole.consume(loadout.getMovementProfile().getTorsoYawSpeed(modifiers));
+    }
+  }
+
+  @Benchmark
+  public void autoAddItem(StockLoadouts aStock, Blackhole aBlackhole) throws Exception {
+    for (final Loadout stock : aStock.loadouts) {
+      final Loadout loadout = aStock.core.loadoutFactory().produceClone(stock);
+      final Item heatSink = loadout.getUpgrades().getHeatSink().getHeatSinkType();
+      new CmdAutoAddItem(loadout, null, heatSink, true, aStock.core.loadoutFactory()).apply();
+      new CmdAutoAddItem(loadout, null, ItemDB.AMS, true, aStock.core.loadoutFactory()).apply();
+      aBlackhole.consume(loadout);
+    }
+  }
+
+  @Benchmark
+  public void canEquipDirectly(StockLoadouts aStock, Blackhole aBlackhole) {
+    for (final Loadout loadout : aStock.loadouts) {
+      for (final Item item : aStock.items) {
+        aBlackhole.consume(loadout.canEquipDirectly(item));
+      }
+    }
+  }
+
+  @Benchmark
+  public void componentDestruction(StockLoadouts aStock, Blackhole aBlackhole) {
+    for (final Loadout loadout : aStock.loadouts) {
+      final Collection<Modifier> modifiers = loadout.getAllModifiers();
+      for (final ConfiguredComponent component : loadout.getComponents()) {
+        final ComponentDestructionSimulator simulator = new ComponentDestructionSimulator(component);
+        simulator.simulate(modifiers);
+        aBlackhole.consume(simulator);
+      }
+    }
+  }
+
+  @Benchmark
+  public void iterateItems(StockLoadouts aStock, Blackhole aBlackhole) {
+    for (final Loadout loadout : aStock.loadouts) {
+      for (final Item item : loadout.items()) {
+        aBlackhole.consume(item);
+      }
+    }
+  }
+
+  @Benchmark
+  public void maxSustainedDps(StockLoadouts aStock, Blackhole aBlackhole) {
+    for (final Loadout loadout : aStock.loadouts) {
+      final HeatDissipation dissipation = new HeatDissipation(loadout, null);
+      aBlackhole.consume(new MaxSustainedDPS(loadout, dissipation).calculate());
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.lisoft.lsml.application.components.CoreComponent;
+import org.lisoft.lsml.application.components.DaggerHeadlessCoreComponent;
+import org.lisoft.lsml.model.ItemDB;
+import org.lisoft.lsml.model.StockLoadoutDB;
+import org.lisoft.lsml.model.garage.Garage;
+import org.lisoft.lsml.model.garage.GarageSerializer;
+import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutBuilder;
+import org.lisoft.mwo_data.equipment.Item;
+import org.lisoft.mwo_data.mechs.StockLoadout;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark state with every stock loadout from the bundled database. The database is loaded
+ * through the {@link DaggerHeadlessCoreComponent} so that no part of JavaFX is started.
+ *
+ * @author Li Song
+ */
+@State(Scope.Benchmark)
+public class StockLoadouts {
+  CoreComponent core;
+  byte[] garage;
+  GarageSerializer garageSerializer;
+  List<Item> items;
+  List<String> links;
+  List<Loadout> loadouts;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    core = DaggerHeadlessCoreComponent.create();
+    items = ItemDB.lookup(Item.class);
+
+    loadouts = new ArrayList<>();
+    links = new ArrayList<>();
+    final Garage stockGarage = new Garage();
+    for (final StockLoadout stock : StockLoadoutDB.all()) {
+      final Loadout loadout = core.loadoutFactory().produceStock(stock.getChassis());
+      loadouts.add(loadout);
+      links.add(core.loadoutCoder().encodeLSML(loadout));
+      stockGarage.getLoadoutRoot().getValues().add(loadout);
+    }
+
+    garageSerializer =
+        new GarageSerializer(core.errorReporter(), core.loadoutFactory(), new LoadoutBuilder());
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    garageSerializer.save(out, stockGarage);
+    garage = out.toByteArray();
+  }
+}
@@ -31,7 +31,7 @@ import org.lisoft.mwo_data.equipment.*;
  *
  * @author Li Song
  */
-public class CmdAddItem extends CmdItemBase {
+public class CmdAddItem extends CmdItemBase implements TrustedCommand {
   public static final String MANY_GAUSS_WARNING =
       "Only two gauss rifles can be charged simultaneously.";
   public static final String XLCASE_WARNING = "C.A.S.E. in torso with XL engine has no effect.";
@@ -77,6 +77,24 @@ public class CmdAddItem extends CmdItemBase {
     add(component, item);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The equip rules are still checked, only the warnings and messages are skipped.
+   */
+  @Override
+  public void applyTrusted() {
+    if (EquipResult.SUCCESS != loadout.canEquipDirectly(item)
+        || EquipResult.SUCCESS != component.canEquip(item)) {
+      throw new IllegalStateException("Cannot equip " + item + " directly!");
+    }
+    if (item instanceof Engine) {
+      addXLSides((Engine) item);
+    }
+    applyForcedToggles(item);
+    add(component, item);
+  }
+
   @Override
   public String describe() {
     return "add " + item.getName() + " to " + component.getInternalComponent().getLocation();
@@ -111,6 +129,11 @@ public class CmdAddItem extends CmdItemBase {
     return item;
   }
 
+  @Override
+  public Loadout getLoadout() {
+    return loadout;
+  }
+
   /*
    * (non-Javadoc)
    *
@@ -134,6 +157,11 @@ public class CmdAddItem extends CmdItemBase {
     restoreForcedToggles(item);
   }
 
+  @Override
+  public void undoTrusted() {
+    undo();
+  }
+
   private void applyForcedToggles(Item aItem) {
     if (!(aItem instanceof Weapon weapon) || !(component instanceof ConfiguredComponentOmniMech)) {
       return;
@@ -18,13 +18,19 @@
 package org.lisoft.lsml.command;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 import org.lisoft.lsml.messages.MessageDelivery;
+import org.lisoft.lsml.model.ItemDB;
 import org.lisoft.lsml.model.loadout.*;
 import org.lisoft.lsml.model.loadout.EquipResult.EquipResultType;
-import org.lisoft.lsml.util.CommandStack;
 import org.lisoft.lsml.util.CommandStack.Command;
 import org.lisoft.mwo_data.equipment.Engine;
 import org.lisoft.mwo_data.equipment.HeatSink;
@@ -37,112 +43,392 @@ import org.lisoft.mwo_data.mechs.Location;
  * This operation automatically places an item at a suitable location on the {@link
  * LoadoutStandard}.
  *
+ * <p>If there is no room for the item, a greedy best-first search is performed over the ways of
+ * moving or swapping already equipped items between components until the item fits.
+ *
  * @author Li Song
  */
 public class CmdAutoAddItem extends CmdLoadoutBase {
-  private class Node implements Comparable<Node> {
-    final Loadout data;
+  /**
+   * A node in the search graph. Nodes don't hold a copy of the loadout, instead each node records
+   * the move (or swap) that takes the state of its parent to the state of the node. The state is
+   * materialised on the working loadout of the {@link Search} only when the node is expanded.
+   */
+  private static final class Node implements Comparable<Node> {
     final Item item;
     final Node parent;
     final int score;
+    final long sequence;
     final Location source;
     final Location target;
     final Item targetItem;
 
-    Node(Loadout aRoot, Item aItem) {
-      parent = null;
-      item = aItem;
-      source = null;
-      target = null;
-      targetItem = null;
-      data = aRoot;
-      score = score();
-    }
-
-    Node(Node aParent, Location aSource, Location aTarget, Item aItem) throws Exception {
-      data = loadoutFactory.produceClone(aParent.data);
+    Node(
+        Node aParent,
+        Location aSource,
+        Location aTarget,
+        Item aItem,
+        Item aTargetItem,
+        int aScore,
+        long aSequence) {
       parent = aParent;
       source = aSource;
       target = aTarget;
-      targetItem = null;
       item = aItem;
-      stack.pushAndApply(new CmdRemoveItem(null, data, data.getComponent(source), item));
-      stack.pushAndApply(new CmdAddItem(null, data, data.getComponent(target), item));
-      score = score();
-    }
-
-    Node(
-        Node aParent,
-        Location aSourcePart,
-        Location aTargetPart,
-        Item aSourceItem,
-        Item aTargetItem)
-        throws Exception {
-      data = loadoutFactory.produceClone(aParent.data);
-      parent = aParent;
-      source = aSourcePart;
-      target = aTargetPart;
       targetItem = aTargetItem;
-      item = aSourceItem;
-
-      stack.pushAndApply(new CmdRemoveItem(null, data, data.getComponent(target), aTargetItem));
-      stack.pushAndApply(new CmdRemoveItem(null, data, data.getComponent(source), aSourceItem));
-      stack.pushAndApply(new CmdAddItem(null, data, data.getComponent(target), aSourceItem));
-      stack.pushAndApply(new CmdAddItem(null, data, data.getComponent(source), aTargetItem));
-      score = score();
+      score = aScore;
+      sequence = aSequence;
     }
 
+    /**
+     * Orders nodes by descending score. Ties are broken by the order the nodes were discovered in
+     * which gives the same traversal order as a stable sort of a list of open nodes.
+     */
     @Override
     public int compareTo(Node aRhs) {
-      return Integer.compare(aRhs.score, score);
+      final int ans = Integer.compare(aRhs.score, score);
+      if (ans != 0) {
+        return ans;
+      }
+      return Long.compare(sequence, aRhs.sequence);
+    }
+
+    /**
+     * @param aLoadout The {@link Loadout} to create the commands for, must be in the state of the
+     *     parent node.
+     * @return The commands that take the given loadout from the state of the parent node to the
+     *     state of this node.
+     */
+    List<Command> ops(Loadout aLoadout) {
+      final ConfiguredComponent src = aLoadout.getComponent(source);
+      final ConfiguredComponent dst = aLoadout.getComponent(target);
+      if (targetItem != null) {
+        return List.of(
+            new CmdRemoveItem(null, aLoadout, dst, targetItem),
+            new CmdRemoveItem(null, aLoadout, src, item),
+            new CmdAddItem(null, aLoadout, dst, item),
+            new CmdAddItem(null, aLoadout, src, targetItem));
+      }
+      return List.of(
+          new CmdRemoveItem(null, aLoadout, src, item), new CmdAddItem(null, aLoadout, dst, item));
+    }
+  }
+
+  /**
+   * The state of a search node as far as the search is concerned. This is the multi-set of items
+   * per location (and enabled toggleable items) encoded as a sorted array of <code>
+   * (location, item)</code> pairs. Armour, upgrades etc. are never changed by the search and are
+   * not part of the state.
+   */
+  private static final class State {
+    private final int hash;
+    private final long[] occupancy;
+
+    State(long[] aOccupancy) {
+      occupancy = aOccupancy;
+      hash = Arrays.hashCode(occupancy);
     }
 
     @Override
     public boolean equals(Object aObject) {
-      if (aObject == null || !(aObject instanceof Node)) {
-        return false;
-      }
-      return data.equals(((Node) aObject).data);
+      return aObject instanceof final State that && Arrays.equals(occupancy, that.occupancy);
     }
 
     @Override
     public int hashCode() {
-      return data.hashCode();
+      return hash;
+    }
+  }
+
+  /**
+   * Holds the state of one search. All nodes are evaluated on a single working copy of the loadout
+   * by applying and undoing the moves of the nodes.
+   */
+  private class Search {
+    private final Map<Item, Integer> itemIds = new IdentityHashMap<>();
+    private final PriorityQueue<Node> open = new PriorityQueue<>();
+    private final List<Node> path = new ArrayList<>();
+    private final List<List<Command>> pathOps = new ArrayList<>();
+    private final Set<State> visited = new HashSet<>();
+    private final Loadout work;
+    private long sequence = 0;
+
+    Search() {
+      work = loadoutFactory.produceClone(loadout);
+    }
+
+    /**
+     * @return The first {@link Node} found where the item can be equipped or <code>null</code> if
+     *     no solution exists. If a solution was found, the working loadout is left in the state of
+     *     the solution node.
+     */
+    Node run() {
+      visited.add(state());
+      open.add(new Node(null, null, null, itemToPlace, null, score(itemToPlace), sequence++));
+
+      while (!open.isEmpty()) {
+        final Node node = open.poll();
+        if (!moveTo(node)) {
+          continue;
+        }
+
+        // Are we there yet?
+        if (EquipResult.SUCCESS == work.canEquipDirectly(itemToPlace)) {
+          return node; // Yes we are!
+        }
+
+        // Not yet sweetie
+        for (final Location part : partTraversalOrder) {
+          final Set<Item> expanded = Collections.newSetFromMap(new IdentityHashMap<>());
+          for (final Item i : new ArrayList<>(work.getComponent(part).getItemsEquipped())) {
+            // Identical items in the same component would only produce identical branches.
+            if (i instanceof Internal || !expanded.add(i)) {
+              continue;
+            }
+            addBranches(node, part, i);
+          }
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Adds all possible ways to move the given item out of the source part on the node to the open
+     * set. The working loadout must be in the state of the node and is restored before returning.
+     *
+     * @param aParent The parent {@link Node} that we're branching from.
+     * @param aSourcePart The source part that we shall remove the {@link Item} from.
+     * @param aItem The {@link Item} to be removed.
+     */
+    private void addBranches(Node aParent, Location aSourcePart, Item aItem) {
+      // Remove the item from the working loadout and find all ways it can be placed on another
+      // part.
+      final ConfiguredComponent srcPart = work.getComponent(aSourcePart);
+      final List<Command> removal = List.of(new CmdRemoveItem(null, work, srcPart, aItem));
+      if (!apply(removal)) {
+        // Item can't be removed? Just skip the branch entirely.
+        return;
+      }
+
+      for (final Location targetPart : Location.values()) {
+        if (aSourcePart == targetPart) {
+          continue;
+        }
+
+        final ConfiguredComponent dstPart = work.getComponent(targetPart);
+        if (EquipResult.SUCCESS == dstPart.canEquip(aItem)) {
+          // Don't consider swaps if the item can be directly moved. A swap will be generated in
+          // another point of the search tree anyway when we move an item from that component
+          // back to this.
+          addBranch(
+              aParent,
+              aSourcePart,
+              targetPart,
+              aItem,
+              null,
+              List.of(new CmdAddItem(null, work, dstPart, aItem)));
+        } else if (dstPart.getInternalComponent().isAllowed(aItem, work.getEngine())) {
+          // The part couldn't take the item directly, see if we can swap with some item in the
+          // part.
+          final int minItemSize = aItem.getSlots() - dstPart.getSlotsFree();
+          HardPointType requiredType = aItem.getHardpointType();
+          if (requiredType != HardPointType.NONE
+              && dstPart.getItemsOfHardpointType(requiredType)
+                  < dstPart.getHardPointCount(requiredType)) {
+            // There is at least one free hard point, we don't need to swap with a item of the
+            // required type.
+            requiredType = HardPointType.NONE;
+          }
+          for (final Item item : new ArrayList<>(dstPart.getItemsEquipped())) {
+            // The item has to clear enough room to make our item fit.
+            if (item instanceof HeatSink && dstPart.getEngineHeatSinks() > 0) {
+              continue; // Engine HS will not clear slots...
+            }
+            if (item.getSlots() < minItemSize) {
+              continue;
+            }
+
+            // The item has to free a hard point of the required type if applicable.
+            if (requiredType != HardPointType.NONE && item.getHardpointType() != requiredType) {
+              continue;
+            }
+            // Skip NOPs
+            if (item == aItem) {
+              continue;
+            }
+
+            // We can't move engine internals
+            if (item instanceof Internal) {
+              continue;
+            }
+
+            if (EquipResult.SUCCESS == srcPart.canEquip(item)) {
+              addBranch(
+                  aParent,
+                  aSourcePart,
+                  targetPart,
+                  aItem,
+                  item,
+                  List.of(
+                      new CmdRemoveItem(null, work, dstPart, item),
+                      new CmdAddItem(null, work, dstPart, aItem),
+                      new CmdAddItem(null, work, srcPart, item)));
+            }
+          }
+        }
+      }
+      undo(removal);
+    }
+
+    /**
+     * Applies the given delta to the working loadout and adds a new node for the resulting state
+     * unless it has already been visited. The delta is undone before returning.
+     */
+    private void addBranch(
+        Node aParent,
+        Location aSource,
+        Location aTarget,
+        Item aItem,
+        Item aTargetItem,
+        List<Command> aDelta) {
+      if (!apply(aDelta)) {
+        // If creating the node failed for some reason we just skip the branch.
+        return;
+      }
+      if (visited.add(state())) {
+        open.add(
+            new Node(aParent, aSource, aTarget, aItem, aTargetItem, score(aItem), sequence++));
+      }
+      undo(aDelta);
     }
 
-    private int score() {
+    /**
+     * Applies the given commands in order. If any command fails, the already applied commands are
+     * undone.
+     *
+     * @return <code>true</code> if all commands were applied.
+     */
+    private boolean apply(List<Command> aOps) {
+      for (int i = 0; i < aOps.size(); ++i) {
+        try {
+          aOps.get(i).apply();
+        } catch (final Exception e) {
+          undo(aOps.subList(0, i));
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Takes the working loadout to the state of the given node by undoing the moves back to the
+     * closest common ancestor of the current and the given node, and then applying the moves down
+     * to the given node.
+     *
+     * @return <code>false</code> if a move couldn't be applied, the working loadout is then left in
+     *     the state of one of the ancestors of the node.
+     */
+    private boolean moveTo(Node aNode) {
+      final List<Node> nodePath = new ArrayList<>();
+      for (Node n = aNode; n.parent != null; n = n.parent) {
+        nodePath.add(n);
+      }
+      Collections.reverse(nodePath);
+
+      int common = 0;
+      while (common < path.size()
+          && common < nodePath.size()
+          && path.get(common) == nodePath.get(common)) {
+        common++;
+      }
+
+      while (path.size() > common) {
+        undo(pathOps.remove(pathOps.size() - 1));
+        path.remove(path.size() - 1);
+      }
+
+      for (final Node n : nodePath.subList(common, nodePath.size())) {
+        final List<Command> ops = n.ops(work);
+        if (!apply(ops)) {
+          return false;
+        }
+        path.add(n);
+        pathOps.add(ops);
+      }
+      return true;
+    }
+
+    private int score(Item aItem) {
       if (itemToPlace instanceof Engine && ((Engine) itemToPlace).getSide().isPresent()) {
         final int slotsFreeCt =
             Math.min(
-                itemToPlace.getSlots(), data.getComponent(Location.CenterTorso).getSlotsFree());
-        int sideSlots = ((Engine) itemToPlace).getSide().get().getSlots();
+                itemToPlace.getSlots(), work.getComponent(Location.CenterTorso).getSlotsFree());
+        final int sideSlots = ((Engine) itemToPlace).getSide().get().getSlots();
         final int slotsFreeLt =
-            Math.min(sideSlots, data.getComponent(Location.LeftTorso).getSlotsFree());
+            Math.min(sideSlots, work.getComponent(Location.LeftTorso).getSlotsFree());
         final int slotsFreeRt =
-            Math.min(sideSlots, data.getComponent(Location.RightTorso).getSlotsFree());
+            Math.min(sideSlots, work.getComponent(Location.RightTorso).getSlotsFree());
         return slotsFreeCt + slotsFreeLt + slotsFreeRt;
       }
       int maxFree = 0;
       for (final Location location : validLocations) {
-        maxFree =
-            Math.max(
-                maxFree,
-                data.getComponent(location).getSlotsFree()
-                    * (data.getComponent(location)
-                            .getInternalComponent()
-                            .isAllowed(item, data.getEngine())
-                        ? 1
-                        : 0));
+        final ConfiguredComponent component = work.getComponent(location);
+        if (component.getInternalComponent().isAllowed(aItem, work.getEngine())) {
+          maxFree = Math.max(maxFree, component.getSlotsFree());
+        }
       }
       return maxFree;
     }
+
+    /**
+     * @return The {@link State} of the working loadout.
+     */
+    private State state() {
+      final Location[] locations = Location.values();
+      int size = 0;
+      for (final Location location : locations) {
+        size += work.getComponent(location).getItemsEquipped().size() + 2;
+      }
+
+      final long[] occupancy = new long[size];
+      int n = 0;
+      for (final Location location : locations) {
+        final ConfiguredComponent component = work.getComponent(location);
+        for (final Item item : component.getItemsEquipped()) {
+          occupancy[n++] = encode(location.ordinal(), item);
+        }
+        // Large bore weapons force toggleable items off, the toggle state is part of the state.
+        if (component instanceof final ConfiguredComponentOmniMech omniComponent) {
+          final int toggleSlot = locations.length + location.ordinal();
+          if (omniComponent.getToggleState(ItemDB.LAA)) {
+            occupancy[n++] = encode(toggleSlot, ItemDB.LAA);
+          }
+          if (omniComponent.getToggleState(ItemDB.HA)) {
+            occupancy[n++] = encode(toggleSlot, ItemDB.HA);
+          }
+        }
+      }
+      final long[] ans = Arrays.copyOf(occupancy, n);
+      Arrays.sort(ans);
+      return new State(ans);
+    }
+
+    private long encode(int aSlot, Item aItem) {
+      final int id = itemIds.computeIfAbsent(aItem, k -> itemIds.size());
+      return ((long) aSlot << 32) | id;
+    }
+
+    private void undo(List<Command> aOps) {
+      for (int i = aOps.size() - 1; i >= 0; --i) {
+        aOps.get(i).undo();
+      }
+    }
   }
 
   private final Item itemToPlace;
   private final LoadoutFactory loadoutFactory;
   private final List<Location> partTraversalOrder;
   private final boolean quiet;
-  private final CommandStack stack = new CommandStack(0);
   private final List<Location> validLocations = new ArrayList<>();
 
   public CmdAutoAddItem(
@@ -187,38 +473,12 @@ public class CmdAutoAddItem extends CmdLoadoutBase {
       return;
     }
 
-    final List<Node> closed = new ArrayList<>();
-    final List<Node> open = new ArrayList<>();
-
-    // Initial node
-    open.add(new Node(loadout, itemToPlace));
-    while (!open.isEmpty()) {
-      final Node node = open.remove(0);
-      closed.add(node);
-
-      // Are we there yet?
-      if (EquipResult.SUCCESS == node.data.canEquipDirectly(itemToPlace)) {
-        applySolution(node);
-        return; // Yes we are!
-      }
-
-      // Not yet sweetie
-      for (final Location part : partTraversalOrder) {
-        final ConfiguredComponent component = node.data.getComponent(part);
-        for (final Item i : component.getItemsEquipped()) {
-          if (i instanceof Internal) {
-            continue;
-          }
-          final List<Node> branches = getBranches(node, part, i);
-          for (final Node branch : branches) {
-            if (!closed.contains(branch) && !open.contains(branch)) {
-              open.add(branch);
-            }
-          }
-        }
-      }
-      Collections.sort(open); // Greedy search, I need *a* solution, not
-      // the best one.
+    // Greedy search, I need *a* solution, not the best one.
+    final Search search = new Search();
+    final Node solution = search.run();
+    if (solution != null) {
+      applySolution(solution, search.work);
+      return;
     }
 
     if (!quiet) {
@@ -226,7 +486,7 @@ public class CmdAutoAddItem extends CmdLoadoutBase {
     }
   }
 
-  private void applySolution(Node node) {
+  private void applySolution(Node node, Loadout aSolution) {
     final List<Command> ops = new LinkedList<>();
     Node n = node;
     while (n.parent != null) {
@@ -248,10 +508,10 @@ public class CmdAutoAddItem extends CmdLoadoutBase {
       }
       n = n.parent;
     }
-    // Look at the solution node to find which part in the original loadout
-    // the item should be added to.
+    // Look at the solution to find which part in the original loadout the item should be added
+    // to.
     for (final Location part : partTraversalOrder) {
-      final ConfiguredComponent loadoutPart = node.data.getComponent(part);
+      final ConfiguredComponent loadoutPart = aSolution.getComponent(part);
       if (EquipResult.SUCCESS == loadoutPart.canEquip(itemToPlace)) {
         ops.add(new CmdAddItem(messageBuffer, loadout, loadout.getComponent(part), itemToPlace));
         break;
@@ -262,103 +522,6 @@ public class CmdAutoAddItem extends CmdLoadoutBase {
     }
   }
 
-  /**
-   * Get all possible ways to move the given item out of the source part on the node.
-   *
-   * @param aParent The parent {@link Node} that we're branching from.
-   * @param aSourcePart The source part that we shall remove the {@link Item} from.
-   * @param aItem The {@link Item} to be removed.
-   * @return A {@link List} of {@link Node}s with all possible ways to move the item out of the
-   *     given node.
-   */
-  private List<Node> getBranches(Node aParent, Location aSourcePart, Item aItem) {
-    final List<Node> ans = new ArrayList<>();
-
-    // Create a temporary loadout where the item has been removed and find
-    // all
-    // ways it can be placed on another part.
-    final Loadout tempLoadout = loadoutFactory.produceClone(aParent.data);
-    try {
-      stack.pushAndApply(
-          new CmdRemoveItem(null, tempLoadout, tempLoadout.getComponent(aSourcePart), aItem));
-    } catch (final Exception e) {
-      // Item can't be removed? Just skip the branch entirely.
-      return ans;
-    }
-
-    final ConfiguredComponent srcPart = tempLoadout.getComponent(aSourcePart);
-    for (final Location targetPart : Location.values()) {
-      if (aSourcePart == targetPart) {
-        continue;
-      }
-
-      final ConfiguredComponent dstPart = tempLoadout.getComponent(targetPart);
-      if (EquipResult.SUCCESS == dstPart.canEquip(aItem)) {
-        // Don't consider swaps if the item can be directly moved. A
-        // swap will be generated in another point
-        // of the search tree anyway when we move an item from that
-        // component back to this.
-        try {
-          ans.add(new Node(aParent, aSourcePart, targetPart, aItem));
-        } catch (final Exception e) {
-          /*
-           * If creating the node failed for some reason we just skip the branch.
-           */
-        }
-      } else if (dstPart.getInternalComponent().isAllowed(aItem, tempLoadout.getEngine())) {
-        // The part couldn't take the item directly, see if we can swap
-        // with some item in the part.
-        final int minItemSize = aItem.getSlots() - dstPart.getSlotsFree();
-        HardPointType requiredType = aItem.getHardpointType();
-        if (requiredType != HardPointType.NONE
-            && dstPart.getItemsOfHardpointType(requiredType)
-                < dstPart.getHardPointCount(requiredType)) {
-          requiredType = HardPointType.NONE; // There is at least one
-          // free hard point, we
-          // don't need to swap
-          // with a
-          // item of the required
-          // type.
-        }
-        for (final Item item : dstPart.getItemsEquipped()) {
-          // The item has to clear enough room to make our item fit.
-          if (item instanceof HeatSink && dstPart.getEngineHeatSinks() > 0) {
-            continue; // Engine HS will not clear slots...
-          }
-          if (item.getSlots() < minItemSize) {
-            continue;
-          }
-
-          // The item has to free a hard point of the required type if
-          // applicable.
-          if (requiredType != HardPointType.NONE && item.getHardpointType() != requiredType) {
-            continue;
-          }
-          // Skip NOPs
-          if (item == aItem) {
-            continue;
-          }
-
-          // We can't move engine internals
-          if (item instanceof Internal) {
-            continue;
-          }
-
-          if (EquipResult.SUCCESS == srcPart.canEquip(item)) {
-            try {
-              ans.add(new Node(aParent, aSourcePart, targetPart, aItem, item));
-            } catch (final Exception e) {
-              /*
-               * If creating the node failed for some reason we just skip the branch.
-               */
-            }
-          }
-        }
-      }
-    }
-    return ans;
-  }
-
   private List<Location> getPartTraversalOrder() {
     final Location[] partOrder =
         new Location[] {
@@ -35,7 +35,7 @@ import org.lisoft.mwo_data.mechs.Location;
  *
  * @author Li Song
  */
-public class CmdSetArmour implements Command {
+public class CmdSetArmour implements TrustedCommand {
   private final int amount;
   private final ConfiguredComponent component;
   private final Loadout loadout;
@@ -114,6 +114,14 @@ public class CmdSetArmour implements Command {
     }
   }
 
+  @Override
+  public void applyTrusted() {
+    storePreviousState();
+    if (operationHasEffect()) {
+      setValue(amount, manual);
+    }
+  }
+
   /**
    * @see
    *     org.lisoft.lsml.util.CommandStack.Command#canCoalesce(org.lisoft.lsml.util.CommandStack.Command)
@@ -143,6 +151,11 @@ public class CmdSetArmour implements Command {
     return "change armour";
   }
 
+  @Override
+  public Loadout getLoadout() {
+    return loadout;
+  }
+
   @Override
   public void undo() {
     if (oldAmount < 0) {
@@ -155,6 +168,11 @@ public class CmdSetArmour implements Command {
     oldAmount = -1;
   }
 
+  @Override
+  public void undoTrusted() {
+    undo();
+  }
+
   private boolean operationHasEffect() {
     return amount != oldAmount || oldManual != manual;
   }
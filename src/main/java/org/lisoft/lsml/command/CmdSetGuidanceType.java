@@ -37,7 +37,7 @@ import org.lisoft.mwo_data.mechs.UpgradesMutable;
  *
  * @author Li Song
  */
-public class CmdSetGuidanceType extends CompositeCommand {
+public class CmdSetGuidanceType extends CompositeCommand implements TrustedCommand {
   private final Loadout loadout;
   private final GuidanceUpgrade newValue;
   private final GuidanceUpgrade oldValue;
@@ -76,6 +76,24 @@ public class CmdSetGuidanceType extends CompositeCommand {
     newValue = aGuidanceUpgrade;
   }
 
+  /**
+   * Changes the upgrade directly, this is only allowed while there are no missile weapons or ammo
+   * equipped that would have to be swapped for the new guidance type.
+   */
+  @Override
+  public void applyTrusted() {
+    if (oldValue != newValue) {
+      for (final ConfiguredComponent component : loadout.getComponents()) {
+        for (final Item item : component.getItemsEquipped()) {
+          if (item instanceof MissileWeapon || item instanceof Ammunition) {
+            throw new IllegalStateException("Missile weapons must be swapped to the new guidance.");
+          }
+        }
+      }
+    }
+    upgrades.setGuidance(newValue);
+  }
+
   @Override
   public void buildCommand() throws EquipException {
     if (loadout != null) {
@@ -144,4 +162,14 @@ public class CmdSetGuidanceType extends CompositeCommand {
       }
     }
   }
+
+  @Override
+  public Loadout getLoadout() {
+    return loadout;
+  }
+
+  @Override
+  public void undoTrusted() {
+    upgrades.setGuidance(oldValue);
+  }
 }
@@ -34,7 +34,7 @@ import org.lisoft.mwo_data.mechs.UpgradesMutable;
  *
  * @author Li Song
  */
-public class CmdSetHeatSinkType extends CompositeCommand {
+public class CmdSetHeatSinkType extends CompositeCommand implements TrustedCommand {
   private final LoadoutStandard loadout;
   private final HeatSinkUpgrade newValue;
   private final HeatSinkUpgrade oldValue;
@@ -81,6 +81,24 @@ public class CmdSetHeatSinkType extends CompositeCommand {
     super.apply();
   }
 
+  /**
+   * Changes the upgrade directly, this is only allowed while there are no heat sinks equipped that
+   * would have to be swapped for the new type.
+   */
+  @Override
+  public void applyTrusted() {
+    if (oldValue != newValue) {
+      for (final ConfiguredComponent component : loadout.getComponents()) {
+        for (final Item item : component.getItemsEquipped()) {
+          if (item instanceof HeatSink) {
+            throw new IllegalStateException("Heat sinks must be swapped to the new type.");
+          }
+        }
+      }
+    }
+    upgrades.setHeatSink(newValue);
+  }
+
   @Override
   public void buildCommand() {
     if (oldValue != newValue) {
@@ -137,12 +155,22 @@ public class CmdSetHeatSinkType extends CompositeCommand {
     }
   }
 
+  @Override
+  public LoadoutStandard getLoadout() {
+    return loadout;
+  }
+
   @Override
   public void undo() {
     set(oldValue);
     super.undo();
   }
 
+  @Override
+  public void undoTrusted() {
+    upgrades.setHeatSink(oldValue);
+  }
+
   protected void set(HeatSinkUpgrade aValue) {
     if (aValue != upgrades.getHeatSink()) {
       upgrades.setHeatSink(aValue);
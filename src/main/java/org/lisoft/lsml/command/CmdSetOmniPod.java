@@ -35,7 +35,7 @@ import org.lisoft.mwo_data.mechs.OmniPod;
  *
  * @author Li Song
  */
-public class CmdSetOmniPod extends CompositeCommand {
+public class CmdSetOmniPod extends CompositeCommand implements TrustedCommand {
 
   private final ConfiguredComponentOmniMech component;
   private final LoadoutOmniMech loadout;
@@ -67,6 +67,26 @@ public class CmdSetOmniPod extends CompositeCommand {
     loadout = aLoadout;
   }
 
+  /**
+   * Changes the {@link OmniPod} directly. This is only allowed while the component is empty and
+   * the loadout has no jump jets, as then there are no items to remove.
+   */
+  @Override
+  public void applyTrusted() {
+    if (!component.getItemsEquipped().isEmpty()) {
+      throw new IllegalStateException("Items must be removed before changing the omnipod.");
+    }
+    for (final ConfiguredComponent configuredComponent : loadout.getComponents()) {
+      for (final Item item : configuredComponent.getItemsEquipped()) {
+        if (item instanceof JumpJet) {
+          throw new IllegalStateException("Jump jets must be removed before changing the omnipod.");
+        }
+      }
+    }
+    oldOmniPod = component.getOmniPod();
+    loadout.setOmniPod(newOmniPod);
+  }
+
   @Override
   public void buildCommand() {
     oldOmniPod = component.getOmniPod();
@@ -111,4 +131,14 @@ public class CmdSetOmniPod extends CompositeCommand {
           }
         });
   }
+
+  @Override
+  public LoadoutOmniMech getLoadout() {
+    return loadout;
+  }
+
+  @Override
+  public void undoTrusted() {
+    loadout.setOmniPod(oldOmniPod);
+  }
 }
@@ -34,7 +34,7 @@ import org.lisoft.mwo_data.mechs.UpgradesMutable;
  *
  * @author Li Song
  */
-public class CmdSetStructureType extends CmdUpgradeBase {
+public class CmdSetStructureType extends CmdUpgradeBase implements TrustedCommand {
   private final LoadoutStandard loadout;
   private final StructureUpgrade newValue;
   private final StructureUpgrade oldValue;
@@ -80,6 +80,16 @@ public class CmdSetStructureType extends CmdUpgradeBase {
     set(newValue);
   }
 
+  @Override
+  public void applyTrusted() {
+    upgrades.setStructure(newValue);
+  }
+
+  @Override
+  public LoadoutStandard getLoadout() {
+    return loadout;
+  }
+
   @Override
   public void undo() {
     try {
@@ -89,6 +99,11 @@ public class CmdSetStructureType extends CmdUpgradeBase {
     }
   }
 
+  @Override
+  public void undoTrusted() {
+    upgrades.setStructure(oldValue);
+  }
+
   protected void set(StructureUpgrade aValue) throws EquipException {
     if (aValue != upgrades.getStructure()) {
       final StructureUpgrade old = upgrades.getStructure();
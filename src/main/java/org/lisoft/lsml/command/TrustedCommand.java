@@ -0,0 +1,52 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.command;
+
+import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutBuilder;
+import org.lisoft.lsml.util.CommandStack.Command;
+
+/**
+ * A {@link Command} that can also be applied to a loadout without checking any of the loadout
+ * invariants.
+ *
+ * <p>This is used by {@link LoadoutBuilder} to quickly materialise loadouts that are expected to be
+ * valid, like when decoding links or loading the garage. The builder validates the whole loadout
+ * once all commands have been applied and falls back to {@link #apply()} on failure, so the
+ * trusted path must produce exactly the same loadout as {@link #apply()} would for a valid loadout.
+ *
+ * @author Li Song
+ */
+public interface TrustedCommand extends Command {
+  /**
+   * Applies this command without verifying any loadout invariants and without the warnings that
+   * {@link #apply()} may issue.
+   *
+   * @throws IllegalStateException If the command can't be applied directly in the current state of
+   *     the loadout, the caller must then use {@link #apply()} instead.
+   */
+  void applyTrusted();
+
+  /**
+   * @return The {@link Loadout} that this command changes.
+   */
+  Loadout getLoadout();
+
+  /** Undoes a previous call to {@link #applyTrusted()}. */
+  void undoTrusted();
+}
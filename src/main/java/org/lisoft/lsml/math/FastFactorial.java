@@ -11,7 +11,7 @@ public class FastFactorial {
         cache.add(BigInteger.valueOf(1));
     }
 
-    public static BigInteger factorial(int n) {
+    public static synchronized BigInteger factorial(int n) {
         while (cache.size() <= n) {
             int s = cache.size();
             cache.add(cache.get(s - 1).multiply(BigInteger.valueOf(s)));
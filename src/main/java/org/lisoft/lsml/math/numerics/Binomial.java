@@ -0,0 +1,137 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.math.numerics;
+
+import static java.lang.Math.*;
+
+/**
+ * Computes probabilities of the binomial distribution in double precision for any number of
+ * trials.
+ *
+ * <p>The probability mass function is evaluated in log space with Loader's saddle point expansion
+ * (C. Loader, "Fast and Accurate Computation of Binomial Probabilities", 2000). This avoids both
+ * the overflow of the binomial coefficient and the underflow of the powers for large numbers of
+ * trials. The large terms of the logarithm cancel analytically instead of numerically, and the
+ * probability of failure is taken to be exactly 1 - p, which keeps the result accurate to a few
+ * ulp.
+ *
+ * @author Li Song
+ */
+public final class Binomial {
+  private static final double LN_2PI = 2 * LogGamma.LN_SQRT_2PI;
+
+  private Binomial() {
+    // Utility class
+  }
+
+  /**
+   * @param aK The number of successes.
+   * @param aN The number of trials, non-negative.
+   * @param aP The probability of success in each trial.
+   * @return The natural logarithm of the probability of exactly k successes in n trials.
+   */
+  public static double logPmf(int aK, int aN, double aP) {
+    if (aK < 0 || aK > aN) {
+      return Double.NEGATIVE_INFINITY;
+    }
+    if (aP == 0.0) {
+      return aK == 0 ? 0.0 : Double.NEGATIVE_INFINITY;
+    }
+    if (aP == 1.0) {
+      return aK == aN ? 0.0 : Double.NEGATIVE_INFINITY;
+    }
+    if (aK == 0) {
+      return aN * log1p(-aP);
+    }
+    if (aK == aN) {
+      return aN * log(aP);
+    }
+    final double lf = LN_2PI + log(aK) + log1p(-(double) aK / aN);
+    return saddlePoint(aK, aN, aP) - 0.5 * lf;
+  }
+
+  /**
+   * @param aK The number of successes.
+   * @param aN The number of trials, non-negative.
+   * @param aP The probability of success in each trial.
+   * @return The probability of exactly k successes in n trials.
+   */
+  public static double pmf(int aK, int aN, double aP) {
+    if (aK < 0 || aK > aN) {
+      return 0.0;
+    }
+    if (aP == 0.0) {
+      return aK == 0 ? 1.0 : 0.0;
+    }
+    if (aP == 1.0) {
+      return aK == aN ? 1.0 : 0.0;
+    }
+    if (aK == 0) {
+      // A single trial is 1 - p rounded once, which is what callers expect.
+      return aN == 1 ? 1.0 - aP : exp(aN * log1p(-aP));
+    }
+    if (aK == aN) {
+      return pow(aP, aN);
+    }
+    final double k = aK;
+    final double n = aN;
+    return exp(saddlePoint(k, n, aP)) * sqrt(n / (2 * PI * k * (n - k)));
+  }
+
+  /**
+   * Computes x ln(x/np) + np - x without cancellation when x is close to np.
+   *
+   * @param aX The observed value, x.
+   * @param aDiff The difference x - np.
+   * @param aSum The sum x + np.
+   * @param aLogRatio The logarithm ln(x/np).
+   * @return The deviance term of the saddle point expansion.
+   */
+  private static double deviance(double aX, double aDiff, double aSum, double aLogRatio) {
+    if (abs(aDiff) < 0.1 * aSum) {
+      double v = aDiff / aSum;
+      double s = aDiff * v;
+      double ej = 2 * aX * v;
+      v = v * v;
+      for (int j = 1; j < 1000; ++j) {
+        ej *= v;
+        final double s1 = s + ej / (2 * j + 1);
+        if (s1 == s) {
+          return s1;
+        }
+        s = s1;
+      }
+    }
+    return aX * aLogRatio - aDiff;
+  }
+
+  /**
+   * The Stirling errors and deviances of the saddle point expansion for 0 &lt; k &lt; n and 0
+   * &lt; p &lt; 1. The differences x - np of both deviances are evaluated with a single rounding
+   * and with q = 1 - p, so that the probabilities of all outcomes sum to one as closely as
+   * possible.
+   */
+  private static double saddlePoint(double aK, double aN, double aP) {
+    final double nk = aN - aK;
+    return LogGamma.stirlingError(aN)
+        - LogGamma.stirlingError(aK)
+        - LogGamma.stirlingError(nk)
+        - deviance(aK, -fma(aN, aP, -aK), fma(aN, aP, aK), log(aK / (aN * aP)))
+        - deviance(nk, fma(aN, aP, -aK), fma(-aN, aP, aN + nk), log1p(-aK / aN) - log1p(-aP));
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.math.numerics;
+
+/**
+ * Accumulates a sum of many floating point values with Neumaier's variant of Kahan summation. The
+ * rounding error of each addition is carried in a separate compensation term, which makes the
+ * result as accurate as summing in twice the precision regardless of the order of the values.
+ *
+ * <p>This replaces the approach of summing values from smallest to largest, which needs the values
+ * to be sorted, or boxed in a priority queue.
+ *
+ * @author Li Song
+ */
+public class CompensatedSum {
+  private double compensation = 0.0;
+  private double sum = 0.0;
+
+  /**
+   * @param aValues The values to sum.
+   * @return The compensated sum of the values.
+   */
+  public static double sum(double[] aValues) {
+    return sum(aValues, 0, aValues.length);
+  }
+
+  /**
+   * @param aValues An array of the values to sum.
+   * @param aFrom The index of the first value to sum, inclusive.
+   * @param aTo The index of the last value to sum, exclusive.
+   * @return The compensated sum of the values in the range.
+   */
+  public static double sum(double[] aValues, int aFrom, int aTo) {
+    final CompensatedSum ans = new CompensatedSum();
+    for (int i = aFrom; i < aTo; ++i) {
+      ans.add(aValues[i]);
+    }
+    return ans.value();
+  }
+
+  /**
+   * Adds a value to the sum.
+   *
+   * @param aValue The value to add.
+   */
+  public void add(double aValue) {
+    final double t = sum + aValue;
+    if (Math.abs(sum) >= Math.abs(aValue)) {
+      compensation += (sum - t) + aValue;
+    } else {
+      compensation += (aValue - t) + sum;
+    }
+    sum = t;
+  }
+
+  /** Resets the sum to zero. */
+  public void clear() {
+    sum = 0.0;
+    compensation = 0.0;
+  }
+
+  /**
+   * @return The sum of all values added so far.
+   */
+  public double value() {
+    return sum + compensation;
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.math.numerics;
+
+/**
+ * Logarithms of the gamma function and factorials, for computing probabilities of events with
+ * huge numbers of combinations without overflowing or resorting to big numbers.
+ *
+ * <p>The logarithms of the factorials that are most commonly needed are computed once into a
+ * table when the class is loaded. The table is never modified after that, so it is safe to use
+ * from any thread.
+ *
+ * @author Li Song
+ */
+public final class LogGamma {
+  /** ln(sqrt(2*pi)) */
+  static final double LN_SQRT_2PI = 0.9189385332046728;
+
+  private static final double[] LOG_FACTORIALS = new double[1024];
+
+  /**
+   * The exact values of {@link #stirlingError(double)} for n=0..15 where the series doesn't
+   * converge quickly enough.
+   */
+  private static final double[] STIRLING_ERRORS = {
+    0.0,
+    0.08106146679532726,
+    0.0413406959554093,
+    0.02767792568499834,
+    0.020790672103765093,
+    0.016644691189821193,
+    0.013876128823070748,
+    0.01189670994589177,
+    0.010411265261972096,
+    0.009255462182712733,
+    0.00833056343336287,
+    0.007573675487951841,
+    0.00694284010720953,
+    0.006408994188004207,
+    0.0059513701127588475,
+    0.005554733551962801
+  };
+
+  private static final double S0 = 1.0 / 12;
+  private static final double S1 = 1.0 / 360;
+  private static final double S2 = 1.0 / 1260;
+  private static final double S3 = 1.0 / 1680;
+  private static final double S4 = 1.0 / 1188;
+
+  static {
+    final CompensatedSum sum = new CompensatedSum();
+    LOG_FACTORIALS[0] = 0.0;
+    for (int i = 1; i < LOG_FACTORIALS.length; ++i) {
+      sum.add(Math.log(i));
+      LOG_FACTORIALS[i] = sum.value();
+    }
+  }
+
+  private LogGamma() {
+    // Utility class
+  }
+
+  /**
+   * @param aN The number of elements to choose from, non-negative.
+   * @param aK The number of elements to choose.
+   * @return The natural logarithm of the binomial coefficient (n choose k), or negative infinity if
+   *     k is outside of [0, n].
+   */
+  public static double logChoose(int aN, int aK) {
+    if (aK < 0 || aK > aN) {
+      return Double.NEGATIVE_INFINITY;
+    }
+    return logFactorial(aN) - logFactorial(aK) - logFactorial(aN - aK);
+  }
+
+  /**
+   * @param aN The number to compute the factorial of, non-negative.
+   * @return The natural logarithm of n!.
+   */
+  public static double logFactorial(int aN) {
+    if (aN < 0) {
+      throw new IllegalArgumentException("Factorial of negative number: " + aN);
+    }
+    if (aN < LOG_FACTORIALS.length) {
+      return LOG_FACTORIALS[aN];
+    }
+    return (aN + 0.5) * Math.log(aN) - aN + LN_SQRT_2PI + stirlingError(aN);
+  }
+
+  /**
+   * Computes the natural logarithm of the gamma function using Stirling's series, after shifting
+   * the argument up with the recurrence relation for small arguments.
+   *
+   * @param aX The argument, must be positive.
+   * @return ln(gamma(x)).
+   */
+  public static double logGamma(double aX) {
+    if (!(aX > 0.0)) {
+      throw new IllegalArgumentException("Log gamma is only supported for positive arguments!");
+    }
+    double x = aX;
+    double shift = 0.0;
+    while (x < 16.0) {
+      shift += Math.log(x);
+      x += 1.0;
+    }
+    final double z = x - 1.0;
+    return (z + 0.5) * Math.log(z) - z + LN_SQRT_2PI + stirlingError(z) - shift;
+  }
+
+  /**
+   * The error of Stirling's approximation: ln(n!) - [(n + 1/2) ln(n) - n + ln(sqrt(2*pi))]. This
+   * is small, and computing it directly avoids the cancellation of the large terms in the
+   * difference.
+   *
+   * @param aN The argument, either an integer in [0, 15] or larger than 15.
+   * @return The error of Stirling's approximation of ln(n!).
+   */
+  static double stirlingError(double aN) {
+    if (aN <= 15.0) {
+      final int n = (int) aN;
+      if (n != aN) {
+        throw new IllegalArgumentException("Only integers are supported below 15: " + aN);
+      }
+      return STIRLING_ERRORS[n];
+    }
+    final double nn = aN * aN;
+    if (aN > 500) {
+      return (S0 - S1 / nn) / aN;
+    }
+    if (aN > 80) {
+      return (S0 - (S1 - S2 / nn) / nn) / aN;
+    }
+    if (aN > 35) {
+      return (S0 - (S1 - (S2 - S3 / nn) / nn) / nn) / aN;
+    }
+    return (S0 - (S1 - (S2 - (S3 - S4 / nn) / nn) / nn) / nn) / aN;
+  }
+}
@@ -19,8 +19,9 @@ package org.lisoft.lsml.math.probability;
 
 import static org.lisoft.lsml.math.FastFactorial.factorial;
 
-import java.math.BigDecimal;
 import java.math.BigInteger;
+import org.lisoft.lsml.math.numerics.Binomial;
+import org.lisoft.lsml.math.numerics.CompensatedSum;
 
 /**
  * This class models a binomial distribution
@@ -55,25 +56,25 @@ public class BinomialDistribution implements Distribution {
   }
 
   public static double pdf(int aK, int aN, double aP) {
-    BigDecimal Pk = BigDecimal.valueOf(aP).pow(aK);
-    BigDecimal PnotK = BigDecimal.valueOf(1.0 - aP).pow(aN - aK);
-    BigDecimal permutations = new BigDecimal(nChooseKLargeNumbers(aN, aK));
-    return permutations.multiply(Pk).multiply(PnotK).doubleValue();
+    return Binomial.pmf(aK, aN, aP);
   }
 
   @Override
   public double cdf(double aX) {
-    double ans = 0;
+    final CompensatedSum ans = new CompensatedSum();
     final long k = (long) (aX + Math.ulp(aX)); // Accept anything within truncation error of k as k.
     for (int i = 0; i <= k; ++i) {
-      ans += pdf(i);
+      ans.add(pdf(i));
     }
-    return ans;
+    return ans.value();
   }
 
   @Override
   public double pdf(double aX) {
-    long k = Math.round(aX);
-    return nChooseK(n, k) * Math.pow(p, k) * Math.pow(1.0 - p, n - k);
+    final long k = Math.round(aX);
+    if (k < 0 || k > n) {
+      return 0.0;
+    }
+    return Binomial.pmf((int) k, n, p);
   }
 }
@@ -0,0 +1,88 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.messages;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import org.lisoft.lsml.model.loadout.Loadout;
+
+/**
+ * A summary of several messages that were posted in quick succession, for example by a {@link
+ * org.lisoft.lsml.util.CommandStack.CompositeCommand}. It's delivered by a {@link MessageCoalescer}
+ * in place of the individual messages.
+ *
+ * @author Li Song
+ */
+public class CoalescedMessage implements Message {
+  private final List<Message> messages;
+
+  /**
+   * Creates a new summary of the given messages.
+   *
+   * @param aMessages The messages to summarise, in the order they were posted.
+   */
+  public CoalescedMessage(List<Message> aMessages) {
+    messages = Collections.unmodifiableList(aMessages);
+  }
+
+  /**
+   * Tests a message against a filter, testing each of the summarised messages if the message is a
+   * {@link CoalescedMessage}.
+   *
+   * @param aMsg The message to test.
+   * @param aFilter The filter to test with, written for individual messages.
+   * @return <code>true</code> if the filter accepts the message or any of the summarised messages.
+   */
+  public static boolean matches(Message aMsg, Predicate<Message> aFilter) {
+    if (aMsg instanceof final CoalescedMessage coalesced) {
+      return coalesced.messages.stream().anyMatch(aFilter);
+    }
+    return aFilter.test(aMsg);
+  }
+
+  @Override
+  public boolean affectsHeatOrDamage() {
+    return messages.stream().anyMatch(Message::affectsHeatOrDamage);
+  }
+
+  /**
+   * @param aType The type of message to look for, for example {@link ArmourMessage}.
+   * @return <code>true</code> if any of the summarised messages is of the given type.
+   */
+  public boolean contains(Class<? extends Message> aType) {
+    return messages.stream().anyMatch(aType::isInstance);
+  }
+
+  /**
+   * @return The summarised messages, in the order they were posted.
+   */
+  public List<Message> getMessages() {
+    return messages;
+  }
+
+  @Override
+  public boolean isForMe(Loadout aLoadout) {
+    return messages.stream().anyMatch(aMsg -> aMsg.isForMe(aLoadout));
+  }
+
+  @Override
+  public String toString() {
+    return "Coalesced" + messages;
+  }
+}
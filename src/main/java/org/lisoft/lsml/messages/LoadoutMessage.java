@@ -78,6 +78,13 @@ public class LoadoutMessage implements Message {
         return result;
     }
 
+    /**
+     * @return The {@link Loadout} this message is for, or <code>null</code> if it is for all loadouts.
+     */
+    public Loadout getLoadout() {
+        return loadout;
+    }
+
     @Override
     public boolean isForMe(Loadout aLoadout) {
         return loadout == null || loadout == aLoadout;
@@ -0,0 +1,99 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.messages;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Collapses bursts of messages from a {@link MessageReception} into a single delivery.
+ *
+ * <p>Messages received are buffered and a flush is scheduled on the given {@link Executor}, for
+ * example <code>Platform::runLater</code>. When the flush runs, every receiver attached to this
+ * object receives the buffered messages as one {@link CoalescedMessage}, or the message itself if
+ * only one was buffered. Receivers that only invalidate a cached value, like bindings, are then
+ * invalidated and recomputed once per burst instead of once per message. Receivers should use
+ * {@link CoalescedMessage#matches(Message, java.util.function.Predicate)} to apply their message
+ * filters.
+ *
+ * <p>This class is not thread safe, the executor is expected to run the flush on the same thread as
+ * the messages are posted on.
+ *
+ * @author Li Song
+ */
+public class MessageCoalescer implements MessageReception, MessageReceiver {
+  private final Executor executor;
+  private final List<WeakReference<MessageReceiver>> readers = new ArrayList<>();
+  private List<Message> pending = new ArrayList<>();
+
+  /**
+   * Creates a new {@link MessageCoalescer}.
+   *
+   * @param aSource The {@link MessageReception} to receive the messages to coalesce from.
+   * @param aExecutor The {@link Executor} to run the deferred deliveries on.
+   */
+  public MessageCoalescer(MessageReception aSource, Executor aExecutor) {
+    executor = aExecutor;
+    aSource.attach(this);
+  }
+
+  @Override
+  public void attach(MessageReceiver aReader) {
+    attach(new WeakReference<>(aReader));
+  }
+
+  @Override
+  public void attach(WeakReference<MessageReceiver> aWeakReference) {
+    readers.add(aWeakReference);
+  }
+
+  @Override
+  public void detach(MessageReceiver aReader) {
+    readers.removeIf(ref -> ref.get() == aReader);
+  }
+
+  /** Delivers all buffered messages immediately, does nothing if no messages are buffered. */
+  public void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    final List<Message> messages = pending;
+    pending = new ArrayList<>();
+    final Message message =
+        messages.size() == 1 ? messages.get(0) : new CoalescedMessage(messages);
+
+    for (final WeakReference<MessageReceiver> ref : new ArrayList<>(readers)) {
+      final MessageReceiver reader = ref.get();
+      if (reader == null) {
+        readers.remove(ref);
+      } else {
+        reader.receive(message);
+      }
+    }
+  }
+
+  @Override
+  public void receive(Message aMsg) {
+    pending.add(aMsg);
+    if (pending.size() == 1) {
+      executor.execute(this::flush);
+    }
+  }
+}
@@ -17,6 +17,8 @@
  */
 package org.lisoft.lsml.model;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import org.lisoft.mwo_data.Database;
 
@@ -33,8 +35,8 @@ public abstract class AbstractDatabaseProvider implements DatabaseProvider {
   }
 
   protected Database getBundled() {
-    try (InputStream is = getClass().getResourceAsStream("/database.xml")) {
-      final Database database = Database.readFromStream(is);
+    try {
+      final Database database = readBundled();
       final String version = database.getVersion();
       if (version == null || !version.equals(currentVersion)) {
         throw new RuntimeException(
@@ -49,4 +51,23 @@ public abstract class AbstractDatabaseProvider implements DatabaseProvider {
           "Unable to load bundled database! This is a bug, please report it.", t);
     }
   }
+
+  /**
+   * Reads the bundled binary snapshot if there is one, the bundled XML database otherwise.
+   *
+   * @return The bundled {@link Database}.
+   * @throws IOException if the bundled database couldn't be read.
+   */
+  private Database readBundled() throws IOException {
+    try (InputStream is = getClass().getResourceAsStream("/database.bin")) {
+      if (null != is) {
+        return Database.readSnapshot(new BufferedInputStream(is));
+      }
+    } catch (final IOException e) {
+      // Stale or corrupt snapshot, fall back to the XML database.
+    }
+    try (InputStream is = getClass().getResourceAsStream("/database.xml")) {
+      return Database.readFromStream(is);
+    }
+  }
 }
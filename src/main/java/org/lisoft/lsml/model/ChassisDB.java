@@ -40,6 +40,9 @@ public class ChassisDB {
    * A decision has been made to rely on static initializers for *DB classes. The motivation is that
    * all items are immutable, and this is the only way that allows providing global item constants
    * such as ItemDB.AMS.
+   *
+   * The maps may be read concurrently, see ItemDB for why that is safe. Anything returned must not
+   * expose the maps to writes.
    */
   static {
     final Database database = LiSongMechLab.getDatabase();
@@ -109,7 +112,7 @@ public class ChassisDB {
   }
 
   public static Collection<Chassis> lookupAll() {
-    return id2chassis.values();
+    return Collections.unmodifiableCollection(id2chassis.values());
   }
 
   /**
@@ -123,7 +126,7 @@ public class ChassisDB {
     if (!series2chassis.containsKey(keyShortName)) {
       throw new IllegalArgumentException("No chassis variation by that name!");
     }
-    return series2chassis.get(keyShortName);
+    return Collections.unmodifiableList(series2chassis.get(keyShortName));
   }
 
   /**
@@ -131,7 +134,8 @@ public class ChassisDB {
    * @return A {@link List} of all variants of this chassis (normal, champion, phoenix etc)
    */
   public static Collection<Chassis> lookupVariations(Chassis aChassis) {
-    return chassis2variant.get(aChassis.getId());
+    final List<Chassis> variations = chassis2variant.get(aChassis.getId());
+    return null == variations ? null : Collections.unmodifiableList(variations);
   }
 
   private static void addToVariationDb(int aBaseID, Chassis aChassis) {
@@ -59,6 +59,10 @@ public class ItemDB {
    * A decision has been made to rely on static initializers for *DB classes. The motivation is that
    * all items are immutable, and this is the only way that allows providing global item constants
    * such as ItemDB.AMS.
+   *
+   * The maps are only ever written here. Class initialisation happens-before any use of the class
+   * from any thread, so the maps may be read concurrently without synchronisation (for example by
+   * the parallel BatchImportExporter). Anything returned must not expose the maps to writes.
    */
   static {
     final Database database = LiSongMechLab.getDatabase();
@@ -32,6 +32,7 @@ import org.lisoft.mwo_data.mechs.StockLoadout.StockComponent;
 public class OmniPodDB {
   private static final Map<String, OmniPod> chassisLocation2stock;
   private static final Map<Integer, OmniPod> id2pod;
+  private static final Map<String, OmniPodFrontier> series2frontier;
   private static final Map<String, List<OmniPod>> series2pod;
 
   /*
@@ -50,6 +51,18 @@ public class OmniPodDB {
       id2pod.put(omniPod.getId(), omniPod);
     }
 
+    // The CT pod is fixed on all omnimechs so it isn't part of the selectable frontier.
+    series2frontier = new HashMap<>();
+    for (final String series : series2pod.keySet()) {
+      final Map<Location, List<OmniPod>> allowedPods = new EnumMap<>(Location.class);
+      for (final Location location : Location.values()) {
+        if (location != Location.CenterTorso) {
+          allowedPods.put(location, lookup(series, location));
+        }
+      }
+      series2frontier.put(series, new OmniPodFrontier(allowedPods));
+    }
+
     chassisLocation2stock = new HashMap<>();
     for (final StockLoadout stock : StockLoadoutDB.all()) {
       for (final StockComponent comp : stock.getComponents()) {
@@ -110,6 +123,15 @@ public class OmniPodDB {
     return ans;
   }
 
+  /**
+   * @param aChassis A chassis to get the hard point frontier for.
+   * @return The {@link OmniPodFrontier} of all pods, except the fixed centre torso, that are
+   *     compatible with the series of the given chassis.
+   */
+  public static OmniPodFrontier lookupFrontier(ChassisOmniMech aChassis) {
+    return series2frontier.get(canonize(aChassis.getSeriesName()));
+  }
+
   public static Optional<OmniPod> lookupStock(ChassisOmniMech aChassis, Location aLocation) {
     return Optional.ofNullable(chassisLocation2stock.get(chassisLocationOf(aChassis, aLocation)));
   }
@@ -0,0 +1,176 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.model;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.lisoft.mwo_data.mechs.HardPointType;
+import org.lisoft.mwo_data.mechs.Location;
+import org.lisoft.mwo_data.mechs.OmniPod;
+
+/**
+ * The Pareto frontier of all hard point combinations that can be achieved by selecting one {@link
+ * OmniPod} per location from a set of allowed pods.
+ *
+ * <p>Each point on the frontier is a vector of the number of energy, missile and ballistic hard
+ * points, jump jets and ECM hard points, together with a pod selection that realises it. No point
+ * is dominated by another, so a requirement can be met if and only if some point on the frontier
+ * is at least as large as the requirement in every dimension. This reduces the search over all pod
+ * combinations to a scan over a handful of points.
+ *
+ * <p>Instances are immutable and may be shared between threads.
+ *
+ * @author Li Song
+ */
+public class OmniPodFrontier {
+  private static final int BALLISTIC = 2;
+  private static final int DIMENSIONS = 5;
+  private static final int ECM = 4;
+  private static final int ENERGY = 0;
+  private static final int JUMP_JETS = 3;
+  private static final int MISSILE = 1;
+  private final Location[] locations;
+  private final int[][] points;
+  private final OmniPod[][] selections;
+
+  /**
+   * Computes the frontier for the given allowed pods.
+   *
+   * @param aAllowedPods The pods that may be selected for each location. Locations that are missing
+   *     or have no pods do not contribute to the frontier.
+   */
+  public OmniPodFrontier(Map<Location, List<OmniPod>> aAllowedPods) {
+    final List<Location> used = new ArrayList<>();
+    for (final Location location : Location.values()) {
+      final List<OmniPod> pods = aAllowedPods.get(location);
+      if (null != pods && !pods.isEmpty()) {
+        used.add(location);
+      }
+    }
+    locations = used.toArray(new Location[0]);
+
+    List<int[]> frontierPoints = new ArrayList<>();
+    List<OmniPod[]> frontierSelections = new ArrayList<>();
+    frontierPoints.add(new int[DIMENSIONS]);
+    frontierSelections.add(new OmniPod[locations.length]);
+
+    for (int i = 0; i < locations.length; ++i) {
+      final List<OmniPod> pods = aAllowedPods.get(locations[i]);
+      final List<int[]> nextPoints = new ArrayList<>();
+      final List<OmniPod[]> nextSelections = new ArrayList<>();
+      for (int p = 0; p < frontierPoints.size(); ++p) {
+        for (final OmniPod pod : pods) {
+          final int[] point = frontierPoints.get(p).clone();
+          point[ENERGY] += pod.getHardPointCount(HardPointType.ENERGY);
+          point[MISSILE] += pod.getHardPointCount(HardPointType.MISSILE);
+          point[BALLISTIC] += pod.getHardPointCount(HardPointType.BALLISTIC);
+          point[JUMP_JETS] += pod.getJumpJetsMax();
+          // More than one ECM is never asked for, capping it keeps the frontier small.
+          point[ECM] = Math.min(1, point[ECM] + pod.getHardPointCount(HardPointType.ECM));
+
+          if (insertIfNotDominated(nextPoints, nextSelections, point)) {
+            final OmniPod[] selection = frontierSelections.get(p).clone();
+            selection[i] = pod;
+            nextSelections.add(selection);
+          }
+        }
+      }
+      frontierPoints = nextPoints;
+      frontierSelections = nextSelections;
+    }
+
+    points = frontierPoints.toArray(new int[0][]);
+    selections = frontierSelections.toArray(new OmniPod[0][]);
+  }
+
+  /**
+   * Adds the point to the frontier unless it is dominated by (or equal to) a point already on it.
+   * Points that are dominated by the new point are removed together with their selections. The
+   * caller must add the selection for the new point if this returns <code>true</code>.
+   */
+  private static boolean insertIfNotDominated(
+      List<int[]> aPoints, List<OmniPod[]> aSelections, int[] aPoint) {
+    for (final int[] existing : aPoints) {
+      if (dominates(existing, aPoint)) {
+        return false;
+      }
+    }
+    for (int i = aPoints.size() - 1; i >= 0; --i) {
+      if (dominates(aPoint, aPoints.get(i))) {
+        aPoints.remove(i);
+        aSelections.remove(i);
+      }
+    }
+    aPoints.add(aPoint);
+    return true;
+  }
+
+  private static boolean dominates(int[] aLhs, int[] aRhs) {
+    for (int d = 0; d < DIMENSIONS; ++d) {
+      if (aLhs[d] < aRhs[d]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Finds a pod selection that gives at least the given number of hard points and jump jets.
+   *
+   * @param aWantedEnergy The number of wanted energy hard points.
+   * @param aWantedMissile The number of wanted missile hard points.
+   * @param aWantedBallistic The number of wanted ballistics hard points.
+   * @param aWantedJumpJet The number of wanted jump jets.
+   * @param aWantEcm Whether or not ECM is wanted.
+   * @return A map with one {@link OmniPod} for every location that has allowed pods, or an empty
+   *     {@link Optional} if the requirements can't be met.
+   */
+  public Optional<Map<Location, OmniPod>> select(
+      int aWantedEnergy,
+      int aWantedMissile,
+      int aWantedBallistic,
+      int aWantedJumpJet,
+      boolean aWantEcm) {
+    final int wantedEcm = aWantEcm ? 1 : 0;
+    for (int i = 0; i < points.length; ++i) {
+      final int[] point = points[i];
+      if (point[ENERGY] >= aWantedEnergy
+          && point[MISSILE] >= aWantedMissile
+          && point[BALLISTIC] >= aWantedBallistic
+          && point[JUMP_JETS] >= aWantedJumpJet
+          && point[ECM] >= wantedEcm) {
+        final Map<Location, OmniPod> ans = new EnumMap<>(Location.class);
+        for (int l = 0; l < locations.length; ++l) {
+          ans.put(locations[l], selections[i][l]);
+        }
+        return Optional.of(ans);
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * @return The number of points on the frontier.
+   */
+  public int size() {
+    return points.length;
+  }
+}
@@ -230,6 +230,38 @@ public class OmniPodSelector {
     // NOP
   }
 
+  /**
+   * Finds any selection of {@link OmniPod}s that satisfies the given requirements by a look up in
+   * the precomputed {@link OmniPodFrontier} of the chassis series. This is much faster than {@link
+   * #selectPods(ChassisOmniMech, int, int, int, int, boolean)} but the selection found may differ.
+   *
+   * @param aChassis The chassis to select pods for.
+   * @param aWantedEnergy The number of wanted energy hard points.
+   * @param aWantedMissile The number of wanted missile hard points.
+   * @param aWantedBallistic The number of wanted ballistics hard points.
+   * @param aWantedJumpJet The number of wanted jump jets.
+   * @param aWantEcm Whether or not ECM is wanted.
+   * @return A map with a pod for every location except the centre torso, or an empty {@link
+   *     Optional} if the requirements can't be met.
+   */
+  public Optional<Map<Location, OmniPod>> selectAnyPods(
+      ChassisOmniMech aChassis,
+      int aWantedEnergy,
+      int aWantedMissile,
+      int aWantedBallistic,
+      int aWantedJumpJet,
+      boolean aWantEcm) {
+    // Discount hard points in the CT
+    final OmniPod ct = aChassis.getComponent(Location.CenterTorso).getFixedOmniPod();
+    final int energy = aWantedEnergy - ct.getHardPointCount(HardPointType.ENERGY);
+    final int missile = aWantedMissile - ct.getHardPointCount(HardPointType.MISSILE);
+    final int ballistic = aWantedBallistic - ct.getHardPointCount(HardPointType.BALLISTIC);
+    final int jumpJet = aWantedJumpJet - aChassis.getFixedJumpJets();
+    final boolean ecm = ct.getHardPointCount(HardPointType.ECM) <= 0 && aWantEcm;
+
+    return OmniPodDB.lookupFrontier(aChassis).select(energy, missile, ballistic, jumpJet, ecm);
+  }
+
   public Optional<Map<Location, OmniPod>> selectPods(
       ChassisOmniMech aChassis,
       int aWantedEnergy,
@@ -26,42 +26,74 @@ import org.lisoft.mwo_data.modifiers.Modifier;
 /**
  * A search index that can be used for finding loadouts based on keywords.
  *
+ * <p>Every indexed loadout is assigned a small integer document ID. The keywords of each loadout
+ * are split into lower case terms, and each distinct term is stored once in a sorted dictionary
+ * together with a {@link BitSet} of the IDs of the documents that contain it. A query word matches
+ * all terms that it is a prefix of, which is a contiguous range of the dictionary. The bit sets of
+ * the query words are intersected smallest first.
+ *
+ * <p>Documents are added, removed and re-indexed individually, and the IDs of removed documents are
+ * reused, so the index never needs to be rebuilt in full.
+ *
+ * <p>Documents are identified by identity rather than by {@link Loadout#equals(Object)}, as
+ * loadouts are mutable and two distinct loadouts in the garage may be equal.
+ *
  * @author Li Song
  */
 public class SearchIndex {
-  private static final String ALL_DOCUMENTS = "";
-  private final Map<String, Set<Loadout>> invertedIndex = new HashMap<>();
+  /** A document in the index and the terms that it was indexed under. */
+  private record Document(int id, Loadout loadout, Collection<String> terms) {}
+
+  private final BitSet allDocuments = new BitSet();
+  private final Map<Loadout, Document> documents = new IdentityHashMap<>();
+  private final List<Document> documentsById = new ArrayList<>();
+  private final Deque<Integer> freeIds = new ArrayDeque<>();
+  private final NavigableMap<String, BitSet> postings = new TreeMap<>();
   private boolean dirty = false;
 
   /**
-   * Merges the given loadout into the search index.
+   * Merges the given loadout into the search index. If the loadout is already in the index it's
+   * re-indexed.
    *
    * @param aLoadout A loadout to merge
    */
   public void merge(Loadout aLoadout) {
-    documentsByKey(ALL_DOCUMENTS).add(aLoadout);
-
-    addPrefixes(aLoadout, aLoadout.getName());
-
-    final Chassis chassis = aLoadout.getChassis();
-    addPrefixes(aLoadout, chassis.getSeriesName());
-    addPrefixes(aLoadout, chassis.getShortName());
-    addPrefixes(aLoadout, chassis.getName());
-    addPrefixes(aLoadout, chassis.getMassMax() + "ton");
-    addPrefixes(aLoadout, chassis.getMassMax() + " ton");
+    final Document old = documents.get(aLoadout);
+    final int id;
+    if (old != null) {
+      removeTerms(old);
+      id = old.id();
+    } else if (!freeIds.isEmpty()) {
+      id = freeIds.pop();
+    } else {
+      id = documentsById.size();
+      documentsById.add(null);
+    }
 
-    final Faction faction = chassis.getFaction();
-    addPrefixes(aLoadout, faction.getUiName());
-    addPrefixes(aLoadout, faction.getUiShortName());
+    // Share one instance of each term between all documents
+    final List<String> terms = new ArrayList<>();
+    for (final String term : termsOf(aLoadout)) {
+      final BitSet docs = postings.get(term);
+      if (docs == null) {
+        postings.put(term, new BitSet());
+        terms.add(term);
+      } else {
+        terms.add(postings.ceilingKey(term));
+      }
+    }
 
-    for (final Modifier modifier : aLoadout.getAllModifiers()) {
-      addPrefixes(aLoadout, modifier.getDescription().getUiName());
+    final Document document = new Document(id, aLoadout, terms);
+    documents.put(aLoadout, document);
+    documentsById.set(id, document);
+    allDocuments.set(id);
+    for (final String term : terms) {
+      postings.get(term).set(id);
     }
   }
 
   /**
-   * Queries the index for a search string. It will match substrings of the indexed documents, it is
-   * case-insensitive.
+   * Queries the index for a search string. It will match prefixes of the words in the indexed
+   * documents, it is case-insensitive.
    *
    * @param aSearchString A query string with search terms separated by white space
    * @return A {@link Collection} of {@link Loadout}s.
@@ -76,27 +108,29 @@ public class SearchIndex {
       return Collections.emptyList();
     }
 
-    final List<Set<Loadout>> hits = new ArrayList<>();
+    final List<BitSet> hits = new ArrayList<>();
     for (final String part : aSearchString.toLowerCase().split(" ")) {
-      hits.add(invertedIndex.getOrDefault(part, Collections.emptySet()));
+      hits.add(documentsByPrefix(part));
     }
-    hits.sort(Comparator.comparingInt(Set::size));
+    hits.sort(Comparator.comparingInt(BitSet::cardinality));
 
-    final Iterator<Set<Loadout>> it = hits.iterator();
-    final Set<Loadout> ans = new HashSet<>(it.next());
-    while (it.hasNext()) {
-      ans.retainAll(it.next());
+    final Iterator<BitSet> it = hits.iterator();
+    final BitSet ans = (BitSet) it.next().clone();
+    while (it.hasNext() && !ans.isEmpty()) {
+      ans.and(it.next());
     }
 
-    return ans;
+    final List<Loadout> loadouts = new ArrayList<>(ans.cardinality());
+    for (int id = ans.nextSetBit(0); id >= 0; id = ans.nextSetBit(id + 1)) {
+      loadouts.add(documentsById.get(id).loadout());
+    }
+    return loadouts;
   }
 
-  /** Rebuilds the search index to take updated documents changes into the index. */
+  /** Re-indexes all documents in the index to take changes to the documents into the index. */
   public void rebuild() {
-    final Set<Loadout> documents = documentsByKey(ALL_DOCUMENTS);
-    invertedIndex.clear();
-    for (final Loadout document : documents) {
-      merge(document);
+    for (final Loadout loadout : new ArrayList<>(documents.keySet())) {
+      merge(loadout);
     }
     dirty = false;
   }
@@ -104,44 +138,98 @@ public class SearchIndex {
   /**
    * Removes the given loadout from the search index.
    *
-   * <p>An index rebuild is automatically performed on the next query if it has not been forced
-   * before the query.
-   *
    * @param aLoadout The {@link Loadout} to remove from the index.
    */
   public void unmerge(Loadout aLoadout) {
-    documentsByKey(ALL_DOCUMENTS).remove(aLoadout);
-    dirty = true;
+    final Document document = documents.remove(aLoadout);
+    if (document == null) {
+      return;
+    }
+    removeTerms(document);
+    documentsById.set(document.id(), null);
+    allDocuments.clear(document.id());
+    freeIds.push(document.id());
   }
 
   /**
    * Call when a document has been changed. Will cause a reindexing of all documents on the next
-   * query.
+   * query. Prefer {@link #update(Loadout)} when it's known which document changed.
    */
   public void update() {
     dirty = true;
   }
 
-  private void addPrefixes(Loadout aLoadout, String aKeyword) {
+  /**
+   * Call when the given document has been changed, re-indexes only that document. Does nothing if
+   * the document isn't in the index.
+   *
+   * @param aLoadout The {@link Loadout} that changed.
+   */
+  public void update(Loadout aLoadout) {
+    if (documents.containsKey(aLoadout)) {
+      merge(aLoadout);
+    }
+  }
+
+  private static void addTerms(Collection<String> aTerms, String aKeyword) {
     if (null == aKeyword) {
       // These keywords will never be null in production but makes
       // setting up tests much easier.
       return;
     }
-    if (aKeyword.contains(" ")) {
-      for (final String part : aKeyword.split(" ")) {
-        addPrefixes(aLoadout, part);
+    // Only single words are ever queried for, so only single words need indexing.
+    for (final String part : aKeyword.toLowerCase().split(" ")) {
+      if (!part.isEmpty()) {
+        aTerms.add(part);
       }
     }
-    String prefix = aKeyword.toLowerCase();
-    while (!prefix.isEmpty()) {
-      final Set<Loadout> documents = documentsByKey(prefix);
-      documents.add(aLoadout);
-      prefix = prefix.substring(0, prefix.length() - 1);
+  }
+
+  private static Collection<String> termsOf(Loadout aLoadout) {
+    final Set<String> terms = new HashSet<>();
+    addTerms(terms, aLoadout.getName());
+
+    final Chassis chassis = aLoadout.getChassis();
+    addTerms(terms, chassis.getSeriesName());
+    addTerms(terms, chassis.getShortName());
+    addTerms(terms, chassis.getName());
+    addTerms(terms, chassis.getMassMax() + "ton");
+    addTerms(terms, chassis.getMassMax() + " ton");
+
+    final Faction faction = chassis.getFaction();
+    addTerms(terms, faction.getUiName());
+    addTerms(terms, faction.getUiShortName());
+
+    for (final Modifier modifier : aLoadout.getAllModifiers()) {
+      addTerms(terms, modifier.getDescription().getUiName());
     }
+    return terms;
   }
 
-  private Set<Loadout> documentsByKey(String aKeyword) {
-    return invertedIndex.computeIfAbsent(aKeyword, k -> new HashSet<>());
+  private BitSet documentsByPrefix(String aPrefix) {
+    if (aPrefix.isEmpty()) {
+      return allDocuments;
+    }
+    final BitSet exact = postings.get(aPrefix);
+    final Collection<BitSet> matches =
+        postings.subMap(aPrefix, false, aPrefix + Character.MAX_VALUE, true).values();
+    if (matches.isEmpty()) {
+      return exact != null ? exact : new BitSet();
+    }
+    final BitSet ans = exact != null ? (BitSet) exact.clone() : new BitSet();
+    for (final BitSet match : matches) {
+      ans.or(match);
+    }
+    return ans;
+  }
+
+  private void removeTerms(Document aDocument) {
+    for (final String term : aDocument.terms()) {
+      final BitSet docs = postings.get(term);
+      docs.clear(aDocument.id());
+      if (docs.isEmpty()) {
+        postings.remove(term);
+      }
+    }
   }
 }
@@ -25,6 +25,7 @@ import java.util.Base64.Encoder;
 import java.util.Locale;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import org.lisoft.lsml.application.ErrorReporter;
 import org.lisoft.lsml.model.loadout.Loadout;
 import org.lisoft.lsml.model.loadout.LoadoutStandard;
 import org.lisoft.lsml.util.DecodingException;
@@ -103,6 +104,19 @@ public class Base64LoadoutCoder {
    * @throws Exception if the argument was malformed.
    */
   public Loadout parse(String aUrl) throws Exception {
+    return parse(aUrl, null);
+  }
+
+  /**
+   * Parses a Base64 {@link String} into a {@link LoadoutStandard}.
+   *
+   * @param aUrl The string to parse.
+   * @param aErrorReporter The {@link ErrorReporter} to report errors in the loadout data to, or
+   *     <code>null</code> to use the one of the decoder.
+   * @return A new {@link LoadoutStandard} object.
+   * @throws Exception if the argument was malformed.
+   */
+  public Loadout parse(String aUrl, ErrorReporter aErrorReporter) throws Exception {
     String url = aUrl.trim();
     final String urlLowerCase = url.toLowerCase(Locale.ENGLISH);
     if (urlLowerCase.startsWith(LSML_PROTOCOL)) {
@@ -121,11 +135,20 @@ public class Base64LoadoutCoder {
     if (coderV2.canDecode(bitStream)) {
       return coderV2.decode(bitStream);
     } else if (coderV3.canDecode(bitStream)) {
-      return coderV3.decode(bitStream);
+      return decode(coderV3, bitStream, aErrorReporter);
     } else if (coderV4.canDecode(bitStream)) {
-      return coderV4.decode(bitStream);
+      return decode(coderV4, bitStream, aErrorReporter);
     } else {
       throw new DecodingException("No suitable decoder found to decode [" + aUrl + "] with!");
     }
   }
+
+  private static Loadout decode(
+      LoadoutCoderV3 aCoder, byte[] aBitStream, ErrorReporter aErrorReporter)
+      throws DecodingException {
+    if (null == aErrorReporter) {
+      return aCoder.decode(aBitStream);
+    }
+    return aCoder.decode(aBitStream, aErrorReporter);
+  }
 }
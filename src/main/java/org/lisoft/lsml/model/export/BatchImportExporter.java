@@ -17,10 +17,27 @@
  */
 package org.lisoft.lsml.model.export;
 
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.util.Optional;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import javafx.stage.Window;
 import javax.inject.Inject;
 import org.lisoft.lsml.application.ErrorReporter;
 import org.lisoft.lsml.model.garage.GarageDirectory;
@@ -30,13 +47,134 @@ import org.lisoft.lsml.model.loadout.Loadout;
  * This class will perform a batch serialisation/deserialisation of a hierarchical structure of
  * loadouts organised into folders.
  *
+ * <p>The input is read and the output is written one line at a time. If a parallelism larger than
+ * one is set, the loadouts are decoded/encoded on a bounded pool of threads while the directory
+ * structure, the line order, errors and progress are all handled on the calling thread in input
+ * order. The result is therefore identical to the sequential mode.
+ *
+ * <p>Decoding and encoding only reads the static <code>*DB</code> classes (such as {@link
+ * org.lisoft.lsml.model.ItemDB} and {@link org.lisoft.lsml.model.ChassisDB}). These are fully
+ * populated by their static initialisers and never modified afterwards, class initialisation
+ * guarantees that all threads see the populated maps so concurrent lookups are safe.
+ *
  * @author Li Song
  */
 public class BatchImportExporter {
+  /** A consumer that may fail with an {@link IOException}. */
+  @FunctionalInterface
+  private interface IOConsumer<T> {
+    void accept(T aValue) throws IOException;
+  }
+
+  /**
+   * Collects the errors in the data of a loadout that is decoded on a worker thread so that they
+   * can be reported on the calling thread in input order.
+   */
+  private static class LoadoutErrorCollector implements ErrorReporter {
+    private final List<Throwable> errors = new ArrayList<>();
+
+    @Override
+    public void error(Window aOwner, String aTitle, String aMessage, Throwable aThrowable) {
+      errors.add(aThrowable);
+    }
+
+    @Override
+    public void error(Window aOwner, Loadout aLoadout, List<Throwable> aErrors) {
+      errors.addAll(aErrors);
+    }
+
+    @Override
+    public void error(Throwable aThrowable) {
+      errors.add(aThrowable);
+    }
+  }
+
+  /** The outcome of processing a single input or output line. */
+  private static class LineResult {
+    private final Throwable error;
+    private final String line;
+    private final Loadout loadout;
+    private final List<Throwable> loadoutErrors;
+
+    LineResult(String aLine, Loadout aLoadout, Throwable aError) {
+      this(aLine, aLoadout, aError, List.of());
+    }
+
+    LineResult(String aLine, Loadout aLoadout, Throwable aError, List<Throwable> aLoadoutErrors) {
+      line = aLine;
+      loadout = aLoadout;
+      error = aError;
+      loadoutErrors = aLoadoutErrors;
+    }
+  }
+
+  /**
+   * A bounded queue of tasks whose results are consumed on the calling thread in the order the
+   * tasks were submitted. With a <code>null</code> executor the tasks are executed immediately on
+   * the calling thread.
+   */
+  private static class OrderedPipeline<T> {
+    private final ExecutorService executor;
+    private final Deque<Future<T>> pending = new ArrayDeque<>();
+    private final IntConsumer progress;
+    private final IOConsumer<T> sink;
+    private final int window;
+    private int consumed = 0;
+
+    OrderedPipeline(
+        ExecutorService aExecutor, int aWindow, IOConsumer<T> aSink, IntConsumer aProgress) {
+      executor = aExecutor;
+      window = aWindow;
+      sink = aSink;
+      progress = aProgress;
+    }
+
+    void flush() throws IOException {
+      while (!pending.isEmpty()) {
+        consume(pending.poll());
+      }
+    }
+
+    void submit(Callable<T> aTask) throws IOException {
+      pending.add(null == executor ? runInline(aTask) : executor.submit(aTask));
+      while (!pending.isEmpty() && (pending.size() > window || pending.peek().isDone())) {
+        consume(pending.poll());
+      }
+    }
+
+    private static <T> Future<T> runInline(Callable<T> aTask) {
+      try {
+        return CompletableFuture.completedFuture(aTask.call());
+      } catch (final Exception e) {
+        return CompletableFuture.failedFuture(e);
+      }
+    }
+
+    private void consume(Future<T> aFuture) throws IOException {
+      try {
+        sink.accept(aFuture.get());
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while waiting for a loadout!", e);
+      } catch (final ExecutionException e) {
+        throw new IOException("Unexpected task failure!", e.getCause());
+      }
+      consumed++;
+      if (null != progress) {
+        progress.accept(consumed);
+      }
+    }
+  }
+
+  /** The number of lines that may be in flight per worker thread before the reader blocks. */
+  private static final int LINES_PER_THREAD = 16;
+
   private final Base64LoadoutCoder coder;
   private final ErrorReporter errorCallback;
   private final Pattern loadoutPattern =
       Pattern.compile("\\{\\s*(.+?)\\s*\\}\\s*((?:lsml|http)\\S+)\\s*");
+  private int parallelism = 1;
+  private IntConsumer progressCallback = null;
   private LsmlLinkProtocol protocol = LsmlLinkProtocol.LSML;
 
   /**
@@ -61,10 +199,47 @@ public class BatchImportExporter {
    *     GarageDirectory} passed as an argument.
    */
   public String export(GarageDirectory<Loadout> aRoot) {
-    final StringBuilder sb = new StringBuilder();
-    final String path = "";
-    recurseAllDirs(sb, aRoot, path);
-    return sb.toString();
+    final StringWriter writer = new StringWriter();
+    try {
+      export(aRoot, writer);
+    } catch (final IOException e) {
+      // StringWriter doesn't throw.
+      throw new UncheckedIOException(e);
+    }
+    return writer.toString();
+  }
+
+  /**
+   * Exports the given {@link GarageDirectory} and all its loadouts and sub directories to a human
+   * readable text that is written to the given {@link Writer} as it is produced.
+   *
+   * <p>Loadouts that fail to encode are reported to the {@link ErrorReporter} and left out of the
+   * output.
+   *
+   * @param aRoot The {@link GarageDirectory} to export.
+   * @param aOutput The {@link Writer} to write the result to, it is not closed.
+   * @throws IOException if writing to the output failed.
+   */
+  public void export(GarageDirectory<Loadout> aRoot, Writer aOutput) throws IOException {
+    final IOConsumer<LineResult> sink =
+        aResult -> {
+          if (null != aResult.error) {
+            errorCallback.error(
+                "Export error",
+                "Unable to export loadout: " + aResult.loadout.getName(),
+                aResult.error);
+          } else {
+            aOutput.write(aResult.line);
+          }
+        };
+    runPipeline(sink, pipeline -> recurseAllDirs(pipeline, aRoot, ""));
+  }
+
+  /**
+   * @return The number of threads that are used to decode/encode loadouts.
+   */
+  public int getParallelism() {
+    return parallelism;
   }
 
   /**
@@ -75,32 +250,87 @@ public class BatchImportExporter {
    * @return A {@link GarageDirectory} with the parsed data.
    */
   public GarageDirectory<Loadout> parse(String aData) {
-    final String[] lines = aData.split("\n");
-    final GarageDirectory<Loadout> root = new GarageDirectory<>(""); // Implicit
-    // root
-    GarageDirectory<Loadout> currentDir = root;
-    for (final String line : lines) {
-      final Optional<String> dirName = parseDirectoryName(line);
-      try {
-        if (dirName.isPresent()) {
-          currentDir = root.makeDirsRecursive(dirName.get());
-        } else {
-          final Matcher m = loadoutPattern.matcher(line);
-          if (m.matches()) {
-            final Loadout loadout = coder.parse(m.group(2));
-            loadout.setName(m.group(1));
-            currentDir.getValues().add(loadout);
-          } else {
-            throw new IOException("Invalid format on line: " + line);
-          }
-        }
-      } catch (final Exception e) {
-        errorCallback.error("Parse error", "Unable to parse line: " + line, e);
-      }
+    try {
+      return parse(new StringReader(aData));
+    } catch (final IOException e) {
+      // StringReader doesn't throw.
+      throw new UncheckedIOException(e);
     }
+  }
+
+  /**
+   * Reads the given input line by line and produces a {@link GarageDirectory} matching the
+   * structure in the input data. Blank lines are ignored, any other line that can't be parsed is
+   * reported to the {@link ErrorReporter} and skipped. Errors in the data of a loadout that could
+   * be parsed are reported after the loadout has been added, in input order.
+   *
+   * @param aInput The {@link Reader} to read the data from, it is not closed.
+   * @return A {@link GarageDirectory} with the parsed data.
+   * @throws IOException if reading from the input failed.
+   */
+  public GarageDirectory<Loadout> parse(Reader aInput) throws IOException {
+    final GarageDirectory<Loadout> root = new GarageDirectory<>(""); // Implicit root
+    final List<GarageDirectory<Loadout>> currentDir = new ArrayList<>(List.of(root));
+    final IOConsumer<LineResult> sink =
+        aResult -> {
+          try {
+            if (null != aResult.error) {
+              throw aResult.error;
+            } else if (null != aResult.loadout) {
+              currentDir.get(0).getValues().add(aResult.loadout);
+              if (!aResult.loadoutErrors.isEmpty()) {
+                errorCallback.error(null, aResult.loadout, aResult.loadoutErrors);
+              }
+            } else {
+              currentDir.set(0, root.makeDirsRecursive(parseDirectoryName(aResult.line)));
+            }
+          } catch (final Throwable e) {
+            errorCallback.error("Parse error", "Unable to parse line: " + aResult.line, e);
+          }
+        };
+
+    final BufferedReader reader =
+        aInput instanceof final BufferedReader bufferedReader
+            ? bufferedReader
+            : new BufferedReader(aInput);
+    runPipeline(
+        sink,
+        pipeline -> {
+          String line;
+          while (null != (line = reader.readLine())) {
+            if (!line.isBlank()) {
+              final String source = line;
+              pipeline.submit(() -> parseLine(source));
+            }
+          }
+        });
     return root;
   }
 
+  /**
+   * Sets the number of threads that are used to decode/encode loadouts. A value of one means that
+   * everything is done on the calling thread.
+   *
+   * @param aThreads The number of threads to use, must be at least one.
+   */
+  public void setParallelism(int aThreads) {
+    if (aThreads < 1) {
+      throw new IllegalArgumentException("Parallelism must be at least one, was: " + aThreads);
+    }
+    parallelism = aThreads;
+  }
+
+  /**
+   * Sets a callback that is notified, on the calling thread and in order, each time a line has been
+   * imported or exported.
+   *
+   * @param aCallback A callback that receives the number of lines processed so far, or <code>null
+   *     </code> to disable progress reporting.
+   */
+  public void setProgressCallback(IntConsumer aCallback) {
+    progressCallback = aCallback;
+  }
+
   /**
    * Changes the protocol used for encoding the loadouts during export.
    *
@@ -120,24 +350,75 @@ public class BatchImportExporter {
     }
   }
 
-  private Optional<String> parseDirectoryName(String aLine) {
+  private LineResult encodeLine(Loadout aLoadout) {
+    try {
+      return new LineResult(
+          "{" + aLoadout.getName() + "} " + encode(aLoadout) + "\n", aLoadout, null);
+    } catch (final Throwable e) {
+      return new LineResult(null, aLoadout, e);
+    }
+  }
+
+  private String parseDirectoryName(String aLine) {
     final String line = aLine.trim();
     if (line.startsWith("[") && line.endsWith("]")) {
-      return Optional.of(line.substring(1, line.length() - 1));
+      return line.substring(1, line.length() - 1);
+    }
+    return null;
+  }
+
+  /**
+   * Parses a single line on any thread, this doesn't touch the directory structure which is built
+   * in order on the calling thread.
+   */
+  private LineResult parseLine(String aLine) {
+    try {
+      if (null != parseDirectoryName(aLine)) {
+        return new LineResult(aLine, null, null);
+      }
+      final Matcher m = loadoutPattern.matcher(aLine);
+      if (m.matches()) {
+        final LoadoutErrorCollector loadoutErrors = new LoadoutErrorCollector();
+        final Loadout loadout = coder.parse(m.group(2), loadoutErrors);
+        loadout.setName(m.group(1));
+        return new LineResult(aLine, loadout, null, loadoutErrors.errors);
+      }
+      throw new IOException("Invalid format on line: " + aLine);
+    } catch (final Throwable e) {
+      return new LineResult(aLine, null, e);
     }
-    return Optional.empty();
   }
 
   private void recurseAllDirs(
-      StringBuilder aSB, GarageDirectory<Loadout> aRoot, String aParentPath) {
+      OrderedPipeline<LineResult> aPipeline, GarageDirectory<Loadout> aRoot, String aParentPath)
+      throws IOException {
     if (!aRoot.getValues().isEmpty()) {
-      aSB.append('[').append(aParentPath).append(aRoot.getName()).append("]\n");
+      final String header = "[" + aParentPath + aRoot.getName() + "]\n";
+      aPipeline.submit(() -> new LineResult(header, null, null));
     }
     for (final Loadout l : aRoot.getValues()) {
-      aSB.append("{").append(l.getName()).append("} ").append(encode(l)).append("\n");
+      aPipeline.submit(() -> encodeLine(l));
     }
     for (final GarageDirectory<Loadout> directory : aRoot.getDirectories()) {
-      recurseAllDirs(aSB, directory, aParentPath + aRoot.getName() + '/');
+      recurseAllDirs(aPipeline, directory, aParentPath + aRoot.getName() + '/');
+    }
+  }
+
+  private void runPipeline(
+      IOConsumer<LineResult> aSink, IOConsumer<OrderedPipeline<LineResult>> aProducer)
+      throws IOException {
+    final ExecutorService executor =
+        parallelism > 1 ? Executors.newFixedThreadPool(parallelism) : null;
+    try {
+      final OrderedPipeline<LineResult> pipeline =
+          new OrderedPipeline<>(
+              executor, parallelism * LINES_PER_THREAD, aSink, progressCallback);
+      aProducer.accept(pipeline);
+      pipeline.flush();
+    } finally {
+      if (null != executor) {
+        executor.shutdownNow();
+      }
     }
   }
 }
@@ -18,7 +18,6 @@
 package org.lisoft.lsml.model.export;
 
 import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.util.ArrayList;
@@ -38,6 +37,8 @@ import org.lisoft.lsml.util.CommandStack;
 import org.lisoft.lsml.util.DecodingException;
 import org.lisoft.lsml.util.EncodingException;
 import org.lisoft.lsml.util.Huffman1;
+import org.lisoft.lsml.util.IntCursor;
+import org.lisoft.lsml.util.TableHuffmanCoder;
 import org.lisoft.mwo_data.equipment.ArmourUpgrade;
 import org.lisoft.mwo_data.equipment.GuidanceUpgrade;
 import org.lisoft.mwo_data.equipment.HeatSink;
@@ -56,7 +57,7 @@ import org.lisoft.mwo_data.mechs.Location;
  */
 public class LoadoutCoderV2 implements LoadoutCoder {
   private static final int HEADER_MAGIC = 0xAC + 1;
-  private final Huffman1<Integer> huff;
+  private final TableHuffmanCoder huff;
   private final LoadoutFactory loadoutFactory;
 
   @Inject
@@ -66,7 +67,7 @@ public class LoadoutCoderV2 implements LoadoutCoder {
         ObjectInputStream in = new ObjectInputStream(is)) {
       @SuppressWarnings("unchecked")
       final Map<Integer, Integer> freqs = (Map<Integer, Integer>) in.readObject();
-      huff = new Huffman1<>(freqs, null);
+      huff = TableHuffmanCoder.of(new Huffman1<>(freqs, null));
 
       // for(Map.Entry<Integer, Integer> e : freqs.entrySet())
       // System.out.println("["+e.getKey() + "] = " + e.getValue());
@@ -120,35 +121,25 @@ public class LoadoutCoderV2 implements LoadoutCoder {
     // Components are separated by -1.
     // The order is the same as for armour: RA, RT, RL, HD, CT, LT, LL, LA
     {
-      final byte[] rest = new byte[buffer.available()];
-      try {
-        buffer.read(rest);
-      } catch (final IOException e) {
-        throw new DecodingException(e);
-      }
-      final List<Integer> ids = huff.decode(rest);
+      final IntCursor ids = huff.decode(aBitStream, aBitStream.length - buffer.available());
       stack.pushAndApply(
-          new CmdSetArmourType(null, loadout, (ArmourUpgrade) UpgradeDB.lookup(ids.get(0))));
+          new CmdSetArmourType(null, loadout, (ArmourUpgrade) UpgradeDB.lookup(ids.next())));
       stack.pushAndApply(
-          new CmdSetStructureType(null, loadout, (StructureUpgrade) UpgradeDB.lookup(ids.get(1))));
+          new CmdSetStructureType(null, loadout, (StructureUpgrade) UpgradeDB.lookup(ids.next())));
       stack.pushAndApply(
-          new CmdSetHeatSinkType(null, loadout, (HeatSinkUpgrade) UpgradeDB.lookup(ids.get(2))));
+          new CmdSetHeatSinkType(null, loadout, (HeatSinkUpgrade) UpgradeDB.lookup(ids.next())));
       stack.pushAndApply(
-          new CmdSetGuidanceType(null, loadout, (GuidanceUpgrade) UpgradeDB.lookup(ids.get(3))));
+          new CmdSetGuidanceType(null, loadout, (GuidanceUpgrade) UpgradeDB.lookup(ids.next())));
 
-      if (-1 != ids.get(4)) {
-        throw new DecodingException("Broken LSML link, expected separator got: " + ids.get(4));
+      final int separator = ids.next();
+      if (-1 != separator) {
+        throw new DecodingException("Broken LSML link, expected separator got: " + separator);
       }
-      ids.remove(4);
-      ids.remove(3);
-      ids.remove(2);
-      ids.remove(1);
-      ids.remove(0);
 
       for (final Location location : Location.RIGHT_TO_LEFT) {
-        Integer v;
+        int v;
         final List<Item> later = new ArrayList<>();
-        while (!ids.isEmpty() && -1 != (v = ids.remove(0))) {
+        while (ids.hasNext() && -1 != (v = ids.next())) {
           final Item item = ItemDB.lookup(v);
           if (item instanceof HeatSink) {
             later.add(item); // Add heat sinks last after engine has
@@ -163,8 +154,8 @@ public class LoadoutCoderV2 implements LoadoutCoder {
         }
       }
 
-      Integer v;
-      while (!ids.isEmpty() && -1 != (v = ids.remove(0))) {
+      int v;
+      while (ids.hasNext() && -1 != (v = ids.next())) {
         stack.pushAndApply(new CmdAddModule(null, loadout, ConsumableDB.lookup(v)));
       }
     }
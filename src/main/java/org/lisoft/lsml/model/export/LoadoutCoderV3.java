@@ -34,6 +34,8 @@ import org.lisoft.lsml.model.loadout.*;
 import org.lisoft.lsml.util.DecodingException;
 import org.lisoft.lsml.util.EncodingException;
 import org.lisoft.lsml.util.Huffman2;
+import org.lisoft.lsml.util.IntCursor;
+import org.lisoft.lsml.util.TableHuffmanCoder;
 import org.lisoft.mwo_data.equipment.*;
 import org.lisoft.mwo_data.mechs.ArmourSide;
 import org.lisoft.mwo_data.mechs.Chassis;
@@ -49,7 +51,7 @@ public class LoadoutCoderV3 implements LoadoutCoder {
   public static final int HEADER_MAGIC = 0xAC + 2;
   private final ErrorReporter errorReporter;
   private final int headerMagic;
-  private final Huffman2<Integer> huff;
+  private final TableHuffmanCoder huff;
   private final LoadoutFactory loadoutFactory;
 
   @Inject
@@ -70,7 +72,7 @@ public class LoadoutCoderV3 implements LoadoutCoder {
 
       @SuppressWarnings("unchecked")
       final Map<Integer, Integer> freqs = (Map<Integer, Integer>) in.readObject();
-      huff = new Huffman2<>(freqs, null);
+      huff = TableHuffmanCoder.of(new Huffman2<>(freqs, null));
     } catch (final Exception e) {
       throw new RuntimeException(e);
     }
@@ -84,6 +86,19 @@ public class LoadoutCoderV3 implements LoadoutCoder {
 
   @Override
   public Loadout decode(final byte[] aBitStream) throws DecodingException {
+    return decode(aBitStream, errorReporter);
+  }
+
+  /**
+   * Decodes a given bit stream into a {@link Loadout}, see {@link #decode(byte[])}.
+   *
+   * @param aBitStream The bit stream to decode.
+   * @param aErrorReporter The {@link ErrorReporter} to report errors in the loadout data to.
+   * @return A {@link Loadout} that has been decoded.
+   * @throws DecodingException If the bit stream is broken.
+   */
+  public Loadout decode(final byte[] aBitStream, ErrorReporter aErrorReporter)
+      throws DecodingException {
     final ByteArrayInputStream buffer = new ByteArrayInputStream(aBitStream);
 
     // Read header
@@ -104,33 +119,27 @@ public class LoadoutCoderV3 implements LoadoutCoder {
     // Components are separated by -1.
     // The order is the same as for armour: RA, RT, RL, HD, CT, LT, LL, LA
     {
-      final byte[] rest = new byte[buffer.available()];
-      try {
-        buffer.read(rest);
-      } catch (final IOException e) {
-        throw new DecodingException(e);
-      }
-      final List<Integer> ids = huff.decode(rest);
+      final IntCursor ids = huff.decode(aBitStream, aBitStream.length - buffer.available());
       if (!isOmniMech) {
         final LoadoutStandard loadoutStandard = (LoadoutStandard) loadout;
         try {
           builder.push(
               new CmdSetArmourType(
-                  null, loadoutStandard, (ArmourUpgrade) UpgradeDB.lookup(ids.remove(0))));
+                  null, loadoutStandard, (ArmourUpgrade) UpgradeDB.lookup(ids.next())));
         } catch (final NoSuchItemException e) {
           builder.pushError(e);
         }
         try {
           builder.push(
               new CmdSetStructureType(
-                  null, loadoutStandard, (StructureUpgrade) UpgradeDB.lookup(ids.remove(0))));
+                  null, loadoutStandard, (StructureUpgrade) UpgradeDB.lookup(ids.next())));
         } catch (final NoSuchItemException e) {
           builder.pushError(e);
         }
         try {
           builder.push(
               new CmdSetHeatSinkType(
-                  null, loadoutStandard, (HeatSinkUpgrade) UpgradeDB.lookup(ids.remove(0))));
+                  null, loadoutStandard, (HeatSinkUpgrade) UpgradeDB.lookup(ids.next())));
         } catch (final NoSuchItemException e) {
           builder.pushError(e);
         }
@@ -138,7 +147,7 @@ public class LoadoutCoderV3 implements LoadoutCoder {
       try {
         builder.push(
             new CmdSetGuidanceType(
-                null, loadout, (GuidanceUpgrade) UpgradeDB.lookup(ids.remove(0))));
+                null, loadout, (GuidanceUpgrade) UpgradeDB.lookup(ids.next())));
       } catch (final NoSuchItemException e1) {
         builder.pushError(e1);
       }
@@ -147,7 +156,7 @@ public class LoadoutCoderV3 implements LoadoutCoder {
         if (isOmniMech && location != Location.CenterTorso) {
           final LoadoutOmniMech omniMech = (LoadoutOmniMech) loadout;
           try {
-            final OmniPod omniPod = OmniPodDB.lookup(ids.remove(0));
+            final OmniPod omniPod = OmniPodDB.lookup(ids.next());
             builder.push(
                 new CmdSetOmniPod(null, omniMech, omniMech.getComponent(location), omniPod));
           } catch (final NoSuchItemException e) {
@@ -155,8 +164,8 @@ public class LoadoutCoderV3 implements LoadoutCoder {
           }
         }
 
-        Integer v;
-        while (!ids.isEmpty() && -1 != (v = ids.remove(0))) {
+        int v;
+        while (ids.hasNext() && -1 != (v = ids.next())) {
           try {
             builder.push(
                 new CmdAddItem(null, loadout, loadout.getComponent(location), ItemDB.lookup(v)));
@@ -166,9 +175,9 @@ public class LoadoutCoderV3 implements LoadoutCoder {
         }
       }
 
-      while (!ids.isEmpty()) {
+      while (ids.hasNext()) {
         try {
-          builder.push(new CmdAddModule(null, loadout, ConsumableDB.lookup(ids.remove(0))));
+          builder.push(new CmdAddModule(null, loadout, ConsumableDB.lookup(ids.next())));
         } catch (final NoSuchItemException e) {
           // Ignore missing pilot modules, they have been deleted from the game.
         }
@@ -176,7 +185,7 @@ public class LoadoutCoderV3 implements LoadoutCoder {
     }
 
     builder.applyAll();
-    builder.reportErrors(loadout, errorReporter);
+    builder.reportErrors(loadout, aErrorReporter);
     return loadout;
   }
 
@@ -315,7 +324,8 @@ public class LoadoutCoderV3 implements LoadoutCoder {
 
     // Encode the list with huffman
     try {
-      buffer.write(huff.encode(ids));
+      final int[] symbols = ids.stream().mapToInt(Integer::intValue).toArray();
+      buffer.write(huff.encode(symbols, symbols.length));
       return buffer.toByteArray();
     } catch (final IOException e) {
       throw new EncodingException(e);
@@ -0,0 +1,79 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.model.export.garage;
+
+import com.thoughtworks.xstream.converters.UnmarshallingContext;
+import com.thoughtworks.xstream.converters.collections.CollectionConverter;
+import com.thoughtworks.xstream.core.util.HierarchicalStreams;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.copy.HierarchicalStreamCopier;
+import com.thoughtworks.xstream.io.xml.XppDomWriter;
+import com.thoughtworks.xstream.io.xml.xppdom.XppDom;
+import com.thoughtworks.xstream.mapper.Mapper;
+import java.util.Collection;
+import java.util.function.Function;
+import org.lisoft.lsml.model.garage.LazyValueList;
+import org.lisoft.lsml.model.loadout.Loadout;
+
+/**
+ * XStream converter for the {@link LazyValueList} of a garage directory. The XML is the same as
+ * for any other collection.
+ *
+ * <p>If a decoder is given, the XML of each {@link Loadout} is only copied when the garage is
+ * loaded and the decoder is called to create the loadout from it on the first access. This makes
+ * loading large garages fast as only the directory tree needs to be built up front.
+ *
+ * @author Li Song
+ */
+public class LazyValueListConverter extends CollectionConverter {
+  private final Function<XppDom, Object> decoder;
+
+  /**
+   * Creates a new converter.
+   *
+   * @param aMapper The {@link Mapper} of the XStream this converter is registered with.
+   * @param aDecoder A {@link Function} that decodes a {@link Loadout} from its XML, or <code>null
+   *     </code> to decode all values immediately.
+   */
+  public LazyValueListConverter(Mapper aMapper, Function<XppDom, Object> aDecoder) {
+    super(aMapper, LazyValueList.class);
+    decoder = aDecoder;
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  @Override
+  protected void addCurrentElementToCollection(
+      HierarchicalStreamReader aReader,
+      UnmarshallingContext aContext,
+      Collection aCollection,
+      Collection aTarget) {
+    final Class<?> type = HierarchicalStreams.readClassType(aReader, mapper());
+    if (decoder == null
+        || !Loadout.class.isAssignableFrom(type)
+        || !(aTarget instanceof LazyValueList)) {
+      super.addCurrentElementToCollection(aReader, aContext, aCollection, aTarget);
+      return;
+    }
+
+    final String name = aReader.getAttribute("name");
+    final XppDomWriter writer = new XppDomWriter();
+    new HierarchicalStreamCopier().copy(aReader, writer);
+    final XppDom xml = writer.getConfiguration();
+    ((LazyValueList<Object>) aTarget).addDeferred(name, () -> decoder.apply(xml));
+  }
+}
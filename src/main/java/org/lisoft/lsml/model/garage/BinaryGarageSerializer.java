@@ -0,0 +1,475 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.model.garage;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import javax.inject.Inject;
+import org.lisoft.lsml.model.export.LoadoutCoderV4;
+import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.WeaponGroups;
+import org.lisoft.lsml.util.DecodingException;
+import org.lisoft.mwo_data.Faction;
+
+/**
+ * Loads and saves garages in a compact binary format. Each loadout is stored as a record holding
+ * its name, the {@link LoadoutCoderV4} bit stream and its weapon groups. The directory tree is
+ * stored in an index that gives the offset of the record of each value.
+ *
+ * <p>File format:
+ *
+ * <pre>
+ * Header:  MAGIC (int), VERSION (int), INDEX_OFFSET (long)
+ * Records: {LENGTH (int), PAYLOAD (LENGTH bytes)}*
+ * Index:   The loadout tree, then the drop ship tree, at INDEX_OFFSET until the end of the file.
+ *          Each directory is: NAME (UTF), VALUE_COUNT (int), {RECORD_OFFSET (int)}*,
+ *          CHILD_COUNT (int), {Directory}*
+ * </pre>
+ *
+ * <p>As the index refers to records by offset, loadouts are only decoded when they are first
+ * accessed. Loadouts that were never accessed are saved by copying their records as is.
+ *
+ * <p>Loadouts can be appended to an existing file by writing the new records and a new index at the
+ * end of the file and then updating the header. Until the header is updated the old index remains
+ * valid, so an interrupted append doesn't damage the file. The space of the old index is reclaimed
+ * the next time the whole garage is saved.
+ *
+ * @author Li Song
+ */
+public class BinaryGarageSerializer {
+  /** The file extension of binary garages. */
+  public static final String EXTENSION = ".lsbin";
+
+  /** The source of a loadout that hasn't been decoded, see {@link LazyValueList#getSource(int)}. */
+  private static final class EncodedRecord {
+    private final ByteBuffer payload;
+
+    EncodedRecord(ByteBuffer aPayload) {
+      payload = aPayload;
+    }
+
+    byte[] bytes() {
+      final byte[] bytes = new byte[payload.remaining()];
+      payload.duplicate().get(bytes);
+      return bytes;
+    }
+  }
+
+  private static class IndexNode {
+    private final List<IndexNode> children = new ArrayList<>();
+    private final String name;
+    private final List<Integer> offsets = new ArrayList<>();
+
+    IndexNode(String aName) {
+      name = aName;
+    }
+
+    IndexNode child(String aName) {
+      for (final IndexNode child : children) {
+        if (child.name.equals(aName)) {
+          return child;
+        }
+      }
+      final IndexNode child = new IndexNode(aName);
+      children.add(child);
+      return child;
+    }
+  }
+
+  private static final int HEADER_SIZE = 16;
+  private static final int INDEX_OFFSET_POSITION = 8;
+  private static final int MAGIC = 0x4c534742; // "LSGB"
+  private static final int VERSION = 1;
+  private static final int WEAPON_GROUP_BYTES =
+      (WeaponGroups.MAX_GROUPS * WeaponGroups.MAX_WEAPONS + 7) / 8;
+  private final LoadoutCoderV4 coder;
+
+  @Inject
+  public BinaryGarageSerializer(LoadoutCoderV4 aCoder) {
+    coder = aCoder;
+  }
+
+  /**
+   * @param aFile The file to check.
+   * @return <code>true</code> if the file should be saved in the binary format, based on its name.
+   */
+  public static boolean isBinaryGarage(File aFile) {
+    return aFile.getName().toLowerCase(Locale.ROOT).endsWith(EXTENSION);
+  }
+
+  private static IndexNode readIndex(ByteBuffer aBuffer) throws IOException {
+    final IndexNode node = new IndexNode(readUTF(aBuffer));
+    final int values = aBuffer.getInt();
+    for (int i = 0; i < values; ++i) {
+      node.offsets.add(aBuffer.getInt());
+    }
+    final int children = aBuffer.getInt();
+    for (int i = 0; i < children; ++i) {
+      node.children.add(readIndex(aBuffer));
+    }
+    return node;
+  }
+
+  private static String readUTF(ByteBuffer aBuffer) throws IOException {
+    final int length = aBuffer.getShort() & 0xFFFF;
+    final byte[] bytes = new byte[length + 2];
+    bytes[0] = (byte) (length >> 8);
+    bytes[1] = (byte) length;
+    aBuffer.get(bytes, 2, length);
+    return new DataInputStream(new ByteArrayInputStream(bytes)).readUTF();
+  }
+
+  private static void writeIndex(DataOutputStream aOut, IndexNode aNode) throws IOException {
+    aOut.writeUTF(aNode.name);
+    aOut.writeInt(aNode.offsets.size());
+    for (final int offset : aNode.offsets) {
+      aOut.writeInt(offset);
+    }
+    aOut.writeInt(aNode.children.size());
+    for (final IndexNode child : aNode.children) {
+      writeIndex(aOut, child);
+    }
+  }
+
+  /**
+   * Appends a loadout to a directory in an existing binary garage file, without rewriting the
+   * loadouts already in the file.
+   *
+   * @param aFile The binary garage file to append to.
+   * @param aDirectory The names of the directories from the loadout root to the directory to add
+   *     the loadout to. Directories that don't exist are created.
+   * @param aLoadout The {@link Loadout} to append.
+   * @throws IOException if the file couldn't be read or written.
+   */
+  public void append(File aFile, List<String> aDirectory, Loadout aLoadout) throws IOException {
+    try (FileChannel channel =
+        FileChannel.open(aFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      readFully(channel, header, 0);
+      final long indexOffset = checkHeader(header.flip(), channel.size());
+
+      final ByteBuffer index = ByteBuffer.allocate((int) (channel.size() - indexOffset));
+      readFully(channel, index, indexOffset);
+      index.flip();
+      final IndexNode loadouts = readIndex(index);
+      final IndexNode dropShips = readIndex(index);
+
+      IndexNode target = loadouts;
+      for (final String name : aDirectory) {
+        if (!name.isBlank()) {
+          target = target.child(name.trim());
+        }
+      }
+
+      final long end = channel.size();
+      final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      final DataOutputStream out = new DataOutputStream(buffer);
+      target.offsets.add(checkOffset(end));
+      writeRecord(out, encodeLoadout(aLoadout));
+      final long newIndexOffset = end + buffer.size();
+      writeIndex(out, loadouts);
+      writeIndex(out, dropShips);
+      out.flush();
+
+      channel.write(ByteBuffer.wrap(buffer.toByteArray()), end);
+      channel.force(false);
+      final ByteBuffer newOffset = ByteBuffer.allocate(Long.BYTES).putLong(newIndexOffset).flip();
+      channel.write(newOffset, INDEX_OFFSET_POSITION);
+    }
+  }
+
+  /**
+   * Loads a garage from a binary garage file. The file is read into memory, see {@link
+   * #load(ByteBuffer)}.
+   *
+   * @param aFile The file to load.
+   * @return A {@link Garage}.
+   * @throws IOException if the file couldn't be read or isn't a binary garage.
+   */
+  public Garage load(File aFile) throws IOException {
+    // Not memory mapped: a mapped file cannot be replaced on Windows until the mapping is garbage
+    // collected, which would make saving over the file that was just loaded fail.
+    return load(ByteBuffer.wrap(Files.readAllBytes(aFile.toPath())));
+  }
+
+  /**
+   * Loads a garage from a buffer, which may be memory mapped. Only the directory tree and drop
+   * ships are decoded, the loadouts are decoded from the buffer when they are first accessed. The
+   * buffer must not be modified while the garage is in use.
+   *
+   * @param aBuffer The buffer to load from, read from its position.
+   * @return A {@link Garage}.
+   * @throws IOException if the buffer doesn't contain a binary garage.
+   */
+  public Garage load(ByteBuffer aBuffer) throws IOException {
+    final ByteBuffer buffer = aBuffer.slice();
+    try {
+      final long indexOffset = checkHeader(buffer.duplicate(), buffer.limit());
+      final ByteBuffer index = buffer.duplicate().position((int) indexOffset);
+      final IndexNode loadouts = readIndex(index);
+      final IndexNode dropShips = readIndex(index);
+
+      final Garage garage = new Garage();
+      buildLoadouts(buffer, loadouts, garage.getLoadoutRoot());
+      buildDropShips(buffer, dropShips, garage.getDropShipRoot());
+      return garage;
+    } catch (final BufferUnderflowException
+        | IndexOutOfBoundsException
+        | IllegalArgumentException
+        | DecodingException e) {
+      throw new IOException("Malformed binary garage!", e);
+    }
+  }
+
+  /**
+   * Saves a garage in the binary format.
+   *
+   * @param aOutputStream The {@link OutputStream} to write to.
+   * @param aGarage The {@link Garage} to save.
+   * @throws IOException if the garage couldn't be written.
+   */
+  public void save(OutputStream aOutputStream, Garage aGarage) throws IOException {
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(buffer);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeLong(0); // Patched below
+
+    final IndexNode loadouts = writeLoadouts(out, buffer, aGarage.getLoadoutRoot());
+    final IndexNode dropShips = writeDropShips(out, buffer, aGarage.getDropShipRoot());
+    final int indexOffset = buffer.size();
+    writeIndex(out, loadouts);
+    writeIndex(out, dropShips);
+    out.flush();
+
+    final byte[] bytes = buffer.toByteArray();
+    ByteBuffer.wrap(bytes).putLong(INDEX_OFFSET_POSITION, indexOffset);
+    aOutputStream.write(bytes);
+    aOutputStream.flush();
+  }
+
+  private void buildDropShips(ByteBuffer aBuffer, IndexNode aNode, GarageDirectory<DropShip> aDir)
+      throws IOException, DecodingException {
+    aDir.setName(aNode.name);
+    for (final int offset : aNode.offsets) {
+      final DataInputStream in =
+          new DataInputStream(new ByteArrayInputStream(record(aBuffer, offset)));
+      final String name = in.readUTF();
+      final DropShip dropShip = new DropShip(Faction.valueOf(in.readUTF()));
+      dropShip.setName(name);
+      for (int bay = 0; bay < DropShip.MECHS_IN_DROPSHIP; ++bay) {
+        if (in.readBoolean()) {
+          final byte[] loadout = new byte[in.readInt()];
+          in.readFully(loadout);
+          try {
+            dropShip.setMech(bay, decodeLoadout(loadout));
+          } catch (final GarageException e) {
+            throw new DecodingException(e);
+          }
+        }
+      }
+      aDir.getValues().add(dropShip);
+    }
+    for (final IndexNode child : aNode.children) {
+      final GarageDirectory<DropShip> childDir = new GarageDirectory<>(child.name);
+      aDir.getDirectories().add(childDir);
+      buildDropShips(aBuffer, child, childDir);
+    }
+  }
+
+  private void buildLoadouts(ByteBuffer aBuffer, IndexNode aNode, GarageDirectory<Loadout> aDir)
+      throws IOException {
+    aDir.setName(aNode.name);
+    final LazyValueList<Loadout> values = (LazyValueList<Loadout>) aDir.getValues();
+    for (final int offset : aNode.offsets) {
+      final EncodedRecord record = new EncodedRecord(recordPayload(aBuffer, offset));
+      values.addDeferred(
+          readUTF(record.payload.duplicate()), () -> decodeLoadout(record, offset), record);
+    }
+    for (final IndexNode child : aNode.children) {
+      final GarageDirectory<Loadout> childDir = new GarageDirectory<>(child.name);
+      aDir.getDirectories().add(childDir);
+      buildLoadouts(aBuffer, child, childDir);
+    }
+  }
+
+  private long checkHeader(ByteBuffer aHeader, long aFileSize) throws IOException {
+    if (aHeader.remaining() < HEADER_SIZE || aHeader.getInt() != MAGIC) {
+      throw new IOException("Not a binary garage!");
+    }
+    final int version = aHeader.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported binary garage version: " + version);
+    }
+    final long indexOffset = aHeader.getLong();
+    if (indexOffset < HEADER_SIZE || indexOffset >= aFileSize) {
+      throw new IOException("Malformed binary garage!");
+    }
+    return indexOffset;
+  }
+
+  private int checkOffset(long aOffset) throws IOException {
+    if (aOffset > Integer.MAX_VALUE) {
+      throw new IOException("Binary garage is too large!");
+    }
+    return (int) aOffset;
+  }
+
+  private Loadout decodeLoadout(EncodedRecord aRecord, int aOffset) {
+    try {
+      return decodeLoadout(aRecord.bytes());
+    } catch (final IOException | DecodingException e) {
+      throw new RuntimeException("Unable to decode loadout at offset: " + aOffset, e);
+    }
+  }
+
+  private Loadout decodeLoadout(byte[] aRecord) throws IOException, DecodingException {
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(aRecord));
+    final String name = in.readUTF();
+    final byte[] bitStream = new byte[in.readUnsignedShort()];
+    in.readFully(bitStream);
+    final byte[] groups = new byte[WEAPON_GROUP_BYTES];
+    in.readFully(groups);
+
+    final Loadout loadout = coder.decode(bitStream);
+    loadout.setName(name);
+    final WeaponGroups weaponGroups = loadout.getWeaponGroups();
+    for (int group = 0; group < WeaponGroups.MAX_GROUPS; ++group) {
+      for (int weapon = 0; weapon < WeaponGroups.MAX_WEAPONS; ++weapon) {
+        final int bit = group * WeaponGroups.MAX_WEAPONS + weapon;
+        weaponGroups.setGroup(group, weapon, (groups[bit / 8] & 1 << bit % 8) != 0);
+      }
+    }
+    return loadout;
+  }
+
+  private byte[] encodeLoadout(Loadout aLoadout) throws IOException {
+    final byte[] bitStream = coder.encode(aLoadout);
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream(bitStream.length + 32);
+    final DataOutputStream out = new DataOutputStream(buffer);
+    out.writeUTF(aLoadout.getName());
+    out.writeShort(bitStream.length);
+    out.write(bitStream);
+
+    final byte[] groups = new byte[WEAPON_GROUP_BYTES];
+    final WeaponGroups weaponGroups = aLoadout.getWeaponGroups();
+    for (int group = 0; group < WeaponGroups.MAX_GROUPS; ++group) {
+      for (int weapon = 0; weapon < WeaponGroups.MAX_WEAPONS; ++weapon) {
+        if (weaponGroups.isInGroup(group, weapon)) {
+          final int bit = group * WeaponGroups.MAX_WEAPONS + weapon;
+          groups[bit / 8] |= (byte) (1 << bit % 8);
+        }
+      }
+    }
+    out.write(groups);
+    out.flush();
+    return buffer.toByteArray();
+  }
+
+  private void readFully(FileChannel aChannel, ByteBuffer aBuffer, long aPosition)
+      throws IOException {
+    long position = aPosition;
+    while (aBuffer.hasRemaining()) {
+      final int read = aChannel.read(aBuffer, position);
+      if (read < 0) {
+        throw new EOFException();
+      }
+      position += read;
+    }
+  }
+
+  private byte[] record(ByteBuffer aBuffer, int aOffset) throws IOException {
+    final ByteBuffer payload = recordPayload(aBuffer, aOffset);
+    final byte[] record = new byte[payload.remaining()];
+    payload.get(record);
+    return record;
+  }
+
+  private ByteBuffer recordPayload(ByteBuffer aBuffer, int aOffset) throws IOException {
+    if (aOffset < HEADER_SIZE || aOffset > aBuffer.limit() - Integer.BYTES) {
+      throw new IOException("Record offset out of bounds: " + aOffset);
+    }
+    final int length = aBuffer.getInt(aOffset);
+    if (length < 0 || length > aBuffer.limit() - aOffset - Integer.BYTES) {
+      throw new IOException("Record length out of bounds: " + length);
+    }
+    return aBuffer.slice(aOffset + Integer.BYTES, length);
+  }
+
+  private IndexNode writeDropShips(
+      DataOutputStream aOut, ByteArrayOutputStream aBuffer, GarageDirectory<DropShip> aDir)
+      throws IOException {
+    final IndexNode node = new IndexNode(aDir.getName());
+    for (final DropShip dropShip : aDir.getValues()) {
+      final ByteArrayOutputStream record = new ByteArrayOutputStream();
+      final DataOutputStream out = new DataOutputStream(record);
+      out.writeUTF(dropShip.getName());
+      out.writeUTF(dropShip.getFaction().name());
+      for (int bay = 0; bay < DropShip.MECHS_IN_DROPSHIP; ++bay) {
+        final Loadout loadout = dropShip.getMech(bay);
+        out.writeBoolean(loadout != null);
+        if (loadout != null) {
+          final byte[] encoded = encodeLoadout(loadout);
+          out.writeInt(encoded.length);
+          out.write(encoded);
+        }
+      }
+      out.flush();
+      node.offsets.add(aBuffer.size());
+      writeRecord(aOut, record.toByteArray());
+    }
+    for (final GarageDirectory<DropShip> child : aDir.getDirectories()) {
+      node.children.add(writeDropShips(aOut, aBuffer, child));
+    }
+    return node;
+  }
+
+  private IndexNode writeLoadouts(
+      DataOutputStream aOut, ByteArrayOutputStream aBuffer, GarageDirectory<Loadout> aDir)
+      throws IOException {
+    final IndexNode node = new IndexNode(aDir.getName());
+    final List<Loadout> values = aDir.getValues();
+    for (int i = 0; i < values.size(); ++i) {
+      node.offsets.add(aBuffer.size());
+      // Loadouts that were never accessed are copied without decoding and encoding them again.
+      if (values instanceof final LazyValueList<Loadout> lazy
+          && lazy.getSource(i) instanceof final EncodedRecord record) {
+        writeRecord(aOut, record.bytes());
+      } else {
+        writeRecord(aOut, encodeLoadout(values.get(i)));
+      }
+    }
+    for (final GarageDirectory<Loadout> child : aDir.getDirectories()) {
+      node.children.add(writeLoadouts(aOut, aBuffer, child));
+    }
+    return node;
+  }
+
+  private void writeRecord(DataOutputStream aOut, byte[] aRecord) throws IOException {
+    aOut.writeInt(aRecord.length);
+    aOut.write(aRecord);
+    aOut.flush();
+  }
+}
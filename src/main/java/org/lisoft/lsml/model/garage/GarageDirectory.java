@@ -38,7 +38,7 @@ import java.util.Optional;
 @XStreamAlias("dir")
 public class GarageDirectory<T> {
     private final List<GarageDirectory<T>> children = new ArrayList<>();
-    private final List<T> values = new ArrayList<>();
+    private final LazyValueList<T> values = new LazyValueList<>();
     @XStreamAsAttribute
     private String name;
 
@@ -0,0 +1,274 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.model.garage;
+
+import java.io.*;
+import java.util.*;
+import org.lisoft.lsml.messages.*;
+import org.lisoft.lsml.model.loadout.Loadout;
+
+/**
+ * Tracks which parts of a {@link Garage} have changed since it was last saved, and writes the
+ * changes as a journal of deltas that can be replayed on top of the last saved garage.
+ *
+ * <p>Changes are detected from the {@link GarageMessage}s, {@link DropShipMessage}s and {@link
+ * LoadoutMessage}s on the message bus the journal is attached to, edits to loadouts that don't
+ * produce any of those can be reported with {@link #markDirty(Object)}.
+ *
+ * <p>Each journal record either replaces the contents of a directory (when loadouts or directories
+ * were added, removed or renamed in it) or a single loadout (when the loadout was edited). Records
+ * address their target by child indices from the root so that the journal is independent of the
+ * names, and carry the expected size of the target directory as a consistency check.
+ *
+ * @author Li Song
+ */
+public class GarageJournal implements MessageReceiver {
+  private static final int MAGIC = 0x4c534a31; // "LSJ1"
+  private static final byte RECORD_DIRECTORY = 'D';
+  private static final byte RECORD_VALUE = 'V';
+  private static final byte TREE_DROP_SHIPS = 1;
+  private static final byte TREE_LOADOUTS = 0;
+  private final Set<Object> dirty = Collections.newSetFromMap(new IdentityHashMap<>());
+  private final Garage garage;
+  private final GarageSerializer serializer;
+
+  /**
+   * Creates a new journal for the given garage. The garage is assumed to be clean, i.e. exactly as
+   * last saved.
+   *
+   * @param aGarage The {@link Garage} to track.
+   * @param aSerializer The {@link GarageSerializer} used to write the contents of the records.
+   */
+  public GarageJournal(Garage aGarage, GarageSerializer aSerializer) {
+    garage = aGarage;
+    serializer = aSerializer;
+  }
+
+  /**
+   * Checks if a stream starts with a journal header. The header is consumed if it was present.
+   *
+   * @param aInputStream The stream to check, must support {@link InputStream#mark(int)}.
+   * @return <code>true</code> if the stream contains a journal.
+   * @throws IOException if the stream couldn't be read.
+   */
+  public static boolean isJournal(InputStream aInputStream) throws IOException {
+    aInputStream.mark(Integer.BYTES);
+    final DataInputStream in = new DataInputStream(aInputStream);
+    try {
+      if (in.readInt() == MAGIC) {
+        return true;
+      }
+    } catch (final EOFException e) {
+      // Too short to be a journal
+    }
+    aInputStream.reset();
+    return false;
+  }
+
+  /**
+   * Replays a journal on top of a garage. The journal header must already have been consumed by
+   * {@link #isJournal(InputStream)}. A record that was only partially written (e.g. because of a
+   * crash) ends the journal.
+   *
+   * @param aInputStream The journal to read.
+   * @param aGarage The {@link Garage} as it was last saved, will be updated in place.
+   * @param aSerializer The {@link GarageSerializer} to read the contents of the records with.
+   * @throws IOException if the journal couldn't be read or doesn't match the garage.
+   */
+  public static void replay(InputStream aInputStream, Garage aGarage, GarageSerializer aSerializer)
+      throws IOException {
+    final DataInputStream in = new DataInputStream(aInputStream);
+
+    while (true) {
+      final byte kind;
+      try {
+        kind = in.readByte();
+      } catch (final EOFException e) {
+        return;
+      }
+      final GarageDirectory<Object> directory;
+      final int valueIndex;
+      final int expectedSize;
+      final Object content;
+      try {
+        directory = resolve(root(aGarage, in.readByte()), in);
+        valueIndex = kind == RECORD_VALUE ? in.readInt() : -1;
+        expectedSize = in.readInt();
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        content = aSerializer.loadFragment(new ByteArrayInputStream(bytes));
+      } catch (final EOFException e) {
+        return; // Truncated record, everything before it has been applied.
+      }
+
+      if (kind == RECORD_DIRECTORY && content instanceof final GarageDirectory<?> source) {
+        @SuppressWarnings("unchecked")
+        final GarageDirectory<Object> replacement = (GarageDirectory<Object>) source;
+        directory.setName(replacement.getName());
+        directory.getValues().clear();
+        directory.getValues().addAll(replacement.getValues());
+        directory.getDirectories().clear();
+        directory.getDirectories().addAll(replacement.getDirectories());
+      } else if (kind == RECORD_VALUE
+          && directory.getValues().size() == expectedSize
+          && valueIndex < expectedSize) {
+        directory.getValues().set(valueIndex, content);
+      } else {
+        throw new IOException("The auto save journal doesn't match the garage!");
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static GarageDirectory<Object> root(Garage aGarage, byte aTree) throws IOException {
+    final GarageDirectory<?> root =
+        switch (aTree) {
+          case TREE_LOADOUTS -> aGarage.getLoadoutRoot();
+          case TREE_DROP_SHIPS -> aGarage.getDropShipRoot();
+          default -> throw new IOException("Unknown garage tree: " + aTree);
+        };
+    return (GarageDirectory<Object>) root;
+  }
+
+  private static GarageDirectory<Object> resolve(GarageDirectory<Object> aRoot, DataInputStream aIn)
+      throws IOException {
+    GarageDirectory<Object> current = aRoot;
+    final int depth = aIn.readInt();
+    for (int i = 0; i < depth; ++i) {
+      final int index = aIn.readInt();
+      if (index < 0 || index >= current.getDirectories().size()) {
+        throw new IOException("The auto save journal doesn't match the garage!");
+      }
+      current = current.getDirectories().get(index);
+    }
+    return current;
+  }
+
+  /** Forgets all changes, call when the garage has been saved in full. */
+  public void clear() {
+    dirty.clear();
+  }
+
+  /**
+   * @return <code>true</code> if the garage has changed since it was last saved or journaled.
+   */
+  public boolean isDirty() {
+    return !dirty.isEmpty();
+  }
+
+  /**
+   * Marks a value (loadout or drop ship) or directory as changed.
+   *
+   * @param aChanged The changed object.
+   */
+  public void markDirty(Object aChanged) {
+    dirty.add(aChanged);
+  }
+
+  @Override
+  public void receive(Message aMsg) {
+    if (aMsg instanceof final GarageMessage<?> msg) {
+      final GaragePath<?> path = msg.path;
+      if (msg.type == GarageMessageType.RENAMED) {
+        markDirty(path.isLeaf() ? path.getValue().get() : path.getTopDirectory());
+      } else if (path.isLeaf()) {
+        markDirty(path.getTopDirectory());
+      } else if (!path.isRoot()) {
+        markDirty(path.getParentDirectory());
+      }
+    } else if (aMsg instanceof DropShipMessage) {
+      markDirty(garage.getDropShipRoot());
+    } else if (aMsg instanceof final LoadoutMessage msg && null != msg.getLoadout()) {
+      markDirty(msg.getLoadout());
+    }
+  }
+
+  /**
+   * Writes journal records for everything that has changed since the last call and marks the
+   * garage as clean.
+   *
+   * @param aOutputStream The stream to write the records to.
+   * @param aHeader <code>true</code> if this is the start of a new journal.
+   * @throws IOException if the records couldn't be written.
+   */
+  public void write(OutputStream aOutputStream, boolean aHeader) throws IOException {
+    // Write to memory first so that a failure doesn't leave a partial record behind.
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(buffer);
+    if (aHeader) {
+      out.writeInt(MAGIC);
+    }
+    final Deque<Integer> path = new ArrayDeque<>();
+    writeRecords(out, TREE_LOADOUTS, garage.getLoadoutRoot(), path, false);
+    writeRecords(out, TREE_DROP_SHIPS, garage.getDropShipRoot(), path, false);
+    out.flush();
+    buffer.writeTo(aOutputStream);
+    aOutputStream.flush();
+    dirty.clear();
+  }
+
+  private void writeHeader(DataOutputStream aOut, byte aKind, byte aTree, Deque<Integer> aPath)
+      throws IOException {
+    aOut.writeByte(aKind);
+    aOut.writeByte(aTree);
+    aOut.writeInt(aPath.size());
+    final Iterator<Integer> it = aPath.descendingIterator();
+    while (it.hasNext()) {
+      aOut.writeInt(it.next());
+    }
+  }
+
+  private void writePayload(DataOutputStream aOut, int aExpectedSize, Object aContent)
+      throws IOException {
+    final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    serializer.saveFragment(payload, aContent);
+    aOut.writeInt(aExpectedSize);
+    aOut.writeInt(payload.size());
+    payload.writeTo(aOut);
+  }
+
+  private <T> void writeRecords(
+      DataOutputStream aOut,
+      byte aTree,
+      GarageDirectory<T> aDirectory,
+      Deque<Integer> aPath,
+      boolean aCovered)
+      throws IOException {
+    if (!aCovered && dirty.contains(aDirectory)) {
+      writeHeader(aOut, RECORD_DIRECTORY, aTree, aPath);
+      writePayload(aOut, aDirectory.getValues().size(), aDirectory);
+      aCovered = true;
+    }
+
+    final List<T> values = aDirectory.getValues();
+    for (int i = 0; i < values.size() && !aCovered; ++i) {
+      if (dirty.contains(values.get(i))) {
+        writeHeader(aOut, RECORD_VALUE, aTree, aPath);
+        aOut.writeInt(i);
+        writePayload(aOut, values.size(), values.get(i));
+      }
+    }
+
+    final List<GarageDirectory<T>> children = aDirectory.getDirectories();
+    for (int i = 0; i < children.size(); ++i) {
+      aPath.push(i);
+      writeRecords(aOut, aTree, children.get(i), aPath, aCovered);
+      aPath.pop();
+    }
+  }
+}
@@ -18,10 +18,14 @@
 package org.lisoft.lsml.model.garage;
 
 import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
 import com.thoughtworks.xstream.io.xml.MXParserDriver;
+import com.thoughtworks.xstream.io.xml.XppDomReader;
+import com.thoughtworks.xstream.io.xml.xppdom.XppDom;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Objects;
+import java.util.function.Consumer;
 import javax.inject.Inject;
 import org.lisoft.lsml.application.ErrorReporter;
 import org.lisoft.lsml.model.export.garage.*;
@@ -34,9 +38,12 @@ import org.lisoft.mwo_data.equipment.Item;
  * @author Li Song
  */
 public class GarageSerializer {
+  private static final String DROP_SHIPS_NODE = "dropships";
+  private static final String LOADOUT_NODE = "loadout";
   private final LoadoutBuilder builder;
   private final ErrorReporter errorReporter;
   private final LoadoutFactory loadoutFactory;
+  private XStream decoder;
 
   @Inject
   public GarageSerializer(
@@ -52,17 +59,92 @@ public class GarageSerializer {
    * @param aInputStream A {@link InputStream} to load from.
    * @return A {@link Garage}.
    */
-  public Garage load(InputStream aInputStream) {
-    final XStream stream = makeStream();
+  public synchronized Garage load(InputStream aInputStream) {
+    final XStream stream = makeStream(false);
     return (Garage) stream.fromXML(aInputStream);
   }
 
+  /**
+   * Decodes the loadouts of a garage one at a time as they are read from the stream, without
+   * building the garage. Only the loadout that is being decoded is held in memory, which makes this
+   * suitable for processing garages of any size. Drop ships are skipped.
+   *
+   * @param aInputStream A {@link InputStream} to load from.
+   * @param aConsumer Called with each loadout in the order they appear in the stream.
+   */
+  public synchronized void forEachLoadout(
+      InputStream aInputStream, Consumer<? super Loadout> aConsumer) {
+    final XStream stream = makeStream(false);
+    forEachLoadout(stream, new MXParserDriver().createReader(aInputStream), aConsumer);
+  }
+
+  /**
+   * Loads a garage from a stream, but only builds the directory tree. The loadouts in the
+   * directories are decoded when they are first accessed, or when {@link
+   * LazyValueList#materialiseAll()} is called on the values of their directory.
+   *
+   * @param aInputStream A {@link InputStream} to load from.
+   * @return A {@link Garage}.
+   */
+  public synchronized Garage loadDeferred(InputStream aInputStream) {
+    final XStream stream = makeStream(true);
+    return (Garage) stream.fromXML(aInputStream);
+  }
+
+  /**
+   * Loads a part of a garage, such as a single loadout or directory, from a stream.
+   *
+   * @param aInputStream A {@link InputStream} to load from.
+   * @return The object that was saved with {@link #saveFragment(OutputStream, Object)}.
+   */
+  public synchronized Object loadFragment(InputStream aInputStream) {
+    return makeStream(false).fromXML(aInputStream);
+  }
+
   public void save(OutputStream aOutputStream, Garage aGarage) {
-    final XStream stream = makeStream();
+    final XStream stream = makeStream(false);
     stream.toXML(Objects.requireNonNull(aGarage, "Save called with a null garage!"), aOutputStream);
   }
 
-  private XStream makeStream() {
+  /**
+   * Saves a part of a garage, such as a single loadout or directory, to a stream.
+   *
+   * @param aOutputStream The {@link OutputStream} to write to.
+   * @param aFragment The object to save.
+   */
+  public void saveFragment(OutputStream aOutputStream, Object aFragment) {
+    final XStream stream = makeStream(false);
+    stream.toXML(
+        Objects.requireNonNull(aFragment, "Save called with a null fragment!"), aOutputStream);
+  }
+
+  /**
+   * Decodes a loadout that was deferred by {@link #loadDeferred(InputStream)}. This may be called
+   * from any thread, the decoding is serialised as the converters share the {@link
+   * LoadoutBuilder}.
+   */
+  private synchronized Object decode(XppDom aXml) {
+    if (decoder == null) {
+      decoder = makeStream(false);
+    }
+    return decoder.unmarshal(new XppDomReader(aXml));
+  }
+
+  private void forEachLoadout(
+      XStream aStream, HierarchicalStreamReader aReader, Consumer<? super Loadout> aConsumer) {
+    while (aReader.hasMoreChildren()) {
+      aReader.moveDown();
+      final String node = aReader.getNodeName();
+      if (LOADOUT_NODE.equals(node)) {
+        aConsumer.accept((Loadout) aStream.unmarshal(aReader));
+      } else if (!DROP_SHIPS_NODE.equals(node)) {
+        forEachLoadout(aStream, aReader, aConsumer);
+      }
+      aReader.moveUp();
+    }
+  }
+
+  private XStream makeStream(boolean aDeferred) {
     final XStream stream = new XStream(new MXParserDriver());
     stream.autodetectAnnotations(true);
     stream.processAnnotations(Garage.class);
@@ -79,11 +161,14 @@ public class GarageSerializer {
     stream.registerConverter(new EfficienciesConverter());
     stream.registerConverter(
         new GarageConverter(stream.getMapper(), stream.getReflectionProvider()));
+    stream.registerConverter(
+        new LazyValueListConverter(stream.getMapper(), aDeferred ? this::decode : null));
 
     stream.allowTypeHierarchy(Loadout.class);
     stream.allowTypeHierarchy(DropShip.class);
     stream.allowTypeHierarchy(Garage.class);
     stream.allowTypeHierarchy(GarageDirectory.class);
+    stream.allowTypeHierarchy(LazyValueList.class);
 
     stream.addImmutableType(Item.class, true);
     stream.alias("component", ConfiguredComponentStandard.class);
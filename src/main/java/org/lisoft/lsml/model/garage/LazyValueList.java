@@ -0,0 +1,190 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.model.garage;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Supplier;
+
+/**
+ * A {@link List} of the values in a {@link GarageDirectory} where some values may not have been
+ * decoded yet. Such values are decoded on the first access, or ahead of time by calling {@link
+ * #materialiseAll()} from a background thread.
+ *
+ * <p>All methods are synchronised so that values can be materialised from a background thread while
+ * the list is used from the application thread.
+ *
+ * @param <T> The type of the values in the list.
+ * @author Li Song
+ */
+public class LazyValueList<T> extends AbstractList<T> implements RandomAccess {
+  private static final class Pending {
+    private final Supplier<?> decoder;
+    private final String name;
+    private final Object source;
+
+    Pending(String aName, Supplier<?> aDecoder, Object aSource) {
+      name = aName;
+      decoder = aDecoder;
+      source = aSource;
+    }
+  }
+
+  private final List<Object> slots = new ArrayList<>();
+
+  @Override
+  public synchronized void add(int aIndex, T aValue) {
+    slots.add(aIndex, aValue);
+    modCount++;
+  }
+
+  /**
+   * Adds a value that will be decoded on the first access.
+   *
+   * @param aName The name of the value, available without decoding it.
+   * @param aDecoder A {@link Supplier} that decodes the value, will be called at most once.
+   */
+  public synchronized void addDeferred(String aName, Supplier<? extends T> aDecoder) {
+    addDeferred(aName, aDecoder, null);
+  }
+
+  /**
+   * Adds a value that will be decoded on the first access.
+   *
+   * @param aName The name of the value, available without decoding it.
+   * @param aDecoder A {@link Supplier} that decodes the value, will be called at most once.
+   * @param aSource The encoded form of the value, see {@link #getSource(int)}.
+   */
+  public synchronized void addDeferred(
+      String aName, Supplier<? extends T> aDecoder, Object aSource) {
+    slots.add(new Pending(aName, aDecoder, aSource));
+    modCount++;
+  }
+
+  @Override
+  public synchronized void clear() {
+    slots.clear();
+    modCount++;
+  }
+
+  @Override
+  public synchronized T get(int aIndex) {
+    final Object slot = slots.get(aIndex);
+    if (slot instanceof final Pending pending) {
+      @SuppressWarnings("unchecked")
+      final T value = (T) pending.decoder.get();
+      slots.set(aIndex, value);
+      return value;
+    }
+    @SuppressWarnings("unchecked")
+    final T value = (T) slot;
+    return value;
+  }
+
+  /**
+   * @param aIndex The index of the value to get the name of.
+   * @return The name of the value at the given index, without decoding it.
+   */
+  public synchronized String getName(int aIndex) {
+    final Object slot = slots.get(aIndex);
+    if (slot instanceof final Pending pending) {
+      return pending.name;
+    }
+    return slot.toString();
+  }
+
+  /**
+   * Gets the encoded form of a value that hasn't been decoded yet. This allows a value to be
+   * written back out in the same format it was read from without decoding it.
+   *
+   * @param aIndex The index of the value to get the source of.
+   * @return The source given to {@link #addDeferred(String, Supplier, Object)}, or <code>null
+   *     </code> if the value has been decoded or has no source.
+   */
+  public synchronized Object getSource(int aIndex) {
+    final Object slot = slots.get(aIndex);
+    if (slot instanceof final Pending pending) {
+      return pending.source;
+    }
+    return null;
+  }
+
+  /**
+   * @param aIndex The index of the value to check.
+   * @return <code>true</code> if the value at the given index has been decoded.
+   */
+  public synchronized boolean isMaterialised(int aIndex) {
+    return !(slots.get(aIndex) instanceof Pending);
+  }
+
+  /**
+   * Decodes all values that haven't been decoded yet. The list is only locked while each value is
+   * decoded so that other threads can use the list in between. Values that fail to decode are left
+   * as is, the error will surface again when they are accessed.
+   */
+  public void materialiseAll() {
+    for (int i = 0; ; ++i) {
+      synchronized (this) {
+        if (i >= slots.size()) {
+          return;
+        }
+        try {
+          get(i);
+        } catch (final RuntimeException e) {
+          // Leave it for the accessor to deal with.
+        }
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>A value that hasn't been decoded is discarded without decoding it and <code>null</code> is
+   * returned in its place.
+   */
+  @Override
+  public synchronized T remove(int aIndex) {
+    final T value = decodedOrNull(slots.remove(aIndex));
+    modCount++;
+    return value;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>A value that hasn't been decoded is replaced without decoding it and <code>null</code> is
+   * returned in its place.
+   */
+  @Override
+  public synchronized T set(int aIndex, T aValue) {
+    return decodedOrNull(slots.set(aIndex, aValue));
+  }
+
+  @Override
+  public synchronized int size() {
+    return slots.size();
+  }
+
+  @SuppressWarnings("unchecked")
+  private T decodedOrNull(Object aSlot) {
+    return aSlot instanceof Pending ? null : (T) aSlot;
+  }
+}
@@ -39,13 +39,26 @@ import org.lisoft.mwo_data.modifiers.ModifierDescription;
  * <p>This class is immutable. The only way to alter it is by creating instances of the relevant
  * {@link Command}s and adding them to an {@link CommandStack}.
  *
+ * <p>The number of equipped items per {@link HardPointType}, heat sinks and jump jets are kept up
+ * to date incrementally by {@link #addItem(Item)} and {@link #removeItem(Item)}. The item mass,
+ * used slots and total armour are memoised and recomputed only after a change. When assertions
+ * are enabled, every change is verified against recomputing the aggregates from the items.
+ *
  * @author Li Song
  */
 public abstract class ConfiguredComponent {
+  private static final HardPointType[] HARD_POINT_TYPES = HardPointType.values();
   private final Map<ArmourSide, Attribute> armour = new HashMap<>();
+  private final int[] equippedHardPoints = new int[HARD_POINT_TYPES.length];
   private final Component internalComponent;
   private final List<Item> items = new ArrayList<>();
+  private int armourTotal = -1;
+  private int equippedHeatSinks;
+  private int equippedJumpJets;
+  private int[] fixedHardPoints;
+  private double itemMass = -1.0;
   private boolean manualArmour;
+  private int slotsUsed = -1;
 
   public ConfiguredComponent(Component aInternalComponent, boolean aManualArmour) {
     internalComponent = aInternalComponent;
@@ -79,6 +92,10 @@ public abstract class ConfiguredComponent {
     }
 
     items.addAll(aComponent.items);
+    System.arraycopy(
+        aComponent.equippedHardPoints, 0, equippedHardPoints, 0, equippedHardPoints.length);
+    equippedHeatSinks = aComponent.equippedHeatSinks;
+    equippedJumpJets = aComponent.equippedJumpJets;
   }
 
   /**
@@ -97,10 +114,14 @@ public abstract class ConfiguredComponent {
   public int addItem(Item aItem) {
     if (aItem instanceof Internal) {
       items.add(0, aItem);
-      return 0;
     } else {
       items.add(aItem);
     }
+    count(aItem, 1);
+    assert checkAggregates();
+    if (aItem instanceof Internal) {
+      return 0;
+    }
 
     if (aItem instanceof HeatSink && getEngineHeatSinksMax() >= getHeatSinkCount()) {
       return -1; // Consumed by engine
@@ -204,11 +225,14 @@ public abstract class ConfiguredComponent {
    * @return The total number of armour points on this component.
    */
   public int getArmourTotal() {
-    int sum = 0;
-    for (final Attribute attrib : armour.values()) {
-      sum += attrib.value(null);
+    if (armourTotal < 0) {
+      int sum = 0;
+      for (final Attribute attrib : armour.values()) {
+        sum += attrib.value(null);
+      }
+      armourTotal = sum;
     }
-    return sum;
+    return armourTotal;
   }
 
   /**
@@ -255,6 +279,14 @@ public abstract class ConfiguredComponent {
     return 0;
   }
 
+  /**
+   * @return The number of heat sinks on this component, both equipped and fixed. Heat sinks inside
+   *     of an engine are included but the ones included in the engine itself are not.
+   */
+  public int getExternalHeatSinksCount() {
+    return equippedHeatSinks + ListArrayUtils.countByType(getItemsFixed(), HeatSink.class);
+  }
+
   /**
    * @param aHardpointType The type of {@link HardPoint}s to count.
    * @return The number of {@link HardPoint}s of the given type on this configured component.
@@ -277,14 +309,12 @@ public abstract class ConfiguredComponent {
    * @return The sum of the mass of all items on this component.
    */
   public double getItemMass() {
-    double ans = 0;
-    for (final Item item : items) {
-      ans += item.getMass();
-    }
-    for (final Item item : getItemsFixed()) {
-      ans += item.getMass();
+    if (itemMass < 0.0) {
+      itemMass = computeItemMass();
+    } else {
+      assert checkAggregates();
     }
-    return ans;
+    return itemMass;
   }
 
   /**
@@ -304,18 +334,24 @@ public abstract class ConfiguredComponent {
    * @return The number of items of the given hard point of type that are equipped.
    */
   public int getItemsOfHardpointType(HardPointType aHardpointType) {
-    int hardPoints = 0;
-    for (final Item it : getItemsEquipped()) {
-      if (it.getHardpointType() == aHardpointType) {
-        hardPoints++;
-      }
-    }
-    for (final Item it : getInternalComponent().getFixedItems()) {
-      if (it.getHardpointType() == aHardpointType) {
-        hardPoints++;
+    if (fixedHardPoints == null) {
+      final int[] fixed = new int[HARD_POINT_TYPES.length];
+      for (final Item it : getInternalComponent().getFixedItems()) {
+        if (it.getHardpointType() != null) {
+          fixed[it.getHardpointType().ordinal()]++;
+        }
       }
+      fixedHardPoints = fixed;
     }
-    return hardPoints;
+    final int type = aHardpointType.ordinal();
+    return equippedHardPoints[type] + fixedHardPoints[type];
+  }
+
+  /**
+   * @return The number of jump jets on this component, both equipped and fixed.
+   */
+  public int getJumpJetCount() {
+    return equippedJumpJets + ListArrayUtils.countByType(getItemsFixed(), JumpJet.class);
   }
 
   /**
@@ -332,14 +368,10 @@ public abstract class ConfiguredComponent {
    *     slots used by dynamic armour or structure.
    */
   public int getSlotsUsed() {
-    int slotsUsed = getInternalComponent().getFixedItemSlots();
-    int engineHsLeft = getEngineHeatSinksMax();
-    for (final Item item : items) {
-      if (item instanceof HeatSink && engineHsLeft > 0) {
-        engineHsLeft--;
-        continue;
-      }
-      slotsUsed += item.getSlots();
+    if (slotsUsed < 0) {
+      slotsUsed = computeSlotsUsed();
+    } else {
+      assert checkAggregates();
     }
     return slotsUsed;
   }
@@ -388,6 +420,8 @@ public abstract class ConfiguredComponent {
     }
 
     items.remove(index);
+    count(aItem, -1);
+    assert checkAggregates();
     final int consumedHs = Math.min(getEngineHeatSinksMax(), hsBefore);
     return index - consumedHs;
   }
@@ -398,6 +432,7 @@ public abstract class ConfiguredComponent {
     }
     armour.get(aArmourSide).setBaseValue(aAmount);
     manualArmour = aManualArmour;
+    armourTotal = -1;
   }
 
   @Override
@@ -418,8 +453,98 @@ public abstract class ConfiguredComponent {
     return sb.toString();
   }
 
+  /**
+   * Verifies the incrementally maintained aggregates against recomputing them from the items. This
+   * is called from assertions after every change and whenever a memoised value is reused, so it
+   * only costs anything when assertions are enabled. A change always discards the memoised item
+   * mass and slot count, so those are checked when they are reused.
+   *
+   * @return <code>true</code> if the aggregates are consistent.
+   * @throws IllegalStateException if the aggregates don't match the items.
+   */
+  boolean checkAggregates() {
+    for (final HardPointType type : HARD_POINT_TYPES) {
+      int expected = 0;
+      for (final Item it : items) {
+        if (it.getHardpointType() == type) {
+          expected++;
+        }
+      }
+      if (expected != equippedHardPoints[type.ordinal()]) {
+        throw new IllegalStateException(
+            "Hard point count of type " + type + " is " + equippedHardPoints[type.ordinal()]
+                + " but should be " + expected + "!");
+      }
+    }
+    if (equippedHeatSinks != ListArrayUtils.countByType(items, HeatSink.class)) {
+      throw new IllegalStateException("Heat sink count is inconsistent!");
+    }
+    if (equippedJumpJets != ListArrayUtils.countByType(items, JumpJet.class)) {
+      throw new IllegalStateException("Jump jet count is inconsistent!");
+    }
+    if (itemMass >= 0.0 && itemMass != computeItemMass()) {
+      throw new IllegalStateException("Memoised item mass is stale!");
+    }
+    if (slotsUsed >= 0 && slotsUsed != computeSlotsUsed()) {
+      throw new IllegalStateException("Memoised slot count is stale!");
+    }
+    return true;
+  }
+
+  /**
+   * Computes the number of slots used on this component, see {@link #getSlotsUsed()}. Sub classes
+   * that change how slots are counted must override this and call {@link #invalidateAggregates()}
+   * when the result may change for other reasons than adding or removing items.
+   *
+   * @return The number of critical slots that are used in this component.
+   */
+  protected int computeSlotsUsed() {
+    int ans = getInternalComponent().getFixedItemSlots();
+    int engineHsLeft = getEngineHeatSinksMax();
+    for (final Item item : items) {
+      if (item instanceof HeatSink && engineHsLeft > 0) {
+        engineHsLeft--;
+        continue;
+      }
+      ans += item.getSlots();
+    }
+    return ans;
+  }
+
+  /**
+   * Discards the memoised item mass and slot count. Must be called by sub classes when the fixed
+   * items or slots of the component change.
+   */
+  protected void invalidateAggregates() {
+    itemMass = -1.0;
+    slotsUsed = -1;
+  }
+
+  private double computeItemMass() {
+    double ans = 0;
+    for (final Item item : items) {
+      ans += item.getMass();
+    }
+    for (final Item item : getItemsFixed()) {
+      ans += item.getMass();
+    }
+    return ans;
+  }
+
+  private void count(Item aItem, int aDelta) {
+    if (aItem.getHardpointType() != null) {
+      equippedHardPoints[aItem.getHardpointType().ordinal()] += aDelta;
+    }
+    if (aItem instanceof HeatSink) {
+      equippedHeatSinks += aDelta;
+    } else if (aItem instanceof JumpJet) {
+      equippedJumpJets += aDelta;
+    }
+    invalidateAggregates();
+  }
+
   private int getHeatSinkCount() {
-    return ListArrayUtils.countByType(items, HeatSink.class)
+    return equippedHeatSinks
         + ListArrayUtils.countByType(getInternalComponent().getFixedItems(), HeatSink.class);
   }
 
@@ -63,6 +63,7 @@ public class ConfiguredComponentOmniMech extends ConfiguredComponent {
     super(aConfiguredComponent);
     setOmniPod(aConfiguredComponent.omniPod);
     toggleStates.putAll(aConfiguredComponent.toggleStates);
+    invalidateAggregates();
   }
 
   @Override
@@ -205,7 +206,7 @@ public class ConfiguredComponentOmniMech extends ConfiguredComponent {
   }
 
   @Override
-  public int getSlotsUsed() {
+  protected int computeSlotsUsed() {
     int slots = 0;
     int engineHsSlots = 0;
     int numHs = 0;
@@ -271,10 +272,12 @@ public class ConfiguredComponentOmniMech extends ConfiguredComponent {
       throw new IllegalArgumentException("Not a toggleable item: " + aItem);
     }
     toggleStates.put(aItem, aNewState);
+    invalidateAggregates();
   }
 
   private void setOmniPod(OmniPod aOmniPod) {
     omniPod = aOmniPod;
+    invalidateAggregates();
 
     // Well, I assume that the toggleable internals are only ever defined in the OmniPods and the
     // only fixed items
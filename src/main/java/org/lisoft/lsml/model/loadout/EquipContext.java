@@ -0,0 +1,236 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.model.loadout;
+
+import java.util.*;
+import org.lisoft.lsml.model.ItemDB;
+import org.lisoft.lsml.model.loadout.EquipResult.EquipResultType;
+import org.lisoft.mwo_data.equipment.*;
+import org.lisoft.mwo_data.equipment.Module;
+import org.lisoft.mwo_data.mechs.Chassis;
+import org.lisoft.mwo_data.mechs.HardPointType;
+import org.lisoft.mwo_data.mechs.Location;
+import org.lisoft.mwo_data.mechs.Upgrades;
+
+/**
+ * The state of a {@link Loadout} that is needed to decide whether an {@link Item} can be equipped.
+ * The loadout wide values (free mass, free slots, free hard points, engine and C.A.S.E. state and
+ * so on) are computed when they are first needed and then reused for the following items. Checking
+ * a single item thus only computes the values that the rules reach before one fails, while
+ * evaluating many items at once, such as the whole item database, computes each value once, see
+ * {@link Loadout#evaluateEquippability(Collection)}.
+ *
+ * <p>This is the single implementation of the equip rules, {@link Loadout#canEquipDirectly(Item)}
+ * and {@link Loadout#canEquipGlobal(Item)} use a new context for each call. A context gives the
+ * same results as those as long as the loadout isn't changed after the context was created.
+ *
+ * @author Li Song
+ */
+class EquipContext {
+  private final Chassis chassis;
+  private final Integer[] freeHardPoints = new Integer[HardPointType.values().length];
+  private final Loadout loadout;
+  private final Upgrades upgrades;
+  private Boolean caseAllowed;
+  private Boolean engineEquipped;
+  private Boolean engineHeatSinksFree;
+  private List<Module> equippedModules;
+  private Double freeMass;
+  private Integer freeSlots;
+  private Integer jumpJetsLeft;
+
+  EquipContext(Loadout aLoadout) {
+    loadout = aLoadout;
+    chassis = loadout.getChassis();
+    upgrades = loadout.getUpgrades();
+  }
+
+  /**
+   * Classifies the given item, see {@link Loadout#canEquipDirectly(Item)}.
+   *
+   * @param aItem The {@link Item} to check.
+   * @return An {@link EquipResult} describing whether the item can be equipped.
+   */
+  EquipResult evaluate(Item aItem) {
+    final EquipResult globalResult = evaluateGlobal(aItem);
+    if (globalResult != EquipResult.SUCCESS) {
+      return globalResult;
+    }
+
+    if (aItem instanceof final Engine engine) {
+      if (engine.getSide().isPresent()) {
+        final int sideSlots = engine.getSide().get().getSlots();
+        if (loadout.getComponent(Location.LeftTorso).getSlotsFree() < sideSlots) {
+          return EquipResult.make(Location.LeftTorso, EquipResultType.NotEnoughSlotsForXLSide);
+        }
+        if (loadout.getComponent(Location.RightTorso).getSlotsFree() < sideSlots) {
+          return EquipResult.make(Location.RightTorso, EquipResultType.NotEnoughSlotsForXLSide);
+        }
+      }
+      return loadout.getComponent(Location.CenterTorso).canEquip(engine);
+    }
+
+    EquipResult reason = EquipResult.SUCCESS;
+    for (final ConfiguredComponent part : loadout.getComponents()) {
+      final EquipResult componentResult = part.canEquip(aItem);
+      if (componentResult == EquipResult.SUCCESS) {
+        return EquipResult.SUCCESS;
+      }
+      if (componentResult.isMoreSpecificThan(reason)) {
+        reason = componentResult;
+      }
+    }
+    // Loose component information from specific reason.
+    return EquipResult.make(reason.getType());
+  }
+
+  /**
+   * Checks only the loadout wide constraints, see {@link Loadout#canEquipGlobal(Item)}.
+   *
+   * @param aItem The {@link Item} to check.
+   * @return An {@link EquipResult} describing whether the necessary checks are passed.
+   */
+  EquipResult evaluateGlobal(Item aItem) {
+    if (!chassis.isAllowed(aItem)) {
+      return EquipResult.make(EquipResultType.NotSupported);
+    }
+    if (aItem.getMass() > freeMass()) {
+      return EquipResult.make(EquipResultType.TooHeavy);
+    }
+    if (!aItem.isCompatible(upgrades)) {
+      return EquipResult.make(EquipResultType.IncompatibleUpgrades);
+    }
+    if (aItem instanceof JumpJet && jumpJetsLeft() < 1) {
+      return EquipResult.make(EquipResultType.JumpJetCapacityReached);
+    }
+    // Allow engine slot heat sinks as long as there is enough free mass.
+    if (aItem instanceof HeatSink && engineHeatSinksFree()) {
+      return EquipResult.SUCCESS;
+    }
+
+    // FIXME: The case where adding a weapon that would cause LAA/HA to be removed
+    // while at max global slots fails even if it might succeed.
+
+    int requiredSlots = aItem.getSlots();
+    if (aItem instanceof final Engine engine) {
+      if (engineEquipped()) {
+        return EquipResult.make(EquipResultType.EngineAlreadyEquipped);
+      }
+      if (engine.getSide().isPresent()) {
+        requiredSlots += 2 * engine.getSide().get().getSlots();
+      }
+    }
+
+    if (aItem == ItemDB.CASE && !caseAllowed()) {
+      return EquipResult.make(EquipResultType.EverythingAlreadyHasCase);
+    }
+
+    if (requiredSlots > freeSlots()) {
+      return EquipResult.make(EquipResultType.NotEnoughSlots);
+    }
+
+    if (aItem instanceof final Module module) {
+      final Optional<Integer> allowedCount = module.getAllowedAmountOfType();
+      if (allowedCount.isPresent()) {
+        int allowedModulesLeft = allowedCount.get();
+        for (final Module otherItem : equippedModules()) {
+          if (module.isSameTypeAs(otherItem)) {
+            allowedModulesLeft--;
+            if (allowedModulesLeft < 1) {
+              return EquipResult.make(EquipResultType.TooManyOfThatType);
+            }
+          }
+        }
+      }
+    }
+
+    final HardPointType hp = aItem.getHardpointType();
+    if (HardPointType.NONE != hp && freeHardPoints(hp) <= 0) {
+      return EquipResult.make(EquipResultType.NoFreeHardPoints);
+    }
+    return EquipResult.SUCCESS;
+  }
+
+  private boolean caseAllowed() {
+    if (caseAllowed == null) {
+      caseAllowed = false;
+      for (final Location location : ItemDB.CASE.getAllowedComponents()) {
+        if (!loadout.getComponent(location).getItemsEquipped().contains(ItemDB.CASE)) {
+          caseAllowed = true;
+          break;
+        }
+      }
+    }
+    return caseAllowed;
+  }
+
+  private boolean engineEquipped() {
+    if (engineEquipped == null) {
+      engineEquipped = loadout.getEngine() != null;
+    }
+    return engineEquipped;
+  }
+
+  private boolean engineHeatSinksFree() {
+    if (engineHeatSinksFree == null) {
+      final ConfiguredComponent ct = loadout.getComponent(Location.CenterTorso);
+      engineHeatSinksFree = ct.getEngineHeatSinks() < ct.getEngineHeatSinksMax();
+    }
+    return engineHeatSinksFree;
+  }
+
+  private List<Module> equippedModules() {
+    if (equippedModules == null) {
+      equippedModules = new ArrayList<>();
+      for (final Module module : loadout.items(Module.class)) {
+        equippedModules.add(module);
+      }
+    }
+    return equippedModules;
+  }
+
+  private int freeHardPoints(HardPointType aType) {
+    final int index = aType.ordinal();
+    if (freeHardPoints[index] == null) {
+      freeHardPoints[index] =
+          loadout.getHardPointsCount(aType) - loadout.getItemsOfHardPointType(aType);
+    }
+    return freeHardPoints[index];
+  }
+
+  private double freeMass() {
+    if (freeMass == null) {
+      freeMass = loadout.getFreeMass();
+    }
+    return freeMass;
+  }
+
+  private int freeSlots() {
+    if (freeSlots == null) {
+      freeSlots = loadout.getFreeSlots();
+    }
+    return freeSlots;
+  }
+
+  private int jumpJetsLeft() {
+    if (jumpJetsLeft == null) {
+      jumpJetsLeft = loadout.getJumpJetsMax() - loadout.getJumpJetCount();
+    }
+    return jumpJetsLeft;
+  }
+}
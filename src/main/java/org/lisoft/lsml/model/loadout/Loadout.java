@@ -18,15 +18,14 @@
 package org.lisoft.lsml.model.loadout;
 
 import java.util.*;
-import org.lisoft.lsml.model.ItemDB;
 import org.lisoft.lsml.model.NamedObject;
 import org.lisoft.lsml.model.UpgradeDB;
 import org.lisoft.lsml.model.loadout.EquipResult.EquipResultType;
 import org.lisoft.lsml.util.ListArrayUtils;
 import org.lisoft.mwo_data.Faction;
 import org.lisoft.mwo_data.equipment.*;
-import org.lisoft.mwo_data.equipment.Module;
 import org.lisoft.mwo_data.mechs.*;
+import org.lisoft.mwo_data.modifiers.CompiledModifiers;
 import org.lisoft.mwo_data.modifiers.Modifier;
 import org.lisoft.mwo_data.modifiers.PilotSkills;
 
@@ -91,40 +90,7 @@ public abstract class Loadout extends NamedObject {
    * @return <code>true</code> if the given {@link Item} is globally feasible on this loadout.
    */
   public EquipResult canEquipDirectly(Item aItem) {
-    final EquipResult globalResult = canEquipGlobal(aItem);
-
-    if (globalResult != EquipResult.SUCCESS) {
-      // The case where adding a weapon that would cause LAA/HA to be removed will not cause an
-      // issue as omnimechs
-      // where this can occur, have fixed armour and structure slots.
-      return globalResult;
-    }
-
-    if (aItem instanceof final Engine engine) {
-      if (engine.getSide().isPresent()) {
-        final int sideSlots = engine.getSide().get().getSlots();
-        if (getComponent(Location.LeftTorso).getSlotsFree() < sideSlots) {
-          return EquipResult.make(Location.LeftTorso, EquipResultType.NotEnoughSlotsForXLSide);
-        }
-        if (getComponent(Location.RightTorso).getSlotsFree() < sideSlots) {
-          return EquipResult.make(Location.RightTorso, EquipResultType.NotEnoughSlotsForXLSide);
-        }
-      }
-      return getComponent(Location.CenterTorso).canEquip(engine);
-    }
-
-    EquipResult reason = EquipResult.SUCCESS;
-    for (final ConfiguredComponent part : components) {
-      final EquipResult componentResult = part.canEquip(aItem);
-      if (componentResult == EquipResult.SUCCESS) {
-        return EquipResult.SUCCESS;
-      }
-      if (componentResult.isMoreSpecificThan(reason)) {
-        reason = componentResult;
-      }
-    }
-    // Loose component information from specific reason.
-    return EquipResult.make(reason.getType());
+    return new EquipContext(this).evaluate(aItem);
   }
 
   /**
@@ -135,77 +101,7 @@ public abstract class Loadout extends NamedObject {
    * @return <code>true</code> if the necessary checks are passed.
    */
   public EquipResult canEquipGlobal(Item aItem) {
-    if (!getChassis().isAllowed(aItem)) {
-      return EquipResult.make(EquipResultType.NotSupported);
-    }
-    if (aItem.getMass() > getFreeMass()) {
-      return EquipResult.make(EquipResultType.TooHeavy);
-    }
-    if (!aItem.isCompatible(getUpgrades())) {
-      return EquipResult.make(EquipResultType.IncompatibleUpgrades);
-    }
-
-    if (aItem instanceof JumpJet && getJumpJetsMax() - getJumpJetCount() < 1) {
-      return EquipResult.make(EquipResultType.JumpJetCapacityReached);
-    }
-
-    // Allow engine slot heat sinks as long as there is enough free mass.
-    final ConfiguredComponent ct = getComponent(Location.CenterTorso);
-    if (aItem instanceof HeatSink && ct.getEngineHeatSinks() < ct.getEngineHeatSinksMax()) {
-      return EquipResult.SUCCESS;
-    }
-
-    // FIXME: The case where adding a weapon that would cause LAA/HA to be removed
-    // while at max global slots fails even if it might succeed.
-
-    int requiredSlots = aItem.getSlots();
-    if (aItem instanceof final Engine engine) {
-      if (getEngine() != null) {
-        return EquipResult.make(EquipResultType.EngineAlreadyEquipped);
-      }
-
-      if (engine.getSide().isPresent()) {
-        requiredSlots += 2 * engine.getSide().get().getSlots();
-      }
-    }
-
-    if (aItem == ItemDB.CASE) {
-      boolean hasAllowedLocation = false;
-      for (Location location : ItemDB.CASE.getAllowedComponents()) {
-        if (!getComponent(location).getItemsEquipped().contains(ItemDB.CASE)) {
-          hasAllowedLocation = true;
-          break;
-        }
-      }
-      if (!hasAllowedLocation) {
-        return EquipResult.make(EquipResultType.EverythingAlreadyHasCase);
-      }
-    }
-
-    if (requiredSlots > getFreeSlots()) {
-      return EquipResult.make(EquipResultType.NotEnoughSlots);
-    }
-
-    if (aItem instanceof final Module module) {
-      final Optional<Integer> allowedCount = module.getAllowedAmountOfType();
-      if (allowedCount.isPresent()) {
-        int allowedModulesLeft = allowedCount.get();
-        for (final Module otherItem : items(Module.class)) {
-          if (module.isSameTypeAs(otherItem)) {
-            allowedModulesLeft--;
-            if (allowedModulesLeft < 1) {
-              return EquipResult.make(EquipResultType.TooManyOfThatType);
-            }
-          }
-        }
-      }
-    }
-
-    final HardPointType hp = aItem.getHardpointType();
-    if (HardPointType.NONE != hp && getItemsOfHardPointType(hp) >= getHardPointsCount(hp)) {
-      return EquipResult.make(EquipResultType.NoFreeHardPoints);
-    }
-    return EquipResult.SUCCESS;
+    return new EquipContext(this).evaluateGlobal(aItem);
   }
 
   @Override
@@ -228,17 +124,39 @@ public abstract class Loadout extends NamedObject {
     return Arrays.equals(components, that.components);
   }
 
+  /**
+   * Classifies a batch of items against the current state of this loadout. This gives the same
+   * results as calling {@link #canEquipDirectly(Item)} for each item, but the loadout wide state
+   * is only computed once for the whole batch.
+   *
+   * @param aItems The {@link Item}s to classify.
+   * @return A {@link Map} from each of the given items to its {@link EquipResult}. Iteration order
+   *     follows the argument.
+   */
+  public Map<Item, EquipResult> evaluateEquippability(Collection<? extends Item> aItems) {
+    final EquipContext context = new EquipContext(this);
+    final Map<Item, EquipResult> ans = new LinkedHashMap<>();
+    for (final Item item : aItems) {
+      ans.put(item, context.evaluate(item));
+    }
+    return ans;
+  }
+
   /**
    * Returns a {@link Collection} of all {@link Modifier}s that affect the loadout. Equipment,
    * quirks and modules.
    *
-   * @return The {@link Collection} of modifiers.
+   * <p>The result is a {@link CompiledModifiers} so that evaluating many attributes against it is
+   * cheap. Callers that evaluate the modifiers repeatedly over several changes to the loadout
+   * should use a {@link LoadoutEvaluationContext} instead of calling this method each time.
+   *
+   * @return An unmodifiable {@link Collection} of modifiers.
    */
   public Collection<Modifier> getAllModifiers() {
     final Collection<Modifier> modifiers = getEquipmentModifiers();
     modifiers.addAll(getEfficiencies().getModifiers());
     modifiers.addAll(getQuirks());
-    return modifiers;
+    return new CompiledModifiers(modifiers);
   }
 
   /**
@@ -369,7 +287,11 @@ public abstract class Loadout extends NamedObject {
    * @return The number of heat sinks external to the engine equipped.
    */
   public int getExternalHeatSinksCount() {
-    return countItemsOfType(HeatSink.class);
+    int ans = 0;
+    for (final ConfiguredComponent component : getComponents()) {
+      ans += component.getExternalHeatSinksCount();
+    }
+    return ans;
   }
 
   /**
@@ -413,7 +335,11 @@ public abstract class Loadout extends NamedObject {
    * @return The total number of jump jets equipped.
    */
   public int getJumpJetCount() {
-    return countItemsOfType(JumpJet.class);
+    int ans = 0;
+    for (final ConfiguredComponent component : getComponents()) {
+      ans += component.getJumpJetCount();
+    }
+    return ans;
   }
 
   /**
@@ -520,14 +446,6 @@ public abstract class Loadout extends NamedObject {
     return getName() + " (" + getChassis().getShortName() + ")";
   }
 
-  private int countItemsOfType(Class<?> aClass) {
-    int ans = 0;
-    for (Object ignored : items(aClass)) {
-      ans++;
-    }
-    return ans;
-  }
-
   /**
    * Computes the total number of slots needed for a given upgrade over the "standard" version
    * (STANDARD ARMOUR, STANDARD STRUCTURE, No guidance, STD HEAT SINKS).
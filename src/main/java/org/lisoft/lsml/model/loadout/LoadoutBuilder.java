@@ -23,10 +23,11 @@ import javax.inject.Inject;
 import org.lisoft.lsml.application.ErrorReporter;
 import org.lisoft.lsml.command.*;
 import org.lisoft.lsml.model.ItemDB;
+import org.lisoft.lsml.model.UpgradeDB;
 import org.lisoft.lsml.util.CommandStack;
 import org.lisoft.lsml.util.CommandStack.Command;
-import org.lisoft.mwo_data.equipment.Engine;
-import org.lisoft.mwo_data.equipment.Item;
+import org.lisoft.mwo_data.equipment.*;
+import org.lisoft.mwo_data.mechs.HardPointType;
 
 /**
  * This class promises to take care of dependency issues when de-serialising any loadout.
@@ -104,10 +105,23 @@ public class LoadoutBuilder {
     /* Nop */
   }
 
+  /**
+   * Applies all pushed commands in an order that respects the dependencies between them.
+   *
+   * <p>The commands are first applied directly to the loadout (see {@link TrustedCommand}), only
+   * checking the equip rules for each item, and the rest of the loadout is validated once at the
+   * end. If that fails, for example because the data was broken, all changes are rolled back and
+   * the commands are applied one by one with all checks in place so that errors are reported
+   * exactly as before.
+   */
   public void applyAll() {
-    final CommandStack operationStack = new CommandStack(0);
+    final List<Command> commands = getAllCommands();
+    if (applyTrusted(commands)) {
+      return;
+    }
 
-    for (final Command op : getAllCommands()) {
+    final CommandStack operationStack = new CommandStack(0);
+    for (final Command op : commands) {
       try {
         operationStack.pushAndApply(op);
       } catch (final Throwable t) {
@@ -151,4 +165,76 @@ public class LoadoutBuilder {
     operations.clear();
     errors.clear();
   }
+
+  /**
+   * Checks the invariants of the loadout that the checked commands would have enforced, other than
+   * the equip rules which {@link CmdAddItem#applyTrusted()} checks for each item. All constraints
+   * only get tighter as the loadout is built, so if the final loadout passes, every intermediate
+   * step would have passed too.
+   */
+  private static boolean isValid(Loadout aLoadout) {
+    if (aLoadout.getFreeMass() < 0) {
+      return false;
+    }
+    if (aLoadout.getConsumables().size() > aLoadout.getConsumablesMax()) {
+      return false;
+    }
+    for (final ConfiguredComponent component : aLoadout.getComponents()) {
+      if (component.getArmourTotal() > component.getInternalComponent().getArmourMax()) {
+        return false;
+      }
+    }
+    if (aLoadout.getUpgrades().getArmour() == UpgradeDB.IS_STEALTH_ARMOUR
+        && aLoadout.getItemsOfHardPointType(HardPointType.ECM) < 1) {
+      return false;
+    }
+    for (final Consumable consumable : aLoadout.getConsumables()) {
+      if (!consumable.getFaction().isCompatible(aLoadout.getChassis().getFaction())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Applies the commands directly, with a single validation at the end.
+   *
+   * @return <code>true</code> if all commands were applied and the resulting loadout is valid. If
+   *     <code>false</code> is returned, all changes have been rolled back.
+   */
+  private boolean applyTrusted(List<Command> aCommands) {
+    final Set<Loadout> loadouts = Collections.newSetFromMap(new IdentityHashMap<>());
+    final Deque<Command> applied = new ArrayDeque<>(aCommands.size());
+    boolean success = true;
+    try {
+      for (final Command op : aCommands) {
+        if (op instanceof final TrustedCommand trusted && trusted.getLoadout() != null) {
+          trusted.applyTrusted();
+          loadouts.add(trusted.getLoadout());
+        } else {
+          op.apply();
+        }
+        applied.push(op);
+      }
+      for (final Loadout loadout : loadouts) {
+        if (!isValid(loadout)) {
+          success = false;
+          break;
+        }
+      }
+    } catch (final Throwable t) {
+      success = false;
+    }
+
+    if (!success) {
+      for (final Command op : applied) {
+        if (op instanceof final TrustedCommand trusted && trusted.getLoadout() != null) {
+          trusted.undoTrusted();
+        } else {
+          op.undo();
+        }
+      }
+    }
+    return success;
+  }
 }
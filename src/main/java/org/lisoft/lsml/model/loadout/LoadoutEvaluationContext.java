@@ -0,0 +1,223 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.model.loadout;
+
+import java.util.*;
+import java.util.function.DoubleSupplier;
+import org.lisoft.lsml.messages.Message;
+import org.lisoft.lsml.messages.MessageReceiver;
+import org.lisoft.lsml.messages.MessageReception;
+import org.lisoft.lsml.messages.MessageXBar;
+import org.lisoft.lsml.util.WeaponRanges;
+import org.lisoft.mwo_data.equipment.HeatSource;
+import org.lisoft.mwo_data.equipment.Weapon;
+import org.lisoft.mwo_data.modifiers.CompiledModifiers;
+import org.lisoft.mwo_data.modifiers.Modifier;
+
+/**
+ * Holds the intermediate values that many metrics of the same {@link Loadout} need, such as the
+ * modifiers, the weapons in each group and the range effectiveness of each weapon, so that they
+ * are computed once and shared between the metrics instead of once per metric.
+ *
+ * <p>A context that is attached to a {@link MessageReception} memoises all values and discards
+ * them on every message that concerns the loadout (see {@link Message#isForMe(Loadout)}). As the
+ * receivers on a {@link MessageXBar} are called in the order they attached, the context must be
+ * created before the metrics and bindings that use it. A context that is not attached computes
+ * every value from the loadout on each call and is always up to date.
+ *
+ * <p>This class is not thread safe, it's meant to be used from the same thread as the {@link
+ * MessageXBar} delivers messages on.
+ *
+ * @author Li Song
+ */
+public class LoadoutEvaluationContext implements MessageReceiver {
+  private final boolean caching;
+  private final Loadout loadout;
+  private final Map<Double, Map<Weapon, Double>> rangeEffectiveness = new HashMap<>();
+  private final Map<Weapon, Map<String, Double>> stats = new HashMap<>();
+  private final Map<Object, Double> values = new HashMap<>();
+  private final Map<Integer, List<Weapon>> weapons = new HashMap<>();
+  private List<HeatSource> heatSources;
+  private Collection<Modifier> modifiers;
+  private List<Double> weaponRanges;
+
+  /**
+   * Creates a new context that doesn't memoise anything. Useful for evaluating a metric once or
+   * when no {@link MessageReception} is available.
+   *
+   * @param aLoadout The {@link Loadout} to evaluate.
+   */
+  public LoadoutEvaluationContext(Loadout aLoadout) {
+    loadout = aLoadout;
+    caching = false;
+  }
+
+  /**
+   * Creates a new context that memoises values until the next message for the loadout.
+   *
+   * @param aLoadout The {@link Loadout} to evaluate.
+   * @param aReception The {@link MessageReception} to listen for changes to the loadout on.
+   */
+  public LoadoutEvaluationContext(Loadout aLoadout, MessageReception aReception) {
+    loadout = aLoadout;
+    caching = true;
+    aReception.attach(this);
+  }
+
+  /**
+   * @return The {@link HeatSource}s on the loadout, in the order of {@link Loadout#items(Class)}.
+   */
+  public List<HeatSource> getHeatSources() {
+    if (!caching) {
+      return listOf(loadout.items(HeatSource.class));
+    }
+    if (heatSources == null) {
+      heatSources = Collections.unmodifiableList(listOf(loadout.items(HeatSource.class)));
+    }
+    return heatSources;
+  }
+
+  /**
+   * @return The {@link Loadout} this context evaluates.
+   */
+  public Loadout getLoadout() {
+    return loadout;
+  }
+
+  /**
+   * @return All the modifiers of the loadout, see {@link Loadout#getAllModifiers()}.
+   */
+  public Collection<Modifier> getModifiers() {
+    if (!caching) {
+      return loadout.getAllModifiers();
+    }
+    if (modifiers == null) {
+      modifiers = CompiledModifiers.of(loadout.getAllModifiers());
+    }
+    return modifiers;
+  }
+
+  /**
+   * @param aWeapon The {@link Weapon} to get the range effectiveness of, must be on the loadout.
+   * @param aRange The range to target.
+   * @return The range effectiveness of the weapon, see {@link Weapon#getRangeEffectiveness(double,
+   *     Collection)}.
+   */
+  public double getRangeEffectiveness(Weapon aWeapon, double aRange) {
+    if (!caching) {
+      return aWeapon.getRangeEffectiveness(aRange, getModifiers());
+    }
+    return rangeEffectiveness
+        .computeIfAbsent(aRange, k -> new HashMap<>())
+        .computeIfAbsent(aWeapon, w -> w.getRangeEffectiveness(aRange, getModifiers()));
+  }
+
+  /**
+   * @param aWeapon The {@link Weapon} to get the statistic of, must be on the loadout.
+   * @param aWeaponStat The statistic to get, see {@link Weapon#getStat(String, Collection)}.
+   * @return The value of the statistic with the modifiers of the loadout applied.
+   */
+  public double getStat(Weapon aWeapon, String aWeaponStat) {
+    if (!caching) {
+      return aWeapon.getStat(aWeaponStat, getModifiers());
+    }
+    return stats
+        .computeIfAbsent(aWeapon, k -> new HashMap<>())
+        .computeIfAbsent(aWeaponStat, s -> aWeapon.getStat(s, getModifiers()));
+  }
+
+  /**
+   * @return The ranges at which the damage of any weapon on the loadout changes, see {@link
+   *     WeaponRanges#getRanges(Loadout)}.
+   */
+  public List<Double> getWeaponRanges() {
+    if (!caching) {
+      return WeaponRanges.getRanges(loadout);
+    }
+    if (weaponRanges == null) {
+      weaponRanges =
+          Collections.unmodifiableList(WeaponRanges.getRanges(getWeapons(-1), getModifiers()));
+    }
+    return weaponRanges;
+  }
+
+  /**
+   * @param aGroup The weapon group to get the weapons for, or -1 for all weapons.
+   * @return The weapons of the given group (see {@link WeaponGroups#getWeapons(int, Loadout)}) or
+   *     all weapons on the loadout including non-offensive ones. The returned list must not be
+   *     modified.
+   */
+  public List<Weapon> getWeapons(int aGroup) {
+    if (!caching) {
+      return weaponsOf(aGroup);
+    }
+    return weapons.computeIfAbsent(aGroup, g -> Collections.unmodifiableList(weaponsOf(g)));
+  }
+
+  /** Discards all memoised values. */
+  public void invalidate() {
+    rangeEffectiveness.clear();
+    stats.clear();
+    values.clear();
+    weapons.clear();
+    heatSources = null;
+    modifiers = null;
+    weaponRanges = null;
+  }
+
+  /**
+   * Memoises an arbitrary value, typically the result of a whole metric that other metrics depend
+   * on.
+   *
+   * @param aKey The key identifying the value, for example the metric itself.
+   * @param aSupplier Computes the value if it's not memoised.
+   * @return The memoised or computed value.
+   */
+  public double memoise(Object aKey, DoubleSupplier aSupplier) {
+    if (!caching) {
+      return aSupplier.getAsDouble();
+    }
+    final Double value = values.get(aKey);
+    if (value != null) {
+      return value;
+    }
+    final double ans = aSupplier.getAsDouble();
+    values.put(aKey, ans);
+    return ans;
+  }
+
+  @Override
+  public void receive(Message aMsg) {
+    if (aMsg.isForMe(loadout)) {
+      invalidate();
+    }
+  }
+
+  private static <T> List<T> listOf(Iterable<T> aIterable) {
+    final List<T> ans = new ArrayList<>();
+    aIterable.forEach(ans::add);
+    return ans;
+  }
+
+  private List<Weapon> weaponsOf(int aGroup) {
+    if (aGroup < 0) {
+      return listOf(loadout.items(Weapon.class));
+    }
+    return new ArrayList<>(loadout.getWeaponGroups().getWeapons(aGroup, loadout));
+  }
+}
@@ -20,7 +20,7 @@
 package org.lisoft.lsml.model.metrics;
 
 import org.lisoft.lsml.model.loadout.Loadout;
-import org.lisoft.lsml.util.WeaponRanges;
+import org.lisoft.lsml.model.loadout.LoadoutEvaluationContext;
 
 /**
  * This class is a refinement of {@link Metric} to include a notion that the metric has a dependency on range to target.
@@ -28,13 +28,22 @@ import org.lisoft.lsml.util.WeaponRanges;
  * @author Li Song
  */
 public abstract class AbstractRangeMetric implements RangeMetric {
+    protected final LoadoutEvaluationContext context;
     protected final Loadout loadout;
     protected boolean fixedRange = false;
     protected double lastRange = -1;
     protected double range = -1;
 
     public AbstractRangeMetric(Loadout aLoadout) {
-        loadout = aLoadout;
+        this(new LoadoutEvaluationContext(aLoadout));
+    }
+
+    /**
+     * @param aContext The {@link LoadoutEvaluationContext} to read the loadout's values from.
+     */
+    public AbstractRangeMetric(LoadoutEvaluationContext aContext) {
+        context = aContext;
+        loadout = aContext.getLoadout();
     }
 
     @Override
@@ -45,7 +54,7 @@ public abstract class AbstractRangeMetric implements RangeMetric {
         }
 
         double max = Double.NEGATIVE_INFINITY;
-        for (final Double r : WeaponRanges.getRanges(loadout)) {
+        for (final Double r : context.getWeaponRanges()) {
             if (r < 0) {
                 continue;
             }
@@ -19,6 +19,7 @@ package org.lisoft.lsml.model.metrics;
 
 import java.util.Collection;
 import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutEvaluationContext;
 import org.lisoft.lsml.model.loadout.LoadoutStandard;
 import org.lisoft.mwo_data.equipment.Weapon;
 import org.lisoft.mwo_data.modifiers.Modifier;
@@ -31,7 +32,7 @@ import org.lisoft.mwo_data.modifiers.Modifier;
  * @author Li Song
  */
 public class AlphaHeat implements Metric {
-  private final Loadout loadout;
+  private final LoadoutEvaluationContext context;
   private final int weaponGroup;
 
   /**
@@ -52,23 +53,27 @@ public class AlphaHeat implements Metric {
    * @param aGroup The weapon group to calculate for.
    */
   public AlphaHeat(Loadout aLoadout, int aGroup) {
-    loadout = aLoadout;
+    this(new LoadoutEvaluationContext(aLoadout), aGroup);
+  }
+
+  /**
+   * Creates a new {@link AlphaHeat} metric that calculates the alpha strike for the given weapon
+   * group using the values memoised in the given context.
+   *
+   * @param aContext The context of the loadout to calculate for.
+   * @param aGroup The weapon group to calculate for.
+   */
+  public AlphaHeat(LoadoutEvaluationContext aContext, int aGroup) {
+    context = aContext;
     weaponGroup = aGroup;
   }
 
   @Override
   public double calculate() {
     double ans = 0;
-    final Collection<Modifier> modifiers = loadout.getAllModifiers();
-
-    final Iterable<Weapon> weapons;
-    if (weaponGroup < 0) {
-      weapons = loadout.items(Weapon.class);
-    } else {
-      weapons = loadout.getWeaponGroups().getWeapons(weaponGroup, loadout);
-    }
+    final Collection<Modifier> modifiers = context.getModifiers();
 
-    for (final Weapon weapon : weapons) {
+    for (final Weapon weapon : context.getWeapons(weaponGroup)) {
       if (weapon.isOffensive()) {
         ans += weapon.getHeat(modifiers);
       }
@@ -20,7 +20,9 @@ package org.lisoft.lsml.model.metrics;
 import java.util.ArrayList;
 import java.util.Collection;
 import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutEvaluationContext;
 import org.lisoft.lsml.model.metrics.helpers.*;
+import org.lisoft.mwo_data.equipment.Engine;
 import org.lisoft.mwo_data.equipment.Weapon;
 import org.lisoft.mwo_data.modifiers.Modifier;
 
@@ -37,7 +39,7 @@ public class AlphaHeatPercent implements Metric {
   private final int group;
   private final HeatCapacity heatCapacity;
   private final HeatDissipation heatDissipation;
-  private final Loadout loadout;
+  private final LoadoutEvaluationContext context;
 
   public AlphaHeatPercent(
       GhostHeat aGhostHeat,
@@ -53,35 +55,43 @@ public class AlphaHeatPercent implements Metric {
       HeatCapacity aHeatCapacity,
       Loadout aLoadout,
       int aWeaponGroup) {
+    this(
+        aGhostHeat,
+        aHeatDissipation,
+        aHeatCapacity,
+        new LoadoutEvaluationContext(aLoadout),
+        aWeaponGroup);
+  }
+
+  public AlphaHeatPercent(
+      GhostHeat aGhostHeat,
+      HeatDissipation aHeatDissipation,
+      HeatCapacity aHeatCapacity,
+      LoadoutEvaluationContext aContext,
+      int aWeaponGroup) {
     ghostHeat = aGhostHeat;
     heatDissipation = aHeatDissipation;
     heatCapacity = aHeatCapacity;
-    loadout = aLoadout;
+    context = aContext;
     group = aWeaponGroup;
   }
 
   @Override
   public double calculate() {
     final double capacity = heatCapacity.calculate();
-    final Collection<Modifier> modifiers = loadout.getAllModifiers();
+    final Collection<Modifier> modifiers = context.getModifiers();
     final Collection<IntegratedSignal> heatSignals = new ArrayList<>();
     heatSignals.add(new IntegratedImpulseTrain(Double.POSITIVE_INFINITY, ghostHeat.calculate()));
     heatSignals.add(new IntegratedConstantSignal(-heatDissipation.calculate()));
 
-    if (loadout.getEngine() != null) {
-      heatSignals.add(new ExpectedHeatSignal(loadout.getEngine(), modifiers));
-    }
-
-    final Iterable<Weapon> weaponsInGroup;
-    if (group >= 0) {
-      weaponsInGroup = loadout.getWeaponGroups().getWeapons(group, loadout);
-    } else {
-      weaponsInGroup = loadout.items(Weapon.class);
+    final Engine engine = context.getLoadout().getEngine();
+    if (engine != null) {
+      heatSignals.add(new ExpectedHeatSignal(engine, modifiers));
     }
 
     final double tickDuration = 0.1;
     double maxPeriod = 0.0;
-    for (Weapon weapon : weaponsInGroup) {
+    for (Weapon weapon : context.getWeapons(group)) {
       double firingPeriod = weapon.getRawFiringPeriod(modifiers) - EPSILON;
       if (firingPeriod > MATCH_LENGTH_SECONDS) {
         firingPeriod = tickDuration - EPSILON;
@@ -17,13 +17,12 @@
  */
 package org.lisoft.lsml.model.metrics;
 
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutEvaluationContext;
 import org.lisoft.lsml.model.loadout.LoadoutStandard;
 import org.lisoft.mwo_data.equipment.Weapon;
-import org.lisoft.mwo_data.modifiers.Modifier;
 
 /**
  * This metric calculates the alpha strike for a given {@link LoadoutStandard}.
@@ -51,7 +50,18 @@ public class AlphaStrike extends AbstractRangeMetric {
    * @param aGroup The weapon group to calculate for.
    */
   public AlphaStrike(Loadout aLoadout, int aGroup) {
-    super(aLoadout);
+    this(new LoadoutEvaluationContext(aLoadout), aGroup);
+  }
+
+  /**
+   * Creates a new {@link AlphaStrike} metric that calculates the alpha strike for the given weapon
+   * group using the values memoised in the given context.
+   *
+   * @param aContext The context of the loadout to calculate for.
+   * @param aGroup The weapon group to calculate for.
+   */
+  public AlphaStrike(LoadoutEvaluationContext aContext, int aGroup) {
+    super(aContext);
     weaponGroup = aGroup;
   }
 
@@ -60,37 +70,20 @@ public class AlphaStrike extends AbstractRangeMetric {
     checkRange(aRange);
 
     double ans = 0;
-    final Collection<Modifier> modifiers = loadout.getAllModifiers();
-
-    final Iterable<Weapon> weapons;
-    if (weaponGroup < 0) {
-      weapons = loadout.items(Weapon.class);
-    } else {
-      weapons = loadout.getWeaponGroups().getWeapons(weaponGroup, loadout);
-    }
-
-    for (final Weapon weapon : weapons) {
+    for (final Weapon weapon : context.getWeapons(weaponGroup)) {
       if (weapon.isOffensive()) {
-        ans += weapon.getDamagePerShot() * weapon.getRangeEffectiveness(aRange, modifiers);
+        ans += weapon.getDamagePerShot() * context.getRangeEffectiveness(weapon, aRange);
       }
     }
     return ans;
   }
 
   public Map<Weapon, Double> getWeaponDamageContribution(double aRange) {
-    final Collection<Modifier> modifiers = loadout.getAllModifiers();
-    final Iterable<Weapon> weapons;
-    if (weaponGroup < 0) {
-      weapons = loadout.items(Weapon.class);
-    } else {
-      weapons = loadout.getWeaponGroups().getWeapons(weaponGroup, loadout);
-    }
-
     final Map<Weapon, Double> ans = new HashMap<>();
-    for (final Weapon weapon : weapons) {
+    for (final Weapon weapon : context.getWeapons(weaponGroup)) {
       if (weapon.isOffensive()) {
         final double damage =
-            weapon.getDamagePerShot() * weapon.getRangeEffectiveness(aRange, modifiers);
+            weapon.getDamagePerShot() * context.getRangeEffectiveness(weapon, aRange);
         if (ans.containsKey(weapon)) {
           ans.put(weapon, ans.get(weapon).doubleValue() + damage);
         } else {
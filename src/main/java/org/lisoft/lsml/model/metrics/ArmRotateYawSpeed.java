@@ -20,6 +20,7 @@
 package org.lisoft.lsml.model.metrics;
 
 import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutEvaluationContext;
 
 /**
  * This {@link Metric} calculates how quickly a 'Mech can move its arms.
@@ -27,14 +28,21 @@ import org.lisoft.lsml.model.loadout.Loadout;
  * @author Li Song
  */
 public class ArmRotateYawSpeed implements Metric {
-    private final Loadout loadout;
+    private final LoadoutEvaluationContext context;
 
     public ArmRotateYawSpeed(Loadout aLoadout) {
-        loadout = aLoadout;
+        this(new LoadoutEvaluationContext(aLoadout));
+    }
+
+    /**
+     * @param aContext The context of the loadout to calculate for.
+     */
+    public ArmRotateYawSpeed(LoadoutEvaluationContext aContext) {
+        context = aContext;
     }
 
     @Override
     public double calculate() {
-        return loadout.getMovementProfile().getArmYawSpeed(loadout.getAllModifiers());
+        return context.getLoadout().getMovementProfile().getArmYawSpeed(context.getModifiers());
     }
 }
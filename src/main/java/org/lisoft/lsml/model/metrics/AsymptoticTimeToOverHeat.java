@@ -19,6 +19,8 @@
 //@formatter:on
 package org.lisoft.lsml.model.metrics;
 
+import org.lisoft.lsml.model.metrics.helpers.HeatEventSolver;
+
 /**
  * This {@link Metric} calculates the number of seconds a mech can shoot all weapons before it over heats under the
  * assumption of asymptotic heat generation.
@@ -26,6 +28,7 @@ package org.lisoft.lsml.model.metrics;
  * @author Li Song
  */
 public class AsymptoticTimeToOverHeat implements Metric {
+    static private final double MAX_TIME = 15 * 60; // 15min = infinity in MWO
     private final HeatCapacity capacity;
     private final HeatDissipation dissipation;
     private final HeatGeneration generation;
@@ -39,12 +42,8 @@ public class AsymptoticTimeToOverHeat implements Metric {
 
     @Override
     public double calculate() {
-        final double heatDifferential = generation.calculate() - dissipation.calculate();
-        final double heatCapacity = capacity.calculate();
-        if (heatDifferential <= 0 || heatCapacity / heatDifferential >= 15 * 60) { // 15min = infinity in MWO
-            return Double.POSITIVE_INFINITY;
-        }
-        return heatCapacity / heatDifferential;
+        return HeatEventSolver.constant(generation.calculate())
+                              .timeToOverHeat(capacity.calculate(), dissipation.calculate(), MAX_TIME);
     }
 
 }
@@ -25,6 +25,7 @@ import org.lisoft.lsml.messages.MessageReceiver;
 import org.lisoft.lsml.messages.MessageReception;
 import org.lisoft.lsml.messages.MessageXBar;
 import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutEvaluationContext;
 import org.lisoft.lsml.model.metrics.helpers.DoubleFireBurstSignal;
 import org.lisoft.lsml.model.metrics.helpers.IntegratedImpulseTrain;
 import org.lisoft.lsml.model.metrics.helpers.IntegratedPulseTrain;
@@ -65,7 +66,21 @@ public class BurstDamageOverTime extends RangeTimeMetric implements MessageRecei
    * @param aGroup The group to calculate for.
    */
   public BurstDamageOverTime(Loadout aLoadout, MessageReception aReception, int aGroup) {
-    super(aLoadout);
+    this(new LoadoutEvaluationContext(aLoadout), aReception, aGroup);
+  }
+
+  /**
+   * Creates a new {@link BurstDamageOverTime} that only calculates the damage for the given weapon
+   * group using the values memoised in the given context.
+   *
+   * @param aContext The context of the loadout to calculate for, must be attached to 'aReception'
+   *     before this metric if it memoises values.
+   * @param aReception The crossbar to listen to changes on the loadout on.
+   * @param aGroup The group to calculate for.
+   */
+  public BurstDamageOverTime(
+      LoadoutEvaluationContext aContext, MessageReception aReception, int aGroup) {
+    super(aContext);
     weaponGroup = aGroup;
     updateEvents(getUserRange());
     aReception.attach(this);
@@ -90,8 +105,10 @@ public class BurstDamageOverTime extends RangeTimeMetric implements MessageRecei
 
   @Override
   public void receive(Message aMsg) {
+    // NaN never equals the range to calculate for, so the next calculation rebuilds the events.
+    // This way a burst of messages only causes one rebuild.
     if (aMsg.isForMe(loadout) && aMsg.affectsHeatOrDamage()) {
-      updateEvents(getUserRange());
+      cachedRange = Double.NaN;
     }
   }
 
@@ -102,21 +119,14 @@ public class BurstDamageOverTime extends RangeTimeMetric implements MessageRecei
    */
   private void updateEvents(double aRange) {
     damageIntegrals.clear();
-    final Collection<Modifier> modifiers = loadout.getAllModifiers();
-
-    final Iterable<Weapon> weapons;
-    if (weaponGroup < 0) {
-      weapons = loadout.items(Weapon.class);
-    } else {
-      weapons = loadout.getWeaponGroups().getWeapons(weaponGroup, loadout);
-    }
+    final Collection<Modifier> modifiers = context.getModifiers();
 
-    for (final Weapon weapon : weapons) {
+    for (final Weapon weapon : context.getWeapons(weaponGroup)) {
       if (!weapon.isOffensive()) {
         continue;
       }
 
-      final double factor = aRange < 0 ? 1.0 : weapon.getRangeEffectiveness(aRange, modifiers);
+      final double factor = aRange < 0 ? 1.0 : context.getRangeEffectiveness(weapon, aRange);
       final double period = weapon.getExpectedFiringPeriod(modifiers);
       final double damage = factor * weapon.getDamagePerShot();
 
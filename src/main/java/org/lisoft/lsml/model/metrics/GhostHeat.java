@@ -22,6 +22,7 @@ import static java.util.Comparator.naturalOrder;
 import java.util.*;
 import java.util.Map.Entry;
 import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutEvaluationContext;
 import org.lisoft.mwo_data.equipment.Weapon;
 import org.lisoft.mwo_data.modifiers.Modifier;
 
@@ -34,7 +35,7 @@ public class GhostHeat implements Metric {
   private static final double[] HEAT_SCALE = {
     0, 0, 0.08, 0.18, 0.30, 0.45, 0.60, 0.80, 1.10, 1.50, 2.00, 3.00, 5.00
   };
-  private final Loadout loadout;
+  private final LoadoutEvaluationContext context;
   private final int weaponGroup;
 
   /**
@@ -55,24 +56,28 @@ public class GhostHeat implements Metric {
    * @param aGroup The weapon group to calculate for.
    */
   public GhostHeat(Loadout aLoadout, int aGroup) {
-    loadout = aLoadout;
+    this(new LoadoutEvaluationContext(aLoadout), aGroup);
+  }
+
+  /**
+   * Constructs a new {@link GhostHeat} metric that calculates the ghost heat for a given weapon
+   * group using the values memoised in the given context.
+   *
+   * @param aContext The context of the loadout to calculate for.
+   * @param aGroup The weapon group to calculate for.
+   */
+  public GhostHeat(LoadoutEvaluationContext aContext, int aGroup) {
+    context = aContext;
     weaponGroup = aGroup;
   }
 
   @Override
   public double calculate() {
-    final Collection<Modifier> modifiers = loadout.getAllModifiers();
+    final Collection<Modifier> modifiers = context.getModifiers();
     final Map<Weapon, Integer> ungroupedWeapons = new HashMap<>();
     final Map<Integer, List<Weapon>> groups = new HashMap<>();
 
-    final Iterable<Weapon> weapons;
-    if (weaponGroup < 0) {
-      weapons = loadout.items(Weapon.class);
-    } else {
-      weapons = loadout.getWeaponGroups().getWeapons(weaponGroup, loadout);
-    }
-
-    for (final Weapon weapon : weapons) {
+    for (final Weapon weapon : context.getWeapons(weaponGroup)) {
       final int group = weapon.getGhostHeatGroup();
       if (group == 0) {
         ungroupedWeapons.put(weapon, ungroupedWeapons.getOrDefault(weapon, 0) + 1);
@@ -19,6 +19,7 @@ package org.lisoft.lsml.model.metrics;
 
 import java.util.Collection;
 import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutEvaluationContext;
 import org.lisoft.lsml.model.loadout.LoadoutStandard;
 import org.lisoft.mwo_data.equipment.HeatSink;
 import org.lisoft.mwo_data.modifiers.Attribute;
@@ -39,15 +40,30 @@ public class HeatCapacity implements Metric {
   /** Each mech has a base heat capacity of 30. */
   private static final double BASE_HEAT_CAPACITY = 30;
 
+  private final LoadoutEvaluationContext context;
   private final Loadout loadout;
 
   public HeatCapacity(final Loadout aLoadout) {
-    loadout = aLoadout;
+    this(new LoadoutEvaluationContext(aLoadout));
+  }
+
+  /**
+   * Creates a new {@link HeatCapacity} metric whose value is memoised in the given context.
+   *
+   * @param aContext The context of the loadout to calculate for.
+   */
+  public HeatCapacity(final LoadoutEvaluationContext aContext) {
+    context = aContext;
+    loadout = aContext.getLoadout();
   }
 
   @Override
   public double calculate() {
-    final Collection<Modifier> modifiers = loadout.getAllModifiers();
+    return context.memoise(this, this::compute);
+  }
+
+  private double compute() {
+    final Collection<Modifier> modifiers = context.getModifiers();
     final HeatSink protoHeatSink = loadout.getUpgrades().getHeatSink().getHeatSinkType();
 
     final int externalHeatSinks =
@@ -21,6 +21,7 @@ import static org.lisoft.lsml.model.metrics.HeatCapacity.MANDATORY_ENGINE_HEAT_S
 
 import java.util.Collection;
 import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutEvaluationContext;
 import org.lisoft.lsml.model.loadout.LoadoutStandard;
 import org.lisoft.mwo_data.Environment;
 import org.lisoft.mwo_data.equipment.HeatSink;
@@ -34,17 +35,39 @@ import org.lisoft.mwo_data.modifiers.ModifierDescription;
  * @author Li Song
  */
 public class HeatDissipation implements Metric {
+  private final LoadoutEvaluationContext context;
   private final Loadout loadout;
   private Environment environment;
 
   public HeatDissipation(final Loadout aLoadout, final Environment aEnvironment) {
-    loadout = aLoadout;
+    this(new LoadoutEvaluationContext(aLoadout), aEnvironment);
+  }
+
+  /**
+   * Creates a new {@link HeatDissipation} metric whose value is memoised in the given context.
+   *
+   * @param aContext The context of the loadout to calculate for.
+   * @param aEnvironment The environment to calculate the dissipation in, may be <code>null</code>.
+   */
+  public HeatDissipation(
+      final LoadoutEvaluationContext aContext, final Environment aEnvironment) {
+    context = aContext;
+    loadout = aContext.getLoadout();
     environment = aEnvironment;
   }
 
   @Override
   public double calculate() {
-    final Collection<Modifier> modifiers = loadout.getAllModifiers();
+    return context.memoise(this, this::compute);
+  }
+
+  public void changeEnvironment(Environment anEnvironment) {
+    environment = anEnvironment;
+    context.invalidate();
+  }
+
+  private double compute() {
+    final Collection<Modifier> modifiers = context.getModifiers();
     final HeatSink protoHeatSink = loadout.getUpgrades().getHeatSink().getHeatSinkType();
 
     // At the time of writing, 2022-01-30, there exists no heat sink for which the internal/external
@@ -74,8 +97,4 @@ public class HeatDissipation implements Metric {
         (environment != null) ? environment.getHeat(modifiers) : 0;
     return heatDissipation.value(modifiers) - environmentDissipation;
   }
-
-  public void changeEnvironment(Environment anEnvironment) {
-    environment = anEnvironment;
-  }
 }
@@ -19,6 +19,7 @@ package org.lisoft.lsml.model.metrics;
 
 import java.util.Collection;
 import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutEvaluationContext;
 import org.lisoft.lsml.model.loadout.LoadoutStandard;
 import org.lisoft.mwo_data.equipment.Engine;
 import org.lisoft.mwo_data.equipment.HeatSource;
@@ -35,7 +36,7 @@ import org.lisoft.mwo_data.modifiers.Modifier;
  */
 public class HeatGeneration implements Metric {
   private final int group;
-  private final Loadout loadout;
+  private final LoadoutEvaluationContext context;
 
   /**
    * Creates a new metric that calculates the total, maximal heat generation.
@@ -54,24 +55,35 @@ public class HeatGeneration implements Metric {
    * @param aGroup The weapon group to calculate for.
    */
   public HeatGeneration(final Loadout aLoadout, final int aGroup) {
-    loadout = aLoadout;
+    this(new LoadoutEvaluationContext(aLoadout), aGroup);
+  }
+
+  /**
+   * Creates a new metric that calculates the heat generation for a given weapon group, including
+   * fixed heat sources such as engine, using the values memoised in the given context.
+   *
+   * @param aContext The context of the loadout to calculate the heat generation for.
+   * @param aGroup The weapon group to calculate for.
+   */
+  public HeatGeneration(final LoadoutEvaluationContext aContext, final int aGroup) {
+    context = aContext;
     group = aGroup;
   }
 
   @Override
   public double calculate() {
     double heat = 0;
-    final Collection<Modifier> modifiers = loadout.getAllModifiers();
-    for (final HeatSource item : loadout.items(HeatSource.class)) {
+    final Collection<Modifier> modifiers = context.getModifiers();
+    for (final HeatSource item : context.getHeatSources()) {
       if (item instanceof Weapon && group < 0) {
-        heat += ((Weapon) item).getStat("h/s", modifiers);
+        heat += context.getStat((Weapon) item, "h/s");
       } else if (item instanceof Engine) {
         heat += item.getHeat(modifiers);
       }
     }
     if (group >= 0) {
-      for (final Weapon w : loadout.getWeaponGroups().getWeapons(group, loadout)) {
-        heat += w.getStat("h/s", modifiers);
+      for (final Weapon w : context.getWeapons(group)) {
+        heat += context.getStat(w, "h/s");
       }
     }
     return heat;
@@ -20,12 +20,15 @@ package org.lisoft.lsml.model.metrics;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import org.lisoft.lsml.messages.Message;
 import org.lisoft.lsml.messages.MessageReceiver;
 import org.lisoft.lsml.messages.MessageReception;
 import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutEvaluationContext;
 import org.lisoft.lsml.model.loadout.LoadoutStandard;
 import org.lisoft.lsml.model.metrics.helpers.ExpectedHeatSignal;
+import org.lisoft.lsml.model.metrics.helpers.HeatEventSolver;
 import org.lisoft.lsml.model.metrics.helpers.IntegratedSignal;
 import org.lisoft.mwo_data.equipment.HeatSource;
 import org.lisoft.mwo_data.equipment.Weapon;
@@ -39,9 +42,12 @@ import org.lisoft.mwo_data.modifiers.Modifier;
  */
 public class HeatOverTime implements VariableMetric, MessageReceiver {
 
+  private final LoadoutEvaluationContext context;
   private final List<IntegratedSignal> heatIntegrals = new ArrayList<>();
   private final Loadout loadout;
   private final int weaponGroup;
+  private boolean dirty = false;
+  private HeatEventSolver heatEvents;
 
   /**
    * Creates a new {@link HeatOverTime} metric for the given loadout. It will calculate the heat
@@ -62,7 +68,22 @@ public class HeatOverTime implements VariableMetric, MessageReceiver {
    * @param aGroup The weapon group to calculate the metric for.
    */
   public HeatOverTime(Loadout aLoadout, MessageReception aReception, int aGroup) {
-    loadout = aLoadout;
+    this(new LoadoutEvaluationContext(aLoadout), aReception, aGroup);
+  }
+
+  /**
+   * Creates a new {@link HeatOverTime} metric for the given weapon group in the loadout using the
+   * values memoised in the given context.
+   *
+   * @param aContext The context of the loadout to calculate the metric for, must be attached to
+   *     'aReception' before this metric if it memoises values.
+   * @param aReception The crossbar to listen for changes on.
+   * @param aGroup The weapon group to calculate the metric for.
+   */
+  public HeatOverTime(
+      LoadoutEvaluationContext aContext, MessageReception aReception, int aGroup) {
+    context = aContext;
+    loadout = aContext.getLoadout();
     weaponGroup = aGroup;
     updateEvents();
     aReception.attach(this);
@@ -70,6 +91,9 @@ public class HeatOverTime implements VariableMetric, MessageReceiver {
 
   @Override
   public double calculate(double aTime) {
+    if (dirty) {
+      updateEvents();
+    }
     double ans = 0;
     for (IntegratedSignal event : heatIntegrals) {
       ans += event.integrateFromZeroTo(aTime);
@@ -93,6 +117,17 @@ public class HeatOverTime implements VariableMetric, MessageReceiver {
     return ans;
   }
 
+  /**
+   * @return A {@link HeatEventSolver} for the heat sources of this metric, or empty if a heat
+   *     source isn't periodic in a way the solver supports.
+   */
+  public Optional<HeatEventSolver> getHeatEvents() {
+    if (dirty) {
+      updateEvents();
+    }
+    return Optional.ofNullable(heatEvents);
+  }
+
   @Override
   public String getMetricName() {
     return "Heat";
@@ -100,23 +135,25 @@ public class HeatOverTime implements VariableMetric, MessageReceiver {
 
   @Override
   public void receive(Message aMsg) {
+    // Rebuilt on the next calculation so that a burst of messages only causes one rebuild.
     if (aMsg.isForMe(loadout) && aMsg.affectsHeatOrDamage()) {
-      updateEvents();
+      dirty = true;
     }
   }
 
   private void updateEvents() {
+    dirty = false;
     heatIntegrals.clear();
-    Collection<Modifier> modifiers = loadout.getAllModifiers();
+    Collection<Modifier> modifiers = context.getModifiers();
 
     final Collection<Weapon> weaponsInGroup;
     if (weaponGroup >= 0) {
-      weaponsInGroup = loadout.getWeaponGroups().getWeapons(weaponGroup, loadout);
+      weaponsInGroup = new ArrayList<>(context.getWeapons(weaponGroup));
     } else {
       weaponsInGroup = null;
     }
 
-    for (HeatSource item : loadout.items(HeatSource.class)) {
+    for (HeatSource item : context.getHeatSources()) {
       // Skip weapons that are not in the current group.
       if (weaponsInGroup != null && item instanceof Weapon) {
         if (weaponsInGroup.contains(item)) {
@@ -127,5 +164,6 @@ public class HeatOverTime implements VariableMetric, MessageReceiver {
       }
       heatIntegrals.add(new ExpectedHeatSignal(item, modifiers));
     }
+    heatEvents = HeatEventSolver.of(heatIntegrals).orElse(null);
   }
 }
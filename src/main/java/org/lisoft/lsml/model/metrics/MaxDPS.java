@@ -17,11 +17,10 @@
  */
 package org.lisoft.lsml.model.metrics;
 
-import java.util.Collection;
 import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutEvaluationContext;
 import org.lisoft.lsml.model.loadout.LoadoutStandard;
 import org.lisoft.mwo_data.equipment.Weapon;
-import org.lisoft.mwo_data.modifiers.Modifier;
 
 /**
  * This {@link Metric} calculates the maximal DPS a {@link LoadoutStandard} can output.
@@ -48,7 +47,18 @@ public class MaxDPS extends AbstractRangeMetric {
    * @param aGroup The weapon group to calculate for.
    */
   public MaxDPS(Loadout aLoadout, int aGroup) {
-    super(aLoadout);
+    this(new LoadoutEvaluationContext(aLoadout), aGroup);
+  }
+
+  /**
+   * Creates a new {@link MaxDPS} metric that calculates the maximal DPS for the given weapon group
+   * using the values memoised in the given context.
+   *
+   * @param aContext The context of the loadout to calculate for.
+   * @param aGroup The weapon group to calculate for.
+   */
+  public MaxDPS(LoadoutEvaluationContext aContext, int aGroup) {
+    super(aContext);
     weaponGroup = aGroup;
   }
 
@@ -57,17 +67,9 @@ public class MaxDPS extends AbstractRangeMetric {
     checkRange(aRange);
 
     double ans = 0;
-    final Collection<Modifier> modifiers = loadout.getAllModifiers();
-    final Iterable<Weapon> weapons;
-    if (weaponGroup < 0) {
-      weapons = loadout.items(Weapon.class);
-    } else {
-      weapons = loadout.getWeaponGroups().getWeapons(weaponGroup, loadout);
-    }
-
-    for (final Weapon weapon : weapons) {
+    for (final Weapon weapon : context.getWeapons(weaponGroup)) {
       if (weapon.isOffensive()) {
-        ans += weapon.getRangeEffectiveness(aRange, modifiers) * weapon.getStat("d/s", modifiers);
+        ans += context.getRangeEffectiveness(weapon, aRange) * context.getStat(weapon, "d/s");
       }
     }
     return ans;
@@ -20,9 +20,13 @@
 package org.lisoft.lsml.model.metrics;
 
 import org.lisoft.lsml.model.loadout.LoadoutStandard;
+import org.lisoft.lsml.model.metrics.helpers.HeatEventSolver;
 
 /**
  * This class calculates the time a mech can keep firing all weapons before it over heats.
+ * <p>
+ * The time is solved exactly by a {@link HeatEventSolver} when the heat sources allow it, otherwise the heat is
+ * integrated numerically in small time steps.
  *
  * @author Li Song
  */
@@ -49,12 +53,19 @@ public class MaxDPSTimeToOverHeat implements Metric {
 
     @Override
     public double calculate() {
+        final double capacity = heatCapacity.calculate();
+        final double dissipation = heatDissipation.calculate();
+        return heatOverTime.getHeatEvents()
+                           .map(aSolver -> aSolver.timeToOverHeat(capacity, dissipation, MAX_TIME))
+                           .orElseGet(() -> integrate(capacity, dissipation));
+    }
+
+    private double integrate(double aCapacity, double aDissipation) {
         double heat = 0;
         double time = 0;
         double lastHeat = 0;
-        final double dissipated = heatDissipation.calculate() * TIME_STEP;
+        final double dissipated = aDissipation * TIME_STEP;
 
-        final double capacity = heatCapacity.calculate();
         // First order linear ODE, using Euler's method.
         while (time < MAX_TIME) {
             final double currentHeat = heatOverTime.calculate(time);
@@ -63,7 +74,7 @@ public class MaxDPSTimeToOverHeat implements Metric {
             heat = Math.max(0, heat);
             time += TIME_STEP;
             lastHeat = currentHeat;
-            if (heat >= capacity) {
+            if (heat >= aCapacity) {
                 return time;
             }
         }
@@ -18,13 +18,11 @@
 package org.lisoft.lsml.model.metrics;
 
 import java.util.*;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutEvaluationContext;
 import org.lisoft.lsml.model.loadout.LoadoutStandard;
 import org.lisoft.mwo_data.equipment.Engine;
 import org.lisoft.mwo_data.equipment.Weapon;
-import org.lisoft.mwo_data.modifiers.Modifier;
 
 /**
  * This {@link Metric} calculates the maximal DPS that a {@link LoadoutStandard} can sustain
@@ -59,7 +57,23 @@ public class MaxSustainedDPS extends AbstractRangeMetric {
    */
   public MaxSustainedDPS(
       final Loadout aLoadout, final HeatDissipation aHeatDissipation, int aGroup) {
-    super(aLoadout);
+    this(new LoadoutEvaluationContext(aLoadout), aHeatDissipation, aGroup);
+  }
+
+  /**
+   * Creates a new {@link MaxSustainedDPS} that calculates the maximal possible sustained DPS for
+   * the given weapon group using the values memoised in the given context.
+   *
+   * @param aContext The context of the loadout to calculate for.
+   * @param aHeatDissipation A metric that calculates the effective heat dissipation for the
+   *     loadout.
+   * @param aGroup The weapon group to calculate the metric for.
+   */
+  public MaxSustainedDPS(
+      final LoadoutEvaluationContext aContext,
+      final HeatDissipation aHeatDissipation,
+      int aGroup) {
+    super(aContext);
     dissipation = aHeatDissipation;
     weaponGroup = aGroup;
   }
@@ -69,12 +83,11 @@ public class MaxSustainedDPS extends AbstractRangeMetric {
     checkRange(aRange);
     double ans = 0.0;
     final Map<Weapon, Double> dd = getWeaponRatios(aRange);
-    final Collection<Modifier> modifiers = loadout.getAllModifiers();
     for (final Map.Entry<Weapon, Double> entry : dd.entrySet()) {
       final Weapon weapon = entry.getKey();
       final double ratio = entry.getValue();
-      final double rangeEffectivity = weapon.getRangeEffectiveness(aRange, modifiers);
-      ans += rangeEffectivity * weapon.getStat("d/s", modifiers) * ratio;
+      final double rangeEffectivity = context.getRangeEffectiveness(weapon, aRange);
+      ans += rangeEffectivity * context.getStat(weapon, "d/s") * ratio;
     }
     return ans;
   }
@@ -90,42 +103,38 @@ public class MaxSustainedDPS extends AbstractRangeMetric {
    *     of how often the weapon is used.
    */
   public Map<Weapon, Double> getWeaponRatios(final double aRange) {
-    final Collection<Modifier> modifiers = loadout.getAllModifiers();
     double heatLeft = dissipation.calculate();
     final Engine engine = loadout.getEngine();
     if (null != engine) {
-      heatLeft -= engine.getHeat(modifiers);
+      heatLeft -= engine.getHeat(context.getModifiers());
     }
 
     final Comparator<Weapon> byDPH =
         (aO1, aO2) -> {
           // Note: D/H == DPS / HPS so we're ordering by highest DPS per HPS.
           final double rangeFactor1 =
-              aRange >= 0.0 ? aO1.getRangeEffectiveness(aRange, modifiers) : 1.0;
+              aRange >= 0.0 ? context.getRangeEffectiveness(aO1, aRange) : 1.0;
           final double rangeFactor2 =
-              aRange >= 0.0 ? aO2.getRangeEffectiveness(aRange, modifiers) : 1.0;
+              aRange >= 0.0 ? context.getRangeEffectiveness(aO2, aRange) : 1.0;
           // Note that getStat(d/h) may return +Infinity for some weapons (e.g. Machine Gun), if in
           // that case
           // rangeFactor is 0.0 then 0.0*Infinity will result in NaN which will ruin the sorting.
           // Avoid this by
           // shorting out getStat(d/h) if the range factor is 0.0.
-          final double dps1 = rangeFactor1 == 0 ? 0 : rangeFactor1 * aO1.getStat("d/h", modifiers);
-          final double dps2 = rangeFactor2 == 0 ? 0 : rangeFactor2 * aO2.getStat("d/h", modifiers);
+          final double dps1 = rangeFactor1 == 0 ? 0 : rangeFactor1 * context.getStat(aO1, "d/h");
+          final double dps2 = rangeFactor2 == 0 ? 0 : rangeFactor2 * context.getStat(aO2, "d/h");
           return Double.compare(dps2, dps1);
         };
 
-    final Stream<Weapon> weapons;
-    if (weaponGroup < 0) {
-      weapons = StreamSupport.stream(loadout.items(Weapon.class).spliterator(), false);
-    } else {
-      weapons = loadout.getWeaponGroups().getWeapons(weaponGroup, loadout).stream();
-    }
-
-    final List<Weapon> filteredWeapons = weapons.filter(Weapon::isOffensive).sorted(byDPH).toList();
+    final List<Weapon> filteredWeapons =
+        context.getWeapons(weaponGroup).stream()
+            .filter(Weapon::isOffensive)
+            .sorted(byDPH)
+            .toList();
 
     final Map<Weapon, Double> ans = new HashMap<>();
     for (final Weapon weapon : filteredWeapons) {
-      final double heat = weapon.getStat("h/s", modifiers);
+      final double heat = context.getStat(weapon, "h/s");
       final double ratio;
 
       if (heatLeft == 0) {
@@ -20,6 +20,7 @@
 package org.lisoft.lsml.model.metrics;
 
 import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutEvaluationContext;
 import org.lisoft.lsml.util.WeaponRanges;
 
 /**
@@ -29,6 +30,7 @@ import org.lisoft.lsml.util.WeaponRanges;
  * @author Li Song
  */
 public abstract class RangeTimeMetric implements RangeMetric {
+    protected final LoadoutEvaluationContext context;
     protected final Loadout loadout;
     protected double time = 0;
     private boolean fixedRange = false;
@@ -36,7 +38,15 @@ public abstract class RangeTimeMetric implements RangeMetric {
     private double range = -1;
 
     public RangeTimeMetric(Loadout aLoadout) {
-        loadout = aLoadout;
+        this(new LoadoutEvaluationContext(aLoadout));
+    }
+
+    /**
+     * @param aContext The {@link LoadoutEvaluationContext} to read the loadout's values from.
+     */
+    public RangeTimeMetric(LoadoutEvaluationContext aContext) {
+        context = aContext;
+        loadout = aContext.getLoadout();
     }
 
     /**
@@ -54,7 +64,7 @@ public abstract class RangeTimeMetric implements RangeMetric {
         }
 
         double max = Double.NEGATIVE_INFINITY;
-        for (final Double r : WeaponRanges.getRanges(loadout)) {
+        for (final Double r : context.getWeaponRanges()) {
             final double value = calculate(r, time);
             if (value >= max) {
                 max = value;
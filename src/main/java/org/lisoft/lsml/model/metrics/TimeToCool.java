@@ -17,6 +17,7 @@
  */
 package org.lisoft.lsml.model.metrics;
 
+import org.lisoft.lsml.model.metrics.helpers.HeatEventSolver;
 import org.lisoft.mwo_data.equipment.Engine;
 
 /**
@@ -46,6 +47,7 @@ public class TimeToCool implements Metric {
    */
   @Override
   public double calculate() {
-    return capacity.calculate() / (dissipation.calculate() - Engine.ENGINE_HEAT_FULL_THROTTLE);
+    return HeatEventSolver.constant(Engine.ENGINE_HEAT_FULL_THROTTLE)
+        .timeToCool(capacity.calculate(), dissipation.calculate(), Double.POSITIVE_INFINITY);
   }
 }
@@ -19,6 +19,7 @@ package org.lisoft.lsml.model.metrics;
 
 import java.util.Collection;
 import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutEvaluationContext;
 import org.lisoft.lsml.model.loadout.LoadoutStandard;
 import org.lisoft.mwo_data.equipment.Engine;
 import org.lisoft.mwo_data.mechs.MovementProfile;
@@ -31,10 +32,19 @@ import org.lisoft.mwo_data.modifiers.Modifier;
  * @author Li Song
  */
 public class TopSpeed implements Metric {
+  private final LoadoutEvaluationContext context;
   private final Loadout loadout;
 
   public TopSpeed(final Loadout aLoadout) {
-    loadout = aLoadout;
+    this(new LoadoutEvaluationContext(aLoadout));
+  }
+
+  /**
+   * @param aContext The context of the loadout to calculate for.
+   */
+  public TopSpeed(LoadoutEvaluationContext aContext) {
+    context = aContext;
+    loadout = aContext.getLoadout();
   }
 
   /**
@@ -65,6 +75,6 @@ public class TopSpeed implements Metric {
         engine.getRating(),
         loadout.getMovementProfile(),
         loadout.getChassis().getMassMax(),
-        loadout.getAllModifiers());
+        context.getModifiers());
   }
 }
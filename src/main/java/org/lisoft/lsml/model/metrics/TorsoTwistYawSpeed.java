@@ -20,6 +20,7 @@
 package org.lisoft.lsml.model.metrics;
 
 import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutEvaluationContext;
 
 /**
  * This {@link Metric} calculates how quickly a mech can twist its torso in relation to its feet.
@@ -27,14 +28,21 @@ import org.lisoft.lsml.model.loadout.Loadout;
  * @author Li Song
  */
 public class TorsoTwistYawSpeed implements Metric {
-    private final Loadout loadout;
+    private final LoadoutEvaluationContext context;
 
     public TorsoTwistYawSpeed(Loadout aLoadout) {
-        loadout = aLoadout;
+        this(new LoadoutEvaluationContext(aLoadout));
+    }
+
+    /**
+     * @param aContext The context of the loadout to calculate for.
+     */
+    public TorsoTwistYawSpeed(LoadoutEvaluationContext aContext) {
+        context = aContext;
     }
 
     @Override
     public double calculate() {
-        return loadout.getMovementProfile().getTorsoYawSpeed(loadout.getAllModifiers());
+        return context.getLoadout().getMovementProfile().getTorsoYawSpeed(context.getModifiers());
     }
 }
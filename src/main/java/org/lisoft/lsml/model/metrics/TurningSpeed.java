@@ -22,6 +22,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutEvaluationContext;
 import org.lisoft.mwo_data.mechs.MovementProfile;
 import org.lisoft.mwo_data.modifiers.Modifier;
 
@@ -32,10 +33,19 @@ import org.lisoft.mwo_data.modifiers.Modifier;
  */
 public class TurningSpeed implements Metric, VariableMetric {
 
+  private final LoadoutEvaluationContext context;
   private final Loadout loadout;
 
   public TurningSpeed(Loadout aLoadout) {
-    loadout = aLoadout;
+    this(new LoadoutEvaluationContext(aLoadout));
+  }
+
+  /**
+   * @param aContext The context of the loadout to calculate for.
+   */
+  public TurningSpeed(LoadoutEvaluationContext aContext) {
+    context = aContext;
+    loadout = aContext.getLoadout();
   }
 
   public static double getTurnRateAtThrottle(
@@ -77,7 +87,7 @@ public class TurningSpeed implements Metric, VariableMetric {
   @Override
   public double calculate(double aThrottle) {
     return getTurnRateAtThrottle(
-        aThrottle, loadout.getMovementProfile(), loadout.getAllModifiers());
+        aThrottle, loadout.getMovementProfile(), context.getModifiers());
   }
 
   @Override
@@ -90,7 +100,7 @@ public class TurningSpeed implements Metric, VariableMetric {
     final ArrayList<Double> ans = new ArrayList<>();
 
     final MovementProfile mp = loadout.getMovementProfile();
-    final Collection<Modifier> modifiers = loadout.getAllModifiers();
+    final Collection<Modifier> modifiers = context.getModifiers();
 
     ans.add(0.0);
     ans.add(mp.getTurnLerpLowSpeed(modifiers));
@@ -17,8 +17,10 @@
  */
 package org.lisoft.lsml.model.metrics.helpers;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import org.lisoft.lsml.model.loadout.ConfiguredComponent;
@@ -45,6 +47,11 @@ import org.lisoft.mwo_data.modifiers.Modifier;
  *   <li>15% of critical damage is always transferred to the component IS. FIXME: NYI
  * </ul>
  *
+ * <p>The simulation tracks the probability distribution over the states of the component shot by
+ * shot and critical roll by critical roll. Different sequences of hits that lead to the same state
+ * are merged, so the work is bounded by the number of distinct states rather than the number of
+ * hit sequences.
+ *
  * @author Li Song
  */
 public class ComponentDestructionSimulator {
@@ -59,12 +66,6 @@ public class ComponentDestructionSimulator {
       P_destroyed = 0.0;
     }
 
-    ItemState(ItemState aState) {
-      multiplicity = aState.multiplicity;
-      healthLeft = aState.healthLeft;
-      P_destroyed = aState.P_destroyed;
-    }
-
     void add(Item aItem) {
       final double hp;
       if (aItem instanceof Engine) {
@@ -78,10 +79,65 @@ public class ComponentDestructionSimulator {
     }
   }
 
+  /**
+   * A canonical state of the component. For every item, the multiplicity and the health left (as
+   * raw bits) are packed into a primitive array so that equal states can be hashed and merged.
+   */
+  private static final class State {
+    private final int hash;
+    private final long[] packed;
+
+    State(long[] aPacked) {
+      packed = aPacked;
+      hash = Arrays.hashCode(packed);
+    }
+
+    @Override
+    public boolean equals(Object aObject) {
+      return aObject instanceof final State that && Arrays.equals(packed, that.packed);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    State damaged(int aItem) {
+      final long[] ans = packed.clone();
+      ans[2 * aItem + 1] = Double.doubleToLongBits(healthLeft(aItem) - WEAPON_ALPHA);
+      return new State(ans);
+    }
+
+    State destroyed(int aItem) {
+      final long[] ans = packed.clone();
+      ans[2 * aItem]--;
+      if (ans[2 * aItem] == 0) {
+        ans[2 * aItem + 1] = 0; // Keep the state canonical
+      }
+      return new State(ans);
+    }
+
+    double healthLeft(int aItem) {
+      return Double.longBitsToDouble(packed[2 * aItem + 1]);
+    }
+
+    int multiplicity(int aItem) {
+      return (int) packed[2 * aItem];
+    }
+  }
+
+  /**
+   * States less probable than this after a shot are dropped as they have no significant effect on
+   * the results.
+   */
+  private static final double P_NEGLIGIBLE = 1E-9;
+
   private static final double WEAPON_ALPHA = 10.0;
   private final ConfiguredComponent component;
   // Key: Item - Value: <multiplicity, total probability>
   private final Map<Item, ItemState> stateMap = new HashMap<>();
+  private double[] destroyed;
+  private Item[] items;
 
   /**
    * Creates a new {@link ComponentDestructionSimulator}.
@@ -112,109 +168,119 @@ public class ComponentDestructionSimulator {
     final int numShots = (int) Math.ceil(componentHealth / WEAPON_ALPHA);
     stateMap.clear();
 
-    int slots = 0;
     for (final Item item : component.getItemsEquipped()) {
-      slots += addItemToSimulation(item);
+      addItemToSimulation(item);
     }
 
     for (final Item item : component.getItemsFixed()) {
-      slots += addItemToSimulation(item);
+      addItemToSimulation(item);
     }
 
-    simulateShot(stateMap, slots, 1.0, numShots);
-  }
+    items = stateMap.keySet().toArray(new Item[0]);
+    destroyed = new double[items.length];
+    final long[] initial = new long[2 * items.length];
+    for (int i = 0; i < items.length; ++i) {
+      final ItemState itemState = stateMap.get(items[i]);
+      initial[2 * i] = itemState.multiplicity;
+      initial[2 * i + 1] = Double.doubleToLongBits(itemState.healthLeft);
+    }
 
-  private int addItemToSimulation(Item aItem) {
-    if (!aItem.canBeCriticallyHit()) {
-      return 0;
+    Map<State, Double> distribution = new HashMap<>();
+    distribution.put(new State(initial), 1.0);
+    for (int shot = 0; shot < numShots && !distribution.isEmpty(); ++shot) {
+      distribution = simulateShot(distribution);
     }
 
-    stateMap.computeIfAbsent(aItem, x -> new ItemState()).add(aItem);
-    return aItem.getSlots();
+    for (int i = 0; i < items.length; ++i) {
+      stateMap.get(items[i]).P_destroyed = destroyed[i];
+    }
   }
 
-  private Map<Item, ItemState> cloneState(Map<Item, ItemState> aMap) {
-    final Map<Item, ItemState> ans = new HashMap<>(aMap.size());
-    for (final Entry<Item, ItemState> entry : aMap.entrySet()) {
-      ans.put(entry.getKey(), new ItemState(entry.getValue()));
+  private static void addScaled(Map<State, Double> aTarget, Map<State, Double> aSource, double aP) {
+    for (final Entry<State, Double> entry : aSource.entrySet()) {
+      aTarget.merge(entry.getKey(), entry.getValue() * aP, Double::sum);
+    }
+  }
+
+  private void addItemToSimulation(Item aItem) {
+    if (aItem.canBeCriticallyHit()) {
+      stateMap.computeIfAbsent(aItem, x -> new ItemState()).add(aItem);
     }
-    return ans;
   }
 
   /**
-   * HERE BE DRAGONS! DO NOT TOUCH!
+   * Performs one critical hit roll on every state in the distribution.
    *
-   * @param aState
-   * @param aP_this
-   * @param aTotalSlots
-   * @param aShotsLeft
-   * @param aCritRollsLeft
+   * @param aDistribution The distribution of states before the roll.
+   * @param aP_roll The probability that this roll happens at all, used to weigh the destruction
+   *     probabilities.
+   * @return The distribution of states after the roll, given that the roll happened. States where
+   *     no items are left are dropped.
    */
-  private void simulateRound(
-      Map<Item, ItemState> aState,
-      double aP_this,
-      int aTotalSlots,
-      int aCritRollsLeft,
-      int aShotsLeft) {
-    if (aShotsLeft <= 0) {
-      return;
-    }
-    if (aP_this < 0.0005) {
-      return; // Too small to have significant effect on results
-    }
+  private Map<State, Double> simulateCritRoll(Map<State, Double> aDistribution, double aP_roll) {
+    final Map<State, Double> ans = new HashMap<>();
+    for (final Entry<State, Double> entry : aDistribution.entrySet()) {
+      final State state = entry.getKey();
+      final double P_state = entry.getValue();
+
+      int totalSlots = 0;
+      for (int i = 0; i < items.length; ++i) {
+        totalSlots += items[i].getSlots() * state.multiplicity(i);
+      }
+      if (totalSlots <= 0) {
+        continue;
+      }
 
-    // If there are critical hit rolls left for this shot, perform them
-    if (aCritRollsLeft > 0) {
       // For every item that can be hit...
-      for (final Entry<Item, ItemState> entry : aState.entrySet()) {
-        final Item item = entry.getKey();
-        int itemSlots = item.getSlots();
-        final int multi = entry.getValue().multiplicity;
+      for (int i = 0; i < items.length; ++i) {
+        final int multi = state.multiplicity(i);
+        if (multi == 0) {
+          continue;
+        }
 
         // Determine the probability that it'll be hit
-        double P_hit = (double) itemSlots / aTotalSlots;
+        double P_hit = (double) items[i].getSlots() / totalSlots;
         P_hit *= multi;
 
-        // Generate a new state where the item has been destroyed
-        final Map<Item, ItemState> newState = cloneState(aState);
-        final ItemState pair = newState.get(item);
-        if (pair.healthLeft <= WEAPON_ALPHA + Math.ulp(WEAPON_ALPHA) * 10) {
-          if (pair.multiplicity == 1) {
-            newState.remove(item);
-          } else {
-            pair.multiplicity--;
-          }
-          updateResultProbability(item, P_hit * aP_this);
+        final State newState;
+        if (state.healthLeft(i) <= WEAPON_ALPHA + Math.ulp(WEAPON_ALPHA) * 10) {
+          newState = state.destroyed(i);
+          destroyed[i] += P_hit * P_state * aP_roll;
         } else {
-          pair.healthLeft -= WEAPON_ALPHA;
-          itemSlots = 0;
+          newState = state.damaged(i);
         }
-        simulateRound(
-            newState, aP_this * P_hit, aTotalSlots - itemSlots, aCritRollsLeft - 1, aShotsLeft);
+        ans.merge(newState, P_state * P_hit, Double::sum);
       }
-    } else {
-      simulateShot(aState, aTotalSlots, aP_this, aShotsLeft - 1);
     }
+    return ans;
   }
 
-  private void simulateShot(
-      Map<Item, ItemState> aState, int aTotalSlots, double aP_this, int aShotsLeft) {
+  /**
+   * Simulates one shot on the component.
+   *
+   * @param aDistribution The distribution of states before the shot.
+   * @return The distribution of states after the shot.
+   */
+  private Map<State, Double> simulateShot(Map<State, Double> aDistribution) {
+    final List<Double> critChance = CriticalStrikeProbability.CRITICAL_HIT_CHANCE;
+    final Map<State, Double> ans = new HashMap<>();
+
     // No critical hits
-    simulateRound(
-        aState, CriticalStrikeProbability.MISS_CHANCE * aP_this, aTotalSlots, 0, aShotsLeft);
+    addScaled(ans, aDistribution, CriticalStrikeProbability.MISS_CHANCE);
 
-    for (int i = 0; i < CriticalStrikeProbability.CRITICAL_HIT_CHANCE.size(); ++i) {
-      simulateRound(
-          aState,
-          CriticalStrikeProbability.CRITICAL_HIT_CHANCE.get(i) * aP_this,
-          aTotalSlots,
-          i + 1,
-          aShotsLeft);
+    // The k:th critical roll happens if there are k or more critical hits, the states after k
+    // rolls are shared by all outcomes with k or more critical hits.
+    Map<State, Double> rolled = aDistribution;
+    for (int i = 0; i < critChance.size(); ++i) {
+      double P_roll = 0.0;
+      for (int j = i; j < critChance.size(); ++j) {
+        P_roll += critChance.get(j);
+      }
+      rolled = simulateCritRoll(rolled, P_roll);
+      addScaled(ans, rolled, critChance.get(i));
     }
-  }
 
-  private void updateResultProbability(Item aItem, double aP) {
-    final ItemState itemState = stateMap.get(aItem);
-    itemState.P_destroyed += aP;
+    ans.values().removeIf(p -> p < P_NEGLIGIBLE);
+    return ans;
   }
 }
@@ -19,12 +19,9 @@ package org.lisoft.lsml.model.metrics.helpers;
 
 import static java.lang.Math.*;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
 import java.util.Collection;
-import java.util.PriorityQueue;
-import org.lisoft.lsml.math.probability.BinomialDistribution;
-import org.lisoft.lsml.util.Pair;
+import org.lisoft.lsml.math.numerics.Binomial;
+import org.lisoft.lsml.math.numerics.CompensatedSum;
 import org.lisoft.mwo_data.equipment.BallisticWeapon;
 import org.lisoft.mwo_data.modifiers.Modifier;
 
@@ -124,14 +121,13 @@ public class DoubleFireBurstSignal implements IntegratedSignal {
     final int maxShots = (int) ceil(aDuration / normalEventDuration);
 
     // We're summing potentially many small floating point numbers, in order to preserve accuracy we
-    // need to
-    // recursively sum them, small to big.
-    final PriorityQueue<Double> sumZk = new PriorityQueue<>();
+    // use compensated summation.
+    final CompensatedSum sumZk = new CompensatedSum();
 
     // For verification purposes we also compute the sum of the probabilities to use in tests to do
     // invasive
     // verification.
-    final PriorityQueue<Double> sumPkPq = new PriorityQueue<>();
+    final CompensatedSum sumPkCs = new CompensatedSum();
 
     final double epsilon = ulp(aDuration) * 100;
 
@@ -153,9 +149,7 @@ public class DoubleFireBurstSignal implements IntegratedSignal {
 
       if (tailTime <= epsilon) {
         // The normal and jammed events perfectly fill the available time
-        Pair<Double, Double> result = pShots(jammedEvents, normalEvents, false, false, 0);
-        sumZk.add(result.first);
-        sumPkPq.add(result.second);
+        pShots(sumZk, sumPkCs, jammedEvents, normalEvents, false, false, 0);
       } else {
         // After considering the sum whole events, there is time left in the timeline, tailTime,
         // i.e. we have
@@ -171,34 +165,19 @@ public class DoubleFireBurstSignal implements IntegratedSignal {
         //    slack time + normalDuration >= jam duration
 
         // Case 1) We have "normalEvents" whole normal events, and a tail jam
-        {
-          Pair<Double, Double> result =
-              pShots(jammedEvents + 1, normalEvents, true, false, tailTime);
-          sumZk.add(result.first);
-          sumPkPq.add(result.second);
-        }
+        pShots(sumZk, sumPkCs, jammedEvents + 1, normalEvents, true, false, tailTime);
 
         if (normalEvents > 0
             && aDuration - ((normalEvents - 1) * normalEventDuration + sumJammedDuration + epsilon)
                 >= jammedEventDuration) {
           // Case 2) is possible and must be included
-          Pair<Double, Double> result = pShots(jammedEvents + 1, normalEvents, false, true, 0);
-          sumZk.add(result.first);
-          sumPkPq.add(result.second);
+          pShots(sumZk, sumPkCs, jammedEvents + 1, normalEvents, false, true, 0);
         }
       }
       normalEvents--;
     }
 
-    // ACCURATELY compute the sum of many small floating point values
-    while (sumZk.size() > 1) {
-      sumZk.add(sumZk.remove() + sumZk.remove());
-    }
-    while (sumPkPq.size() > 1) {
-      sumPkPq.add(sumPkPq.remove() + sumPkPq.remove());
-    }
-
-    if (sumZk.isEmpty()) {
+    if (maxShots < 0) {
       return jamFreeShots;
     }
 
@@ -206,32 +185,40 @@ public class DoubleFireBurstSignal implements IntegratedSignal {
     // that it isn't,
     // normalizing the statistical result by it will empirically produce slightly less wrong
     // results.
-    sumPk = sumPkPq.remove();
-    return jamFreeShots + sumZk.remove() / sumPk;
+    sumPk = sumPkCs.value();
+    return jamFreeShots + sumZk.value() / sumPk;
   }
 
-  Pair<Double, Double> pShots(
-      int jams, int normals, boolean tailJam, boolean tailShot, double tailTime) {
+  /**
+   * Adds the probability of a branch with the given number of jams and normal shots, and the
+   * expected number of shots in it, to the given sums.
+   */
+  void pShots(
+      CompensatedSum aSumZk,
+      CompensatedSum aSumPk,
+      int jams,
+      int normals,
+      boolean tailJam,
+      boolean tailShot,
+      double tailTime) {
     // Probability of a branch with the given number of jams and normal shots.
     final double jamProbability = weapon.getJamProbability(modifiers);
-    final BigDecimal probabilityOfJams = BigDecimal.valueOf(jamProbability).pow(jams);
-    final BigDecimal probabilityOfNormals = BigDecimal.valueOf(1.0 - jamProbability).pow(normals);
-    final BigDecimal probabilityOfBranch = probabilityOfJams.multiply(probabilityOfNormals);
-    final BigInteger numberOfBranches;
+    final double Pk;
 
     if (tailJam) {
       // Because we have a tail jam, we actually only permute k-1 of the jams, and the last of
       // the n events is the tail jam. So we need n-1 choose k-1.
-      numberOfBranches = BinomialDistribution.nChooseKLargeNumbers(normals + jams - 1, jams - 1);
+      Pk = jamProbability * Binomial.pmf(jams - 1, normals + jams - 1, jamProbability);
       jams -= 1;
     } else if (tailShot) {
-      numberOfBranches = BinomialDistribution.nChooseKLargeNumbers(normals + jams - 1, jams);
+      // We need n-1 choose k, which is (n-k)/n of n choose k. Unlike multiplying the n-1 event
+      // probability by 1-p, this doesn't round 1-p.
+      Pk =
+          (double) normals / (normals + jams) * Binomial.pmf(jams, normals + jams, jamProbability);
     } else {
-      numberOfBranches = BinomialDistribution.nChooseKLargeNumbers(normals + jams, jams);
+      Pk = Binomial.pmf(jams, normals + jams, jamProbability);
     }
 
-    final double Pk = new BigDecimal(numberOfBranches).multiply(probabilityOfBranch).doubleValue();
-
     final int jamFreeCoolDowns = jamFreeCoolDowns();
     final int shotsNormally = 1 + weapon.getShotsDuringCoolDown();
     final int shotsDuringJam = 1 + jamFreeCoolDowns * shotsNormally;
@@ -244,6 +231,7 @@ public class DoubleFireBurstSignal implements IntegratedSignal {
           max(0.0, tailTime - weapon.getJamTime(modifiers) - weapon.getRampUpTime());
       Zk += Pk * (1 + jamFreeCoolDowns(tailTimeAfterJamAndRampUp) * shotsNormally);
     }
-    return new Pair<>(Zk, Pk);
+    aSumZk.add(Zk);
+    aSumPk.add(Pk);
   }
 }
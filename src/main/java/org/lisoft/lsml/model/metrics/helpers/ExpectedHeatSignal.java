@@ -68,6 +68,13 @@ public class ExpectedHeatSignal implements IntegratedSignal {
     }
   }
 
+  /**
+   * @return The underlying constant, impulse train or pulse train signal.
+   */
+  public IntegratedSignal getSignal() {
+    return signal;
+  }
+
   @Override
   public double integrateFromZeroTo(double aTime) {
     return signal.integrateFromZeroTo(aTime);
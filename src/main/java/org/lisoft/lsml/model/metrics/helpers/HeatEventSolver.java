@@ -0,0 +1,343 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.model.metrics.helpers;
+
+import java.util.*;
+
+/**
+ * This class solves the heat level of a mech over time analytically for heat sources that are
+ * constant or periodic trains of impulses or pulses, like the {@link ExpectedHeatSignal}s of all
+ * equipped weapons and the engine.
+ *
+ * <p>The heat events of all trains are merged into one time ordered stream of events, between two
+ * events the heat generation is constant so the heat level is a linear function of time which is
+ * solved exactly. The heat level can never fall below zero.
+ *
+ * <p>If all periods are commensurate, the events repeat exactly after the least common multiple of
+ * the periods (the hyperperiod). This is used to skip ahead over the periods that are known to
+ * not cause an over heat, or to detect that the heat has reached a periodic steady state.
+ *
+ * @author Li Song
+ */
+public class HeatEventSolver {
+  private static final double PERIOD_TOLERANCE = 1E-9;
+  private static final double TIME_QUANTUM = 1E-4;
+  private final List<Train> trains = new ArrayList<>();
+  private double constantRate = 0.0;
+
+  /**
+   * A periodic train of heat events that starts at time zero. A width of zero denotes an impulse
+   * train where the amount is the heat of each impulse, otherwise the amount is the heat rate
+   * during each pulse.
+   */
+  private record Train(double period, double width, double amount) {
+    boolean isImpulse() {
+      return width == 0.0;
+    }
+  }
+
+  /** Iterates over the events of one {@link Train} within a window of time. */
+  private static final class Cursor implements Comparable<Cursor> {
+    private final long count;
+    private final double length;
+    private final Train train;
+    private boolean end = false;
+    private long k = 0;
+    private double time = 0.0;
+
+    Cursor(Train aTrain, long aCount, double aLength) {
+      train = aTrain;
+      count = aCount;
+      length = aLength;
+    }
+
+    @Override
+    public int compareTo(Cursor aCursor) {
+      return Double.compare(time, aCursor.time);
+    }
+
+    /**
+     * Moves to the next event of the train.
+     *
+     * @return <code>true</code> if there is another event in the window.
+     */
+    boolean advance() {
+      if (!train.isImpulse() && !end) {
+        end = true;
+        time = Math.min(start() + train.width, length);
+        return true;
+      }
+      end = false;
+      k++;
+      time = start();
+      return k < count;
+    }
+
+    private double start() {
+      // Avoids 0 * infinity for trains with infinite period.
+      return k == 0 ? 0.0 : k * train.period;
+    }
+  }
+
+  /** The heat state of one sweep over the event stream. */
+  private final class Sweep {
+    private final double capacity;
+    private final double dissipation;
+    private boolean clamped;
+    private double heat;
+    private double peak;
+
+    Sweep(double aHeat, double aCapacity, double aDissipation) {
+      heat = aHeat;
+      capacity = aCapacity;
+      dissipation = aDissipation;
+    }
+
+    /**
+     * Sweeps over the events in a window of time starting at the current heat level.
+     *
+     * @param aLength The length of the window.
+     * @param aWholePeriods <code>true</code> if the window is a whole number of periods of every
+     *     train.
+     * @param aCooling <code>true</code> to stop when the heat reaches zero, otherwise the sweep
+     *     stops when the heat reaches the capacity.
+     * @return The time into the window where the sweep stopped, or {@link Double#NaN} if it didn't.
+     */
+    double run(double aLength, boolean aWholePeriods, boolean aCooling) {
+      clamped = false;
+      peak = heat;
+      final PriorityQueue<Cursor> events = new PriorityQueue<>();
+      for (final Train train : trains) {
+        final long count =
+            aWholePeriods
+                ? Math.round(aLength / train.period)
+                : Math.max(1, (long) Math.ceil(aLength / train.period));
+        events.add(new Cursor(train, count, aLength));
+      }
+
+      double time = 0.0;
+      double rate = constantRate;
+      while (true) {
+        final Cursor event = events.poll();
+        final double until = event == null ? aLength : event.time;
+        final double stop = aCooling ? cool(time, until, rate) : heat(time, until, rate);
+        if (!Double.isNaN(stop) || event == null) {
+          return stop;
+        }
+        time = until;
+
+        if (event.train.isImpulse()) {
+          heat += event.train.amount;
+          peak = Math.max(peak, heat);
+          if (!aCooling && heat >= capacity) {
+            return time;
+          }
+        } else {
+          rate += event.end ? -event.train.amount : event.train.amount;
+        }
+
+        if (event.advance()) {
+          events.add(event);
+        }
+      }
+    }
+
+    private double cool(double aFrom, double aTo, double aRate) {
+      final double net = aRate - dissipation;
+      final double next = heat + net * (aTo - aFrom);
+      if (net < 0.0 && next <= 0.0) {
+        return aFrom + heat / (dissipation - aRate);
+      }
+      heat = next;
+      return Double.NaN;
+    }
+
+    private double heat(double aFrom, double aTo, double aRate) {
+      final double net = aRate - dissipation;
+      final double next = heat + net * (aTo - aFrom);
+      if (net > 0.0 && next >= capacity) {
+        return aFrom + (capacity - heat) / net;
+      }
+      if (net < 0.0 && next <= 0.0) {
+        heat = 0.0;
+        clamped = true;
+      } else {
+        heat = next;
+      }
+      peak = Math.max(peak, heat);
+      return Double.NaN;
+    }
+  }
+
+  private HeatEventSolver() {
+    // Use the factory methods.
+  }
+
+  /**
+   * Creates a new solver for a heat source that generates a constant amount of heat per second.
+   *
+   * @param aRate The heat generated per second.
+   * @return A new {@link HeatEventSolver}.
+   */
+  public static HeatEventSolver constant(double aRate) {
+    final HeatEventSolver solver = new HeatEventSolver();
+    solver.constantRate = aRate;
+    return solver;
+  }
+
+  /**
+   * Creates a new solver for the sum of the given heat signals.
+   *
+   * @param aSignals The integrated heat signals to solve for.
+   * @return A new {@link HeatEventSolver}, or empty if any of the signals isn't a constant,
+   *     impulse train or pulse train.
+   */
+  public static Optional<HeatEventSolver> of(Collection<? extends IntegratedSignal> aSignals) {
+    final HeatEventSolver solver = new HeatEventSolver();
+    for (final IntegratedSignal signal : aSignals) {
+      if (!solver.add(signal)) {
+        return Optional.empty();
+      }
+    }
+    return Optional.of(solver);
+  }
+
+  private static long gcd(long aA, long aB) {
+    return aB == 0 ? aA : gcd(aB, aA % aB);
+  }
+
+  private boolean add(IntegratedSignal aSignal) {
+    if (aSignal instanceof final ExpectedHeatSignal expected) {
+      return add(expected.getSignal());
+    } else if (aSignal instanceof final IntegratedConstantSignal constant) {
+      constantRate += constant.getConstant();
+    } else if (aSignal instanceof final IntegratedImpulseTrain impulses) {
+      trains.add(new Train(impulses.getPeriod(), 0.0, impulses.getAmplitude()));
+    } else if (aSignal instanceof final IntegratedPulseTrain pulses) {
+      // Overlapping pulses are not a train of separate events.
+      if (!(pulses.getPulseWidth() > 0.0) || pulses.getPulseWidth() > pulses.getPeriod()) {
+        return false;
+      }
+      trains.add(new Train(pulses.getPeriod(), pulses.getPulseWidth(), pulses.getAmplitude()));
+    } else {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Calculates the time it takes for the heat to fall from the given level to zero.
+   *
+   * @param aHeat The heat level to start at.
+   * @param aDissipation The heat dissipated per second.
+   * @param aMaxTime The longest time to consider, must be finite unless the solver is constant.
+   * @return The time in seconds until the heat is zero, or {@link Double#POSITIVE_INFINITY} if it
+   *     takes longer than the max time.
+   */
+  public double timeToCool(double aHeat, double aDissipation, double aMaxTime) {
+    if (!trains.isEmpty() && Double.isInfinite(aMaxTime)) {
+      throw new IllegalArgumentException("Max time must be finite for periodic heat sources!");
+    }
+    final Sweep sweep = new Sweep(aHeat, Double.POSITIVE_INFINITY, aDissipation);
+    return limit(sweep.run(aMaxTime, false, true), aMaxTime);
+  }
+
+  /**
+   * Calculates the time it takes for the heat to reach the capacity, starting with zero heat.
+   *
+   * @param aCapacity The heat capacity.
+   * @param aDissipation The heat dissipated per second.
+   * @param aMaxTime The longest time to consider.
+   * @return The time in seconds until the mech over heats, or {@link Double#POSITIVE_INFINITY} if
+   *     it takes the max time or longer.
+   */
+  public double timeToOverHeat(double aCapacity, double aDissipation, double aMaxTime) {
+    final Sweep sweep = new Sweep(0.0, aCapacity, aDissipation);
+    final double hyperperiod = hyperperiod(aMaxTime);
+    if (Double.isNaN(hyperperiod)) {
+      return limit(sweep.run(aMaxTime, false, false), aMaxTime);
+    }
+
+    double time = sweep.run(hyperperiod, true, false);
+    if (!Double.isNaN(time)) {
+      return limit(time, aMaxTime);
+    }
+    final double start = sweep.heat;
+    time = sweep.run(hyperperiod, true, false);
+    if (!Double.isNaN(time)) {
+      return limit(hyperperiod + time, aMaxTime);
+    }
+
+    // The heat level after each period is a non-decreasing sequence. If the heat fell to zero
+    // during the second period it did so in the first period too, from there on both periods are
+    // identical, and so are all later periods: this is a steady state.
+    final double rise = sweep.heat - start;
+    if (sweep.clamped || rise <= 0.0) {
+      return Double.POSITIVE_INFINITY;
+    }
+
+    // Otherwise every later period is a copy of the second one shifted up by the rise in heat.
+    // Period p peaks at start + (p - 1) * rise + peakRise, the first period to reach the capacity
+    // is estimated from that. The sweep starts one period early as rounding in the estimate could
+    // otherwise skip past the period that actually reaches the capacity.
+    final double peakRise = sweep.peak - start;
+    long period = Math.max(2, (long) Math.ceil((aCapacity - peakRise - start) / rise));
+    while (period * hyperperiod < aMaxTime) {
+      sweep.heat = start + (period - 1) * rise;
+      time = sweep.run(hyperperiod, true, false);
+      if (!Double.isNaN(time)) {
+        return limit(period * hyperperiod + time, aMaxTime);
+      }
+      period++;
+    }
+    return Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * @param aMaxTime The longest time that is considered.
+   * @return The least common multiple of the periods of all trains if it is shorter than the max
+   *     time, otherwise {@link Double#NaN}.
+   */
+  private double hyperperiod(double aMaxTime) {
+    if (trains.isEmpty()) {
+      return Double.NaN;
+    }
+    final double maxUnits = aMaxTime / TIME_QUANTUM;
+    long lcm = 1;
+    for (final Train train : trains) {
+      final long units = Math.round(train.period / TIME_QUANTUM);
+      if (!Double.isFinite(train.period)
+          || units <= 0
+          || Math.abs(units * TIME_QUANTUM - train.period) > PERIOD_TOLERANCE * train.period) {
+        return Double.NaN;
+      }
+      lcm = lcm / gcd(lcm, units) * units;
+      if (lcm > maxUnits) {
+        return Double.NaN;
+      }
+    }
+    return lcm * TIME_QUANTUM;
+  }
+
+  private static double limit(double aTime, double aMaxTime) {
+    if (Double.isNaN(aTime) || aTime >= aMaxTime) {
+      return Double.POSITIVE_INFINITY;
+    }
+    return aTime;
+  }
+}
@@ -29,6 +29,13 @@ public class IntegratedConstantSignal implements IntegratedSignal {
 
     public IntegratedConstantSignal(double aConstant) {this.constant = aConstant;}
 
+    /**
+     * @return The constant value of the signal.
+     */
+    public double getConstant() {
+        return constant;
+    }
+
     @Override
     public double integrateFromZeroTo(double aTime) {
         return constant * aTime;
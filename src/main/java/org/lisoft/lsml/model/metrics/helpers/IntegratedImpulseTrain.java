@@ -38,6 +38,20 @@ public class IntegratedImpulseTrain implements IntegratedSignal {
     amplitude = aAmplitude;
   }
 
+  /**
+   * @return The integral of each impulse.
+   */
+  public double getAmplitude() {
+    return amplitude;
+  }
+
+  /**
+   * @return The time between two consecutive impulses.
+   */
+  public double getPeriod() {
+    return period;
+  }
+
   @Override
   public double integrateFromZeroTo(double aTime) {
     final double impulses = Math.floor(aTime / period + 1);
@@ -35,6 +35,27 @@ public class IntegratedPulseTrain implements IntegratedSignal {
         amplitude = aAmplitude;
     }
 
+    /**
+     * @return The value of the signal during a pulse.
+     */
+    public double getAmplitude() {
+        return amplitude;
+    }
+
+    /**
+     * @return The time between the starts of two consecutive pulses.
+     */
+    public double getPeriod() {
+        return period;
+    }
+
+    /**
+     * @return The duration of each pulse.
+     */
+    public double getPulseWidth() {
+        return pulseWidth;
+    }
+
     @Override
     public double integrateFromZeroTo(double aTime) {
         int periods = (int) (aTime / period);
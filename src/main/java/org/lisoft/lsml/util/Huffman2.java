@@ -311,6 +311,20 @@ public class Huffman2<T extends Comparable<T>> {
     return Arrays.copyOf(output, bytes);
   }
 
+  /**
+   * Reports the code word of every symbol, including the stop symbol, to the given sink. This is
+   * used to build faster, table driven coders that produce exactly the same bit stream as this
+   * class.
+   *
+   * @param aSink The {@link TableHuffmanCoder.CodeWordSink} to report the code words to.
+   */
+  void forEachCodeWord(TableHuffmanCoder.CodeWordSink<? super T> aSink) {
+    for (final Leaf<T> leaf : leafs.values()) {
+      aSink.accept(leaf.symbol, leaf.prefix, leaf.prefixSize, false);
+    }
+    aSink.accept(stopLeaf.symbol, stopLeaf.prefix, stopLeaf.prefixSize, true);
+  }
+
   /**
    * Calculates the entropy of the given symbol frequency table.
    *
@@ -0,0 +1,80 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A forward only cursor over a sequence of primitive <code>int</code>s. This avoids boxing and the
+ * cost of removing elements from the head of a {@link java.util.List}.
+ *
+ * @author Li Song
+ */
+public class IntCursor {
+  private final int size;
+  private final int[] values;
+  private int position = 0;
+
+  /**
+   * Creates a new cursor over the first <code>aSize</code> values of the given array. The array is
+   * not copied.
+   *
+   * @param aValues The values to iterate over.
+   * @param aSize The number of values in the array that are valid.
+   */
+  public IntCursor(int[] aValues, int aSize) {
+    if (aSize < 0 || aSize > aValues.length) {
+      throw new IllegalArgumentException("Size out of range: " + aSize);
+    }
+    values = aValues;
+    size = aSize;
+  }
+
+  /**
+   * @return <code>true</code> if there are more values to read.
+   */
+  public boolean hasNext() {
+    return position < size;
+  }
+
+  /**
+   * @return The next value in the sequence.
+   * @throws NoSuchElementException Thrown if there are no more values.
+   */
+  public int next() {
+    if (position >= size) {
+      throw new NoSuchElementException();
+    }
+    return values[position++];
+  }
+
+  /**
+   * @return The number of values that have not been read yet.
+   */
+  public int remaining() {
+    return size - position;
+  }
+
+  /**
+   * @return A copy of the values that have not been read yet, the cursor is not moved.
+   */
+  public int[] toArray() {
+    return Arrays.copyOfRange(values, position, size);
+  }
+}
@@ -0,0 +1,315 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A table driven Huffman coder for <code>int</code> symbols that produces and consumes exactly the
+ * same bit streams as the {@link Huffman1} or {@link Huffman2} instance it was created from.
+ *
+ * <p>The code words are taken verbatim from the source coder, they are deliberately not converted
+ * to canonical Huffman codes as that would change the bit stream and break all existing links.
+ * Instead the decoder looks up the next {@value #MAX_TABLE_BITS} bits of the stream in a table
+ * which resolves all short code words in a single step, longer code words continue from the table
+ * entry bit by bit in a compact array based tree. The decoded symbols are returned as an {@link
+ * IntCursor} without boxing.
+ *
+ * <p>The encoder keeps the code words in sorted primitive arrays and writes the bit stream into an
+ * exactly sized output array.
+ *
+ * <p>Instances are immutable and thread safe.
+ *
+ * @author Li Song
+ */
+public class TableHuffmanCoder {
+  /**
+   * Receives the code words of a Huffman coder.
+   *
+   * @param <T> The type of the symbols.
+   */
+  @FunctionalInterface
+  interface CodeWordSink<T> {
+    /**
+     * @param aSymbol The symbol that is coded.
+     * @param aPrefix The code word, aligned to the most significant bit.
+     * @param aPrefixSize The number of bits in the code word.
+     * @param aStop <code>true</code> if this is the stop symbol.
+     */
+    void accept(T aSymbol, long aPrefix, int aPrefixSize, boolean aStop);
+  }
+
+  /** Collects the code words reported by a Huffman coder. */
+  private static class Builder implements CodeWordSink<Integer> {
+    private final List<long[]> codes = new ArrayList<>();
+    private int stopIndex = -1;
+    private final List<Integer> symbols = new ArrayList<>();
+
+    @Override
+    public void accept(Integer aSymbol, long aPrefix, int aPrefixSize, boolean aStop) {
+      if (aStop) {
+        stopIndex = symbols.size();
+      }
+      symbols.add(aSymbol);
+      codes.add(new long[] {aPrefix, aPrefixSize});
+    }
+
+    TableHuffmanCoder build() {
+      return new TableHuffmanCoder(symbols, codes, stopIndex);
+    }
+  }
+
+  private static final int MAX_TABLE_BITS = 12;
+  private final int[] childOne;
+  private final int[] childZero;
+  private final int[] leafLength;
+  private final int[] leafSymbol;
+  private final int minLength;
+  private final int[] sortedCodeSize;
+  private final long[] sortedCodes;
+  private final int[] sortedSymbols;
+  private final long stopCode;
+  private final int stopLeaf;
+  private final int stopSize;
+  private final int tableBits;
+  private final byte[] tableLength;
+  private final int[] tableNode;
+
+  private TableHuffmanCoder(List<Integer> aSymbols, List<long[]> aCodes, int aStopIndex) {
+    final int leaves = aSymbols.size();
+    leafSymbol = new int[leaves];
+    leafLength = new int[leaves];
+    childZero = new int[Math.max(1, leaves - 1)];
+    childOne = new int[childZero.length];
+    stopLeaf = aStopIndex;
+    stopCode = aCodes.get(aStopIndex)[0];
+    stopSize = (int) aCodes.get(aStopIndex)[1];
+
+    // Build the decoding tree. Internal nodes are positive indices (the root is 0), leaves are
+    // stored as the bitwise complement of their index.
+    int nodes = 1;
+    int maxLength = 0;
+    int shortest = Integer.MAX_VALUE;
+    for (int leaf = 0; leaf < leaves; ++leaf) {
+      final long code = aCodes.get(leaf)[0];
+      final int size = (int) aCodes.get(leaf)[1];
+      if (leaf != aStopIndex) {
+        leafSymbol[leaf] = aSymbols.get(leaf);
+      }
+      leafLength[leaf] = size;
+      maxLength = Math.max(maxLength, size);
+      shortest = Math.min(shortest, size);
+
+      int node = 0;
+      for (int bit = 0; bit < size; ++bit) {
+        final boolean one = (code << bit) < 0;
+        final int[] children = one ? childOne : childZero;
+        if (bit == size - 1) {
+          children[node] = ~leaf;
+        } else {
+          if (children[node] == 0) {
+            children[node] = nodes++;
+          }
+          node = children[node];
+        }
+      }
+    }
+    minLength = Math.max(1, shortest);
+
+    // Build the look up table, each entry holds the node reached after decoding up to tableBits
+    // bits and the number of bits that were consumed to get there.
+    tableBits = Math.min(MAX_TABLE_BITS, Math.max(1, maxLength));
+    tableNode = new int[1 << tableBits];
+    tableLength = new byte[1 << tableBits];
+    if (stopSize > 0) {
+      for (int pattern = 0; pattern < tableNode.length; ++pattern) {
+        int node = 0;
+        int length = 0;
+        while (node >= 0 && length < tableBits) {
+          final boolean one = (pattern >>> (tableBits - 1 - length) & 1) != 0;
+          node = one ? childOne[node] : childZero[node];
+          length++;
+        }
+        tableNode[pattern] = node;
+        tableLength[pattern] = (byte) length;
+      }
+    }
+
+    // Build the encoding tables, sorted on symbol for binary search.
+    final Integer[] order = new Integer[leaves - 1];
+    for (int i = 0, j = 0; i < leaves; ++i) {
+      if (i != aStopIndex) {
+        order[j++] = i;
+      }
+    }
+    Arrays.sort(order, (a, b) -> Integer.compare(leafSymbol[a], leafSymbol[b]));
+    sortedSymbols = new int[order.length];
+    sortedCodes = new long[order.length];
+    sortedCodeSize = new int[order.length];
+    for (int i = 0; i < order.length; ++i) {
+      sortedSymbols[i] = leafSymbol[order[i]];
+      sortedCodes[i] = aCodes.get(order[i])[0];
+      sortedCodeSize[i] = leafLength[order[i]];
+    }
+  }
+
+  /**
+   * Creates a new table driven coder with the same code words as the given coder.
+   *
+   * @param aCoder The {@link Huffman1} coder to copy the code words from.
+   * @return A new {@link TableHuffmanCoder}.
+   */
+  public static TableHuffmanCoder of(Huffman1<Integer> aCoder) {
+    final Builder builder = new Builder();
+    aCoder.forEachCodeWord(builder);
+    return builder.build();
+  }
+
+  /**
+   * Creates a new table driven coder with the same code words as the given coder.
+   *
+   * @param aCoder The {@link Huffman2} coder to copy the code words from.
+   * @return A new {@link TableHuffmanCoder}.
+   */
+  public static TableHuffmanCoder of(Huffman2<Integer> aCoder) {
+    final Builder builder = new Builder();
+    aCoder.forEachCodeWord(builder);
+    return builder.build();
+  }
+
+  private static boolean bitAt(byte[] aBitstream, int aBit) {
+    return (aBitstream[aBit >>> 3] << (aBit & 7) & 0x80) != 0;
+  }
+
+  private static int byteAt(byte[] aBitstream, int aIndex) {
+    return aIndex < aBitstream.length ? aBitstream[aIndex] & 0xFF : 0;
+  }
+
+  /**
+   * Decodes the symbols in the given bit stream, starting at the given byte offset. The result is
+   * the same as {@link Huffman2#decode(byte[])} (or {@link Huffman1#decode(byte[])}) on the bytes
+   * from the offset to the end of the array.
+   *
+   * @param aBitstream The bit stream to decode.
+   * @param aOffset The offset in bytes into the array to start decoding at.
+   * @return An {@link IntCursor} over the decoded symbols (excluding the stop symbol).
+   * @throws DecodingException Thrown if the bit stream is broken.
+   */
+  public IntCursor decode(byte[] aBitstream, int aOffset) throws DecodingException {
+    final int end = aBitstream.length * Byte.SIZE;
+    int pos = aOffset * Byte.SIZE;
+    if (stopSize == 0) {
+      // Degenerate tree with only the stop symbol, any data at all is corrupt.
+      if (pos < end) {
+        throw new DecodingException("The bitstream is corrupt!");
+      }
+      return new IntCursor(new int[0], 0);
+    }
+
+    final int[] output = new int[Math.max(0, end - pos) / minLength + 1];
+    int size = 0;
+    final int shift = 3 * Byte.SIZE - tableBits;
+    final int mask = (1 << tableBits) - 1;
+    decoding:
+    while (pos < end) {
+      final int index = pos >>> 3;
+      final int window =
+          byteAt(aBitstream, index) << 16
+              | byteAt(aBitstream, index + 1) << 8
+              | byteAt(aBitstream, index + 2);
+      final int pattern = window >>> shift - (pos & 7) & mask;
+      final int length = tableLength[pattern];
+      if (length > end - pos) {
+        break; // Partial code word at the end of the stream
+      }
+      pos += length;
+
+      int node = tableNode[pattern];
+      while (node >= 0) {
+        if (pos >= end) {
+          break decoding; // Partial code word at the end of the stream
+        }
+        node = bitAt(aBitstream, pos++) ? childOne[node] : childZero[node];
+      }
+
+      final int leaf = ~node;
+      if (leaf == stopLeaf) {
+        break;
+      }
+      output[size++] = leafSymbol[leaf];
+    }
+    return new IntCursor(output, size);
+  }
+
+  /**
+   * Encodes the given symbols, in order, into a bit stream. The result is the same as {@link
+   * Huffman2#encode(List)} (or {@link Huffman1#encode(List)}) on the same symbols.
+   *
+   * @param aSymbols The symbols to encode.
+   * @param aLength The number of symbols from the start of the array to encode.
+   * @return The encoded bit stream as an array of <code>byte</code>s.
+   * @throws EncodingException Thrown if a symbol doesn't have a code word.
+   */
+  public byte[] encode(int[] aSymbols, int aLength) throws EncodingException {
+    long bits = 0;
+    for (int i = 0; i < aLength; ++i) {
+      bits += sortedCodeSize[indexOf(aSymbols[i])];
+    }
+    final byte[] output = new byte[(int) ((bits + Byte.SIZE - 1) / Byte.SIZE)];
+
+    int pos = 0;
+    for (int i = 0; i < aLength; ++i) {
+      final int index = indexOf(aSymbols[i]);
+      pos = write(output, pos, sortedCodes[index], sortedCodeSize[index]);
+    }
+
+    // Fill the last byte with as much of the stop symbol as fits, no extra byte is emitted.
+    final int free = (Byte.SIZE - (pos & 7)) & 7;
+    if (free != 0) {
+      write(output, pos, stopCode, Math.min(free, stopSize));
+    }
+    return output;
+  }
+
+  private int indexOf(int aSymbol) throws EncodingException {
+    final int index = Arrays.binarySearch(sortedSymbols, aSymbol);
+    if (index < 0) {
+      throw new EncodingException(
+          "Error encoding symbol [" + aSymbol + "]! It was not present in the frequency map!");
+    }
+    return index;
+  }
+
+  private static int write(byte[] aOutput, int aPosition, long aCode, int aSize) {
+    long code = aCode;
+    int left = aSize;
+    int pos = aPosition;
+    while (left > 0) {
+      final int offset = pos & 7;
+      final int take = Math.min(Byte.SIZE - offset, left);
+      final int chunk = (int) (code >>> (Long.SIZE - take));
+      aOutput[pos >>> 3] |= (byte) (chunk << (Byte.SIZE - offset - take));
+      code <<= take;
+      left -= take;
+      pos += take;
+    }
+    return pos;
+  }
+}
@@ -33,23 +33,33 @@ import org.lisoft.lsml.application.ErrorReporter;
 import org.lisoft.lsml.command.CmdGarageAddDirectory;
 import org.lisoft.lsml.command.CmdGarageMultiRemove;
 import org.lisoft.lsml.command.CmdGarageRemove;
+import org.lisoft.lsml.messages.Message;
 import org.lisoft.lsml.messages.MessageDelivery;
+import org.lisoft.lsml.messages.MessageReceiver;
+import org.lisoft.lsml.messages.MessageXBar;
 import org.lisoft.lsml.model.NamedObject;
+import org.lisoft.lsml.model.garage.BinaryGarageSerializer;
 import org.lisoft.lsml.model.garage.Garage;
 import org.lisoft.lsml.model.garage.GarageDirectory;
+import org.lisoft.lsml.model.garage.GarageJournal;
 import org.lisoft.lsml.model.garage.GaragePath;
 import org.lisoft.lsml.model.garage.GarageSerializer;
+import org.lisoft.lsml.model.garage.LazyValueList;
 import org.lisoft.lsml.model.loadout.Loadout;
 import org.lisoft.lsml.util.CommandStack;
 import org.lisoft.lsml.view_fx.controls.LsmlAlert;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -57,28 +67,33 @@ import java.util.stream.Collectors;
 /**
  * This class wraps the application global garage state. In essence this is a singleton object which should be injected
  * through DI.
+ * <p>
+ * Garage changes posted on the global message bus are recorded in the journal of the current garage for the next auto
+ * save. The message bus only holds weak references to its receivers, which is why this class is the receiver rather
+ * than a separate object.
  *
  * @author Li Song
  */
 @ApplicationSingleton
-public class GlobalGarage {
+public class GlobalGarage implements MessageReceiver {
     private static class GarageOnDisk {
         private final File autoSaveFile;
+        private final BinaryGarageSerializer binarySerializer;
         private final File currentFile;
         private final Garage garage;
+        private final GarageJournal journal;
         private final GarageSerializer serializer;
+        private boolean journalStarted = false;
 
-        private GarageOnDisk(File aFile, GarageSerializer aGarageSerializer, Settings aSettings) throws IOException {
+        private GarageOnDisk(File aFile, GarageSerializer aGarageSerializer, BinaryGarageSerializer aBinarySerializer,
+                             Settings aSettings) throws IOException {
             currentFile = aFile;
             serializer = aGarageSerializer;
+            binarySerializer = aBinarySerializer;
             autoSaveFile = deriveAutoSaveGarageFileName(currentFile);
-            try (FileInputStream fis = new FileInputStream(currentFile);
-                 BufferedInputStream bis = new BufferedInputStream(fis)) {
-                garage = serializer.load(bis);
-                if (null == garage) {
-                    throw new IOException("XStream returned null!");
-                }
-            }
+            garage = load(currentFile, serializer, binarySerializer, true);
+            journal = new GarageJournal(garage, serializer);
+            materialiseInBackground(garage);
             // Set the last opened garage as the currently loaded file
             aSettings.getString(Settings.CORE_GARAGE_FILE).setValue(currentFile.getAbsolutePath());
         }
@@ -87,22 +102,77 @@ public class GlobalGarage {
             return new File(file.getParentFile(), file.getName() + ".auto_save");
         }
 
+        /**
+         * Loads a garage in the format given by the file name, see {@link BinaryGarageSerializer#isBinaryGarage(File)}.
+         *
+         * @param aDeferred <code>true</code> if the loadouts in an XML garage should be decoded on first access.
+         */
+        static private Garage load(File aFile, GarageSerializer aGarageSerializer,
+                                   BinaryGarageSerializer aBinarySerializer, boolean aDeferred) throws IOException {
+            if (BinaryGarageSerializer.isBinaryGarage(aFile)) {
+                return aBinarySerializer.load(aFile);
+            }
+            try (FileInputStream fis = new FileInputStream(aFile);
+                 BufferedInputStream bis = new BufferedInputStream(fis)) {
+                final Garage garage = aDeferred ? aGarageSerializer.loadDeferred(bis) : aGarageSerializer.load(bis);
+                if (null == garage) {
+                    throw new IOException("XStream returned null!");
+                }
+                return garage;
+            }
+        }
+
         static private boolean hasAutoSaveFor(File aFile) {
             File expectedAutoSaveName = deriveAutoSaveGarageFileName(aFile);
             return expectedAutoSaveName.exists() && expectedAutoSaveName.lastModified() > aFile.lastModified();
         }
 
-        static private GarageOnDisk newGarage(File aFile, GarageSerializer aGarageSerializer, Settings aSettings)
+        /**
+         * Decodes all loadouts that were deferred when the garage was loaded on a background thread, so that they are
+         * ready by the time the user looks at them. Loadouts that are accessed before then are decoded on demand.
+         */
+        static private void materialiseInBackground(Garage aGarage) {
+            final List<LazyValueList<?>> lists = new ArrayList<>();
+            final Deque<GarageDirectory<Loadout>> fringe = new ArrayDeque<>();
+            fringe.push(aGarage.getLoadoutRoot());
+            while (!fringe.isEmpty()) {
+                final GarageDirectory<Loadout> directory = fringe.pop();
+                if (directory.getValues() instanceof final LazyValueList<Loadout> values) {
+                    lists.add(values);
+                }
+                directory.getDirectories().forEach(fringe::push);
+            }
+
+            final Thread thread = new Thread(() -> lists.forEach(LazyValueList::materialiseAll), "Garage loader");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.start();
+        }
+
+        static private GarageOnDisk newGarage(File aFile, GarageSerializer aGarageSerializer,
+                                              BinaryGarageSerializer aBinarySerializer, Settings aSettings)
             throws IOException {
-            save(aFile, new Garage(), aGarageSerializer);
-            return new GarageOnDisk(aFile, aGarageSerializer, aSettings);
+            save(aFile, new Garage(), aGarageSerializer, aBinarySerializer);
+            return new GarageOnDisk(aFile, aGarageSerializer, aBinarySerializer, aSettings);
         }
 
-        static private File recoverAutoSaveFor(File aOldFile) throws IOException {
+        static private File recoverAutoSaveFor(File aOldFile, GarageSerializer aGarageSerializer,
+                                               BinaryGarageSerializer aBinarySerializer) throws IOException {
             if (!hasAutoSaveFor(aOldFile)) {
                 throw new IOException("Cannot restore non-existent auto save!");
             }
 
+            // Apply the journal before touching any files so that a broken journal leaves everything as it was.
+            final File expectedAutoSaveName = deriveAutoSaveGarageFileName(aOldFile);
+            Garage recovered = null;
+            try (FileInputStream fis = new FileInputStream(expectedAutoSaveName);
+                 BufferedInputStream bis = new BufferedInputStream(fis)) {
+                if (GarageJournal.isJournal(bis)) {
+                    recovered = load(aOldFile, aGarageSerializer, aBinarySerializer, false);
+                    GarageJournal.replay(bis, recovered, aGarageSerializer);
+                }
+            }
+
             Date date = Calendar.getInstance().getTime();
             SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd hh_mm_ss");
             String strDate = dateFormat.format(date);
@@ -118,30 +188,54 @@ public class GlobalGarage {
                 }
                 throw e;
             }
-            File expectedAutoSaveName = deriveAutoSaveGarageFileName(aOldFile);
-            Files.copy(expectedAutoSaveName.toPath(), aOldFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            if (null != recovered) {
+                save(aOldFile, recovered, aGarageSerializer, aBinarySerializer);
+            } else {
+                // Auto save from an older version of LSML that saved the whole garage.
+                Files.copy(expectedAutoSaveName.toPath(), aOldFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            //noinspection ResultOfMethodCallIgnored -- The garage is now newer than the auto save which is ignored.
+            expectedAutoSaveName.delete();
             return aOldBackup;
         }
 
-        static private void save(File aFile, Garage aGarage, GarageSerializer aGarageSerializer) throws IOException {
+        static private void save(File aFile, Garage aGarage, GarageSerializer aGarageSerializer,
+                                 BinaryGarageSerializer aBinarySerializer) throws IOException {
             try (FileOutputStream fos = new FileOutputStream(aFile);
                  BufferedOutputStream bos = new BufferedOutputStream(fos)) {
-                aGarageSerializer.save(bos, aGarage);
+                if (BinaryGarageSerializer.isBinaryGarage(aFile)) {
+                    aBinarySerializer.save(bos, aGarage);
+                } else {
+                    aGarageSerializer.save(bos, aGarage);
+                }
             }
         }
 
         static private GarageOnDisk saveAs(File aFile, GarageOnDisk aGarageFile, Settings aSettings)
             throws IOException {
-            save(aFile, aGarageFile.garage, aGarageFile.serializer);
-            return new GarageOnDisk(aFile, aGarageFile.serializer, aSettings);
+            save(aFile, aGarageFile.garage, aGarageFile.serializer, aGarageFile.binarySerializer);
+            return new GarageOnDisk(aFile, aGarageFile.serializer, aGarageFile.binarySerializer, aSettings);
         }
 
+        /**
+         * Appends the changes since the last save or auto save to the auto save journal. Does nothing if there are no
+         * changes. The journal is started over on the first write after the garage was loaded or saved.
+         */
         private void autoSave() throws IOException {
-            save(autoSaveFile, garage, serializer);
+            if (!journal.isDirty()) {
+                return;
+            }
+            try (FileOutputStream fos = new FileOutputStream(autoSaveFile, journalStarted);
+                 BufferedOutputStream bos = new BufferedOutputStream(fos)) {
+                journal.write(bos, !journalStarted);
+            }
+            journalStarted = true;
         }
 
         private void save() throws IOException {
-            save(currentFile, garage, serializer);
+            save(currentFile, garage, serializer, binarySerializer);
+            journal.clear();
+            journalStarted = false;
             // If the save was successful (didn't throw), delete the last auto save
 
             //noinspection ResultOfMethodCallIgnored -- We don't really care if the deletion succeeded.
@@ -152,6 +246,9 @@ public class GlobalGarage {
     private static final String DEFAULT_NEW_FOLDER_NAME = "New Folder";
     private static final ExtensionFilter LSML_EXT = new ExtensionFilter("LSML Garage 1.0", "*.xml");
     private static final ExtensionFilter LSML_EXT2 = new ExtensionFilter("LSML Garage 2.0", "*.lsxml");
+    private static final ExtensionFilter LSML_EXT_BINARY = new ExtensionFilter("LSML Binary Garage",
+                                                                              "*" + BinaryGarageSerializer.EXTENSION);
+    private final BinaryGarageSerializer binarySerializer;
     private final ErrorReporter reporter;
     private final GarageSerializer serializer;
     private final Settings settings;
@@ -159,10 +256,13 @@ public class GlobalGarage {
     private GarageOnDisk garageFile = null;
 
     @Inject
-    public GlobalGarage(Settings aSettings, ErrorReporter aErrorReporter, GarageSerializer aGarageSerializer) {
+    public GlobalGarage(Settings aSettings, ErrorReporter aErrorReporter, GarageSerializer aGarageSerializer,
+                        BinaryGarageSerializer aBinarySerializer, @Named("global") MessageXBar aXBar) {
         settings = aSettings;
         serializer = aGarageSerializer;
+        binarySerializer = aBinarySerializer;
         reporter = aErrorReporter;
+        aXBar.attach(this);
     }
 
     /**
@@ -226,7 +326,8 @@ public class GlobalGarage {
     }
 
     /**
-     * Saves a copy of the garage to an adjacent auto save file.
+     * Saves the changes since the last save to an adjacent auto save file. Nothing is written if the garage hasn't
+     * changed.
      */
     public void autoSave() {
         if (garageFile != null) {
@@ -238,6 +339,18 @@ public class GlobalGarage {
         }
     }
 
+    /**
+     * Marks a loadout in the garage as changed so that it is included in the next auto save. Edits to a loadout are
+     * only announced on the message bus of the window that edits it, which is why this must be called explicitly.
+     *
+     * @param aLoadout The {@link Loadout} that was changed.
+     */
+    public void markDirty(Loadout aLoadout) {
+        if (null != garageFile) {
+            garageFile.journal.markDirty(aLoadout);
+        }
+    }
+
     /**
      * Ask the user to either create a new garage or open an existing one.
      *
@@ -319,6 +432,13 @@ public class GlobalGarage {
                                    "This is a bug, please report it on GitHub.");
     }
 
+    /**
+     * @return <code>true</code> if the current garage has changed since it was last saved or auto saved.
+     */
+    boolean isDirty() {
+        return null != garageFile && garageFile.journal.isDirty();
+    }
+
     /**
      * Creates a new empty garage and shows a common file dialog to the user to save it somewhere.
      *
@@ -336,7 +456,7 @@ public class GlobalGarage {
                 break; // User cancelled
             }
             try {
-                garageFile = GarageOnDisk.newGarage(fileOptional.get(), serializer, settings);
+                garageFile = GarageOnDisk.newGarage(fileOptional.get(), serializer, binarySerializer, settings);
                 return true;
             } catch (IOException e) {
                 reporter.error("Unable to save new garage", "Couldn't write the selected garage file.", e);
@@ -345,6 +465,16 @@ public class GlobalGarage {
         return false;
     }
 
+    /**
+     * Opens the given garage file and makes it the current garage.
+     *
+     * @param aFile The garage file to open.
+     * @throws IOException if the garage couldn't be loaded.
+     */
+    void open(File aFile) throws IOException {
+        garageFile = new GarageOnDisk(aFile, serializer, binarySerializer, settings);
+    }
+
     /**
      * Opens an existing garage, will show a common dialog.
      *
@@ -365,7 +495,7 @@ public class GlobalGarage {
                 break; // User cancelled
             }
             try {
-                garageFile = new GarageOnDisk(file, serializer, settings);
+                open(file);
                 return true;
             } catch (Exception e) {
                 reporter.error("Unable to open garage",
@@ -391,7 +521,7 @@ public class GlobalGarage {
 
         if (GarageOnDisk.hasAutoSaveFor(lastOpenedGarageFile)) {
             try {
-                File backupFile = GarageOnDisk.recoverAutoSaveFor(lastOpenedGarageFile);
+                File backupFile = GarageOnDisk.recoverAutoSaveFor(lastOpenedGarageFile, serializer, binarySerializer);
                 LsmlAlert alert = new LsmlAlert(aOwner, AlertType.WARNING);
                 alert.setHeaderText("A recent auto save was loaded");
                 alert.setContentText("LSML has detected an existing auto save with a more recent date than the " +
@@ -412,7 +542,7 @@ public class GlobalGarage {
 
         if (lastOpenedGarageFile.exists()) {
             try {
-                garageFile = new GarageOnDisk(lastOpenedGarageFile, serializer, settings);
+                open(lastOpenedGarageFile);
             } catch (IOException e) {
                 reporter.error("Unable to load garage!",
                                "Please make a backup of: " + lastOpenedGarageFile.getAbsolutePath() +
@@ -424,6 +554,13 @@ public class GlobalGarage {
         return garageFile != null;
     }
 
+    @Override
+    public void receive(Message aMsg) {
+        if (null != garageFile) {
+            garageFile.journal.receive(aMsg);
+        }
+    }
+
     /**
      * Saves the garage to the current file, if it exists.
      *
@@ -529,7 +666,7 @@ public class GlobalGarage {
     private FileChooser garageFileChooser(String aTitle) {
         final FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle(aTitle);
-        fileChooser.getExtensionFilters().addAll(LSML_EXT2);
+        fileChooser.getExtensionFilters().addAll(LSML_EXT2, LSML_EXT_BINARY);
 
         final String lastGaragePath = settings.getString(Settings.CORE_GARAGE_FILE).getValue();
         final File lastGarageFile = new File(lastGaragePath);
@@ -198,6 +198,20 @@ public class GraphicalDatabaseProvider extends AbstractDatabaseProvider {
     return false;
   }
 
+  /**
+   * The archive index of the game files is kept next to the database file.
+   *
+   * @return A {@link File} with a location, or <code>null</code> if the database location isn't
+   *     valid in which case the index isn't persisted.
+   */
+  private File getArchiveIndexLocation() {
+    try {
+      return new File(getDatabaseLocationWrite().getPath() + ".index");
+    } catch (final IOException e) {
+      return null;
+    }
+  }
+
   /**
    * Figures out where to place a new (or overwritten) database files.
    *
@@ -221,6 +235,15 @@ public class GraphicalDatabaseProvider extends AbstractDatabaseProvider {
 
   private Optional<Database> getPreviouslyParsed() {
     final String databaseFile = settings.getString(Settings.CORE_DATABASE).getValue();
+    final File snapshotFile = getSnapshotLocation(new File(databaseFile));
+    if (snapshotFile.lastModified() >= new File(databaseFile).lastModified()) {
+      try {
+        return Optional.of(Database.readSnapshot(snapshotFile, currentVersion));
+      } catch (final Throwable e) {
+        // The snapshot is missing or was written by a different version, use the XML instead.
+      }
+    }
+
     Database database;
     try (InputStream is = new FileInputStream(databaseFile);
         BufferedInputStream bis = new BufferedInputStream(is)) {
@@ -236,9 +259,20 @@ public class GraphicalDatabaseProvider extends AbstractDatabaseProvider {
     if (version == null || !version.equals(currentVersion)) {
       return Optional.empty();
     }
+    writeSnapshot(database, snapshotFile);
     return Optional.of(database);
   }
 
+  /**
+   * The binary snapshot of the database is kept next to the XML database file.
+   *
+   * @param aDatabaseFile The location of the XML database file.
+   * @return The location of the snapshot.
+   */
+  private File getSnapshotLocation(File aDatabaseFile) {
+    return new File(aDatabaseFile.getPath() + ".bin");
+  }
+
   private Database loadDatabase() {
     // This method is executed in a background task so that the splash can display while we're doing
     // work.
@@ -271,7 +305,8 @@ public class GraphicalDatabaseProvider extends AbstractDatabaseProvider {
     Optional<Database> dataBase = getPreviouslyParsed();
     try {
       if (dataBase.isEmpty()
-          || dataReader.shouldUpdate(dataBase.get(), new File(gameDirectory.getValue()))) {
+          || dataReader.shouldUpdate(
+              dataBase.get(), new File(gameDirectory.getValue()), getArchiveIndexLocation())) {
         dataBase = updateDatabase();
       }
     } catch (Throwable t) {
@@ -298,7 +333,8 @@ public class GraphicalDatabaseProvider extends AbstractDatabaseProvider {
   private Optional<Database> updateDatabase() {
     try {
       final Property<String> gameDirectory = settings.getString(Settings.CORE_GAME_DIRECTORY);
-      final Database parsedDatabase = dataReader.parseGameFiles(new File(gameDirectory.getValue()));
+      final Database parsedDatabase =
+          dataReader.parseGameFiles(new File(gameDirectory.getValue()), getArchiveIndexLocation());
       writeDatabase(parsedDatabase);
       return Optional.of(parsedDatabase);
     } catch (final IOException e) {
@@ -323,6 +359,21 @@ public class GraphicalDatabaseProvider extends AbstractDatabaseProvider {
     try (FileOutputStream fos = new FileOutputStream(databaseFile)) {
       aDatabase.writeToStream(fos);
     }
+    writeSnapshot(aDatabase, getSnapshotLocation(databaseFile));
     settings.getString(Settings.CORE_DATABASE).setValue(databaseFile.getPath());
   }
+
+  /**
+   * Writes a binary snapshot of the database for faster start up. The snapshot is only a cache of
+   * the XML database, failing to write it is not an error.
+   */
+  private void writeSnapshot(Database aDatabase, File aSnapshotFile) {
+    try (OutputStream os = new BufferedOutputStream(new FileOutputStream(aSnapshotFile))) {
+      aDatabase.writeSnapshot(os);
+    } catch (final Throwable t) {
+      if (!aSnapshotFile.delete()) {
+        aSnapshotFile.deleteOnExit();
+      }
+    }
+  }
 }
@@ -178,6 +178,7 @@ public class LoadoutWindowController extends AbstractFXStageController {
   private static final String EQ_COL_SLOTS = "Slots";
   private final Timeline armourUpdateTimeout;
   private final CommandStack cmdStack;
+  private final Collection<Item> equipmentItems = new ArrayList<>();
   private final GlobalGarage globalGarage;
   private final LoadoutFactory loadoutFactory;
   private final LoadoutModelAdaptor model;
@@ -192,6 +193,7 @@ public class LoadoutWindowController extends AbstractFXStageController {
   @FXML private Slider armourWizardRatio;
   @FXML private Label chassisLabel;
   private boolean disableSliderAction = false;
+  private Map<Item, EquipResult> equippability;
   @FXML private Button editNameButton;
   @FXML private TreeTableView<Object> equipmentList;
   @FXML private ProgressBar generalArmourBar;
@@ -416,6 +418,7 @@ public class LoadoutWindowController extends AbstractFXStageController {
   @Override
   public void receive(Message aMsg) {
     super.receive(aMsg);
+    equippability = null; // Re-evaluated on the next query.
 
     final boolean items = aMsg instanceof ItemMessage;
     final boolean upgrades = aMsg instanceof UpgradesMessage;
@@ -426,6 +429,12 @@ public class LoadoutWindowController extends AbstractFXStageController {
         aMsg instanceof ArmourMessage
             && ((ArmourMessage) aMsg).type == Type.ARMOUR_DISTRIBUTION_UPDATE_REQUEST;
 
+    if ((items || upgrades || omniPods || modules || armour || aMsg instanceof PilotSkillMessage)
+        && aMsg.isForMe(model.loadout)) {
+      // Loadout edits stay on this window's message bus, tell the garage so it is auto saved.
+      globalGarage.markDirty(model.loadout);
+    }
+
     if (armour) {
       // Cancel previous update, and start a new one.
       armourUpdateTimeout.stop();
@@ -591,6 +600,14 @@ public class LoadoutWindowController extends AbstractFXStageController {
     return true;
   }
 
+  private EquipResult getEquippability(Item aItem) {
+    if (equippability == null) {
+      equippability = model.loadout.evaluateEquippability(equipmentItems);
+    }
+    final EquipResult result = equippability.get(aItem);
+    return result != null ? result : model.loadout.canEquipDirectly(aItem);
+  }
+
   private StackPane getRoot() {
     return (StackPane) root;
   }
@@ -662,8 +679,10 @@ public class LoadoutWindowController extends AbstractFXStageController {
             aItem ->
                 aItem.getFaction().isCompatible(chassis.getFaction()) && chassis.isAllowed(aItem))
         .forEachOrdered(
-            aItem ->
-                categoryRoots.get(EquipmentCategory.classify(aItem)).add(new TreeItem<>(aItem)));
+            aItem -> {
+              equipmentItems.add(aItem);
+              categoryRoots.get(EquipmentCategory.classify(aItem)).add(new TreeItem<>(aItem));
+            });
 
     // Add all modules
     for (final Consumable.ConsumableType type : Consumable.ConsumableType.values()) {
@@ -675,7 +694,9 @@ public class LoadoutWindowController extends AbstractFXStageController {
     }
 
     equipmentList.setRowFactory(
-        aParam -> new EquipmentTableRow(model.loadout, cmdStack, xBar, loadoutFactory, settings));
+        aParam ->
+            new EquipmentTableRow(
+                model.loadout, this::getEquippability, cmdStack, xBar, loadoutFactory, settings));
     equipmentList.setRoot(equipmentRoot);
     equipmentList.setColumnResizePolicy(new SensibleTreeColumnResizePolicy());
     equipmentRoot.setPredicateRecursively(new EquippablePredicate(model.loadout));
@@ -683,21 +704,27 @@ public class LoadoutWindowController extends AbstractFXStageController {
     final TreeTableColumn<Object, String> nameColumn = new TreeTableColumn<>(EQ_COL_NAME);
     nameColumn.setCellValueFactory(new ItemValueFactory(MwoObject::getShortName, true));
     nameColumn.setCellFactory(
-        aColumn -> new EquipmentTableCell(settings, model.loadout, true, toolTipFormatter));
+        aColumn ->
+            new EquipmentTableCell(
+                settings, model.loadout, this::getEquippability, true, toolTipFormatter));
     nameColumn.prefWidthProperty().bind(equipmentList.widthProperty().multiply(0.6));
 
     final TreeTableColumn<Object, String> slotsColumn = new TreeTableColumn<>(EQ_COL_SLOTS);
     slotsColumn.setCellValueFactory(
         new ItemValueFactory(item -> Integer.toString(item.getSlots()), false));
     slotsColumn.setCellFactory(
-        aColumn -> new EquipmentTableCell(settings, model.loadout, false, toolTipFormatter));
+        aColumn ->
+            new EquipmentTableCell(
+                settings, model.loadout, this::getEquippability, false, toolTipFormatter));
     slotsColumn.prefWidthProperty().bind(equipmentList.widthProperty().multiply(0.15));
 
     final TreeTableColumn<Object, String> massColumn = new TreeTableColumn<>(EQ_COL_MASS);
     massColumn.setCellValueFactory(
         new ItemValueFactory(item -> Double.toString(item.getMass()), false));
     massColumn.setCellFactory(
-        aColumn -> new EquipmentTableCell(settings, model.loadout, false, toolTipFormatter));
+        aColumn ->
+            new EquipmentTableCell(
+                settings, model.loadout, this::getEquippability, false, toolTipFormatter));
     massColumn.prefWidthProperty().bind(equipmentList.widthProperty().multiply(0.15));
 
     final ObservableList<TreeTableColumn<Object, ?>> columns = equipmentList.getColumns();
@@ -178,6 +178,7 @@ public class LoadoutInfoPaneController extends AbstractFXController implements M
 
     final TableColumn<WeaponSummary, String> nameColumn =
         FxTableUtils.makeAttributeColumn(
+            WeaponSummary.class,
             WEAPON_STAT_COL_WEAPON,
             "name",
             "The name of the weapon system. Missile launchers that share ammo type are grouped together.");
@@ -155,11 +155,20 @@ public class ChassisPageController extends AbstractFXController {
         });
 
     aTable.getColumns().clear();
-    addAttributeColumn(aTable, "Name", "loadout.chassis.shortName", "Name of the chassis.");
     addAttributeColumn(
-        aTable, "Mass", "loadout.chassis.massMax", "The maximal mass of the chassis.");
+        aTable, DisplayLoadout.class, "Name", "loadout.chassis.shortName", "Name of the chassis.");
     addAttributeColumn(
-        aTable, "Fctn", "loadout.chassis.faction.uiShortName", "The faction of the chassis.");
+        aTable,
+        DisplayLoadout.class,
+        "Mass",
+        "loadout.chassis.massMax",
+        "The maximal mass of the chassis.");
+    addAttributeColumn(
+        aTable,
+        DisplayLoadout.class,
+        "Fctn",
+        "loadout.chassis.faction.uiShortName",
+        "The faction of the chassis.");
     addTopSpeedColumn(aTable);
     addHardPointsColumn(aTable, Location.RightArm);
     addHardPointsColumn(aTable, Location.RightTorso);
@@ -168,7 +177,11 @@ public class ChassisPageController extends AbstractFXController {
     addHardPointsColumn(aTable, Location.LeftTorso);
     addHardPointsColumn(aTable, Location.LeftArm);
     addAttributeColumn(
-        aTable, "JJ", "loadout.jumpJetsMax", "The maximal number of jump jets for this chassis.");
+        aTable,
+        DisplayLoadout.class,
+        "JJ",
+        "loadout.jumpJetsMax",
+        "The maximal number of jump jets for this chassis.");
 
     final TableColumn<DisplayLoadout, Collection<Modifier>> quirksCol =
         new TableColumn<>("Weapon Quirks");
@@ -18,8 +18,13 @@
 package org.lisoft.lsml.view_fx.controllers.mainwindow;
 
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.Alert.AlertType;
@@ -43,6 +48,9 @@ import org.lisoft.lsml.view_fx.util.FxControlUtils;
 /**
  * This page allows the user to mass export/import loadouts.
  *
+ * <p>The import and export run in a background {@link Task} as large garages can take a while, the
+ * progress is shown while the task is running.
+ *
  * @author Li Song
  */
 public class ImportExportPageController extends AbstractFXController {
@@ -51,8 +59,11 @@ public class ImportExportPageController extends AbstractFXController {
   private final ObjectProperty<LsmlLinkProtocol> protocolProperty = new SimpleObjectProperty<>();
   private final CommandStack stack;
   private final MessageXBar xBar;
+  @FXML private Button exportButton;
   @FXML private TreeView<GaragePath<Loadout>> garageViewLSML;
+  @FXML private Button importButton;
   @FXML private TextArea linkInputOutput;
+  @FXML private ProgressBar progress;
   @FXML private ToggleGroup protocol;
   @FXML private RadioButton protocolHttp;
   @FXML private RadioButton protocolLsml;
@@ -65,6 +76,7 @@ public class ImportExportPageController extends AbstractFXController {
       BatchImportExporter aBatchImporterExporter,
       ErrorReporter aErrorReporter) {
     batchImporterExporter = aBatchImporterExporter;
+    batchImporterExporter.setParallelism(Runtime.getRuntime().availableProcessors());
     stack = aStack;
     xBar = aXBar;
     errorReporter = aErrorReporter;
@@ -120,15 +132,56 @@ public class ImportExportPageController extends AbstractFXController {
     }
 
     batchImporterExporter.setProtocol(protocolProperty.get());
-    final String exported = batchImporterExporter.export(garageRoot);
-    linkInputOutput.setText(exported);
+    runInBackground(
+        countLines(garageRoot),
+        () -> {
+          final StringWriter writer = new StringWriter();
+          batchImporterExporter.export(garageRoot, writer);
+          return writer.toString();
+        },
+        linkInputOutput::setText);
   }
 
   @FXML
   public void importSelectedLSML() {
-    final GarageDirectory<Loadout> importedRoot =
-        batchImporterExporter.parse(linkInputOutput.getText());
+    final String data = linkInputOutput.getText();
+    final long lines = data.lines().filter(aLine -> !aLine.isBlank()).count();
+    runInBackground(
+        lines, () -> batchImporterExporter.parse(new StringReader(data)), this::mergeImported);
+  }
+
+  private void addAllChildrenRecursive(
+      GarageDirectory<Loadout> aTarget, GarageDirectory<Loadout> aSource) throws IOException {
+    for (final GarageDirectory<Loadout> sourceChild : aSource.getDirectories()) {
+      final GarageDirectory<Loadout> targetChild = aTarget.makeDirsRecursive(sourceChild.getName());
+      targetChild.getValues().addAll(sourceChild.getValues());
+      addAllChildrenRecursive(targetChild, sourceChild);
+    }
+  }
+
+  /**
+   * @return The number of lines that exporting the given directory produces, one for each loadout
+   *     and one for the header of each directory with loadouts.
+   */
+  private long countLines(GarageDirectory<Loadout> aDirectory) {
+    final int values = aDirectory.getValues().size();
+    long lines = values > 0 ? values + 1 : 0;
+    for (final GarageDirectory<Loadout> child : aDirectory.getDirectories()) {
+      lines += countLines(child);
+    }
+    return lines;
+  }
+
+  private GarageDirectory<Loadout> makeRecursiveDirs(
+      GarageDirectory<Loadout> implicitRoot, GaragePath<Loadout> value) throws IOException {
+    final StringBuilder sb = new StringBuilder();
+    assert !value.isLeaf();
+    value.toPath(sb);
+    // FIXME: This should be a command so that it can be undone.
+    return implicitRoot.makeDirsRecursive(sb.toString());
+  }
 
+  private void mergeImported(GarageDirectory<Loadout> aImportedRoot) {
     final GaragePath<Loadout> targetPath;
     final TreeItem<GaragePath<Loadout>> selectedTreeItem =
         garageViewLSML.getSelectionModel().getSelectedItem();
@@ -143,29 +196,58 @@ public class ImportExportPageController extends AbstractFXController {
           root,
           stack,
           new CmdGarageMergeDirectories<>(
-              "import LSML batch", xBar, targetPath, new GaragePath<>(importedRoot)),
+              "import LSML batch", xBar, targetPath, new GaragePath<>(aImportedRoot)),
           xBar);
     } else {
       showLsmlImportInstructions();
     }
   }
 
-  private void addAllChildrenRecursive(
-      GarageDirectory<Loadout> aTarget, GarageDirectory<Loadout> aSource) throws IOException {
-    for (final GarageDirectory<Loadout> sourceChild : aSource.getDirectories()) {
-      final GarageDirectory<Loadout> targetChild = aTarget.makeDirsRecursive(sourceChild.getName());
-      targetChild.getValues().addAll(sourceChild.getValues());
-      addAllChildrenRecursive(targetChild, sourceChild);
-    }
-  }
+  /**
+   * Runs a batch import or export on a background thread. The buttons are disabled and the progress
+   * is shown while it runs.
+   *
+   * @param aLines The number of lines that will be processed, used for the progress.
+   * @param aWork The work to do on the background thread.
+   * @param aOnSuccess Called on the FX application thread with the result of the work.
+   */
+  private <T> void runInBackground(long aLines, Callable<T> aWork, Consumer<T> aOnSuccess) {
+    final Task<T> task =
+        new Task<>() {
+          @Override
+          protected T call() throws Exception {
+            batchImporterExporter.setProgressCallback(aDone -> updateProgress(aDone, aLines));
+            try {
+              return aWork.call();
+            } finally {
+              batchImporterExporter.setProgressCallback(null);
+            }
+          }
+        };
 
-  private GarageDirectory<Loadout> makeRecursiveDirs(
-      GarageDirectory<Loadout> implicitRoot, GaragePath<Loadout> value) throws IOException {
-    final StringBuilder sb = new StringBuilder();
-    assert !value.isLeaf();
-    value.toPath(sb);
-    // FIXME: This should be a command so that it can be undone.
-    return implicitRoot.makeDirsRecursive(sb.toString());
+    exportButton.disableProperty().bind(task.runningProperty());
+    importButton.disableProperty().bind(task.runningProperty());
+    progress.visibleProperty().bind(task.runningProperty());
+    progress.progressProperty().bind(task.progressProperty());
+
+    task.setOnSucceeded(
+        aEvent -> {
+          aOnSuccess.accept(task.getValue());
+          aEvent.consume();
+        });
+    task.setOnFailed(
+        aEvent -> {
+          errorReporter.error(
+              root,
+              "Batch import/export failed",
+              "Unable to transfer the loadouts!",
+              task.getException());
+          aEvent.consume();
+        });
+
+    final Thread thread = new Thread(task, "Batch import/export");
+    thread.setDaemon(true);
+    thread.start();
   }
 
   private void showLsmlImportInstructions() {
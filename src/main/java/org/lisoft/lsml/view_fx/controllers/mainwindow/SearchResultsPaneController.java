@@ -136,8 +136,8 @@ public class SearchResultsPaneController extends AbstractFXController implements
             .getValue()
             .ifPresent(
                 document -> {
-                  if (document instanceof Loadout) {
-                    searchIndex.update();
+                  if (document instanceof final Loadout loadout) {
+                    searchIndex.update(loadout);
                   }
                 });
       }
@@ -97,10 +97,15 @@ public class WeaponsPageController extends AbstractFXController {
     nameCol.setComparator(new ItemComparator.ByString(false));
     weapons.getColumns().add(nameCol);
 
-    addAttributeColumn(weapons, "Mass", "mass", "The weight of the weapon.");
+    addAttributeColumn(weapons, Weapon.class, "Mass", "mass", "The weight of the weapon.");
     addAttributeColumn(
-        weapons, "Slots", "slots", "The number of critical slots occupied by the weapon.");
-    addAttributeColumn(weapons, "HP", "health", "The amount of hit points the weapon has.");
+        weapons,
+        Weapon.class,
+        "Slots",
+        "slots",
+        "The number of critical slots occupied by the weapon.");
+    addAttributeColumn(
+        weapons, Weapon.class, "HP", "health", "The amount of hit points the weapon has.");
     addStatColumn(
         weapons, "Dmg", "d", "The volley damage of the weapon, for RAC this is per projectile.");
     addStatColumn(
@@ -121,8 +126,13 @@ public class WeaponsPageController extends AbstractFXController {
                         It includes jam probabilities, jam clear times, weapon spin up after jam etc.""");
     addStatColumn(weapons, "Ht", "h", "The heat generated every firing period.");
     addAttributeColumn(
-        weapons, "Imp", "impulse", "The impulse (cockpit shake) imparted on the target when hit.");
-    addAttributeColumn(weapons, "Spd", "projectileSpeed", "The travel speed of the projectile.");
+        weapons,
+        Weapon.class,
+        "Imp",
+        "impulse",
+        "The impulse (cockpit shake) imparted on the target when hit.");
+    addAttributeColumn(
+        weapons, Weapon.class, "Spd", "projectileSpeed", "The travel speed of the projectile.");
 
     final TableColumn<Weapon, String> range = new TableColumn<>("Range");
     range.getColumns().clear();
@@ -155,6 +165,7 @@ public class WeaponsPageController extends AbstractFXController {
         .getColumns()
         .add(
             makeAttributeColumn(
+                Weapon.class,
                 "Max",
                 "rangeMax",
                 "The range at which the weapon does no damage, the fall-off from Long to Max is linear."));
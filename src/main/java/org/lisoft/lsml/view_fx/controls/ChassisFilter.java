@@ -28,6 +28,7 @@ import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
 import javax.inject.Inject;
 import org.lisoft.lsml.model.OmniPodSelector;
+import org.lisoft.lsml.model.loadout.ConfiguredComponentOmniMech;
 import org.lisoft.lsml.model.loadout.Loadout;
 import org.lisoft.lsml.model.loadout.LoadoutFactory;
 import org.lisoft.lsml.model.loadout.LoadoutOmniMech;
@@ -109,15 +110,19 @@ public class ChassisFilter {
         final ChassisOmniMech chassis = loadoutOmniMech.getChassis();
 
         final Optional<Map<Location, OmniPod>> pods =
-            omniPodSelector.selectPods(
+            omniPodSelector.selectAnyPods(
                 chassis, minEnergy, minMissile, minBallistic, minJumpJet, ecm);
 
-        if (!pods.isPresent()) {
+        if (pods.isEmpty()) {
           return false;
         }
 
         for (final Entry<Location, OmniPod> entry : pods.get().entrySet()) {
-          loadoutOmniMech.getComponent(entry.getKey()).changeOmniPod(entry.getValue());
+          final ConfiguredComponentOmniMech component =
+              loadoutOmniMech.getComponent(entry.getKey());
+          if (component.getOmniPod() != entry.getValue()) {
+            component.changeOmniPod(entry.getValue());
+          }
         }
 
         return true;
@@ -173,7 +178,8 @@ public class ChassisFilter {
    *
    * @param aLoadoutFactory A factory for constructing loadouts.
    * @param aOmniPodSelector A {@link OmniPodSelector} to use for satisfying hard points on omni
-   *     mechs.
+   *     mechs, it is queried with {@link OmniPodSelector#selectAnyPods} as the filter is evaluated
+   *     for every omnimech each time a filter changes.
    * @param aSettings A {@link Settings} object to use for reading the settings to use for building
    *     the empty loadouts.
    */
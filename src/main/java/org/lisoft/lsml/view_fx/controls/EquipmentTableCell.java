@@ -19,6 +19,7 @@ package org.lisoft.lsml.view_fx.controls;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.function.Function;
 import javafx.scene.control.TreeTableCell;
 import org.lisoft.lsml.model.loadout.EquipResult;
 import org.lisoft.lsml.model.loadout.Loadout;
@@ -36,6 +37,7 @@ import org.lisoft.mwo_data.modifiers.Modifier;
  * @author Li Song
  */
 public class EquipmentTableCell extends TreeTableCell<Object, String> {
+  private final Function<Item, EquipResult> equippability;
   private final Loadout loadout;
   private final Settings settings;
   private final boolean showIcon;
@@ -44,10 +46,12 @@ public class EquipmentTableCell extends TreeTableCell<Object, String> {
   public EquipmentTableCell(
       Settings aSettings,
       Loadout aLoadout,
+      Function<Item, EquipResult> aEquippability,
       boolean aShowIcon,
       ItemToolTipFormatter aToolTipFormatter) {
     settings = aSettings;
     loadout = aLoadout;
+    equippability = aEquippability;
     showIcon = aShowIcon;
     toolTipFormatter = aToolTipFormatter;
 
@@ -78,7 +82,7 @@ public class EquipmentTableCell extends TreeTableCell<Object, String> {
 
     final Object rowItem = getTableRow().getItem();
     if (rowItem instanceof final Item item) {
-      if (EquipResult.SUCCESS == loadout.canEquipDirectly(item)) {
+      if (EquipResult.SUCCESS == equippability.apply(item)) {
         // Directly equippable
         pseudoClassStateChanged(StyleManager.PC_UNEQUIPPABLE, false);
         pseudoClassStateChanged(StyleManager.PC_SMARTPLACEABLE, false);
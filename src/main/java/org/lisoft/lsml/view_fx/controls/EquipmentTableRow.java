@@ -20,6 +20,7 @@ package org.lisoft.lsml.view_fx.controls;
 import static org.lisoft.lsml.view_fx.LiSongMechLab.safeCommand;
 
 import java.util.Optional;
+import java.util.function.Function;
 import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.ContextMenu;
 import javafx.scene.control.MenuItem;
@@ -51,15 +52,29 @@ import org.lisoft.mwo_data.equipment.MwoObject;
  */
 public class EquipmentTableRow extends TreeTableRow<Object> {
   private final MenuItem autoEquip;
+  private final Function<Item, EquipResult> equippability;
   private final Loadout loadout;
 
+  /**
+   * Creates a new row.
+   *
+   * @param aLoadout The {@link Loadout} that the equipment is shown for.
+   * @param aEquippability A {@link Function} that classifies items against the current state of
+   *     the loadout, see {@link Loadout#evaluateEquippability(java.util.Collection)}.
+   * @param aStack The {@link CommandStack} to execute commands on.
+   * @param aMsgDelivery A {@link MessageDelivery} to send messages on.
+   * @param aLoadoutFactory A {@link LoadoutFactory} used for filling the loadout.
+   * @param aSettings The application settings.
+   */
   public EquipmentTableRow(
       Loadout aLoadout,
+      Function<Item, EquipResult> aEquippability,
       CommandStack aStack,
       MessageDelivery aMsgDelivery,
       LoadoutFactory aLoadoutFactory,
       Settings aSettings) {
     loadout = aLoadout;
+    equippability = aEquippability;
     setOnDragDetected(
         aEvent -> {
           getValueAsItem()
@@ -158,7 +173,7 @@ public class EquipmentTableRow extends TreeTableRow<Object> {
 
       StyleManager.changeListStyle(this, EquipmentCategory.classify(item));
 
-      if (EquipResult.SUCCESS == loadout.canEquipDirectly(item)) {
+      if (EquipResult.SUCCESS == equippability.apply(item)) {
         // Directly equipable
         pseudoClassStateChanged(StyleManager.PC_UNEQUIPPABLE, false);
         pseudoClassStateChanged(StyleManager.PC_SMARTPLACEABLE, false);
@@ -17,8 +17,8 @@
  */
 package org.lisoft.lsml.view_fx.properties;
 
-import java.util.Collection;
 import java.util.function.Predicate;
+import javafx.application.Platform;
 import javafx.beans.binding.DoubleBinding;
 import javafx.beans.binding.IntegerBinding;
 import javafx.beans.property.DoubleProperty;
@@ -31,11 +31,11 @@ import org.lisoft.lsml.application.ErrorReporter;
 import org.lisoft.lsml.messages.*;
 import org.lisoft.lsml.messages.LoadoutMessage.Type;
 import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutEvaluationContext;
 import org.lisoft.lsml.model.loadout.WeaponGroups;
 import org.lisoft.lsml.model.metrics.*;
 import org.lisoft.mwo_data.Environment;
 import org.lisoft.mwo_data.mechs.MovementProfile;
-import org.lisoft.mwo_data.modifiers.Modifier;
 
 /**
  * This class wraps all the metrics that are calculated for a {@link Loadout} in a JavaFX friendly
@@ -58,41 +58,57 @@ public class LoadoutMetrics {
     public final MetricBinding<MaxDPSTimeToOverHeat> maxDPSTtO;
     public final RangeMetricBinding<MaxSustainedDPS> sustainedDPS;
 
+    /**
+     * @param aRcv The crossbar that the loadout's messages are posted on.
+     * @param aBindingReception The reception for the bindings to listen on, typically a {@link
+     *     MessageCoalescer} on 'aRcv'.
+     * @param aContext The evaluation context of the loadout.
+     * @param aGroup The weapon group, or -1 for all weapons.
+     * @param aHeatCapacity The heat capacity metric of the loadout.
+     * @param aHeatDissipation The heat dissipation metric of the loadout.
+     * @param aFilter The messages that invalidate the bindings.
+     */
     public GroupMetrics(
         MessageXBar aRcv,
-        Loadout aLoadout,
+        MessageReception aBindingReception,
+        LoadoutEvaluationContext aContext,
         int aGroup,
         HeatCapacity aHeatCapacity,
         HeatDissipation aHeatDissipation,
         Predicate<Message> aFilter) {
-      final HeatGeneration heatGeneration = new HeatGeneration(aLoadout, aGroup);
-      final HeatOverTime heatOverTime = new HeatOverTime(aLoadout, aRcv, aGroup);
+      final HeatGeneration heatGeneration = new HeatGeneration(aContext, aGroup);
+      final HeatOverTime heatOverTime = new HeatOverTime(aContext, aRcv, aGroup);
 
       maxDPSTtO =
           new MetricBinding<>(
-              aRcv,
+              aBindingReception,
               new MaxDPSTimeToOverHeat(aHeatCapacity, heatOverTime, aHeatDissipation),
               aFilter);
-      alphaGhostHeat = new MetricBinding<>(aRcv, new GhostHeat(aLoadout, aGroup), aFilter);
-      alphaDamage = new RangeMetricBinding<>(aRcv, new AlphaStrike(aLoadout, aGroup), aFilter);
-      alphaHeat = new MetricBinding<>(aRcv, new AlphaHeat(aLoadout, aGroup), aFilter);
+      alphaGhostHeat =
+          new MetricBinding<>(aBindingReception, new GhostHeat(aContext, aGroup), aFilter);
+      alphaDamage =
+          new RangeMetricBinding<>(aBindingReception, new AlphaStrike(aContext, aGroup), aFilter);
+      alphaHeat = new MetricBinding<>(aBindingReception, new AlphaHeat(aContext, aGroup), aFilter);
       alphaHeatPct =
           new MetricBinding<>(
-              aRcv,
+              aBindingReception,
               new AlphaHeatPercent(
-                  alphaGhostHeat.getMetric(), aHeatDissipation, aHeatCapacity, aLoadout, aGroup),
+                  alphaGhostHeat.getMetric(), aHeatDissipation, aHeatCapacity, aContext, aGroup),
               aFilter);
       final BurstDamageOverTime burstDamageOverTime =
-          new BurstDamageOverTime(aLoadout, aRcv, aGroup);
-      burstDamage = new RangeTimeMetricBinding<>(aRcv, burstDamageOverTime, aFilter);
+          new BurstDamageOverTime(aContext, aRcv, aGroup);
+      burstDamage =
+          new RangeTimeMetricBinding<>(aBindingReception, aRcv, burstDamageOverTime, aFilter);
       burstHeat =
-          new MetricBinding<>(aRcv, new BurstHeat(burstDamageOverTime, heatOverTime), aFilter);
-      maxDPS = new RangeMetricBinding<>(aRcv, new MaxDPS(aLoadout, aGroup), aFilter);
+          new MetricBinding<>(
+              aBindingReception, new BurstHeat(burstDamageOverTime, heatOverTime), aFilter);
+      maxDPS = new RangeMetricBinding<>(aBindingReception, new MaxDPS(aContext, aGroup), aFilter);
       sustainedDPS =
           new RangeMetricBinding<>(
-              aRcv, new MaxSustainedDPS(aLoadout, aHeatDissipation, aGroup), aFilter);
+              aBindingReception, new MaxSustainedDPS(aContext, aHeatDissipation, aGroup), aFilter);
       maxDPSCoolingRatio =
-          new MetricBinding<>(aRcv, new CoolingRatio(aHeatDissipation, heatGeneration), aFilter);
+          new MetricBinding<>(
+              aBindingReception, new CoolingRatio(aHeatDissipation, heatGeneration), aFilter);
     }
 
     /**
@@ -140,12 +156,18 @@ public class LoadoutMetrics {
   public final MetricBinding<TorsoTwistYawSpeed> torsoYawSpeed;
   public final MetricBinding<TurningSpeed> turnSpeed;
   public final GroupMetrics[] weaponGroups = new GroupMetrics[WeaponGroups.MAX_WEAPONS];
+  private final MessageCoalescer coalescer;
+  private final LoadoutEvaluationContext context;
   private final MessageXBar xBar;
 
   @Inject
   public LoadoutMetrics(Loadout aLoadout, @Named("local") MessageXBar aRcv, ErrorReporter aER) {
     xBar = aRcv;
-    final Collection<Modifier> modifiers = aLoadout.getAllModifiers();
+    // Must attach before the bindings below so that it's invalidated before they're recomputed.
+    context = new LoadoutEvaluationContext(aLoadout, aRcv);
+    // The bindings are invalidated at most once per pulse, no matter how many messages a command
+    // posts. The metrics themselves listen on the crossbar directly so they're never stale.
+    coalescer = new MessageCoalescer(aRcv, Platform::runLater);
     final Environment aEnvironment = Environment.NEUTRAL;
     final MovementProfile mp = aLoadout.getMovementProfile();
     // Update predicates
@@ -159,46 +181,56 @@ public class LoadoutMetrics {
         (aMsg) -> itemsChanged.test(aMsg) || omniPodChanged.test(aMsg);
 
     // Mobility
-    topSpeed = new MetricBinding<>(aRcv, new TopSpeed(aLoadout), engineOrEffsChanged);
+    topSpeed = new MetricBinding<>(coalescer, new TopSpeed(context), engineOrEffsChanged);
     mascSpeed =
         new MetricBinding<>(
-            aRcv, new MASCSpeed(aLoadout, topSpeed.getMetric()), engineOrEffsChanged);
-    turnSpeed = new MetricBinding<>(aRcv, new TurningSpeed(aLoadout), engineOrEffsChanged);
+            coalescer, new MASCSpeed(aLoadout, topSpeed.getMetric()), engineOrEffsChanged);
+    turnSpeed = new MetricBinding<>(coalescer, new TurningSpeed(context), engineOrEffsChanged);
     torsoPitchSpeed =
-        new MetricBinding<>(aRcv, new TorsoTwistPitchSpeed(aLoadout), engineOrEffsChanged);
+        new MetricBinding<>(coalescer, new TorsoTwistPitchSpeed(context), engineOrEffsChanged);
     torsoYawSpeed =
-        new MetricBinding<>(aRcv, new TorsoTwistYawSpeed(aLoadout), engineOrEffsChanged);
+        new MetricBinding<>(coalescer, new TorsoTwistYawSpeed(context), engineOrEffsChanged);
     armPitchSpeed =
-        new MetricBinding<>(aRcv, new ArmRotatePitchSpeed(aLoadout), engineOrEffsChanged);
-    armYawSpeed = new MetricBinding<>(aRcv, new ArmRotateYawSpeed(aLoadout), engineOrEffsChanged);
+        new MetricBinding<>(coalescer, new ArmRotatePitchSpeed(context), engineOrEffsChanged);
+    armYawSpeed =
+        new MetricBinding<>(coalescer, new ArmRotateYawSpeed(context), engineOrEffsChanged);
 
-    jumpJetCount = new LsmlIntegerBinding(aRcv, aLoadout::getJumpJetCount, itemsOrPodsChanged, aER);
-    jumpJetMax = new LsmlIntegerBinding(aRcv, aLoadout::getJumpJetsMax, itemsOrPodsChanged, aER);
+    jumpJetCount =
+        new LsmlIntegerBinding(coalescer, aLoadout::getJumpJetCount, itemsOrPodsChanged, aER);
+    jumpJetMax =
+        new LsmlIntegerBinding(coalescer, aLoadout::getJumpJetsMax, itemsOrPodsChanged, aER);
     torsoPitch =
-        new LsmlDoubleBinding(aRcv, () -> mp.getTorsoPitchMax(modifiers), engineOrEffsChanged, aER);
+        new LsmlDoubleBinding(
+            coalescer, () -> mp.getTorsoPitchMax(context.getModifiers()), engineOrEffsChanged, aER);
     torsoYaw =
-        new LsmlDoubleBinding(aRcv, () -> mp.getTorsoYawMax(modifiers), engineOrEffsChanged, aER);
+        new LsmlDoubleBinding(
+            coalescer, () -> mp.getTorsoYawMax(context.getModifiers()), engineOrEffsChanged, aER);
     armPitch =
-        new LsmlDoubleBinding(aRcv, () -> mp.getArmPitchMax(modifiers), engineOrEffsChanged, aER);
+        new LsmlDoubleBinding(
+            coalescer, () -> mp.getArmPitchMax(context.getModifiers()), engineOrEffsChanged, aER);
     armYaw =
-        new LsmlDoubleBinding(aRcv, () -> mp.getArmYawMax(modifiers), engineOrEffsChanged, aER);
+        new LsmlDoubleBinding(
+            coalescer, () -> mp.getArmYawMax(context.getModifiers()), engineOrEffsChanged, aER);
 
     // Heat
     heatSinkCount =
-        new LsmlIntegerBinding(aRcv, aLoadout::getTotalHeatSinksCount, itemsOrPodsChanged, aER);
-    heatCapacity = new MetricBinding<>(aRcv, new HeatCapacity(aLoadout), affectsHeatOrDamage);
+        new LsmlIntegerBinding(
+            coalescer, aLoadout::getTotalHeatSinksCount, itemsOrPodsChanged, aER);
+    heatCapacity = new MetricBinding<>(coalescer, new HeatCapacity(context), affectsHeatOrDamage);
     heatDissipation =
-        new MetricBinding<>(aRcv, new HeatDissipation(aLoadout, aEnvironment), affectsHeatOrDamage);
+        new MetricBinding<>(
+            coalescer, new HeatDissipation(context, aEnvironment), affectsHeatOrDamage);
     timeToCool =
         new MetricBinding<>(
-            aRcv,
+            coalescer,
             new TimeToCool(heatCapacity.getMetric(), heatDissipation.getMetric()),
             affectsHeatOrDamage);
 
     alphaGroup =
         new GroupMetrics(
             xBar,
-            aLoadout,
+            coalescer,
+            context,
             -1,
             heatCapacity.getMetric(),
             heatDissipation.getMetric(),
@@ -208,7 +240,8 @@ public class LoadoutMetrics {
       weaponGroups[i] =
           new GroupMetrics(
               xBar,
-              aLoadout,
+              coalescer,
+              context,
               i,
               heatCapacity.getMetric(),
               heatDissipation.getMetric(),
@@ -21,6 +21,7 @@ import java.util.concurrent.Callable;
 import java.util.function.Predicate;
 import javafx.beans.binding.IntegerBinding;
 import org.lisoft.lsml.application.ErrorReporter;
+import org.lisoft.lsml.messages.CoalescedMessage;
 import org.lisoft.lsml.messages.Message;
 import org.lisoft.lsml.messages.MessageReceiver;
 import org.lisoft.lsml.messages.MessageReception;
@@ -49,7 +50,7 @@ public class LsmlIntegerBinding extends IntegerBinding implements MessageReceive
   @Override
   public void receive(Message aMsg) {
     try {
-      if (invalidationFilter.test(aMsg)) {
+      if (CoalescedMessage.matches(aMsg, invalidationFilter)) {
         invalidate();
       }
     } catch (Exception e) {
@@ -21,6 +21,7 @@ import java.util.concurrent.Callable;
 import java.util.function.Predicate;
 import javafx.beans.binding.ObjectBinding;
 import org.lisoft.lsml.application.ErrorReporter;
+import org.lisoft.lsml.messages.CoalescedMessage;
 import org.lisoft.lsml.messages.Message;
 import org.lisoft.lsml.messages.MessageReceiver;
 import org.lisoft.lsml.messages.MessageReception;
@@ -50,7 +51,7 @@ public class LsmlObjectBinding<T> extends ObjectBinding<T> implements MessageRec
   @Override
   public void receive(Message aMsg) {
     try {
-      if (invalidationFilter.test(aMsg)) {
+      if (CoalescedMessage.matches(aMsg, invalidationFilter)) {
         invalidate();
       }
     } catch (Exception e) {
@@ -21,6 +21,7 @@ package org.lisoft.lsml.view_fx.properties;
 
 import javafx.beans.binding.DoubleBinding;
 import javafx.beans.binding.DoubleExpression;
+import org.lisoft.lsml.messages.CoalescedMessage;
 import org.lisoft.lsml.messages.Message;
 import org.lisoft.lsml.messages.MessageReceiver;
 import org.lisoft.lsml.messages.MessageReception;
@@ -60,7 +61,7 @@ public class MetricBinding<T extends Metric> extends DoubleBinding implements Me
 
     @Override
     public void receive(Message aMsg) {
-        if (isValid() && filter.test(aMsg)) {
+        if (isValid() && CoalescedMessage.matches(aMsg, filter)) {
             invalidate();
         }
     }
@@ -25,6 +25,8 @@ import javafx.beans.property.SimpleDoubleProperty;
 import org.lisoft.lsml.messages.LoadoutMessage;
 import org.lisoft.lsml.messages.LoadoutMessage.Type;
 import org.lisoft.lsml.messages.Message;
+import org.lisoft.lsml.messages.MessageDelivery;
+import org.lisoft.lsml.messages.MessageReception;
 import org.lisoft.lsml.messages.MessageXBar;
 import org.lisoft.lsml.model.metrics.RangeMetric;
 import org.lisoft.lsml.model.metrics.RangeTimeMetric;
@@ -41,7 +43,18 @@ public class RangeTimeMetricBinding<T extends RangeTimeMetric> extends RangeMetr
     private final SimpleDoubleProperty time;
 
     public RangeTimeMetricBinding(MessageXBar aXBar, T aMetric, Predicate<Message> aFilter) {
-        super(aXBar, aMetric, aFilter);
+        this(aXBar, aXBar, aMetric, aFilter);
+    }
+
+    /**
+     * @param aReception The {@link MessageReception} to listen for invalidating messages on.
+     * @param aDelivery  The {@link MessageDelivery} to post an update on when the time changes.
+     * @param aMetric    The metric to wrap.
+     * @param aFilter    A {@link Predicate} which returns true if the given message might have affected the metric.
+     */
+    public RangeTimeMetricBinding(MessageReception aReception, MessageDelivery aDelivery, T aMetric,
+                                  Predicate<Message> aFilter) {
+        super(aReception, aMetric, aFilter);
 
         time = new SimpleDoubleProperty(aMetric.getTime()) {
             @Override
@@ -51,7 +64,7 @@ public class RangeTimeMetricBinding<T extends RangeTimeMetric> extends RangeMetr
                 super.invalidated();
 
                 // Force the metrics (and everything else) to update.
-                aXBar.post(new LoadoutMessage(null, Type.UPDATE));
+                aDelivery.post(new LoadoutMessage(null, Type.UPDATE));
             }
         };
     }
@@ -17,7 +17,6 @@
  */
 package org.lisoft.lsml.view_fx.util;
 
-import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.regex.Matcher;
@@ -82,8 +81,8 @@ public class FxTableUtils {
   }
 
   public static <T> void addAttributeColumn(
-      TableView<T> aTable, String aName, String aStat, String aToolTip) {
-    aTable.getColumns().add(makeAttributeColumn(aName, aStat, aToolTip));
+      TableView<T> aTable, Class<T> aRowType, String aName, String aStat, String aToolTip) {
+    aTable.getColumns().add(makeAttributeColumn(aRowType, aName, aStat, aToolTip));
   }
 
   public static void addColumnToolTip(TableColumn<?, ?> aColumn, String aToolTip) {
@@ -170,51 +169,37 @@ public class FxTableUtils {
     addColumnToolTip(col, "Total number of hard points of type: " + aHardPointType.name() + ".");
   }
 
+  /**
+   * Creates a column that shows the value of a property path on the row objects. The path is
+   * resolved once when the column is created, see {@link PropertyAccessor}.
+   *
+   * @param aRowType The type of the objects in the table rows.
+   * @param aName The name of the column.
+   * @param aStat A dot separated property path, for example <code>"chassis.massMax"</code>.
+   * @param aTooltip The tool tip to show on the column header.
+   * @return A new {@link TableColumn}.
+   * @throws IllegalArgumentException if the property path doesn't exist on the row type.
+   */
   public static <T> TableColumn<T, String> makeAttributeColumn(
-      String aName, String aStat, String aTooltip) {
+      Class<T> aRowType, String aName, String aStat, String aTooltip) {
+    final PropertyAccessor accessor = PropertyAccessor.of(aRowType, aStat);
     final TableColumn<T, String> col = new TableColumn<>(aName);
-    col.setCellValueFactory(
-        aFeatures -> {
-          Object obj = aFeatures.getValue();
-          final String[] bits = aStat.split("\\.");
-
-          for (final String bit : bits) {
-            final String getMethodName =
-                "get" + Character.toUpperCase(bit.charAt(0)) + bit.substring(1);
-            final String propertyMethodName = bit + "Property";
-
-            boolean found = false;
-            for (final Method method : obj.getClass().getMethods()) {
-              if (method.getName().equals(getMethodName)) {
-                try {
-                  obj = method.invoke(obj, new Object[method.getParameterCount()]);
-                  found = true;
-                  break;
-                } catch (final Exception e) {
-                  throw new RuntimeException(e);
-                }
-              } else if (method.getName().equals(propertyMethodName)) {
-                try {
-                  obj = method.invoke(obj);
-                  found = true;
-                  break;
-                } catch (final Exception e) {
-                  throw new RuntimeException(e);
-                }
-              }
-            }
-            if (!found) {
-              throw new RuntimeException("Couldn't find property: " + aStat);
+    if (accessor.isNumeric()) {
+      col.setCellValueFactory(
+          aFeatures ->
+              FxBindingUtils.formatValue(STAT_FMT, true, accessor.getDouble(aFeatures.getValue())));
+    } else {
+      col.setCellValueFactory(
+          aFeatures -> {
+            final Object obj = accessor.get(aFeatures.getValue());
+            if (obj instanceof Number) {
+              return FxBindingUtils.formatValue(STAT_FMT, true, ((Number) obj).doubleValue());
+            } else if (obj instanceof ObservableValue) {
+              return StringExpression.stringExpression((ObservableValue<?>) obj);
             }
-          }
-
-          if (obj instanceof Number) {
-            return FxBindingUtils.formatValue(STAT_FMT, true, ((Number) obj).doubleValue());
-          } else if (obj instanceof ObservableValue) {
-            return StringExpression.stringExpression((ObservableValue<?>) obj);
-          }
-          return new ReadOnlyStringWrapper(obj.toString());
-        });
+            return new ReadOnlyStringWrapper(obj.toString());
+          });
+    }
     col.setComparator(FxTableUtils.NUMERICAL_ORDERING);
     addColumnToolTip(col, aTooltip);
     return col;
@@ -306,13 +291,22 @@ public class FxTableUtils {
 
   public static void setupChassisTable(TableView<Loadout> aTableView) {
     aTableView.getColumns().clear();
-    addAttributeColumn(aTableView, "Name", "name", "The short name of the chassis.");
-    addAttributeColumn(aTableView, "Tn", "chassis.massMax", "The maximal mass of the chassis.");
+    addAttributeColumn(aTableView, Loadout.class, "Name", "name", "The short name of the chassis.");
+    addAttributeColumn(
+        aTableView, Loadout.class, "Tn", "chassis.massMax", "The maximal mass of the chassis.");
     addAttributeColumn(
-        aTableView, "Fctn", "chassis.faction.uiShortName", "The faction of the chassis.");
+        aTableView,
+        Loadout.class,
+        "Fctn",
+        "chassis.faction.uiShortName",
+        "The faction of the chassis.");
 
     addAttributeColumn(
-        aTableView, "JJ", "jumpJetsMax", "The maximal number of Jump-Jets on the chassis.");
+        aTableView,
+        Loadout.class,
+        "JJ",
+        "jumpJetsMax",
+        "The maximal number of Jump-Jets on the chassis.");
 
     final TableColumn<Loadout, String> col = new TableColumn<>(HardPointType.ECM.shortName());
     col.setCellValueFactory(
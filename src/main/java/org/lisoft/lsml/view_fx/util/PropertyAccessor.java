@@ -0,0 +1,166 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.view_fx.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * A compiled accessor for a dot separated property path, for example
+ * <code>"loadout.chassis.massMax"</code>.
+ *
+ * <p>Each segment of the path is resolved once to either a <code>getXyz(...)</code> or an <code>
+ * xyzProperty()</code> method on the static type returned by the previous segment. The methods are
+ * then composed into a single {@link MethodHandle} so that reading the property from an object
+ * doesn't need any reflective look-ups. Getters that take arguments are called with
+ * <code>null</code> for all arguments, e.g. <code>getRangeMax(Collection&lt;Modifier&gt;)</code> is
+ * called without modifiers.
+ *
+ * @author Li Song
+ */
+final class PropertyAccessor {
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final MethodType NUMERIC_TYPE = MethodType.methodType(double.class, Object.class);
+  private static final MethodType OBJECT_TYPE = MethodType.methodType(Object.class, Object.class);
+  private final MethodHandle getter;
+  private final MethodHandle numericGetter;
+
+  private PropertyAccessor(MethodHandle aChain) {
+    getter = aChain.asType(OBJECT_TYPE);
+    final Class<?> valueType = aChain.type().returnType();
+    if (valueType.isPrimitive() && valueType != boolean.class && valueType != char.class) {
+      numericGetter = aChain.asType(NUMERIC_TYPE);
+    } else {
+      numericGetter = null;
+    }
+  }
+
+  /**
+   * Resolves the given property path against the given type.
+   *
+   * @param aType The type of the objects that the property will be read from.
+   * @param aPath A dot separated path of property names.
+   * @return A new {@link PropertyAccessor}.
+   * @throws IllegalArgumentException if any segment of the path can't be resolved.
+   */
+  static PropertyAccessor of(Class<?> aType, String aPath) {
+    MethodHandle chain = null;
+    Class<?> type = aType;
+    for (final String bit : aPath.split("\\.")) {
+      final MethodHandle segment = resolve(type, bit, aPath);
+      chain = chain == null ? segment : MethodHandles.filterReturnValue(chain, segment);
+      type = segment.type().returnType();
+    }
+    if (chain == null) {
+      throw new IllegalArgumentException("Empty property path for: " + aType.getName());
+    }
+    return new PropertyAccessor(chain);
+  }
+
+  private static Method findMethod(Class<?> aType, String aName) {
+    Method ans = null;
+    for (final Method method : aType.getMethods()) {
+      if (method.getName().equals(aName)
+          && method.getReturnType() != void.class
+          && hasOnlyReferenceParameters(method)
+          && (ans == null || method.getParameterCount() < ans.getParameterCount())) {
+        ans = method;
+      }
+    }
+    return ans;
+  }
+
+  private static boolean hasOnlyReferenceParameters(Method aMethod) {
+    for (final Class<?> parameter : aMethod.getParameterTypes()) {
+      if (parameter.isPrimitive()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static MethodHandle resolve(Class<?> aType, String aProperty, String aPath) {
+    if (aProperty.isEmpty()) {
+      throw new IllegalArgumentException("Malformed property path: " + aPath);
+    }
+    final String getterName =
+        "get" + Character.toUpperCase(aProperty.charAt(0)) + aProperty.substring(1);
+    Method method = findMethod(aType, getterName);
+    if (method == null) {
+      method = findMethod(aType, aProperty + "Property");
+    }
+    if (method == null) {
+      throw new IllegalArgumentException(
+          "Couldn't find property: " + aPath + " on: " + aType.getName());
+    }
+
+    try {
+      // Look up through the (public) queried type rather than the declaring class, as the
+      // method may be inherited from a class that isn't accessible.
+      final MethodHandle handle =
+          LOOKUP.findVirtual(
+              aType,
+              method.getName(),
+              MethodType.methodType(method.getReturnType(), method.getParameterTypes()));
+      return MethodHandles.insertArguments(handle, 1, new Object[method.getParameterCount()]);
+    } catch (final ReflectiveOperationException e) {
+      throw new IllegalArgumentException("Couldn't access property: " + aPath, e);
+    }
+  }
+
+  /**
+   * @param aObject The object to read the property from.
+   * @return The value of the property, primitive values are boxed.
+   */
+  Object get(Object aObject) {
+    try {
+      return (Object) getter.invokeExact(aObject);
+    } catch (final RuntimeException | Error e) {
+      throw e;
+    } catch (final Throwable e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Reads a numeric property without boxing the value. Only valid if {@link #isNumeric()} is
+   * <code>true</code>.
+   *
+   * @param aObject The object to read the property from.
+   * @return The value of the property.
+   */
+  double getDouble(Object aObject) {
+    try {
+      return (double) numericGetter.invokeExact(aObject);
+    } catch (final RuntimeException | Error e) {
+      throw e;
+    } catch (final Throwable e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * @return <code>true</code> if the property is of a primitive numerical type and can be read
+   *     with {@link #getDouble(Object)}.
+   */
+  boolean isNumeric() {
+    return numericGetter != null;
+  }
+}
@@ -0,0 +1,227 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.view_headless;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import org.lisoft.lsml.application.components.CoreComponent;
+import org.lisoft.lsml.application.components.DaggerHeadlessCoreComponent;
+import org.lisoft.lsml.model.garage.GarageSerializer;
+import org.lisoft.lsml.model.loadout.LoadoutBuilder;
+
+/**
+ * Command line entry point for evaluating many loadouts without starting the graphical
+ * application, see {@link #usage()} for the arguments. This is a separate main class rather than
+ * an option to {@link org.lisoft.lsml.view_fx.LiSongMechLab} as the Java launcher starts the JavaFX
+ * toolkit before calling the main method of an application class.
+ *
+ * @author Li Song
+ */
+public final class BatchEvaluation {
+  static final int EXIT_FAILURES = 1;
+  static final int EXIT_OK = 0;
+  static final int EXIT_USAGE = 2;
+
+  /** The parsed command line arguments. */
+  static final class Options {
+    OutputFormat format = OutputFormat.CSV;
+    boolean garage = false;
+    boolean help = false;
+    Path input = null;
+    List<BatchMetric> metrics = Arrays.asList(BatchMetric.values());
+    Path output = null;
+    List<Double> ranges = List.of();
+    int threads = Runtime.getRuntime().availableProcessors();
+  }
+
+  private BatchEvaluation() {}
+
+  public static void main(String[] aArgs) {
+    System.exit(
+        run(aArgs, DaggerHeadlessCoreComponent::create, System.in, System.out, System.err));
+  }
+
+  /**
+   * Parses the command line arguments.
+   *
+   * @param aArgs The arguments, as given to {@link #main(String[])}.
+   * @return The parsed {@link Options}.
+   * @throws IllegalArgumentException if the arguments are malformed.
+   */
+  static Options parse(String[] aArgs) {
+    final Options options = new Options();
+    for (int i = 0; i < aArgs.length; ++i) {
+      final String arg = aArgs[i];
+      switch (arg) {
+        case "-h", "--help" -> options.help = true;
+        case "--garage" -> options.garage = true;
+        case "--format" -> {
+          final String format = value(aArgs, ++i, arg);
+          try {
+            options.format = OutputFormat.valueOf(format.toUpperCase(Locale.ENGLISH));
+          } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown format: " + format, e);
+          }
+        }
+        case "--metrics" -> {
+          final List<BatchMetric> metrics = new ArrayList<>();
+          for (final String key : value(aArgs, ++i, arg).split(",")) {
+            metrics.add(BatchMetric.fromKey(key.trim()));
+          }
+          options.metrics = metrics;
+        }
+        case "--ranges" -> {
+          final List<Double> ranges = new ArrayList<>();
+          for (final String range : value(aArgs, ++i, arg).split(",")) {
+            try {
+              ranges.add(Double.parseDouble(range.trim()));
+            } catch (final NumberFormatException e) {
+              throw new IllegalArgumentException("Malformed range: " + range, e);
+            }
+          }
+          options.ranges = ranges;
+        }
+        case "--threads" -> {
+          final String threads = value(aArgs, ++i, arg);
+          try {
+            options.threads = Integer.parseInt(threads);
+          } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed thread count: " + threads, e);
+          }
+          if (options.threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required!");
+          }
+        }
+        case "-o", "--output" -> options.output = Path.of(value(aArgs, ++i, arg));
+        default -> {
+          if (arg.startsWith("-") && !arg.equals("-")) {
+            throw new IllegalArgumentException("Unknown option: " + arg);
+          }
+          if (options.input != null) {
+            throw new IllegalArgumentException("Only one input file can be given!");
+          }
+          options.input = arg.equals("-") ? null : Path.of(arg);
+        }
+      }
+    }
+    if (options.garage && options.input == null) {
+      throw new IllegalArgumentException("--garage requires an input file!");
+    }
+    return options;
+  }
+
+  /**
+   * Runs a batch evaluation.
+   *
+   * @param aArgs The command line arguments, as given to {@link #main(String[])}.
+   * @param aCoreComponent Creates the {@link CoreComponent}, only called if there is work to do.
+   * @param aIn The standard input to read links from if no input file is given.
+   * @param aOut The standard output to write to if no output file is given.
+   * @param aErr Where to print usage and errors.
+   * @return The exit code of the process.
+   */
+  static int run(
+      String[] aArgs,
+      Supplier<CoreComponent> aCoreComponent,
+      InputStream aIn,
+      OutputStream aOut,
+      PrintStream aErr) {
+    final Options options;
+    try {
+      options = parse(aArgs);
+    } catch (final IllegalArgumentException e) {
+      aErr.println(e.getMessage());
+      aErr.println(usage());
+      return EXIT_USAGE;
+    }
+    if (options.help) {
+      aErr.println(usage());
+      return EXIT_OK;
+    }
+
+    final CoreComponent core = aCoreComponent.get();
+    try (InputStream in = options.input == null ? null : Files.newInputStream(options.input);
+        OutputStream out = options.output == null ? null : Files.newOutputStream(options.output)) {
+      final Writer writer =
+          new BufferedWriter(
+              new OutputStreamWriter(out == null ? aOut : out, StandardCharsets.UTF_8));
+      final BatchEvaluator evaluator =
+          new BatchEvaluator(
+              core.loadoutCoder(),
+              options.metrics,
+              options.ranges,
+              options.format,
+              writer,
+              options.threads);
+      try {
+        if (options.garage) {
+          final GarageSerializer serializer =
+              new GarageSerializer(
+                  core.errorReporter(), core.loadoutFactory(), new LoadoutBuilder());
+          evaluator.evaluateGarage(serializer, new BufferedInputStream(in));
+        } else {
+          final InputStream links = in == null ? aIn : in;
+          evaluator.evaluateLinks(
+              new BufferedReader(new InputStreamReader(links, StandardCharsets.UTF_8)));
+        }
+      } finally {
+        evaluator.close();
+      }
+      return evaluator.getFailures() == 0 ? EXIT_OK : EXIT_FAILURES;
+    } catch (final IOException | RuntimeException e) {
+      aErr.println("Batch evaluation failed: " + e);
+      return EXIT_FAILURES;
+    }
+  }
+
+  static String usage() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("Usage: ").append(BatchEvaluation.class.getName()).append(" [options] [input]\n");
+    sb.append("Evaluates loadouts without starting the graphical application.\n\n");
+    sb.append("  input              A file with one lsml:// link per line, standard input if\n");
+    sb.append("                     omitted or '-'. A garage file if --garage is given.\n");
+    sb.append("  --garage           The input is a garage file.\n");
+    sb.append("  --format csv|json  The output format, csv (default) or JSON lines.\n");
+    sb.append("  --metrics a,b,...  The metrics to compute, all by default. One of:\n");
+    for (final BatchMetric metric : BatchMetric.values()) {
+      sb.append(
+          String.format(
+              "                       %-12s %s\n", metric.getKey(), metric.getDescription()));
+    }
+    sb.append("  --ranges r1,r2,... The ranges in meters for alpha and DPS metrics, by default\n");
+    sb.append("                     the optimal range of each loadout. 0 is the optimal range.\n");
+    sb.append("  --threads n        Number of threads, the number of processors by default.\n");
+    sb.append("  -o, --output file  The file to write to, standard output if omitted.\n");
+    sb.append("  -h, --help         Shows this help.");
+    return sb.toString();
+  }
+
+  private static String value(String[] aArgs, int aIndex, String aOption) {
+    if (aIndex >= aArgs.length) {
+      throw new IllegalArgumentException("Missing value for: " + aOption);
+    }
+    return aArgs[aIndex];
+  }
+}
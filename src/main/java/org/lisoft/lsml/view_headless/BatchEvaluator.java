@@ -0,0 +1,258 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.view_headless;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import org.lisoft.lsml.model.export.Base64LoadoutCoder;
+import org.lisoft.lsml.model.garage.GarageSerializer;
+import org.lisoft.lsml.model.loadout.Loadout;
+
+/**
+ * Evaluates a stream of loadouts in parallel and writes one row of metrics per loadout as soon as
+ * it has been evaluated.
+ *
+ * <p>Rows are written in the order they complete, which isn't necessarily the order of the input.
+ * The first column is the zero based position of the loadout in the input so that the order can be
+ * restored. A loadout that couldn't be decoded or evaluated gives a row with only the error column
+ * filled in.
+ *
+ * <p>At most a fixed number of loadouts are queued or being evaluated at any time, reading the
+ * input blocks until a slot is available. This keeps the memory use bounded regardless of the size
+ * of the input.
+ *
+ * @author Li Song
+ */
+public class BatchEvaluator implements Closeable {
+  private static final int FIXED_COLUMNS = 3;
+  private static final int QUEUED_PER_THREAD = 4;
+  private final List<String> columns;
+  private final ExecutorService executor;
+  private final OutputFormat format;
+  private final Semaphore inFlight;
+  private final Base64LoadoutCoder loadoutCoder;
+  private final int maxInFlight;
+  private final List<BatchMetric> metrics;
+  private final Writer output;
+  private final List<Double> ranges;
+  private int failures = 0;
+  private int nextIndex = 0;
+  private IOException writeError;
+
+  /**
+   * Creates a new {@link BatchEvaluator} and writes the header to the output.
+   *
+   * @param aLoadoutCoder The {@link Base64LoadoutCoder} to decode loadout links with.
+   * @param aMetrics The metrics to compute for each loadout, in column order.
+   * @param aRanges The ranges to compute the ranged metrics at. A range of 0 selects the optimal
+   *     range of each loadout.
+   * @param aFormat The {@link OutputFormat} to write.
+   * @param aOutput The {@link Writer} to write to, it is flushed after every row but not closed.
+   * @param aThreads The number of threads to evaluate on.
+   * @throws IOException if the header couldn't be written.
+   */
+  public BatchEvaluator(
+      Base64LoadoutCoder aLoadoutCoder,
+      List<BatchMetric> aMetrics,
+      List<Double> aRanges,
+      OutputFormat aFormat,
+      Writer aOutput,
+      int aThreads)
+      throws IOException {
+    if (aThreads < 1) {
+      throw new IllegalArgumentException("At least one thread is required!");
+    }
+    loadoutCoder = aLoadoutCoder;
+    metrics = new ArrayList<>(aMetrics);
+    ranges = new ArrayList<>(aRanges.isEmpty() ? List.of(0.0) : aRanges);
+    format = aFormat;
+    output = aOutput;
+    maxInFlight = aThreads * QUEUED_PER_THREAD;
+    inFlight = new Semaphore(maxInFlight);
+    columns = Collections.unmodifiableList(makeColumns(metrics, ranges));
+    executor =
+        Executors.newFixedThreadPool(
+            aThreads,
+            aRunnable -> {
+              final Thread thread = new Thread(aRunnable, "Batch Evaluator");
+              thread.setDaemon(true);
+              return thread;
+            });
+
+    format.writeHeader(output, columns);
+    output.flush();
+  }
+
+  private static String columnName(BatchMetric aMetric, double aRange) {
+    if (!aMetric.isRanged() || aRange <= 0.0) {
+      return aMetric.getKey();
+    }
+    if (aRange == Math.rint(aRange)) {
+      return aMetric.getKey() + "@" + (long) aRange;
+    }
+    return aMetric.getKey() + "@" + aRange;
+  }
+
+  private static List<String> makeColumns(List<BatchMetric> aMetrics, List<Double> aRanges) {
+    final List<String> ans = new ArrayList<>();
+    ans.add("index");
+    ans.add("name");
+    ans.add("chassis");
+    for (final BatchMetric metric : aMetrics) {
+      if (metric.isRanged()) {
+        for (final double range : aRanges) {
+          ans.add(columnName(metric, range));
+        }
+      } else {
+        ans.add(columnName(metric, 0.0));
+      }
+    }
+    ans.add("error");
+    return ans;
+  }
+
+  /**
+   * Waits for all submitted loadouts to be evaluated and written, then stops the threads.
+   *
+   * @throws IOException if writing any of the rows failed.
+   */
+  @Override
+  public void close() throws IOException {
+    inFlight.acquireUninterruptibly(maxInFlight);
+    inFlight.release(maxInFlight);
+    executor.shutdown();
+    synchronized (this) {
+      if (writeError != null) {
+        throw writeError;
+      }
+      output.flush();
+    }
+  }
+
+  /**
+   * Evaluates all loadouts in a garage file. The garage is decoded one loadout at a time.
+   *
+   * @param aGarageSerializer The {@link GarageSerializer} to decode the garage with.
+   * @param aInputStream The garage file to read.
+   */
+  public void evaluateGarage(GarageSerializer aGarageSerializer, InputStream aInputStream) {
+    aGarageSerializer.forEachLoadout(aInputStream, aLoadout -> submit(() -> aLoadout));
+  }
+
+  /**
+   * Evaluates the loadout links read from the given reader, one per line. Blank lines and lines
+   * starting with <code>#</code> are skipped.
+   *
+   * @param aReader The {@link BufferedReader} to read links from.
+   * @throws IOException if reading failed.
+   */
+  public void evaluateLinks(BufferedReader aReader) throws IOException {
+    String line;
+    while ((line = aReader.readLine()) != null) {
+      final String link = line.trim();
+      if (!link.isEmpty() && !link.startsWith("#")) {
+        submit(() -> loadoutCoder.parse(link));
+      }
+    }
+  }
+
+  /**
+   * @return The column names of the output.
+   */
+  public List<String> getColumns() {
+    return columns;
+  }
+
+  /**
+   * @return The number of loadouts that couldn't be decoded or evaluated so far.
+   */
+  public synchronized int getFailures() {
+    return failures;
+  }
+
+  private Object[] evaluate(int aIndex, Callable<Loadout> aLoadout) {
+    final Object[] row = new Object[columns.size()];
+    row[0] = aIndex;
+    try {
+      final Loadout loadout = aLoadout.call();
+      row[1] = loadout.getName();
+      row[2] = loadout.getChassis().getName();
+
+      final BatchMetric.Metrics loadoutMetrics = new BatchMetric.Metrics(loadout);
+      int column = FIXED_COLUMNS;
+      for (final BatchMetric metric : metrics) {
+        if (metric.isRanged()) {
+          for (final double range : ranges) {
+            row[column++] = metric.calculate(loadoutMetrics, range);
+          }
+        } else {
+          row[column++] = metric.calculate(loadoutMetrics, 0.0);
+        }
+      }
+    } catch (final Exception e) {
+      for (int i = 1; i < row.length; ++i) {
+        row[i] = null;
+      }
+      row[row.length - 1] = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+    }
+    return row;
+  }
+
+  private void submit(Callable<Loadout> aLoadout) {
+    final int index = nextIndex++;
+    inFlight.acquireUninterruptibly();
+    try {
+      executor.execute(
+          () -> {
+            try {
+              write(evaluate(index, aLoadout));
+            } finally {
+              inFlight.release();
+            }
+          });
+    } catch (final RuntimeException e) {
+      inFlight.release();
+      throw e;
+    }
+  }
+
+  private synchronized void write(Object[] aRow) {
+    if (aRow[aRow.length - 1] != null) {
+      failures++;
+    }
+    if (writeError != null) {
+      return;
+    }
+    try {
+      format.writeRow(output, columns, aRow);
+      output.flush();
+    } catch (final IOException e) {
+      writeError = e;
+    }
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.view_headless;
+
+import org.lisoft.lsml.messages.MessageXBar;
+import org.lisoft.lsml.model.loadout.ConfiguredComponent;
+import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.loadout.LoadoutEvaluationContext;
+import org.lisoft.lsml.model.metrics.*;
+import org.lisoft.mwo_data.equipment.Item;
+import org.lisoft.mwo_data.equipment.Weapon;
+
+/**
+ * The metrics that can be computed by a {@link BatchEvaluator}.
+ *
+ * @author Li Song
+ */
+public enum BatchMetric {
+  ALPHA("alpha", true, "Alpha strike damage.") {
+    @Override
+    double calculate(Metrics aMetrics, double aRange) {
+      return calculateAt(aMetrics.alphaStrike, aRange);
+    }
+  },
+  DPS("dps", true, "Maximal damage per second, ignoring heat.") {
+    @Override
+    double calculate(Metrics aMetrics, double aRange) {
+      return calculateAt(aMetrics.maxDPS, aRange);
+    }
+  },
+  SUSTAINED_DPS("sdps", true, "Maximal damage per second that can be sustained indefinitely.") {
+    @Override
+    double calculate(Metrics aMetrics, double aRange) {
+      return calculateAt(aMetrics.maxSustainedDPS, aRange);
+    }
+  },
+  HEAT_CAPACITY("heatcap", false, "Heat capacity.") {
+    @Override
+    double calculate(Metrics aMetrics, double aRange) {
+      return aMetrics.heatCapacity.calculate();
+    }
+  },
+  DISSIPATION("dissipation", false, "Heat dissipation per second.") {
+    @Override
+    double calculate(Metrics aMetrics, double aRange) {
+      return aMetrics.heatDissipation.calculate();
+    }
+  },
+  OVERHEAT("overheat", false, "Seconds until over heating when firing at maximal DPS.") {
+    @Override
+    double calculate(Metrics aMetrics, double aRange) {
+      return aMetrics.timeToOverHeat().calculate();
+    }
+  },
+  SPEED("speed", false, "Top speed with the equipped engine.") {
+    @Override
+    double calculate(Metrics aMetrics, double aRange) {
+      return new TopSpeed(aMetrics.context).calculate();
+    }
+  },
+  CRIT("crit", false, "Least damage to its component that is expected to destroy a weapon.") {
+    @Override
+    double calculate(Metrics aMetrics, double aRange) {
+      double ans = Double.POSITIVE_INFINITY;
+      for (final ConfiguredComponent component : aMetrics.context.getLoadout().getComponents()) {
+        final ItemEffectiveHP effectiveHP = new ItemEffectiveHP(component);
+        for (final Item item : component.getItemsEquipped()) {
+          if (item instanceof Weapon) {
+            ans = Math.min(ans, effectiveHP.calculate(item));
+          }
+        }
+        for (final Item item : component.getItemsFixed()) {
+          if (item instanceof Weapon) {
+            ans = Math.min(ans, effectiveHP.calculate(item));
+          }
+        }
+      }
+      return ans;
+    }
+  };
+
+  /**
+   * The metrics of one loadout. They share a memoising {@link LoadoutEvaluationContext} so that
+   * the modifiers, weapons and heat of the loadout are only computed once for all columns.
+   */
+  static final class Metrics {
+    private final AlphaStrike alphaStrike;
+    private final LoadoutEvaluationContext context;
+    private final HeatCapacity heatCapacity;
+    private final HeatDissipation heatDissipation;
+    private final MaxDPS maxDPS;
+    private final MaxSustainedDPS maxSustainedDPS;
+    private final MessageXBar xBar = new MessageXBar();
+
+    Metrics(Loadout aLoadout) {
+      context = new LoadoutEvaluationContext(aLoadout, xBar);
+      alphaStrike = new AlphaStrike(context, -1);
+      heatCapacity = new HeatCapacity(context);
+      heatDissipation = new HeatDissipation(context, null);
+      maxDPS = new MaxDPS(context, -1);
+      maxSustainedDPS = new MaxSustainedDPS(context, heatDissipation, -1);
+    }
+
+    private MaxDPSTimeToOverHeat timeToOverHeat() {
+      final HeatOverTime heatOverTime = new HeatOverTime(context, xBar, -1);
+      return new MaxDPSTimeToOverHeat(heatCapacity, heatOverTime, heatDissipation);
+    }
+  }
+
+  private final String description;
+  private final String key;
+  private final boolean ranged;
+
+  BatchMetric(String aKey, boolean aRanged, String aDescription) {
+    key = aKey;
+    ranged = aRanged;
+    description = aDescription;
+  }
+
+  /**
+   * @param aKey The key of a metric as given on the command line.
+   * @return The {@link BatchMetric} with the given key.
+   * @throws IllegalArgumentException if no metric has the given key.
+   */
+  public static BatchMetric fromKey(String aKey) {
+    for (final BatchMetric metric : values()) {
+      if (metric.key.equalsIgnoreCase(aKey)) {
+        return metric;
+      }
+    }
+    throw new IllegalArgumentException("Unknown metric: " + aKey);
+  }
+
+  private static double calculateAt(RangeMetric aMetric, double aRange) {
+    return aRange > 0.0 ? aMetric.calculate(aRange) : aMetric.calculate();
+  }
+
+  /**
+   * @return A human readable description of the metric.
+   */
+  public String getDescription() {
+    return description;
+  }
+
+  /**
+   * @return The key that identifies the metric on the command line and in the column headers.
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * @return <code>true</code> if the metric depends on the range to the target and is computed
+   *     once for every requested range.
+   */
+  public boolean isRanged() {
+    return ranged;
+  }
+
+  /**
+   * Computes the value of this metric.
+   *
+   * @param aMetrics The metrics of the loadout to compute for.
+   * @param aRange The range to compute at, only used by ranged metrics. A value of 0 or less
+   *     selects the range that gives the best value.
+   * @return The value of the metric.
+   */
+  abstract double calculate(Metrics aMetrics, double aRange);
+}
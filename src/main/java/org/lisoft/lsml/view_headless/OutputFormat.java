@@ -0,0 +1,147 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.view_headless;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * The output formats of a {@link BatchEvaluator}. Values are either {@link String}s, {@link
+ * Number}s or <code>null</code>. Non-finite numbers are written as missing values.
+ *
+ * @author Li Song
+ */
+public enum OutputFormat {
+  /** Comma separated values with a header row, quoted as described in RFC 4180. */
+  CSV {
+    @Override
+    void writeHeader(Writer aWriter, List<String> aColumns) throws IOException {
+      writeRow(aWriter, aColumns, aColumns.toArray());
+    }
+
+    @Override
+    void writeRow(Writer aWriter, List<String> aColumns, Object[] aValues) throws IOException {
+      for (int i = 0; i < aValues.length; ++i) {
+        if (i > 0) {
+          aWriter.write(',');
+        }
+        final Object value = aValues[i];
+        if (value instanceof final String string) {
+          writeQuoted(aWriter, string);
+        } else if (isPresent(value)) {
+          aWriter.write(value.toString());
+        }
+      }
+      aWriter.write("\r\n");
+    }
+
+    private void writeQuoted(Writer aWriter, String aValue) throws IOException {
+      if (aValue.indexOf(',') < 0
+          && aValue.indexOf('"') < 0
+          && aValue.indexOf('\n') < 0
+          && aValue.indexOf('\r') < 0) {
+        aWriter.write(aValue);
+        return;
+      }
+      aWriter.write('"');
+      aWriter.write(aValue.replace("\"", "\"\""));
+      aWriter.write('"');
+    }
+  },
+  /**
+   * JSON Lines, one JSON object per line keyed by the column names. Unlike a JSON array this can
+   * be written and read one row at a time.
+   */
+  JSON {
+    @Override
+    void writeHeader(Writer aWriter, List<String> aColumns) {
+      // The keys of each object are the header.
+    }
+
+    @Override
+    void writeRow(Writer aWriter, List<String> aColumns, Object[] aValues) throws IOException {
+      aWriter.write('{');
+      for (int i = 0; i < aValues.length; ++i) {
+        if (i > 0) {
+          aWriter.write(',');
+        }
+        writeString(aWriter, aColumns.get(i));
+        aWriter.write(':');
+        final Object value = aValues[i];
+        if (value instanceof final String string) {
+          writeString(aWriter, string);
+        } else if (isPresent(value)) {
+          aWriter.write(value.toString());
+        } else {
+          aWriter.write("null");
+        }
+      }
+      aWriter.write("}\n");
+    }
+
+    private void writeString(Writer aWriter, String aValue) throws IOException {
+      aWriter.write('"');
+      for (int i = 0; i < aValue.length(); ++i) {
+        final char c = aValue.charAt(i);
+        switch (c) {
+          case '"' -> aWriter.write("\\\"");
+          case '\\' -> aWriter.write("\\\\");
+          case '\n' -> aWriter.write("\\n");
+          case '\r' -> aWriter.write("\\r");
+          case '\t' -> aWriter.write("\\t");
+          default -> {
+            if (c < 0x20) {
+              aWriter.write(String.format("\\u%04x", (int) c));
+            } else {
+              aWriter.write(c);
+            }
+          }
+        }
+      }
+      aWriter.write('"');
+    }
+  };
+
+  private static boolean isPresent(Object aValue) {
+    if (aValue instanceof final Double number) {
+      return Double.isFinite(number);
+    }
+    return aValue != null;
+  }
+
+  /**
+   * Writes the header of the output, if the format has one.
+   *
+   * @param aWriter The {@link Writer} to write to.
+   * @param aColumns The names of the columns.
+   * @throws IOException if the writer failed.
+   */
+  abstract void writeHeader(Writer aWriter, List<String> aColumns) throws IOException;
+
+  /**
+   * Writes one row of values.
+   *
+   * @param aWriter The {@link Writer} to write to.
+   * @param aColumns The names of the columns.
+   * @param aValues The values of the row, one for each column.
+   * @throws IOException if the writer failed.
+   */
+  abstract void writeRow(Writer aWriter, List<String> aColumns, Object[] aValues)
+      throws IOException;
+}
@@ -91,6 +91,33 @@ public class Database {
     return (Database) makeXStream().fromXML(aInputStream);
   }
 
+  /**
+   * Produces a {@link Database} from a file containing a binary snapshot previously written with
+   * {@link #writeSnapshot(OutputStream)}.
+   *
+   * @param aFile The file to read from.
+   * @param aDataVersion The data version the snapshot must have been written with.
+   * @return The database.
+   * @throws IOException if the file couldn't be read, isn't a snapshot compatible with this
+   *     version of the data classes or has a different data version.
+   */
+  public static Database readSnapshot(File aFile, String aDataVersion) throws IOException {
+    return DatabaseSnapshot.read(aFile, aDataVersion);
+  }
+
+  /**
+   * Produces a {@link Database} from an {@link InputStream} pointing to a binary snapshot
+   * previously written with {@link #writeSnapshot(OutputStream)}.
+   *
+   * @param aInputStream The input to read from.
+   * @return The database.
+   * @throws IOException if the stream couldn't be read or isn't a snapshot compatible with this
+   *     version of the data classes.
+   */
+  public static Database readSnapshot(InputStream aInputStream) throws IOException {
+    return DatabaseSnapshot.read(aInputStream);
+  }
+
   public void writeToStream(OutputStream aOutputStream) throws IOException {
     final XStream stream = makeXStream();
     try (OutputStreamWriter ow = new OutputStreamWriter(aOutputStream, StandardCharsets.UTF_8);
@@ -103,6 +130,17 @@ public class Database {
     }
   }
 
+  /**
+   * Writes this database as a binary snapshot that can be read back with {@link
+   * #readSnapshot(InputStream)}.
+   *
+   * @param aOutputStream The output to write to.
+   * @throws IOException if the snapshot couldn't be written.
+   */
+  public void writeSnapshot(OutputStream aOutputStream) throws IOException {
+    DatabaseSnapshot.write(this, aOutputStream);
+  }
+
   @SuppressWarnings("SpellCheckingInspection")
   private static XStream makeXStream() {
     final XStream stream = new XStream(new MXParserDriver());
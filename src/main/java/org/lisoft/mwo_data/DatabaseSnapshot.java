@@ -0,0 +1,799 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.mwo_data;
+
+import com.thoughtworks.xstream.converters.reflection.ReflectionProvider;
+import com.thoughtworks.xstream.core.JVM;
+import java.io.*;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Reads and writes {@link Database}s in a compact, versioned binary form that is much faster to
+ * load than the XML form.
+ *
+ * <p>A snapshot consists of:
+ *
+ * <ol>
+ *   <li>A header with a magic number, the format version and the data version.
+ *   <li>A string table, every string in the snapshot is written once and referred to by index.
+ *   <li>A class table with the fields (declaring class, name and type) of each data class, in the
+ *       order they are written.
+ *   <li>An object table with the class of each object, the objects are identified by their index
+ *       in this table and the database itself is the first object.
+ *   <li>The records of the data objects (items, chassis, omnipods, modifiers and so on), in ID
+ *       order. Each record is one value per field in the class table.
+ *   <li>The records of the arrays, collections and maps referred to by the data objects.
+ * </ol>
+ *
+ * <p>Primitive fields and the contents of primitive arrays are written as is. All other values are
+ * written as a tag followed by an index into the string table or the object table, so shared
+ * objects such as the items referenced by chassis and stock loadouts are written once and resolved
+ * by ID when read. The data objects are created up front when reading, this allows the records to
+ * refer to any object regardless of order.
+ *
+ * <p>The data classes are read and written with reflection, just like the XML database, all non
+ * static, non transient fields are included. The class table is compared to the current data
+ * classes when the snapshot is read. Any change to them makes old snapshots unreadable and the
+ * caller is expected to fall back to the XML database and write a new snapshot.
+ *
+ * @author Li Song
+ */
+final class DatabaseSnapshot {
+  /** A reference to an array, collection or map that hasn't been read yet. */
+  private record Forward(int id) {}
+
+  /** A field that is set when the array, collection or map it refers to has been read. */
+  private record Deferred(Object target, Field field, int id) {}
+
+  private static final class Reader {
+    private final ByteBuffer buffer;
+    private final Map<Class<?>, List<Field>> fields = new HashMap<>();
+    private Object[] objects;
+    private String[] strings;
+
+    Reader(ByteBuffer aBuffer) {
+      buffer = aBuffer;
+    }
+
+    Object read() throws IOException {
+      strings = new String[readCount()];
+      for (int i = 0; i < strings.length; ++i) {
+        strings[i] = readUtf(buffer);
+      }
+
+      final List<Class<?>> classes = new ArrayList<>();
+      final int classCount = readCount();
+      for (int i = 0; i < classCount; ++i) {
+        classes.add(readClass());
+      }
+
+      objects = new Object[readCount()];
+      final int[] objectClasses = new int[objects.length];
+      int aggregates = 0;
+      for (int id = 0; id < objects.length; ++id) {
+        objectClasses[id] = buffer.getInt();
+        if (objectClasses[id] < 0) {
+          aggregates++;
+        } else {
+          objects[id] = REFLECTION.newInstance(classes.get(objectClasses[id]));
+        }
+      }
+
+      final List<Deferred> deferred = new ArrayList<>();
+      for (int id = 0; id < objects.length; ++id) {
+        if (objectClasses[id] >= 0) {
+          final Object object = objects[id];
+          for (final Field field : fields.get(object.getClass())) {
+            final Object value =
+                field.getType().isPrimitive() ? readPrimitive(field.getType()) : readValue();
+            if (value instanceof final Forward forward) {
+              deferred.add(new Deferred(object, field, forward.id()));
+            } else {
+              set(field, object, value);
+            }
+          }
+        }
+      }
+
+      for (int i = 0; i < aggregates; ++i) {
+        final int id = buffer.getInt();
+        if (objectClasses[id] >= 0 || objects[id] != null) {
+          throw new IOException("Duplicate record for object: " + id);
+        }
+        objects[id] = readAggregate();
+      }
+
+      for (final Deferred field : deferred) {
+        set(field.field(), field.target(), resolve(field.id()));
+      }
+      return objects[0];
+    }
+
+    private Object readAggregate() throws IOException {
+      final byte kind = buffer.get();
+      switch (kind) {
+        case KIND_ARRAY -> {
+          final Class<?> component = typeNamed(readString());
+          final int length = readCount();
+          if (component.isPrimitive()) {
+            return readPrimitiveArray(component, length);
+          }
+          final Object array = Array.newInstance(component, length);
+          for (int i = 0; i < length; ++i) {
+            Array.set(array, i, readResolved());
+          }
+          return array;
+        }
+        case KIND_COLLECTION -> {
+          final Function<List<Object>, Collection<?>> factory = COLLECTIONS.get(readString());
+          if (factory == null) {
+            throw new IOException("Unsupported collection type in database snapshot!");
+          }
+          final int size = readCount();
+          final List<Object> elements = new ArrayList<>(size);
+          for (int i = 0; i < size; ++i) {
+            elements.add(readResolved());
+          }
+          return factory.apply(elements);
+        }
+        case KIND_MAP -> {
+          final Function<Map<Object, Object>, Map<?, ?>> factory = MAPS.get(readString());
+          if (factory == null) {
+            throw new IOException("Unsupported map type in database snapshot!");
+          }
+          final int size = readCount();
+          final Map<Object, Object> entries = new LinkedHashMap<>();
+          for (int i = 0; i < size; ++i) {
+            entries.put(readResolved(), readResolved());
+          }
+          return factory.apply(entries);
+        }
+        default -> throw new IOException("Unknown record kind in database snapshot: " + kind);
+      }
+    }
+
+    private Class<?> readClass() throws IOException {
+      final String name = readString();
+      final Class<?> type = typeNamed(name);
+      if (!isDataClass(type)) {
+        throw new IOException("Not a data class: " + name);
+      }
+
+      final List<Field> current = fields.computeIfAbsent(type, DatabaseSnapshot::fieldsOf);
+      final int count = readCount();
+      boolean matches = count == current.size();
+      for (int i = 0; i < count; ++i) {
+        final String declaringClass = readString();
+        final String fieldName = readString();
+        final String fieldType = readString();
+        if (matches) {
+          final Field field = current.get(i);
+          matches =
+              declaringClass.equals(field.getDeclaringClass().getName())
+                  && fieldName.equals(field.getName())
+                  && fieldType.equals(field.getType().getName());
+        }
+      }
+      if (!matches) {
+        throw new IOException("The database snapshot doesn't match the data class: " + name);
+      }
+      return type;
+    }
+
+    /**
+     * Reads a count of elements, each element takes at least one byte so a count larger than the
+     * remaining data can only come from a corrupt snapshot.
+     */
+    private int readCount() throws IOException {
+      final int count = buffer.getInt();
+      if (count < 0 || count > buffer.remaining()) {
+        throw new IOException("Malformed database snapshot!");
+      }
+      return count;
+    }
+
+    private Object readPrimitive(Class<?> aType) {
+      if (aType == boolean.class) {
+        return buffer.get() != 0;
+      } else if (aType == byte.class) {
+        return buffer.get();
+      } else if (aType == char.class) {
+        return buffer.getChar();
+      } else if (aType == short.class) {
+        return buffer.getShort();
+      } else if (aType == int.class) {
+        return buffer.getInt();
+      } else if (aType == long.class) {
+        return buffer.getLong();
+      } else if (aType == float.class) {
+        return buffer.getFloat();
+      }
+      return buffer.getDouble();
+    }
+
+    private Object readPrimitiveArray(Class<?> aComponent, int aLength) {
+      final Object array = Array.newInstance(aComponent, aLength);
+      if (aComponent == boolean.class) {
+        for (int i = 0; i < aLength; ++i) {
+          Array.setBoolean(array, i, buffer.get() != 0);
+        }
+        return array;
+      }
+
+      final int start = buffer.position();
+      final int size;
+      if (aComponent == byte.class) {
+        buffer.slice().get((byte[]) array);
+        size = Byte.BYTES;
+      } else if (aComponent == char.class) {
+        buffer.asCharBuffer().get((char[]) array);
+        size = Character.BYTES;
+      } else if (aComponent == short.class) {
+        buffer.asShortBuffer().get((short[]) array);
+        size = Short.BYTES;
+      } else if (aComponent == int.class) {
+        buffer.asIntBuffer().get((int[]) array);
+        size = Integer.BYTES;
+      } else if (aComponent == long.class) {
+        buffer.asLongBuffer().get((long[]) array);
+        size = Long.BYTES;
+      } else if (aComponent == float.class) {
+        buffer.asFloatBuffer().get((float[]) array);
+        size = Float.BYTES;
+      } else {
+        buffer.asDoubleBuffer().get((double[]) array);
+        size = Double.BYTES;
+      }
+      buffer.position(start + aLength * size);
+      return array;
+    }
+
+    /**
+     * Reads a value inside an array, collection or map. These are written after everything they
+     * refer to, so the value can always be resolved immediately.
+     */
+    private Object readResolved() throws IOException {
+      final Object value = readValue();
+      if (value instanceof final Forward forward) {
+        return resolve(forward.id());
+      }
+      return value;
+    }
+
+    private String readString() {
+      return strings[buffer.getInt()];
+    }
+
+    private Object readValue() throws IOException {
+      final byte tag = buffer.get();
+      switch (tag) {
+        case TAG_NULL -> {
+          return null;
+        }
+        case TAG_STRING -> {
+          return readString();
+        }
+        case TAG_ENUM -> {
+          final Class<?> type = typeNamed(readString());
+          if (!type.isEnum()) {
+            throw new IOException("Not an enum: " + type.getName());
+          }
+          return enumConstant(type, readString());
+        }
+        case TAG_BOXED -> {
+          return readPrimitive(PRIMITIVES.get(buffer.get()));
+        }
+        case TAG_OBJECT -> {
+          final int id = buffer.getInt();
+          final Object object = objects[id];
+          return object != null ? object : new Forward(id);
+        }
+        default -> throw new IOException("Unknown value tag in database snapshot: " + tag);
+      }
+    }
+
+    private Object resolve(int aId) throws IOException {
+      final Object object = objects[aId];
+      if (object == null) {
+        throw new IOException("Unresolved reference in database snapshot: " + aId);
+      }
+      return object;
+    }
+  }
+
+  private static final class Writer {
+    private final List<Object> aggregates = new ArrayList<>();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private final Map<Class<?>, Integer> classes = new LinkedHashMap<>();
+    private final Map<Class<?>, List<Field>> fields = new HashMap<>();
+    private final Map<Object, Integer> ids = new IdentityHashMap<>();
+    private final List<Object> objects = new ArrayList<>();
+    private final DataOutputStream out = new DataOutputStream(body);
+    private final Map<String, Integer> strings = new LinkedHashMap<>();
+    private final Deque<Object> unvisited = new ArrayDeque<>();
+
+    void write(Object aRoot, DataOutputStream aOutput) throws IOException {
+      visit(aRoot);
+      while (!unvisited.isEmpty()) {
+        final Object object = unvisited.poll();
+        for (final Field field : fieldsOf(object.getClass())) {
+          if (!field.getType().isPrimitive()) {
+            visit(get(field, object));
+          }
+        }
+      }
+
+      out.writeInt(classes.size());
+      for (final Class<?> type : classes.keySet()) {
+        final List<Field> classFields = fieldsOf(type);
+        writeString(type.getName());
+        out.writeInt(classFields.size());
+        for (final Field field : classFields) {
+          writeString(field.getDeclaringClass().getName());
+          writeString(field.getName());
+          writeString(field.getType().getName());
+        }
+      }
+
+      out.writeInt(objects.size());
+      for (final Object object : objects) {
+        out.writeInt(classes.getOrDefault(object.getClass(), -1));
+      }
+
+      for (final Object object : objects) {
+        if (classes.containsKey(object.getClass())) {
+          for (final Field field : fieldsOf(object.getClass())) {
+            if (field.getType().isPrimitive()) {
+              writePrimitive(field.getType(), get(field, object));
+            } else {
+              writeValue(get(field, object));
+            }
+          }
+        }
+      }
+
+      for (final Object aggregate : aggregates) {
+        out.writeInt(ids.get(aggregate));
+        writeAggregate(aggregate);
+      }
+      out.flush();
+
+      aOutput.writeInt(strings.size());
+      for (final String string : strings.keySet()) {
+        writeUtf(aOutput, string);
+      }
+      body.writeTo(aOutput);
+    }
+
+    private void add(Object aObject) {
+      ids.put(aObject, objects.size());
+      objects.add(aObject);
+    }
+
+    private List<Field> fieldsOf(Class<?> aClass) {
+      return fields.computeIfAbsent(aClass, DatabaseSnapshot::fieldsOf);
+    }
+
+    /**
+     * Assigns an ID to the given object and everything it refers to. Arrays, collections and maps
+     * are added to the records after their contents so that they can be constructed as soon as
+     * they are read. Data objects are queued instead of visited recursively as their graph is
+     * deep.
+     */
+    private void visit(Object aValue) throws IOException {
+      if (aValue == null
+          || aValue instanceof String
+          || aValue instanceof Enum
+          || BOXES.contains(aValue.getClass())
+          || ids.containsKey(aValue)) {
+        return;
+      }
+
+      final Class<?> type = aValue.getClass();
+      if (isDataClass(type)) {
+        add(aValue);
+        classes.putIfAbsent(type, classes.size());
+        unvisited.add(aValue);
+      } else if (type.isArray()) {
+        add(aValue);
+        if (!type.getComponentType().isPrimitive()) {
+          for (int i = 0; i < Array.getLength(aValue); ++i) {
+            visit(Array.get(aValue, i));
+          }
+        }
+        aggregates.add(aValue);
+      } else if (aValue instanceof final Collection<?> collection
+          && COLLECTIONS.containsKey(type.getName())) {
+        add(aValue);
+        for (final Object element : collection) {
+          visit(element);
+        }
+        aggregates.add(aValue);
+      } else if (aValue instanceof final Map<?, ?> map && MAPS.containsKey(type.getName())) {
+        add(aValue);
+        for (final Map.Entry<?, ?> entry : map.entrySet()) {
+          visit(entry.getKey());
+          visit(entry.getValue());
+        }
+        aggregates.add(aValue);
+      } else {
+        throw new IOException("Unsupported type in database: " + type.getName());
+      }
+    }
+
+    private void writeAggregate(Object aAggregate) throws IOException {
+      final Class<?> type = aAggregate.getClass();
+      if (type.isArray()) {
+        final Class<?> component = type.getComponentType();
+        final int length = Array.getLength(aAggregate);
+        out.writeByte(KIND_ARRAY);
+        writeString(component.getName());
+        out.writeInt(length);
+        for (int i = 0; i < length; ++i) {
+          if (component.isPrimitive()) {
+            writePrimitive(component, Array.get(aAggregate, i));
+          } else {
+            writeValue(Array.get(aAggregate, i));
+          }
+        }
+      } else if (aAggregate instanceof final Collection<?> collection) {
+        out.writeByte(KIND_COLLECTION);
+        writeString(type.getName());
+        out.writeInt(collection.size());
+        for (final Object element : collection) {
+          writeValue(element);
+        }
+      } else {
+        final Map<?, ?> map = (Map<?, ?>) aAggregate;
+        out.writeByte(KIND_MAP);
+        writeString(type.getName());
+        out.writeInt(map.size());
+        for (final Map.Entry<?, ?> entry : map.entrySet()) {
+          writeValue(entry.getKey());
+          writeValue(entry.getValue());
+        }
+      }
+    }
+
+    private void writePrimitive(Class<?> aType, Object aValue) throws IOException {
+      if (aType == boolean.class) {
+        out.writeBoolean((Boolean) aValue);
+      } else if (aType == byte.class) {
+        out.writeByte((Byte) aValue);
+      } else if (aType == char.class) {
+        out.writeChar((Character) aValue);
+      } else if (aType == short.class) {
+        out.writeShort((Short) aValue);
+      } else if (aType == int.class) {
+        out.writeInt((Integer) aValue);
+      } else if (aType == long.class) {
+        out.writeLong((Long) aValue);
+      } else if (aType == float.class) {
+        out.writeFloat((Float) aValue);
+      } else {
+        out.writeDouble((Double) aValue);
+      }
+    }
+
+    private void writeString(String aString) throws IOException {
+      out.writeInt(strings.computeIfAbsent(aString, k -> strings.size()));
+    }
+
+    private void writeValue(Object aValue) throws IOException {
+      if (aValue == null) {
+        out.writeByte(TAG_NULL);
+      } else if (aValue instanceof final String string) {
+        out.writeByte(TAG_STRING);
+        writeString(string);
+      } else if (aValue instanceof final Enum<?> constant) {
+        out.writeByte(TAG_ENUM);
+        writeString(constant.getDeclaringClass().getName());
+        writeString(constant.name());
+      } else if (BOXES.contains(aValue.getClass())) {
+        final int primitive = BOXES.indexOf(aValue.getClass());
+        out.writeByte(TAG_BOXED);
+        out.writeByte(primitive);
+        writePrimitive(PRIMITIVES.get(primitive), aValue);
+      } else {
+        out.writeByte(TAG_OBJECT);
+        out.writeInt(ids.get(aValue));
+      }
+    }
+  }
+
+  private static final List<Class<?>> BOXES =
+      List.of(
+          Boolean.class,
+          Byte.class,
+          Character.class,
+          Short.class,
+          Integer.class,
+          Long.class,
+          Float.class,
+          Double.class);
+  /**
+   * The collection implementations that can appear in the database, by class name. Each
+   * implementation is re-created from its elements in iteration order.
+   */
+  private static final Map<String, Function<List<Object>, Collection<?>>> COLLECTIONS =
+      new HashMap<>();
+
+  private static final String DATA_PACKAGE = "org.lisoft.mwo_data.";
+  private static final int FORMAT_VERSION = 2;
+  // The kinds of records after the data objects
+  private static final byte KIND_ARRAY = 0;
+  private static final byte KIND_COLLECTION = 1;
+  private static final byte KIND_MAP = 2;
+  private static final int MAGIC = 0x4c534442; // "LSDB"
+  /** The map implementations that can appear in the database, see {@link #COLLECTIONS}. */
+  private static final Map<String, Function<Map<Object, Object>, Map<?, ?>>> MAPS =
+      new HashMap<>();
+
+  private static final List<Class<?>> PRIMITIVES =
+      List.of(
+          boolean.class,
+          byte.class,
+          char.class,
+          short.class,
+          int.class,
+          long.class,
+          float.class,
+          double.class);
+  private static final ReflectionProvider REFLECTION = JVM.newReflectionProvider();
+  // The tags of the values that aren't primitive fields or elements of primitive arrays
+  private static final byte TAG_BOXED = 3;
+  private static final byte TAG_ENUM = 2;
+  private static final byte TAG_NULL = 0;
+  private static final byte TAG_OBJECT = 4;
+  private static final byte TAG_STRING = 1;
+
+  static {
+    // Hash based collections are filled one element at a time, just like when they were created,
+    // so that they get the same capacity and thus the same iteration order.
+    collection(new ArrayList<>(), ArrayList::new);
+    collection(new LinkedList<>(), LinkedList::new);
+    collection(
+        new HashSet<>(),
+        e -> {
+          final Set<Object> set = new HashSet<>();
+          set.addAll(e);
+          return set;
+        });
+    collection(new LinkedHashSet<>(), LinkedHashSet::new);
+    collection(Arrays.asList(), e -> Arrays.asList(e.toArray()));
+    collection(Collections.emptyList(), e -> Collections.emptyList());
+    collection(Collections.emptySet(), e -> Collections.emptySet());
+    collection(Collections.singletonList(null), e -> Collections.singletonList(e.get(0)));
+    collection(Collections.singleton(null), e -> Collections.singleton(e.get(0)));
+    collection(
+        Collections.unmodifiableCollection(new ArrayList<>()),
+        e -> Collections.unmodifiableCollection(new ArrayList<>(e)));
+    collection(
+        Collections.unmodifiableList(new ArrayList<>()),
+        e -> Collections.unmodifiableList(new ArrayList<>(e)));
+    collection(
+        Collections.unmodifiableList(new LinkedList<>()),
+        e -> Collections.unmodifiableList(new LinkedList<>(e)));
+    collection(
+        Collections.unmodifiableSet(new HashSet<>()),
+        e -> Collections.unmodifiableSet(new LinkedHashSet<>(e)));
+    collection(List.of(), List::copyOf);
+    collection(List.of(0), List::copyOf);
+    collection(Set.of(), Set::copyOf);
+    collection(Set.of(0), Set::copyOf);
+
+    map(
+        new HashMap<>(),
+        e -> {
+          final Map<Object, Object> map = new HashMap<>();
+          map.putAll(e);
+          return map;
+        });
+    map(new LinkedHashMap<>(), LinkedHashMap::new);
+    map(Collections.emptyMap(), e -> Collections.emptyMap());
+    map(
+        Collections.singletonMap(null, null),
+        e -> {
+          final Map.Entry<Object, Object> entry = e.entrySet().iterator().next();
+          return Collections.singletonMap(entry.getKey(), entry.getValue());
+        });
+    map(Collections.unmodifiableMap(new HashMap<>()), Collections::unmodifiableMap);
+    map(Map.of(), Map::copyOf);
+    map(Map.of(0, 0), Map::copyOf);
+  }
+
+  private DatabaseSnapshot() {}
+
+  /**
+   * Converts a bundled XML database into a snapshot. Used by the build to generate the bundled
+   * snapshot.
+   *
+   * @param aArgs The XML input file, the snapshot output file and the version to stamp the data
+   *     with (replaces the "0.0.0" place holder, just as is done for the bundled XML).
+   * @throws IOException if the files couldn't be read or written.
+   */
+  public static void main(String[] aArgs) throws IOException {
+    if (aArgs.length != 3) {
+      throw new IllegalArgumentException("Usage: <database.xml> <database.bin> <version>");
+    }
+    final String xml =
+        Files.readString(new File(aArgs[0]).toPath(), StandardCharsets.UTF_8)
+            .replace("0.0.0", aArgs[2]);
+    final Database database =
+        Database.readFromStream(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    try (OutputStream os = new BufferedOutputStream(new FileOutputStream(aArgs[1]))) {
+      write(database, os);
+    }
+  }
+
+  static Database read(File aFile, String aDataVersion) throws IOException {
+    try (FileChannel channel = FileChannel.open(aFile.toPath(), StandardOpenOption.READ)) {
+      // A mapped file can't be overwritten on Windows until the mapping has been garbage
+      // collected. Check the data version before mapping so that the caller can replace a stale
+      // snapshot right away.
+      final ByteBuffer header = ByteBuffer.allocate((int) Math.min(channel.size(), 1024));
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        // Keep reading
+      }
+      header.flip();
+      final String dataVersion = readHeader(header);
+      if (!dataVersion.equals(aDataVersion)) {
+        throw new IOException("The database snapshot is for data version: " + dataVersion);
+      }
+      return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    } catch (final RuntimeException e) {
+      throw new IOException("Malformed database snapshot!", e);
+    }
+  }
+
+  static Database read(InputStream aInputStream) throws IOException {
+    return read(ByteBuffer.wrap(aInputStream.readAllBytes()));
+  }
+
+  static void write(Database aDatabase, OutputStream aOutputStream) throws IOException {
+    // Write to memory first, this prevents touching the old file if the serialisation fails
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(buffer);
+    out.writeInt(MAGIC);
+    out.writeInt(FORMAT_VERSION);
+    writeUtf(out, String.valueOf(aDatabase.getVersion()));
+    new Writer().write(aDatabase, out);
+    out.flush();
+    buffer.writeTo(aOutputStream);
+  }
+
+  private static void collection(
+      Collection<?> aSample, Function<List<Object>, Collection<?>> aFactory) {
+    COLLECTIONS.put(aSample.getClass().getName(), aFactory);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Object enumConstant(Class<?> aType, String aName) {
+    return Enum.valueOf((Class) aType, aName);
+  }
+
+  /**
+   * @param aClass The class to get the fields of.
+   * @return All fields of the given data class that are part of a snapshot, ordered by declaring
+   *     class (super classes first) and then by name.
+   */
+  private static List<Field> fieldsOf(Class<?> aClass) {
+    final List<Field> fields = new ArrayList<>();
+    final Class<?> superclass = aClass.getSuperclass();
+    if (superclass != null && isDataClass(superclass)) {
+      fields.addAll(fieldsOf(superclass));
+    }
+
+    final List<Field> declared = new ArrayList<>();
+    for (final Field field : aClass.getDeclaredFields()) {
+      final int modifiers = field.getModifiers();
+      if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+        field.setAccessible(true);
+        declared.add(field);
+      }
+    }
+    declared.sort(Comparator.comparing(Field::getName));
+    fields.addAll(declared);
+    return fields;
+  }
+
+  private static Object get(Field aField, Object aObject) throws IOException {
+    try {
+      return aField.get(aObject);
+    } catch (final IllegalAccessException e) {
+      throw new IOException("Unable to read field: " + aField, e);
+    }
+  }
+
+  private static boolean isDataClass(Class<?> aClass) {
+    return aClass.getName().startsWith(DATA_PACKAGE)
+        && !aClass.isEnum()
+        && !aClass.isInterface()
+        && !aClass.isHidden()
+        && !aClass.isSynthetic();
+  }
+
+  private static void map(Map<?, ?> aSample, Function<Map<Object, Object>, Map<?, ?>> aFactory) {
+    MAPS.put(aSample.getClass().getName(), aFactory);
+  }
+
+  private static Database read(ByteBuffer aBuffer) throws IOException {
+    try {
+      readHeader(aBuffer);
+      return (Database) new Reader(aBuffer).read();
+    } catch (final RuntimeException e) {
+      // Corrupt snapshots surface as buffer under flows, bad indices and class cast exceptions.
+      throw new IOException("Malformed database snapshot!", e);
+    }
+  }
+
+  private static String readHeader(ByteBuffer aBuffer) throws IOException {
+    if (aBuffer.remaining() < 2 * Integer.BYTES || aBuffer.getInt() != MAGIC) {
+      throw new IOException("Not a database snapshot!");
+    }
+    final int formatVersion = aBuffer.getInt();
+    if (formatVersion != FORMAT_VERSION) {
+      throw new IOException("Unsupported database snapshot format: " + formatVersion);
+    }
+    return readUtf(aBuffer);
+  }
+
+  private static String readUtf(ByteBuffer aBuffer) {
+    final int length = aBuffer.getInt();
+    final String string =
+        StandardCharsets.UTF_8.decode(aBuffer.slice(aBuffer.position(), length)).toString();
+    aBuffer.position(aBuffer.position() + length);
+    return string;
+  }
+
+  private static void set(Field aField, Object aObject, Object aValue) throws IOException {
+    try {
+      aField.set(aObject, aValue);
+    } catch (final IllegalAccessException e) {
+      throw new IOException("Unable to write field: " + aField, e);
+    }
+  }
+
+  private static Class<?> typeNamed(String aName) throws IOException {
+    for (final Class<?> primitive : PRIMITIVES) {
+      if (primitive.getName().equals(aName)) {
+        return primitive;
+      }
+    }
+    try {
+      return Class.forName(aName, false, DatabaseSnapshot.class.getClassLoader());
+    } catch (final ClassNotFoundException e) {
+      throw new IOException("Unknown class in database snapshot: " + aName, e);
+    }
+  }
+
+  private static void writeUtf(DataOutputStream aOutput, String aString) throws IOException {
+    final byte[] bytes = aString.getBytes(StandardCharsets.UTF_8);
+    aOutput.writeInt(bytes.length);
+    aOutput.write(bytes);
+  }
+}
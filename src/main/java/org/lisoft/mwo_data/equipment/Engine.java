@@ -40,8 +40,10 @@ public class Engine extends HeatSource implements ModifierEquipment {
   @XStreamAsAttribute private final int rating;
   @XStreamAsAttribute private final int sideSlots;
   @XStreamAsAttribute private final EngineType type;
-  private transient List<Modifier> modifiers = null;
-  private transient Internal side = null;
+  // Lazily created as XStream doesn't run the constructor. Volatile so that concurrent loadout
+  // decoding always sees, and agrees on, a single fully constructed instance.
+  private transient volatile List<Modifier> modifiers = null;
+  private transient volatile Internal side = null;
 
   public Engine(
       String aName,
@@ -82,13 +84,15 @@ public class Engine extends HeatSource implements ModifierEquipment {
 
   @Override
   public Collection<Modifier> getModifiers() {
-    if (null == modifiers) {
-      modifiers = new ArrayList<>();
+    List<Modifier> ans = modifiers;
+    if (null == ans) {
+      ans = new ArrayList<>();
       if (movementHeatMultiplier != 0.0) {
-        modifiers.add(new Modifier(ModifiersDB.HEAT_MOVEMENT_DESC, movementHeatMultiplier));
+        ans.add(new Modifier(ModifiersDB.HEAT_MOVEMENT_DESC, movementHeatMultiplier));
       }
+      modifiers = ans;
     }
-    return modifiers;
+    return ans;
   }
 
   /**
@@ -117,15 +121,24 @@ public class Engine extends HeatSource implements ModifierEquipment {
    */
   public Optional<Internal> getSide() {
     if (sideSlots > 0) {
-      if (side == null) {
-        final int id = (getFaction() == Faction.CLAN ? 60000 : 60010) + sideSlots;
-
-        final String name = getFaction() == Faction.CLAN ? "C-ENGINE" : "ENGINE";
-        final String key = getFaction() == Faction.CLAN ? "mdf_CEngine" : "mdf_Engine";
-
-        side = new Internal(name, "", key, id, sideSlots, 0, HardPointType.NONE, 15, getFaction());
+      Internal ans = side;
+      if (ans == null) {
+        synchronized (this) {
+          ans = side;
+          if (ans == null) {
+            final int id = (getFaction() == Faction.CLAN ? 60000 : 60010) + sideSlots;
+
+            final String name = getFaction() == Faction.CLAN ? "C-ENGINE" : "ENGINE";
+            final String key = getFaction() == Faction.CLAN ? "mdf_CEngine" : "mdf_Engine";
+
+            ans =
+                new Internal(
+                    name, "", key, id, sideSlots, 0, HardPointType.NONE, 15, getFaction());
+            side = ans;
+          }
+        }
       }
-      return Optional.of(side);
+      return Optional.of(ans);
     }
     return Optional.empty();
   }
@@ -37,6 +37,9 @@ public class ChassisOmniMech extends Chassis {
   private final ArmourUpgrade armourType;
   private final HeatSinkUpgrade heatSinkType;
   private final StructureUpgrade structureType;
+  // Created on first use as XStream doesn't run the constructor, the profiles memoise their values.
+  private transient volatile MovementProfile movementProfileMax = null;
+  private transient volatile MovementProfile movementProfileMin = null;
 
   /**
    * @param aMwoID The MWO ID of the chassis as found in the XML.
@@ -200,7 +203,12 @@ public class ChassisOmniMech extends Chassis {
    *     independently attainable for some combination of {@link OmniPod}.
    */
   public MovementProfile getMovementProfileMax() {
-    return new MaxMovementProfile(getMovementProfileBase(), getQuirkGroups());
+    MovementProfile ans = movementProfileMax;
+    if (null == ans) {
+      ans = new MaxMovementProfile(getMovementProfileBase(), getQuirkGroups());
+      movementProfileMax = ans;
+    }
+    return ans;
   }
 
   /**
@@ -210,7 +218,12 @@ public class ChassisOmniMech extends Chassis {
    *     independently attainable for some combination of {@link OmniPod}.
    */
   public MovementProfile getMovementProfileMin() {
-    return new MinMovementProfile(getMovementProfileBase(), getQuirkGroups());
+    MovementProfile ans = movementProfileMin;
+    if (null == ans) {
+      ans = new MinMovementProfile(getMovementProfileBase(), getQuirkGroups());
+      movementProfileMin = ans;
+    }
+    return ans;
   }
 
   @Override
@@ -17,8 +17,6 @@
  */
 package org.lisoft.mwo_data.mechs;
 
-import java.lang.reflect.InvocationTargetException;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import org.lisoft.mwo_data.modifiers.Modifier;
@@ -51,36 +49,19 @@ public class MinMovementProfile extends ModifiedProfile {
   }
 
   @Override
-  protected double calc(String aMethodName, Collection<Modifier> aExtraModifiers) {
-    try {
-      double baseValue =
-          (double)
-              base.getClass()
-                  .getMethod(aMethodName, Collection.class)
-                  .invoke(base, aExtraModifiers);
-      double ans = baseValue;
-      for (List<Collection<Modifier>> group : groups) {
-        double min = Double.POSITIVE_INFINITY;
-        for (Collection<Modifier> quirks : group) {
-          List<Modifier> fullQuirks = new ArrayList<>(quirks);
-          if (aExtraModifiers != null) {
-            fullQuirks.addAll(aExtraModifiers);
-          }
-          double value =
-              (double)
-                  base.getClass().getMethod(aMethodName, Collection.class).invoke(base, fullQuirks);
-          min = Math.min(value - baseValue, min);
-        }
-        if (min != Double.POSITIVE_INFINITY) {
-          ans += min;
-        }
+  protected double compute(MovementAttribute aAttribute, Collection<Modifier> aExtraModifiers) {
+    final double baseValue = aAttribute.value(base, aExtraModifiers);
+    double ans = baseValue;
+    for (final List<Collection<Modifier>> group : groups) {
+      double min = Double.POSITIVE_INFINITY;
+      for (final Collection<Modifier> quirks : group) {
+        final double value = aAttribute.value(base, concat(quirks, aExtraModifiers));
+        min = Math.min(value - baseValue, min);
+      }
+      if (min != Double.POSITIVE_INFINITY) {
+        ans += min;
       }
-      return ans;
-    } catch (IllegalAccessException
-        | InvocationTargetException
-        | NoSuchMethodException
-        | SecurityException e) {
-      throw new IllegalArgumentException(); // Promote all of the above to unchecked.
     }
+    return ans;
   }
 }
@@ -17,7 +17,9 @@
  */
 package org.lisoft.mwo_data.mechs;
 
+import java.util.AbstractCollection;
 import java.util.Collection;
+import java.util.Iterator;
 import org.lisoft.mwo_data.modifiers.Modifier;
 
 /**
@@ -28,93 +30,160 @@ import org.lisoft.mwo_data.modifiers.Modifier;
  * @author Li Song
  */
 public abstract class ModifiedProfile implements MovementProfile {
+  private static final MovementAttribute[] ATTRIBUTES = MovementAttribute.values();
+  // Benign race: every thread computes the same values, the array is published fully populated.
+  private volatile double[] unmodifiedValues = null;
 
   @Override
   public double getArmPitchMax(Collection<Modifier> aModifiers) {
-    return calc("getArmPitchMax", aModifiers);
+    return calc(MovementAttribute.ARM_PITCH_MAX, aModifiers);
   }
 
   @Override
   public double getArmPitchSpeed(Collection<Modifier> aModifiers) {
-    return calc("getArmPitchSpeed", aModifiers);
+    return calc(MovementAttribute.ARM_PITCH_SPEED, aModifiers);
   }
 
   @Override
   public double getArmYawMax(Collection<Modifier> aModifiers) {
-    return calc("getArmYawMax", aModifiers);
+    return calc(MovementAttribute.ARM_YAW_MAX, aModifiers);
   }
 
   @Override
   public double getArmYawSpeed(Collection<Modifier> aModifiers) {
-    return calc("getArmYawSpeed", aModifiers);
+    return calc(MovementAttribute.ARM_YAW_SPEED, aModifiers);
   }
 
   @Override
   public double getReverseSpeedMultiplier(Collection<Modifier> aModifiers) {
-    return calc("getReverseSpeedMultiplier", aModifiers);
+    return calc(MovementAttribute.REVERSE_SPEED_MULTIPLIER, aModifiers);
   }
 
   @Override
   public double getSpeedFactor(Collection<Modifier> aModifiers) {
-    return calc("getSpeedFactor", aModifiers);
+    return calc(MovementAttribute.SPEED_FACTOR, aModifiers);
   }
 
   @Override
   public double getTorsoPitchMax(Collection<Modifier> aModifiers) {
-    return calc("getTorsoPitchMax", aModifiers);
+    return calc(MovementAttribute.TORSO_PITCH_MAX, aModifiers);
   }
 
   @Override
   public double getTorsoPitchSpeed(Collection<Modifier> aModifiers) {
-    return calc("getTorsoPitchSpeed", aModifiers);
+    return calc(MovementAttribute.TORSO_PITCH_SPEED, aModifiers);
   }
 
   @Override
   public double getTorsoYawMax(Collection<Modifier> aModifiers) {
-    return calc("getTorsoYawMax", aModifiers);
+    return calc(MovementAttribute.TORSO_YAW_MAX, aModifiers);
   }
 
   @Override
   public double getTorsoYawSpeed(Collection<Modifier> aModifiers) {
-    return calc("getTorsoYawSpeed", aModifiers);
+    return calc(MovementAttribute.TORSO_YAW_SPEED, aModifiers);
   }
 
   @Override
   public double getTurnLerpHighRate(Collection<Modifier> aModifiers) {
-    return calc("getTurnLerpHighRate", aModifiers);
+    return calc(MovementAttribute.TURN_LERP_HIGH_RATE, aModifiers);
   }
 
   @Override
   public double getTurnLerpHighSpeed(Collection<Modifier> aModifiers) {
-    return calc("getTurnLerpHighSpeed", aModifiers);
+    return calc(MovementAttribute.TURN_LERP_HIGH_SPEED, aModifiers);
   }
 
   @Override
   public double getTurnLerpLowRate(Collection<Modifier> aModifiers) {
-    return calc("getTurnLerpLowRate", aModifiers);
+    return calc(MovementAttribute.TURN_LERP_LOW_RATE, aModifiers);
   }
 
   @Override
   public double getTurnLerpLowSpeed(Collection<Modifier> aModifiers) {
-    return calc("getTurnLerpLowSpeed", aModifiers);
+    return calc(MovementAttribute.TURN_LERP_LOW_SPEED, aModifiers);
   }
 
   @Override
   public double getTurnLerpMidRate(Collection<Modifier> aModifiers) {
-    return calc("getTurnLerpMidRate", aModifiers);
+    return calc(MovementAttribute.TURN_LERP_MID_RATE, aModifiers);
   }
 
   @Override
   public double getTurnLerpMidSpeed(Collection<Modifier> aModifiers) {
-    return calc("getTurnLerpMidSpeed", aModifiers);
+    return calc(MovementAttribute.TURN_LERP_MID_SPEED, aModifiers);
   }
 
   /**
-   * Uses reflection to calculate the sought for value.
+   * Computes the value of an attribute. The values without extra modifiers are computed once, on
+   * first use, and then returned in constant time as the composed profiles are immutable.
    *
-   * @param aMethodName The name of the function to call to get the value.
+   * @param aAttribute The {@link MovementAttribute} to get the value of.
    * @param aExtraModifiers Modifiers that shall be applied in addition to the base ones.
    * @return The calculated value.
    */
-  protected abstract double calc(String aMethodName, Collection<Modifier> aExtraModifiers);
+  protected double calc(MovementAttribute aAttribute, Collection<Modifier> aExtraModifiers) {
+    if (null != aExtraModifiers && !aExtraModifiers.isEmpty()) {
+      return compute(aAttribute, aExtraModifiers);
+    }
+
+    double[] values = unmodifiedValues;
+    if (null == values) {
+      values = new double[ATTRIBUTES.length];
+      for (final MovementAttribute attribute : ATTRIBUTES) {
+        values[attribute.ordinal()] = compute(attribute, null);
+      }
+      unmodifiedValues = values;
+    }
+    return values[aAttribute.ordinal()];
+  }
+
+  /**
+   * Computes the sought for value.
+   *
+   * @param aAttribute The {@link MovementAttribute} to compute.
+   * @param aExtraModifiers Modifiers that shall be applied in addition to the base ones, may be
+   *     <code>null</code>.
+   * @return The calculated value.
+   */
+  protected abstract double compute(
+      MovementAttribute aAttribute, Collection<Modifier> aExtraModifiers);
+
+  /**
+   * Creates an unmodifiable view of the concatenation of two collections of modifiers without
+   * copying either of them.
+   *
+   * @param aFirst The first collection.
+   * @param aSecond The second collection, may be <code>null</code>.
+   * @return A {@link Collection} with all modifiers in both arguments.
+   */
+  protected static Collection<Modifier> concat(
+      Collection<Modifier> aFirst, Collection<Modifier> aSecond) {
+    if (null == aSecond || aSecond.isEmpty()) {
+      return aFirst;
+    }
+    return new AbstractCollection<>() {
+      @Override
+      public Iterator<Modifier> iterator() {
+        final Iterator<Modifier> first = aFirst.iterator();
+        final Iterator<Modifier> second = aSecond.iterator();
+        return new Iterator<>() {
+          @Override
+          public boolean hasNext() {
+            return first.hasNext() || second.hasNext();
+          }
+
+          @Override
+          public Modifier next() {
+            return first.hasNext() ? first.next() : second.next();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return aFirst.size() + aSecond.size();
+      }
+    };
+  }
 }
@@ -0,0 +1,64 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.mwo_data.mechs;
+
+import java.util.Collection;
+import java.util.function.ToDoubleBiFunction;
+import org.lisoft.mwo_data.modifiers.Modifier;
+
+/**
+ * Enumerates the modifiable attributes of a {@link MovementProfile} with a direct accessor for
+ * each, so that composite profiles can treat all attributes uniformly without reflection.
+ *
+ * @author Li Song
+ */
+public enum MovementAttribute {
+  ARM_PITCH_MAX(MovementProfile::getArmPitchMax),
+  ARM_PITCH_SPEED(MovementProfile::getArmPitchSpeed),
+  ARM_YAW_MAX(MovementProfile::getArmYawMax),
+  ARM_YAW_SPEED(MovementProfile::getArmYawSpeed),
+  REVERSE_SPEED_MULTIPLIER(MovementProfile::getReverseSpeedMultiplier),
+  SPEED_FACTOR(MovementProfile::getSpeedFactor),
+  TORSO_PITCH_MAX(MovementProfile::getTorsoPitchMax),
+  TORSO_PITCH_SPEED(MovementProfile::getTorsoPitchSpeed),
+  TORSO_YAW_MAX(MovementProfile::getTorsoYawMax),
+  TORSO_YAW_SPEED(MovementProfile::getTorsoYawSpeed),
+  TURN_LERP_HIGH_RATE(MovementProfile::getTurnLerpHighRate),
+  TURN_LERP_HIGH_SPEED(MovementProfile::getTurnLerpHighSpeed),
+  TURN_LERP_LOW_RATE(MovementProfile::getTurnLerpLowRate),
+  TURN_LERP_LOW_SPEED(MovementProfile::getTurnLerpLowSpeed),
+  TURN_LERP_MID_RATE(MovementProfile::getTurnLerpMidRate),
+  TURN_LERP_MID_SPEED(MovementProfile::getTurnLerpMidSpeed);
+
+  private final ToDoubleBiFunction<MovementProfile, Collection<Modifier>> accessor;
+
+  MovementAttribute(ToDoubleBiFunction<MovementProfile, Collection<Modifier>> aAccessor) {
+    accessor = aAccessor;
+  }
+
+  /**
+   * Reads this attribute from the given profile.
+   *
+   * @param aProfile The {@link MovementProfile} to read the attribute from.
+   * @param aModifiers A set of modifiers to apply to the base value, may be <code>null</code>.
+   * @return The value of this attribute.
+   */
+  public double value(MovementProfile aProfile, Collection<Modifier> aModifiers) {
+    return accessor.applyAsDouble(aProfile, aModifiers);
+  }
+}
@@ -32,6 +32,7 @@ public class Attribute {
   private final Collection<String> selectors;
   @XStreamAsAttribute private final String specifier;
   @XStreamAsAttribute private double baseValue;
+  private transient CompiledModifiers.Key compiledKey;
 
   /**
    * Creates a new attribute with a <code>null</code> specifier.
@@ -121,8 +122,12 @@ public class Attribute {
    *     applicable) to this attribute.
    * @return The value of this {@link Attribute} after applying the {@link Modifier}s that affect
    *     this attribute from the given list.
+   * @see CompiledModifiers
    */
   public double value(Collection<Modifier> aModifiers) {
+    if (aModifiers instanceof final CompiledModifiers compiled) {
+      return compiled.value(this);
+    }
     double additive = 0.0;
     double multiplicative = 1.0;
     if (aModifiers != null) {
@@ -139,4 +144,18 @@ public class Attribute {
     }
     return (baseValue + additive) * multiplicative;
   }
+
+  /**
+   * @return The interned key used by {@link CompiledModifiers} to look up this attribute.
+   */
+  CompiledModifiers.Key compiledKey() {
+    // Lazily computed as the field isn't restored by XStream. Races are benign as the key is
+    // immutable and only depends on the immutable selectors and specifier.
+    CompiledModifiers.Key key = compiledKey;
+    if (key == null) {
+      key = CompiledModifiers.Key.of(specifier, selectors);
+      compiledKey = key;
+    }
+    return key;
+  }
 }
@@ -0,0 +1,241 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.mwo_data.modifiers;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An immutable, pre-processed collection of {@link Modifier}s that is optimised for repeatedly
+ * evaluating {@link Attribute}s.
+ *
+ * <p>All selectors and specifiers are interned to integer IDs on the first evaluation, matching an
+ * {@link Attribute} against the modifiers is then done with integer comparisons only. The
+ * additive and multiplicative sums for each distinct attribute (selectors and specifier) are
+ * memoised, so that every evaluation after the first is a single hash lookup.
+ *
+ * <p>As this class is a {@link Collection} it can be passed anywhere a {@link Collection} of
+ * {@link Modifier}s is accepted, {@link Attribute#value(Collection)} will detect it and take the
+ * fast path.
+ *
+ * @author Li Song
+ */
+public class CompiledModifiers extends AbstractCollection<Modifier> {
+  /**
+   * The interned key of an {@link Attribute}, this identifies which modifiers affect the attribute
+   * independently of the base value.
+   */
+  static final class Key {
+    private final int hash;
+    private final int[] selectors;
+    private final int specifier;
+
+    private Key(int aSpecifier, int[] aSelectors) {
+      specifier = aSpecifier;
+      selectors = aSelectors;
+      hash = 31 * specifier + Arrays.hashCode(selectors);
+    }
+
+    static Key of(String aSpecifier, Collection<String> aSelectors) {
+      return new Key(idOf(aSpecifier), idsOf(aSelectors));
+    }
+
+    @Override
+    public boolean equals(Object aObject) {
+      if (this == aObject) {
+        return true;
+      }
+      return aObject instanceof final Key that
+          && specifier == that.specifier
+          && Arrays.equals(selectors, that.selectors);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  private static final AtomicInteger NEXT_ID = new AtomicInteger();
+  private static final Map<String, Integer> IDENTIFIERS = new ConcurrentHashMap<>();
+  private static final int NO_ID = -1;
+  private static final int SPEC_ALL_ID = idOf(ModifierDescription.SPEC_ALL);
+  private static final int[] SEL_ALL_IDS = idsOf(ModifierDescription.SEL_ALL);
+  private final List<Modifier> modifiers;
+  private final Map<Key, double[]> sums = new ConcurrentHashMap<>();
+  private boolean[] multiplicative;
+  private int[][] selectorIds;
+  private boolean[] selectsAll;
+  private int[] specifierIds;
+  private double[] values;
+  private volatile boolean compiled = false;
+
+  /**
+   * Creates a new compiled set of the given modifiers. The argument is copied and later changes to
+   * it do not affect this object.
+   *
+   * @param aModifiers The {@link Modifier}s to compile, may be <code>null</code> which is treated
+   *     as empty.
+   */
+  public CompiledModifiers(Collection<Modifier> aModifiers) {
+    modifiers =
+        aModifiers == null
+            ? Collections.emptyList()
+            : Collections.unmodifiableList(new ArrayList<>(aModifiers));
+  }
+
+  /**
+   * Returns the given modifiers as a {@link CompiledModifiers}, creating a new instance only if
+   * the argument isn't one already.
+   *
+   * @param aModifiers The {@link Modifier}s to compile, may be <code>null</code>.
+   * @return A {@link CompiledModifiers} with the same contents as the argument.
+   */
+  public static CompiledModifiers of(Collection<Modifier> aModifiers) {
+    if (aModifiers instanceof final CompiledModifiers compiled) {
+      return compiled;
+    }
+    return new CompiledModifiers(aModifiers);
+  }
+
+  private static int idOf(String aIdentifier) {
+    if (aIdentifier == null) {
+      return NO_ID;
+    }
+    return IDENTIFIERS.computeIfAbsent(aIdentifier, k -> NEXT_ID.getAndIncrement());
+  }
+
+  private static int[] idsOf(Collection<String> aIdentifiers) {
+    final int[] ans = new int[aIdentifiers.size()];
+    int i = 0;
+    for (final String identifier : aIdentifiers) {
+      ans[i++] = idOf(identifier);
+    }
+    Arrays.sort(ans);
+    return ans;
+  }
+
+  /**
+   * @param aSortedA A sorted array of IDs.
+   * @param aSortedB Another sorted array of IDs.
+   * @return <code>true</code> if the arrays have at least one ID in common.
+   */
+  private static boolean intersects(int[] aSortedA, int[] aSortedB) {
+    int a = 0;
+    int b = 0;
+    while (a < aSortedA.length && b < aSortedB.length) {
+      if (aSortedA[a] == aSortedB[b]) {
+        return true;
+      } else if (aSortedA[a] < aSortedB[b]) {
+        a++;
+      } else {
+        b++;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public Iterator<Modifier> iterator() {
+    return modifiers.iterator();
+  }
+
+  @Override
+  public int size() {
+    return modifiers.size();
+  }
+
+  /**
+   * Computes the value of the given {@link Attribute} after applying the modifiers in this set.
+   * This gives the same result as {@link Attribute#value(Collection)}.
+   *
+   * @param aAttribute The {@link Attribute} to evaluate.
+   * @return The modified value.
+   */
+  public double value(Attribute aAttribute) {
+    final double[] sum = sums.computeIfAbsent(aAttribute.compiledKey(), this::computeSums);
+    return (aAttribute.getBaseValue() + sum[0]) * sum[1];
+  }
+
+  /**
+   * Interns the selectors and specifiers of all modifiers. This is deferred until the first
+   * evaluation so that constructing an instance is as cheap as copying the modifiers.
+   */
+  private void compile() {
+    if (compiled) {
+      return;
+    }
+    synchronized (this) {
+      if (compiled) {
+        return;
+      }
+      final int n = modifiers.size();
+      selectsAll = new boolean[n];
+      selectorIds = new int[n][];
+      specifierIds = new int[n];
+      values = new double[n];
+      multiplicative = new boolean[n];
+
+      for (int i = 0; i < n; ++i) {
+        final Modifier modifier = modifiers.get(i);
+        final ModifierDescription description = modifier.getDescription();
+        final Operation op = description.getOperation();
+        switch (op) {
+          case ADD -> multiplicative[i] = false;
+          case MUL -> multiplicative[i] = true;
+          default -> throw new IllegalArgumentException("Unhandled operation: " + op);
+        }
+        values[i] = modifier.getValue();
+        specifierIds[i] = idOf(description.getSpecifier());
+        selectorIds[i] = idsOf(description.getSelectors());
+        selectsAll[i] = intersects(SEL_ALL_IDS, selectorIds[i]);
+      }
+      compiled = true;
+    }
+  }
+
+  /**
+   * Mirrors the matching rules of {@link ModifierDescription#affects(Attribute)} and the
+   * accumulation order of {@link Attribute#value(Collection)} so that results are bit identical.
+   */
+  private double[] computeSums(Key aKey) {
+    compile();
+    double additive = 0.0;
+    double multiplier = 1.0;
+    for (int i = 0; i < specifierIds.length; ++i) {
+      final int specifier = specifierIds[i];
+      if (specifier == NO_ID) {
+        if (aKey.specifier != NO_ID) {
+          continue;
+        }
+      } else if (specifier != SPEC_ALL_ID && specifier != aKey.specifier) {
+        continue;
+      }
+
+      if (selectsAll[i] || intersects(selectorIds[i], aKey.selectors)) {
+        if (multiplicative[i]) {
+          multiplier += values[i];
+        } else {
+          additive += values[i];
+        }
+      }
+    }
+    return new double[] {additive, multiplier};
+  }
+}
@@ -0,0 +1,257 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.mwo_data.mwo_parser;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * An index of every file in the archives of a game install, mapping the case folded game local path
+ * of each file to the archive it is in, its exact name in the archive and its CRC.
+ *
+ * <p>The index is built with a single pass over all archives by {@link #scan(ArchiveOpener)} and
+ * can be persisted between runs. Each archive is recorded with its size and modification time and
+ * the entries of an archive are only trusted while the archive on disk still has the recorded size
+ * and modification time, a scan only reads the archives that are new or have changed.
+ *
+ * @author Li Song
+ */
+class ArchiveIndex {
+  /** Opens an archive for reading its entries, allows the caller to keep archives open. */
+  @FunctionalInterface
+  interface ArchiveOpener {
+    ZipFile open(File aArchive) throws IOException;
+  }
+
+  /** The location of a file in the archives. */
+  static class Entry {
+    final File archive;
+    final long crc;
+    final String name;
+    private final ArchiveInfo owner;
+
+    private Entry(ArchiveInfo aOwner, String aName, long aCrc) {
+      owner = aOwner;
+      archive = aOwner.file;
+      name = aName;
+      crc = aCrc;
+    }
+  }
+
+  private static class ArchiveInfo {
+    final List<Entry> entries = new ArrayList<>();
+    final File file;
+    final long lastModified;
+    final long size;
+    Boolean valid;
+
+    ArchiveInfo(File aFile, long aSize, long aLastModified) {
+      file = aFile;
+      size = aSize;
+      lastModified = aLastModified;
+    }
+
+    boolean isValid() {
+      if (null == valid) {
+        valid = file.isFile() && file.length() == size && file.lastModified() == lastModified;
+      }
+      return valid;
+    }
+  }
+
+  private static final int MAGIC = 0x4c534149; // "LSAI"
+  private static final int VERSION = 1;
+  private final Map<String, ArchiveInfo> archives = new TreeMap<>();
+  private final Map<String, Entry> files = new HashMap<>();
+  private final Path gameRoot;
+  private boolean dirty = false;
+
+  /**
+   * Creates a new, empty index.
+   *
+   * @param aGameRoot The root of the game install.
+   */
+  ArchiveIndex(Path aGameRoot) {
+    gameRoot = aGameRoot;
+  }
+
+  /**
+   * Reads an index from the given file. A missing, unreadable or corrupt index file results in an
+   * empty index.
+   *
+   * @param aFile The file to read the index from.
+   * @param aGameRoot The root of the game install.
+   * @return A new {@link ArchiveIndex}.
+   */
+  static ArchiveIndex load(File aFile, Path aGameRoot) {
+    final ArchiveIndex index = new ArchiveIndex(aGameRoot);
+    if (!aFile.isFile()) {
+      return index;
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(aFile)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        return new ArchiveIndex(aGameRoot);
+      }
+      final int numArchives = in.readInt();
+      for (int i = 0; i < numArchives; ++i) {
+        final String archive = in.readUTF();
+        final ArchiveInfo info =
+            new ArchiveInfo(aGameRoot.resolve(archive).toFile(), in.readLong(), in.readLong());
+        index.archives.put(archive, info);
+        final int numEntries = in.readInt();
+        for (int j = 0; j < numEntries; ++j) {
+          info.entries.add(new Entry(info, in.readUTF(), in.readLong()));
+        }
+      }
+      index.updateFiles();
+    } catch (final IOException e) {
+      return new ArchiveIndex(aGameRoot);
+    }
+    return index;
+  }
+
+  // java.io.File has different equality semantics depending on the host operating system.
+  // This leads to annoyance when we run on Linux, pointed at an installation of MWO on a
+  // Windows partition.
+  @SuppressWarnings("SpellCheckingInspection")
+  private static String keyOf(File aGameLocalPath) {
+    // Explicitly specify an English locale, so that Turkish users don't run into problems with
+    // Iceferret.pak turning into ıceferret.pak.
+    return aGameLocalPath.toString().toLowerCase(Locale.US);
+  }
+
+  private static boolean isArchive(Path aPath) {
+    final String name = aPath.getFileName().toString().toLowerCase();
+    return name.endsWith(".pak") && !name.contains("french") && Files.isRegularFile(aPath);
+  }
+
+  /**
+   * Finds the given file in the index.
+   *
+   * @param aGameLocalPath The path to the file, with archive file names expanded. For example
+   *     "Game/Objects/mechs/spider/sdr-5k.mdf". The case of the path is ignored.
+   * @return The {@link Entry} of the file, or <code>null</code> if the file isn't indexed or the
+   *     archive it was in has changed.
+   */
+  Entry find(File aGameLocalPath) {
+    final Entry entry = files.get(keyOf(aGameLocalPath));
+    return null != entry && entry.owner.isValid() ? entry : null;
+  }
+
+  /**
+   * Writes the index to the given file if it has changed since it was loaded.
+   *
+   * @param aFile The file to write to.
+   * @throws IOException if the file couldn't be written.
+   */
+  void save(File aFile) throws IOException {
+    if (!dirty) {
+      return;
+    }
+    final File parent = aFile.getAbsoluteFile().getParentFile();
+    if (null != parent && !parent.exists() && !parent.mkdirs()) {
+      throw new IOException("Unable to create directory: " + parent);
+    }
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(aFile)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(archives.size());
+      for (final Map.Entry<String, ArchiveInfo> e : archives.entrySet()) {
+        final ArchiveInfo info = e.getValue();
+        out.writeUTF(e.getKey());
+        out.writeLong(info.size);
+        out.writeLong(info.lastModified);
+        out.writeInt(info.entries.size());
+        for (final Entry entry : info.entries) {
+          out.writeUTF(entry.name);
+          out.writeLong(entry.crc);
+        }
+      }
+    }
+    dirty = false;
+  }
+
+  /**
+   * Brings the index up to date with the archives in the game directory. Only archives that are
+   * new or have changed since they were indexed are opened, archives that no longer exist are
+   * removed from the index.
+   *
+   * @param aOpener Used to open the archives that need to be read.
+   * @throws IOException if the game directory or an archive couldn't be read.
+   */
+  void scan(ArchiveOpener aOpener) throws IOException {
+    final List<Path> found;
+    try (Stream<Path> paths = Files.walk(gameRoot)) {
+      found = paths.filter(ArchiveIndex::isArchive).sorted().toList();
+    }
+
+    final Set<String> present = new HashSet<>();
+    for (final Path path : found) {
+      final String archive = gameRoot.relativize(path).toString();
+      present.add(archive);
+      final ArchiveInfo old = archives.get(archive);
+      if (null == old || !old.isValid()) {
+        readArchive(archive, path.toFile(), aOpener);
+      }
+    }
+    if (archives.keySet().retainAll(present)) {
+      dirty = true;
+    }
+    if (dirty) {
+      updateFiles();
+    }
+  }
+
+  /**
+   * Rebuilds the lookup table from the archives. If the same file is in several archives, the
+   * first archive in path order wins.
+   */
+  private void updateFiles() {
+    files.clear();
+    for (final Map.Entry<String, ArchiveInfo> e : archives.entrySet()) {
+      final File archiveDir = new File(e.getKey()).getParentFile();
+      for (final Entry entry : e.getValue().entries) {
+        files.putIfAbsent(keyOf(new File(archiveDir, entry.name)), entry);
+      }
+    }
+  }
+
+  private void readArchive(String aArchive, File aFile, ArchiveOpener aOpener)
+      throws IOException {
+    // Stat before reading so that a concurrent modification is detected on the next run.
+    final ArchiveInfo info = new ArchiveInfo(aFile, aFile.length(), aFile.lastModified());
+    info.valid = true;
+    archives.put(aArchive, info);
+    final ZipFile zipFile = aOpener.open(aFile);
+    final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+    while (entries.hasMoreElements()) {
+      final ZipEntry entry = entries.nextElement();
+      if (!entry.isDirectory()) {
+        info.entries.add(new Entry(info, entry.getName(), entry.getCrc()));
+      }
+    }
+    dirty = true;
+  }
+}
@@ -36,9 +36,17 @@ import org.lisoft.lsml.util.OS.WindowsVersion;
 /**
  * This class is a Virtual File System for finding data files in the game folder.
  *
+ * <p>Archives are opened once and kept open until {@link #close()} is called, so that many files
+ * can be read from the same archive cheaply. Game files may be opened concurrently from several
+ * threads.
+ *
+ * <p>Files are located through an {@link ArchiveIndex} of all archives which is built on the first
+ * lookup that it can't answer. Optionally the index can be persisted between runs, this allows
+ * finding files and their CRCs without reading the archives when the game files haven't changed.
+ *
  * @author Li Song
  */
-public class GameVFS {
+public class GameVFS implements AutoCloseable {
   public static XStream makeMwoSuitableXStream() {
     final XStream xstream = new XStream(new MXParserDriver(new NoNameCoder()));
     xstream.ignoreUnknownElements();
@@ -163,8 +171,11 @@ public class GameVFS {
     }
   }
 
-  private final Map<File, File> file2archive = new HashMap<>();
+  private final Map<File, ZipFile> archives = new HashMap<>();
   private final Path gamePath;
+  private final ArchiveIndex index;
+  private final File indexFile;
+  private boolean indexScanned = false;
 
   /**
    * Creates a new virtual file system for game files in the given directory which must be a valid
@@ -174,11 +185,27 @@ public class GameVFS {
    * @throws IOException Throw in an error was encountered wile initializing the VFS.
    */
   public GameVFS(File gameDir) throws IOException {
+    this(gameDir, null);
+  }
+
+  /**
+   * Creates a new virtual file system for game files in the given directory which must be a valid
+   * game install. See {@link GameVFS#isValidGameDirectory(File)}.
+   *
+   * @param gameDir The {@link File} where the game directory is.
+   * @param aIndexFile A {@link File} to load the archive index from and to save it to with {@link
+   *     #saveIndex()}, may be <code>null</code> in which case no index is persisted.
+   * @throws IOException Throw in an error was encountered wile initializing the VFS.
+   */
+  public GameVFS(File gameDir, File aIndexFile) throws IOException {
     if (isValidGameDirectory(gameDir)) {
       gamePath = gameDir.toPath();
     } else {
       throw new FileNotFoundException("Not a valid game directory!");
     }
+    indexFile = aIndexFile;
+    index =
+        null == aIndexFile ? new ArchiveIndex(gamePath) : ArchiveIndex.load(aIndexFile, gamePath);
   }
 
   /**
@@ -250,6 +277,28 @@ public class GameVFS {
     return hasObjectsPak && hasBinary;
   }
 
+  /**
+   * Closes all archives that have been opened by this VFS. Any {@link GameFile}s that have already
+   * been opened remain readable.
+   *
+   * @throws IOException if an archive couldn't be closed.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    IOException error = null;
+    for (final ZipFile zipFile : archives.values()) {
+      try {
+        zipFile.close();
+      } catch (final IOException e) {
+        error = e;
+      }
+    }
+    archives.clear();
+    if (error != null) {
+      throw error;
+    }
+  }
+
   /**
    * Will list the files in the given path under the game root.
    *
@@ -280,43 +329,42 @@ public class GameVFS {
    * @throws ZipException if the game file couldn't be extracted from the pak file.
    */
   GameFile openGameFile(File aGameLocalPath) throws ZipException, IOException {
-    final Optional<File> sourceArchive = findArchiveForFile(aGameLocalPath, gamePath.toFile());
-    if (sourceArchive.isEmpty()) {
-      throw new IOException(
-          "Failed to find sought for file (" + aGameLocalPath + ") in the game files!");
+    final ArchiveIndex.Entry indexEntry = locate(aGameLocalPath);
+    final ZipFile zipFile = openArchive(indexEntry.archive);
+    final ZipEntry entry = zipFile.getEntry(indexEntry.name);
+    if (null == entry) {
+      throw new IOException("Unable to find previously found file!?!?!");
     }
+    return new GameFile(zipFile, entry, aGameLocalPath.toString());
+  }
 
-    try (ZipFile zipFile = new ZipFile(sourceArchive.get())) {
-
-      String archivePath =
-          gamePath
-              .relativize(sourceArchive.get().getParentFile().toPath())
-              .relativize(aGameLocalPath.toPath())
-              .toString();
-
-      // Canonize to Unix file system separator.
-      archivePath = archivePath.replaceAll("\\\\", "/");
-
-      ZipEntry entry = zipFile.getEntry(archivePath);
-      if (null == entry) {
-        final Enumeration<? extends ZipEntry> entries = zipFile.entries();
-        // Apparently PGI is still as lousy as ever at being consistent
-        // with case so, manually check if we can
-        // find a case-insensitive match before giving up
-        while (entries.hasMoreElements()) {
-          final ZipEntry nextEntry = entries.nextElement();
-          final String next = nextEntry.getName();
-          if (archivePath.equalsIgnoreCase(next)) {
-            entry = nextEntry;
-            break;
-          }
-        }
-        if (null == entry) {
-          throw new IOException("Unable to find previously found file!?!?!");
-        }
-      }
-      return new GameFile(zipFile, entry, aGameLocalPath.toString());
+  /**
+   * Determines the CRC of the given game data file. The CRC is taken from the archive index which
+   * is built from the central directories of the archives, the contents of the file are never
+   * inflated.
+   *
+   * @param aGameLocalPath The path to the file, with archive file names expanded. For example
+   *     "Game/Objects/mechs/spider/sdr-5k.mdf"
+   * @return The CRC32 of the file.
+   * @throws IOException if the game file couldn't be found.
+   */
+  long getCrc(File aGameLocalPath) throws IOException {
+    return locate(aGameLocalPath).crc;
+  }
+
+  /**
+   * Determines the CRCs of the given game data files, see {@link #getCrc(File)}.
+   *
+   * @param aFiles The files to get the CRCs for.
+   * @return A {@link Map} from the path of each file (as in {@link GameFile#path}) to its CRC.
+   * @throws IOException if a game file couldn't be found.
+   */
+  Map<String, Long> getChecksums(Collection<File> aFiles) throws IOException {
+    final Map<String, Long> ans = new HashMap<>();
+    for (final File file : aFiles) {
+      ans.put(file.toString(), getCrc(file));
     }
+    return ans;
   }
 
   Collection<GameFile> openGameFiles(Collection<File> aFiles) throws IOException {
@@ -327,69 +375,38 @@ public class GameVFS {
     return ans;
   }
 
-  private static boolean isArchive(File aFile) {
-    final String name = aFile.getName().toLowerCase();
-    return aFile.isFile() && name.endsWith(".pak") && !name.contains("french");
-  }
-
-  private void cacheArchive(File aFileInArchive, File aArchive) {
-    file2archive.put(canonicalizePath(aFileInArchive), aArchive);
-  }
-
-  private void cacheContentsOfArchive(File aArchive, File aRelativeBasePath) throws IOException {
-    try (ZipFile zipFile = new ZipFile(aArchive)) {
-      final Enumeration<? extends ZipEntry> entries = zipFile.entries();
-      while (entries.hasMoreElements()) {
-        final File fileInArchive = new File(aRelativeBasePath, entries.nextElement().toString());
-        cacheArchive(fileInArchive, aArchive);
-      }
+  /**
+   * Writes the archive index to the index file given at construction, if any and if it has
+   * changed.
+   *
+   * @throws IOException if the index couldn't be written.
+   */
+  public synchronized void saveIndex() throws IOException {
+    if (null != indexFile) {
+      index.save(indexFile);
     }
   }
 
-  // java.io.File has different equality semantics depending on the host operating system.
-  // This leads to annoyance when we run on Linux, pointed at an installation of MWO on a
-  // Windows partition.
-  @SuppressWarnings("SpellCheckingInspection")
-  private File canonicalizePath(File aFile) {
-    // Explicitly specify an English locale, so that Turkish users don't run into problems with
-    // Iceferret.pak turning into ıceferret.pak.
-    return new File(aFile.toString().toLowerCase(Locale.US));
-  }
-
-  private Optional<File> findArchiveForFile(File aGameLocalPath, File aSearchRoot)
-      throws IOException {
-    final File sourceArchive = getCachedArchive(aGameLocalPath);
-    if (null != sourceArchive) {
-      return Optional.of(sourceArchive);
-    }
-
-    final Collection<File> visitedArchives = file2archive.values();
-    final Path relativePath = gamePath.relativize(aSearchRoot.toPath());
-
-    final File[] listFiles = aSearchRoot.listFiles();
-    if (null == listFiles) {
-      return Optional.empty();
+  private synchronized ArchiveIndex.Entry locate(File aGameLocalPath) throws IOException {
+    ArchiveIndex.Entry entry = index.find(aGameLocalPath);
+    if (null == entry && !indexScanned) {
+      index.scan(this::openArchive);
+      indexScanned = true;
+      entry = index.find(aGameLocalPath);
     }
-
-    for (final File fileOnDisk : listFiles) {
-      if (fileOnDisk.isDirectory()) {
-        final Optional<File> file = findArchiveForFile(aGameLocalPath, fileOnDisk);
-        if (file.isPresent()) {
-          return file;
-        }
-      } else {
-        if (isArchive(fileOnDisk) && !visitedArchives.contains(fileOnDisk)) {
-          cacheContentsOfArchive(fileOnDisk, relativePath.toFile());
-          if (null != getCachedArchive(aGameLocalPath)) {
-            return Optional.of(fileOnDisk);
-          }
-        }
-      }
+    if (null == entry) {
+      throw new IOException(
+          "Failed to find sought for file (" + aGameLocalPath + ") in the game files!");
     }
-    return Optional.empty();
+    return entry;
   }
 
-  private File getCachedArchive(File aFileInArchive) {
-    return file2archive.get(canonicalizePath(aFileInArchive));
+  private synchronized ZipFile openArchive(File aArchive) throws IOException {
+    ZipFile zipFile = archives.get(aArchive);
+    if (null == zipFile) {
+      zipFile = new ZipFile(aArchive);
+      archives.put(aArchive, zipFile);
+    }
+    return zipFile;
   }
 }
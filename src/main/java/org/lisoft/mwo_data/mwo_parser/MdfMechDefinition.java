@@ -40,21 +40,27 @@ import org.lisoft.mwo_data.modifiers.Modifier;
  * @author Li Song
  */
 class MdfMechDefinition {
+  private static final ThreadLocal<XStream> XSTREAM =
+      ThreadLocal.withInitial(
+          () -> {
+            final XStream xstream = GameVFS.makeMwoSuitableXStream();
+            xstream.alias("MechDefinition", MdfMechDefinition.class);
+            xstream.alias("Mech", MdfMech.class);
+            xstream.alias("Component", MdfComponent.class);
+            xstream.alias("Internal", MdfItem.class);
+            xstream.alias("Fixed", MdfItem.class);
+            xstream.alias("MovementTuningConfiguration", MdfMovementTuning.class);
+            xstream.alias("Quirk", XMLQuirk.class);
+            return xstream;
+          });
+
   @XmlElement private List<MdfComponent> ComponentList;
   @XmlElement private MdfMech Mech;
   @XmlElement private MdfMovementTuning MovementTuningConfiguration;
   @XmlElement private List<XMLQuirk> QuirkList;
 
   static MdfMechDefinition fromXml(InputStream is) {
-    final XStream xstream = GameVFS.makeMwoSuitableXStream();
-    xstream.alias("MechDefinition", MdfMechDefinition.class);
-    xstream.alias("Mech", MdfMech.class);
-    xstream.alias("Component", MdfComponent.class);
-    xstream.alias("Internal", MdfItem.class);
-    xstream.alias("Fixed", MdfItem.class);
-    xstream.alias("MovementTuningConfiguration", MdfMovementTuning.class);
-    xstream.alias("Quirk", XMLQuirk.class);
-    return (MdfMechDefinition) xstream.fromXML(is);
+    return (MdfMechDefinition) XSTREAM.get().fromXML(is);
   }
 
   ChassisOmniMech asChassisOmniMech(
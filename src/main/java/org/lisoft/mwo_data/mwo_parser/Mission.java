@@ -17,10 +17,23 @@
  */
 package org.lisoft.mwo_data.mwo_parser;
 
+import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.annotations.XStreamAsAttribute;
+import java.io.InputStream;
 import java.util.List;
 
 class Mission {
+  private static final ThreadLocal<XStream> XSTREAM =
+      ThreadLocal.withInitial(
+          () -> {
+            final XStream xstream = GameVFS.makeMwoSuitableXStream();
+            xstream.alias("Mission", Mission.class);
+            xstream.alias("Entity", Entity.class);
+            xstream.alias("Object", Entity.class);
+            xstream.alias("Properties", Entity.EntityProperties.class);
+            return xstream;
+          });
+
   static class Entity {
     static class EntityProperties {
       @XStreamAsAttribute double temperature;
@@ -31,4 +44,8 @@ class Mission {
   }
 
   List<Entity> Objects;
+
+  static Mission fromXml(InputStream is) {
+    return (Mission) XSTREAM.get().fromXML(is);
+  }
 }
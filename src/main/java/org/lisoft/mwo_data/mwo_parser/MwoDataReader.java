@@ -23,6 +23,8 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.inject.Inject;
 import javax.inject.Named;
 import org.lisoft.mwo_data.Database;
@@ -54,6 +56,7 @@ public class MwoDataReader {
           new File("Game/Libs/Items/Modules/MASC.xml"),
           new File("Game/Libs/Items/Mechs/Mechs.xml"),
           new File("Game/Libs/Items/OmniPods.xml"));
+  private static final int PARSER_THREADS = Runtime.getRuntime().availableProcessors();
   private final String runningVersion;
 
   @Inject
@@ -68,14 +71,31 @@ public class MwoDataReader {
    * @return A {@link Database} if the parsing succeeds without fatal errors.
    */
   public Database parseGameFiles(File aGameDirectory) throws ParseErrorException {
-    try {
-      final GameVFS gameVFS = new GameVFS(aGameDirectory);
+    return parseGameFiles(aGameDirectory, null);
+  }
+
+  /**
+   * Reads the latest data from the game files and creates a new database.
+   *
+   * @param aGameDirectory A directory that contains a game installation.
+   * @param aIndexFile A file where the archive index is persisted between runs, or <code>null
+   *     </code> to not use a persisted index.
+   * @return A {@link Database} if the parsing succeeds without fatal errors.
+   */
+  public Database parseGameFiles(File aGameDirectory, File aIndexFile)
+      throws ParseErrorException {
+    final ExecutorService executor = Executors.newFixedThreadPool(PARSER_THREADS);
+    try (GameVFS gameVFS = new GameVFS(aGameDirectory, aIndexFile)) {
       final Collection<GameVFS.GameFile> gameFiles = gameVFS.openGameFiles(FILES_TO_PARSE);
       final PartialDatabase partialDatabase =
           new PartialDatabase(new Localisation(gameVFS), gameFiles);
-      return partialDatabase.generateDatabase(runningVersion, gameVFS);
+      final Database database = partialDatabase.generateDatabase(runningVersion, gameVFS, executor);
+      gameVFS.saveIndex();
+      return database;
     } catch (final Throwable t) {
       throw new ParseErrorException("Unable to parse game files!", t);
+    } finally {
+      executor.shutdownNow();
     }
   }
 
@@ -88,22 +108,30 @@ public class MwoDataReader {
    * @return <code>true</code> if the game files have newer data than what's in the database.
    */
   public boolean shouldUpdate(Database aDatabase, File aGameDirectory) throws ParseErrorException {
-    try {
-      final GameVFS gameVFS = new GameVFS(aGameDirectory);
-      final Collection<GameVFS.GameFile> gameFiles = gameVFS.openGameFiles(FILES_TO_PARSE);
-      final Map<String, Long> checkSums = aDatabase.getChecksums();
-      if (gameFiles.size() != checkSums.size()) {
-        return true;
-      }
+    return shouldUpdate(aDatabase, aGameDirectory, null);
+  }
 
-      for (final GameVFS.GameFile gameFile : gameFiles) {
-        if (gameFile.crc32 != checkSums.get(gameFile.path)) {
-          return true;
-        }
-      }
+  /**
+   * Compares the database to the game files and determines if there is any reason to attempt a
+   * further parse.
+   *
+   * <p>Only the CRCs in the central directories of the archives are compared, no game file is
+   * inflated. With a valid persisted archive index not even the archives are read.
+   *
+   * @param aDatabase The {@link Database} to compare to.
+   * @param aGameDirectory The directory to read game files to compare to.
+   * @param aIndexFile A file where the archive index is persisted between runs, or <code>null
+   *     </code> to not use a persisted index.
+   * @return <code>true</code> if the game files have newer data than what's in the database.
+   */
+  public boolean shouldUpdate(Database aDatabase, File aGameDirectory, File aIndexFile)
+      throws ParseErrorException {
+    try (GameVFS gameVFS = new GameVFS(aGameDirectory, aIndexFile)) {
+      final Map<String, Long> gameCheckSums = gameVFS.getChecksums(FILES_TO_PARSE);
+      gameVFS.saveIndex();
+      return !gameCheckSums.equals(aDatabase.getChecksums());
     } catch (final IOException e) {
       throw new ParseErrorException("Error when opening game files for reading!", e);
     }
-    return false;
   }
 }
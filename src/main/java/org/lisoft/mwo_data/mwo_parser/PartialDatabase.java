@@ -19,10 +19,14 @@ package org.lisoft.mwo_data.mwo_parser;
 
 import static java.util.stream.Stream.concat;
 
-import com.thoughtworks.xstream.XStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -38,11 +42,16 @@ import org.lisoft.mwo_data.modifiers.ModifierDescription;
  * allows for easy reference to already parsed items allowing object-to-object links to be
  * efficiently constructed for the final database object.
  *
+ * <p>The files for the individual chassis, omnipods, environments and stock loadouts are parsed as
+ * independent tasks on an {@link Executor}. The results are always merged in the same order as
+ * they would have been parsed sequentially, so the resulting database doesn't depend on the
+ * executor.
+ *
  * @author Li Song
  */
 class PartialDatabase {
   private final List<Item> items = new ArrayList<>();
-  private final Map<String, ModifierDescription> modifierDescriptions = new HashMap<>();
+  private final Map<String, ModifierDescription> modifierDescriptions = new ConcurrentHashMap<>();
   private final List<Consumable> consumables = new ArrayList<>();
   private final List<Upgrade> upgrades = new ArrayList<>();
   private final List<OmniPod> omniPods = new ArrayList<>();
@@ -131,37 +140,47 @@ class PartialDatabase {
   private static final File MECH_ID_MAP_XML = new File("Game/Libs/Items/MechIDMap.xml");
 
   /**
-   * Parses all inner sphere {@link ChassisStandard} from the ItemStats.xml file and related files.
+   * Starts parsing all inner sphere {@link ChassisStandard} and clan {@link ChassisOmniMech} from
+   * the mech list and related files. The omnipods must have been parsed first.
    *
    * @param aGameVFS A {@link GameVFS} used to open other game files.
+   * @param aExecutor The {@link Executor} to parse on.
+   * @return One task for each mech in the mech list, in the order of the mech list.
    */
-  private void parseChassis(GameVFS aGameVFS) throws Exception {
+  private List<FutureTask<Optional<Chassis>>> submitChassis(GameVFS aGameVFS, Executor aExecutor)
+      throws Exception {
+    final XMLMechIdMap mechIdMap;
     try (GameVFS.GameFile mechIdMapFile = aGameVFS.openGameFile(MECH_ID_MAP_XML)) {
-      XMLMechIdMap mechIdMap = XMLMechIdMap.fromXml(mechIdMapFile.stream);
-
-      for (final MechReferenceXML mech : mergedXML.MechList) {
-        try {
-          try (GameVFS.GameFile mdfFile = aGameVFS.openGameFile(mech.mdfFilePath())) {
-            final MdfMechDefinition mdf = MdfMechDefinition.fromXml(mdfFile.stream);
-
-            if (mdf.isPlayableOmniMech()) {
-              try (GameVFS.GameFile loadoutXmlFile =
-                  aGameVFS.openGameFile(mech.stockLoadoutPath())) {
-                final XMLLoadout stockXML = XMLLoadout.fromXml(loadoutXmlFile.stream);
-                chassis.add(mdf.asChassisOmniMech(mech, this, mechIdMap, stockXML));
-              }
-            } else if (mdf.isPlayableStandardMech()) {
-              try (GameVFS.GameFile hardPointsXmlFile =
-                  aGameVFS.openGameFile(mech.hardPointsXmlPath())) {
-                final XMLHardpoints hardPoints = XMLHardpoints.fromXml(hardPointsXmlFile.stream);
-                chassis.add(mdf.asChassisStandard(mech, this, mechIdMap, hardPoints));
-              }
-            }
-          }
-        } catch (final Exception e) {
-          throw new IOException("Unable to load chassis configuration for [" + mech.name + "]!", e);
+      mechIdMap = XMLMechIdMap.fromXml(mechIdMapFile.stream);
+    }
+
+    final List<Callable<Optional<Chassis>>> tasks = new ArrayList<>();
+    for (final MechReferenceXML mech : mergedXML.MechList) {
+      tasks.add(() -> parseChassis(aGameVFS, mechIdMap, mech));
+    }
+    return submitAll(aExecutor, tasks);
+  }
+
+  private Optional<Chassis> parseChassis(
+      GameVFS aGameVFS, XMLMechIdMap aMechIdMap, MechReferenceXML aMech) throws IOException {
+    try (GameVFS.GameFile mdfFile = aGameVFS.openGameFile(aMech.mdfFilePath())) {
+      final MdfMechDefinition mdf = MdfMechDefinition.fromXml(mdfFile.stream);
+
+      if (mdf.isPlayableOmniMech()) {
+        try (GameVFS.GameFile loadoutXmlFile = aGameVFS.openGameFile(aMech.stockLoadoutPath())) {
+          final XMLLoadout stockXML = XMLLoadout.fromXml(loadoutXmlFile.stream);
+          return Optional.of(mdf.asChassisOmniMech(aMech, this, aMechIdMap, stockXML));
+        }
+      } else if (mdf.isPlayableStandardMech()) {
+        try (GameVFS.GameFile hardPointsXmlFile =
+            aGameVFS.openGameFile(aMech.hardPointsXmlPath())) {
+          final XMLHardpoints hardPoints = XMLHardpoints.fromXml(hardPointsXmlFile.stream);
+          return Optional.of(mdf.asChassisStandard(aMech, this, aMechIdMap, hardPoints));
         }
       }
+      return Optional.empty();
+    } catch (final Exception e) {
+      throw new IOException("Unable to load chassis configuration for [" + aMech.name + "]!", e);
     }
   }
 
@@ -223,72 +242,75 @@ class PartialDatabase {
   }
 
   /**
-   * Parses all {@link Environment} from the game files.
+   * Starts parsing all {@link Environment}s from the game files.
    *
    * @param aGameVFS A {@link GameVFS} to parse data from.
+   * @param aExecutor The {@link Executor} to parse on.
+   * @return One task for each level, in the order the levels are listed.
    */
-  private void parseEnvironments(GameVFS aGameVFS) throws Exception {
+  private List<FutureTask<Environment>> submitEnvironments(GameVFS aGameVFS, Executor aExecutor)
+      throws Exception {
     final File[] levels = aGameVFS.listGameDir(new File("Game/Levels"));
     if (levels == null) {
       throw new IOException("Couldn't find environments!");
     }
 
-    final XStream xstream = GameVFS.makeMwoSuitableXStream();
-    xstream.alias("Mission", Mission.class);
-    xstream.alias("Entity", Mission.Entity.class);
-    xstream.alias("Object", Mission.Entity.class);
-    xstream.alias("Properties", Mission.Entity.EntityProperties.class);
-
+    final List<Callable<Environment>> tasks = new ArrayList<>();
     for (final File file : levels) {
       // Skip the tutorials and mechlab
       if (file.getName().toLowerCase().contains("tutorial")
           || file.getName().toLowerCase().contains("mechlab")) {
         continue;
       }
+      tasks.add(() -> parseEnvironment(aGameVFS, file));
+    }
+    return submitAll(aExecutor, tasks);
+  }
 
-      final String uiTag = "ui_" + file.getName();
-      final String uiName = localisation.key2string(uiTag);
-      try (GameVFS.GameFile missionFile =
-          aGameVFS.openGameFile(new File(file, "mission_mission0.xml"))) {
-        final Mission mission = (Mission) xstream.fromXML(missionFile.stream);
-
-        boolean found = false;
-        for (final Mission.Entity entity : mission.Objects) {
-          if (entity.EntityClass != null
-              && entity.EntityClass.equalsIgnoreCase("worldparameters")) {
-            environments.add(new Environment(uiName, entity.Properties.temperature));
-            found = true;
-            break;
-          }
-        }
-        if (!found) {
-          environments.add(new Environment(uiName, 0.0));
+  private Environment parseEnvironment(GameVFS aGameVFS, File aLevel) throws Exception {
+    final String uiTag = "ui_" + aLevel.getName();
+    final String uiName = localisation.key2string(uiTag);
+    try (GameVFS.GameFile missionFile =
+        aGameVFS.openGameFile(new File(aLevel, "mission_mission0.xml"))) {
+      final Mission mission = Mission.fromXml(missionFile.stream);
+
+      for (final Mission.Entity entity : mission.Objects) {
+        if (entity.EntityClass != null && entity.EntityClass.equalsIgnoreCase("worldparameters")) {
+          return new Environment(uiName, entity.Properties.temperature);
         }
       }
+      return new Environment(uiName, 0.0);
     }
   }
 
-  private void parseOmniPods(GameVFS aGameVFS) throws IOException {
+  private List<FutureTask<List<OmniPod>>> submitOmniPods(GameVFS aGameVFS, Executor aExecutor) {
     final Set<String> series =
         mergedXML.OmniPodList.stream()
             .map((omniPod) -> omniPod.chassis)
             .collect(Collectors.toSet());
 
+    final List<Callable<List<OmniPod>>> tasks = new ArrayList<>();
     for (final String chassis : series) {
-      try (var omniPodsFile = aGameVFS.openGameFile(MechReferenceXML.omniPodsXmlPath(chassis))) {
-        final XMLOmniPods xmlOmniPods = XMLOmniPods.fromXml(omniPodsFile.stream);
-        try (GameVFS.GameFile hardPointsXmlFile =
-            aGameVFS.openGameFile(MechReferenceXML.hardPointsXmlPath(chassis))) {
-          final XMLHardpoints hardPoints = XMLHardpoints.fromXml(hardPointsXmlFile.stream);
-          omniPods.addAll(xmlOmniPods.asOmniPods(mergedXML, hardPoints, this));
-        }
-      } catch (final Exception e) {
-        throw new IOException("Unable to load chassis configuration! Chassis: " + chassis, e);
+      tasks.add(() -> parseOmniPods(aGameVFS, chassis));
+    }
+    return submitAll(aExecutor, tasks);
+  }
+
+  private List<OmniPod> parseOmniPods(GameVFS aGameVFS, String aChassis) throws IOException {
+    try (var omniPodsFile = aGameVFS.openGameFile(MechReferenceXML.omniPodsXmlPath(aChassis))) {
+      final XMLOmniPods xmlOmniPods = XMLOmniPods.fromXml(omniPodsFile.stream);
+      try (GameVFS.GameFile hardPointsXmlFile =
+          aGameVFS.openGameFile(MechReferenceXML.hardPointsXmlPath(aChassis))) {
+        final XMLHardpoints hardPoints = XMLHardpoints.fromXml(hardPointsXmlFile.stream);
+        return xmlOmniPods.asOmniPods(mergedXML, hardPoints, this);
       }
+    } catch (final Exception e) {
+      throw new IOException("Unable to load chassis configuration! Chassis: " + aChassis, e);
     }
   }
 
-  private void parseStockLoadouts(GameVFS aGameVFS) throws ParseErrorException {
+  private List<FutureTask<StockLoadout>> submitStockLoadouts(
+      GameVFS aGameVFS, Executor aExecutor) {
     // For some reason, as of the patch 2016-06-21 some stock loadouts contain pilot
     // modules in the mechs which
     // are ignored by the game client. No mention of plans to add pilot modules to
@@ -299,111 +321,111 @@ class PartialDatabase {
     final Set<Integer> itemDenyList =
         consumables.stream().map(Consumable::getId).collect(Collectors.toSet());
 
+    final List<Callable<StockLoadout>> tasks = new ArrayList<>();
     for (final Chassis chassis : chassis) {
-      final File loadoutXmlFilePath =
-          new File("Game/Libs/MechLoadout/" + chassis.getKey().toLowerCase() + ".xml");
-      try (var loadoutXmlFile = aGameVFS.openGameFile(loadoutXmlFilePath)) {
-        final XMLLoadout stockXML = XMLLoadout.fromXml(loadoutXmlFile.stream);
-
-        StockLoadout.StockComponent.ActuatorState leftArmState = null;
-        StockLoadout.StockComponent.ActuatorState rightArmState = null;
-        if (stockXML.actuatorState != null) {
-          leftArmState =
-              StockLoadout.StockComponent.ActuatorState.fromMwoString(
-                  stockXML.actuatorState.LeftActuatorState);
-          rightArmState =
-              StockLoadout.StockComponent.ActuatorState.fromMwoString(
-                  stockXML.actuatorState.RightActuatorState);
-        }
+      tasks.add(() -> parseStockLoadout(aGameVFS, chassis, itemDenyList));
+    }
+    return submitAll(aExecutor, tasks);
+  }
 
-        final List<StockLoadout.StockComponent> components = new ArrayList<>();
-        for (final XMLLoadout.Component component : stockXML.ComponentList) {
-          Stream<Integer> itemIdStream = Stream.empty();
-          if (component.Ammo != null) {
-            itemIdStream = concat(itemIdStream, component.Ammo.stream().map(aAmmo -> aAmmo.ItemID));
-          }
-          if (component.Module != null) {
-            itemIdStream =
-                concat(itemIdStream, component.Module.stream().map(aModule -> aModule.ItemID));
-          }
-          if (component.Weapon != null) {
-            itemIdStream =
-                concat(itemIdStream, component.Weapon.stream().map(aWeapon -> aWeapon.ItemID));
-          }
-          final List<Item> items =
-              itemIdStream
-                  .filter(id -> !itemDenyList.contains(id))
-                  .map(this::lookupItem)
-                  .collect(Collectors.toList());
-
-          OmniPod omniPod = null;
-          if (chassis instanceof ChassisOmniMech && null != component.OmniPod) {
-            omniPod = lookupOmniPod(Integer.parseInt(component.OmniPod));
-          }
+  private StockLoadout parseStockLoadout(
+      GameVFS aGameVFS, Chassis aChassis, Set<Integer> aItemDenyList) throws ParseErrorException {
+    final File loadoutXmlFilePath =
+        new File("Game/Libs/MechLoadout/" + aChassis.getKey().toLowerCase() + ".xml");
+    try (var loadoutXmlFile = aGameVFS.openGameFile(loadoutXmlFilePath)) {
+      final XMLLoadout stockXML = XMLLoadout.fromXml(loadoutXmlFile.stream);
+
+      StockLoadout.StockComponent.ActuatorState leftArmState = null;
+      StockLoadout.StockComponent.ActuatorState rightArmState = null;
+      if (stockXML.actuatorState != null) {
+        leftArmState =
+            StockLoadout.StockComponent.ActuatorState.fromMwoString(
+                stockXML.actuatorState.LeftActuatorState);
+        rightArmState =
+            StockLoadout.StockComponent.ActuatorState.fromMwoString(
+                stockXML.actuatorState.RightActuatorState);
+      }
 
-          final Location location = Location.fromMwoName(component.ComponentName);
-          final boolean isRear = Location.isRear(component.ComponentName);
-          int armourFront = isRear ? 0 : component.Armor;
-          int armourBack = isRear ? component.Armor : 0;
-
-          // Merge front and back sides
-          final Iterator<StockLoadout.StockComponent> it = components.iterator();
-          while (it.hasNext()) {
-            final StockLoadout.StockComponent stockComponent = it.next();
-            if (stockComponent.getLocation() == location) {
-              items.addAll(stockComponent.getItems());
-              armourFront = isRear ? stockComponent.getArmourFront() : armourFront;
-              armourBack = isRear ? armourBack : stockComponent.getArmourBack();
-              omniPod = stockComponent.getOmniPod().orElse(null);
-              it.remove();
-              break;
-            }
+      final List<StockLoadout.StockComponent> components = new ArrayList<>();
+      for (final XMLLoadout.Component component : stockXML.ComponentList) {
+        Stream<Integer> itemIdStream = Stream.empty();
+        if (component.Ammo != null) {
+          itemIdStream = concat(itemIdStream, component.Ammo.stream().map(aAmmo -> aAmmo.ItemID));
+        }
+        if (component.Module != null) {
+          itemIdStream =
+              concat(itemIdStream, component.Module.stream().map(aModule -> aModule.ItemID));
+        }
+        if (component.Weapon != null) {
+          itemIdStream =
+              concat(itemIdStream, component.Weapon.stream().map(aWeapon -> aWeapon.ItemID));
+        }
+        final List<Item> items =
+            itemIdStream
+                .filter(id -> !aItemDenyList.contains(id))
+                .map(this::lookupItem)
+                .collect(Collectors.toList());
+
+        OmniPod omniPod = null;
+        if (aChassis instanceof ChassisOmniMech && null != component.OmniPod) {
+          omniPod = lookupOmniPod(Integer.parseInt(component.OmniPod));
+        }
+
+        final Location location = Location.fromMwoName(component.ComponentName);
+        final boolean isRear = Location.isRear(component.ComponentName);
+        int armourFront = isRear ? 0 : component.Armor;
+        int armourBack = isRear ? component.Armor : 0;
+
+        // Merge front and back sides
+        final Iterator<StockLoadout.StockComponent> it = components.iterator();
+        while (it.hasNext()) {
+          final StockLoadout.StockComponent stockComponent = it.next();
+          if (stockComponent.getLocation() == location) {
+            items.addAll(stockComponent.getItems());
+            armourFront = isRear ? stockComponent.getArmourFront() : armourFront;
+            armourBack = isRear ? armourBack : stockComponent.getArmourBack();
+            omniPod = stockComponent.getOmniPod().orElse(null);
+            it.remove();
+            break;
           }
+        }
 
-          final StockLoadout.StockComponent.ActuatorState actuatorState =
-              location == Location.LeftArm
-                  ? leftArmState
-                  : location == Location.RightArm ? rightArmState : null;
+        final StockLoadout.StockComponent.ActuatorState actuatorState =
+            location == Location.LeftArm
+                ? leftArmState
+                : location == Location.RightArm ? rightArmState : null;
 
-          final StockLoadout.StockComponent stockComponent =
-              new StockLoadout.StockComponent(
-                  location, armourFront, armourBack, items, omniPod, actuatorState);
-          components.add(stockComponent);
-        }
+        final StockLoadout.StockComponent stockComponent =
+            new StockLoadout.StockComponent(
+                location, armourFront, armourBack, items, omniPod, actuatorState);
+        components.add(stockComponent);
+      }
 
-        int armourId = 2810; // Standard armour
-        int structureId = 3100; // Standard Structure
-        int heatsinkId = 3003; // Standard heat sinks
-        int guidanceId = 3051; // No Artemis
+      int armourId = 2810; // Standard armour
+      int structureId = 3100; // Standard Structure
+      int heatsinkId = 3003; // Standard heat sinks
+      int guidanceId = 3051; // No Artemis
 
-        if (stockXML.upgrades != null) {
-          armourId = stockXML.upgrades.armor.ItemID;
-          structureId = stockXML.upgrades.structure.ItemID;
-          heatsinkId = stockXML.upgrades.heatsinks.ItemID;
-          guidanceId = stockXML.upgrades.artemis.Equipped != 0 ? 3050 : 3051;
-        }
-        ArmourUpgrade armourUpgrade = (ArmourUpgrade) lookupUpgrade(armourId);
-        StructureUpgrade structureUpgrade = (StructureUpgrade) lookupUpgrade(structureId);
-        HeatSinkUpgrade heatSinkUpgrade = (HeatSinkUpgrade) lookupUpgrade(heatsinkId);
-        GuidanceUpgrade guidanceUpgrade = (GuidanceUpgrade) lookupUpgrade(guidanceId);
-
-        final StockLoadout loadout =
-            new StockLoadout(
-                chassis,
-                components,
-                armourUpgrade,
-                structureUpgrade,
-                heatSinkUpgrade,
-                guidanceUpgrade);
-        stockLoadouts.add(loadout);
-      } catch (final Throwable e) {
-        throw new ParseErrorException(
-            "Error while parsing stock loadout for: "
-                + chassis.getName()
-                + " from: "
-                + loadoutXmlFilePath,
-            e);
+      if (stockXML.upgrades != null) {
+        armourId = stockXML.upgrades.armor.ItemID;
+        structureId = stockXML.upgrades.structure.ItemID;
+        heatsinkId = stockXML.upgrades.heatsinks.ItemID;
+        guidanceId = stockXML.upgrades.artemis.Equipped != 0 ? 3050 : 3051;
       }
+      ArmourUpgrade armourUpgrade = (ArmourUpgrade) lookupUpgrade(armourId);
+      StructureUpgrade structureUpgrade = (StructureUpgrade) lookupUpgrade(structureId);
+      HeatSinkUpgrade heatSinkUpgrade = (HeatSinkUpgrade) lookupUpgrade(heatsinkId);
+      GuidanceUpgrade guidanceUpgrade = (GuidanceUpgrade) lookupUpgrade(guidanceId);
+
+      return new StockLoadout(
+          aChassis, components, armourUpgrade, structureUpgrade, heatSinkUpgrade, guidanceUpgrade);
+    } catch (final Throwable e) {
+      throw new ParseErrorException(
+          "Error while parsing stock loadout for: "
+              + aChassis.getName()
+              + " from: "
+              + loadoutXmlFilePath,
+          e);
     }
   }
 
@@ -413,17 +435,82 @@ class PartialDatabase {
     }
   }
 
-  Database generateDatabase(String version, GameVFS gameVFS) throws Exception {
+  /**
+   * Runs the given tasks on the executor.
+   *
+   * @param aExecutor The {@link Executor} to run the tasks on.
+   * @param aTasks The tasks to run.
+   * @return A {@link FutureTask} for each task, in the same order as the argument.
+   */
+  private static <T> List<FutureTask<T>> submitAll(Executor aExecutor, List<Callable<T>> aTasks) {
+    final List<FutureTask<T>> ans = new ArrayList<>(aTasks.size());
+    for (final Callable<T> task : aTasks) {
+      final FutureTask<T> future = new FutureTask<>(task);
+      ans.add(future);
+      aExecutor.execute(future);
+    }
+    return ans;
+  }
+
+  /**
+   * Waits for all the given tasks to complete. If any task fails, the remaining tasks are cancelled
+   * and the exception of the failed task is thrown.
+   *
+   * @param aTasks The tasks to wait for.
+   * @return The results of the tasks in the same order as the tasks, regardless of the order in
+   *     which they completed.
+   */
+  private static <T> List<T> joinAll(List<FutureTask<T>> aTasks) throws Exception {
+    final List<T> ans = new ArrayList<>(aTasks.size());
+    try {
+      for (final FutureTask<T> task : aTasks) {
+        ans.add(task.get());
+      }
+    } catch (final ExecutionException e) {
+      for (final FutureTask<T> task : aTasks) {
+        task.cancel(true);
+      }
+      if (e.getCause() instanceof final Exception cause) {
+        throw cause;
+      }
+      throw e;
+    }
+    return ans;
+  }
+
+  /**
+   * Parses the game files into a {@link Database}.
+   *
+   * @param version The version of LSML that is generating the database.
+   * @param gameVFS The {@link GameVFS} to read the game files from.
+   * @param aExecutor An {@link Executor} that independent files are parsed on. The result is the
+   *     same for any executor, passing <code>Runnable::run</code> parses everything sequentially.
+   * @return A new {@link Database}.
+   */
+  Database generateDatabase(String version, GameVFS gameVFS, Executor aExecutor) throws Exception {
 
     parseItems();
     parseConsumables();
     parseUpgrades();
     postProcessItems();
 
-    parseOmniPods(gameVFS);
-    parseChassis(gameVFS);
-    parseEnvironments(gameVFS);
-    parseStockLoadouts(gameVFS);
+    // Environments only depend on the localisation and can be parsed alongside everything else.
+    final List<FutureTask<Environment>> environmentTasks = submitEnvironments(gameVFS, aExecutor);
+    for (final List<OmniPod> seriesOmniPods : joinAll(submitOmniPods(gameVFS, aExecutor))) {
+      omniPods.addAll(seriesOmniPods);
+    }
+    for (final Optional<Chassis> parsedChassis : joinAll(submitChassis(gameVFS, aExecutor))) {
+      parsedChassis.ifPresent(chassis::add);
+    }
+    stockLoadouts.addAll(joinAll(submitStockLoadouts(gameVFS, aExecutor)));
+    environments.addAll(joinAll(environmentTasks));
+
+    // The descriptions are created concurrently, insert them in a fixed order so that the
+    // iteration order of the map, and thus the serialised database, is reproducible.
+    final Map<String, ModifierDescription> descriptions = new HashMap<>();
+    for (final String key : new TreeSet<>(modifierDescriptions.keySet())) {
+      descriptions.put(key, modifierDescriptions.get(key));
+    }
     return new Database(
         version,
         checksums,
@@ -434,6 +521,6 @@ class PartialDatabase {
         chassis,
         environments,
         stockLoadouts,
-        modifierDescriptions);
+        descriptions);
   }
 }
@@ -27,6 +27,16 @@ import java.util.regex.Pattern;
 
 @SuppressWarnings("SpellCheckingInspection")
 class XMLHardpoints {
+  private static final ThreadLocal<XStream> XSTREAM =
+      ThreadLocal.withInitial(
+          () -> {
+            final XStream xstream = GameVFS.makeMwoSuitableXStream();
+            xstream.alias("Hardpoints", XMLHardpoints.class);
+            xstream.alias("HardPoint", HardPointInfo.class);
+            xstream.alias("WeaponSlot", HardPointWeaponSlot.class);
+            return xstream;
+          });
+
   @XStreamImplicit(itemFieldName = "Hardpoint")
   List<HardPointInfo> hardpoints;
 
@@ -34,11 +44,7 @@ class XMLHardpoints {
   List<WeaponDoorSet> weapondoors;
 
   static XMLHardpoints fromXml(InputStream is) {
-    XStream xstream = GameVFS.makeMwoSuitableXStream();
-    xstream.alias("Hardpoints", XMLHardpoints.class);
-    xstream.alias("HardPoint", HardPointInfo.class);
-    xstream.alias("WeaponSlot", HardPointWeaponSlot.class);
-    return (XMLHardpoints) xstream.fromXML(is);
+    return (XMLHardpoints) XSTREAM.get().fromXML(is);
   }
 
   int slotsForId(int aID) {
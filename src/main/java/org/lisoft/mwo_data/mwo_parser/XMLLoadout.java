@@ -28,6 +28,13 @@ import java.util.List;
  * @author Li Song
  */
 class XMLLoadout {
+  private static final ThreadLocal<XStream> XSTREAM =
+      ThreadLocal.withInitial(
+          () -> {
+            final XStream xstream = GameVFS.makeMwoSuitableXStream();
+            xstream.alias("Loadout", XMLLoadout.class);
+            return xstream;
+          });
 
   static class ActuatorState {
     @XStreamAsAttribute String LeftActuatorState;
@@ -98,9 +105,6 @@ class XMLLoadout {
   Upgrades upgrades;
 
   static XMLLoadout fromXml(InputStream is) {
-    final XStream xstream = GameVFS.makeMwoSuitableXStream();
-    xstream.alias("Loadout", XMLLoadout.class);
-
-    return (XMLLoadout) xstream.fromXML(is);
+    return (XMLLoadout) XSTREAM.get().fromXML(is);
   }
 }
@@ -32,6 +32,14 @@ import java.util.List;
  */
 @XStreamAlias("MechIdMap")
 class XMLMechIdMap {
+  private static final ThreadLocal<XStream> XSTREAM =
+      ThreadLocal.withInitial(
+          () -> {
+            final XStream xstream = GameVFS.makeMwoSuitableXStream();
+            xstream.alias("MechIdMap", XMLMechIdMap.class);
+            return xstream;
+          });
+
   static class Mech {
     @XStreamAsAttribute int baseID;
     @XStreamAsAttribute int variantID;
@@ -43,8 +51,6 @@ class XMLMechIdMap {
   private XMLMechIdMap() {}
 
   static XMLMechIdMap fromXml(InputStream is) {
-    final XStream xstream = GameVFS.makeMwoSuitableXStream();
-    xstream.alias("MechIdMap", XMLMechIdMap.class);
-    return (XMLMechIdMap) xstream.fromXML(is);
+    return (XMLMechIdMap) XSTREAM.get().fromXML(is);
   }
 }
@@ -42,6 +42,14 @@ import org.lisoft.mwo_data.modifiers.Modifier;
  */
 @SuppressWarnings("SpellCheckingInspection")
 class XMLOmniPods {
+  private static final ThreadLocal<XStream> XSTREAM =
+      ThreadLocal.withInitial(
+          () -> {
+            final XStream xstream = GameVFS.makeMwoSuitableXStream();
+            xstream.alias("OmniPods", XMLOmniPods.class);
+            return xstream;
+          });
+
   @XStreamImplicit(itemFieldName = "Set")
   List<XMLOmniPodsSet> sets;
 
@@ -82,9 +90,7 @@ class XMLOmniPods {
   }
 
   static XMLOmniPods fromXml(InputStream is) {
-    final XStream xstream = GameVFS.makeMwoSuitableXStream();
-    xstream.alias("OmniPods", XMLOmniPods.class);
-    return (XMLOmniPods) xstream.fromXML(is);
+    return (XMLOmniPods) XSTREAM.get().fromXML(is);
   }
 
   List<OmniPod> asOmniPods(
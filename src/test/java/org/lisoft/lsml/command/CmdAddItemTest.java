@@ -559,6 +559,23 @@ public class CmdAddItemTest {
     cut.apply();
   }
 
+  /** The trusted path still checks the equip rules so that the builder can fall back. */
+  @Test(expected = IllegalStateException.class)
+  public void testCantAddItem_Trusted() throws Exception {
+    CmdAddItem cut = null;
+    try {
+      final Item item = ItemDB.lookup("LRM 20");
+      when(loadout.canEquipDirectly(item)).thenReturn(EquipResult.SUCCESS);
+      when(component.canEquip(item)).thenReturn(EquipResult.make(EquipResultType.NotEnoughSlots));
+      cut = new CmdAddItem(msgDelivery, loadout, component, item);
+    } catch (final Throwable t) {
+      fail("Setup failed");
+      return;
+    }
+
+    cut.applyTrusted();
+  }
+
   @Test
   public void testDescription() {
     final Item item = ItemDB.ECM;
@@ -0,0 +1,100 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.math.numerics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import org.junit.Test;
+
+/**
+ * Test suite for {@link Binomial}.
+ *
+ * @author Li Song
+ */
+public class BinomialTest {
+
+  @Test
+  public void testLogPmf() {
+    for (int k = 0; k <= 30; ++k) {
+      assertEquals(Math.log(Binomial.pmf(k, 30, 0.2)), Binomial.logPmf(k, 30, 0.2), 1E-13);
+    }
+    assertEquals(Double.NEGATIVE_INFINITY, Binomial.logPmf(31, 30, 0.2), 0.0);
+  }
+
+  /** For large n the terms underflow in linear space, but not in log space. */
+  @Test
+  public void testLogPmf_Underflow() {
+    final double expected = 100000 * Math.log(0.001);
+    assertEquals(expected, Binomial.logPmf(100000, 100000, 0.001), -expected * 1E-15);
+    assertEquals(0.0, Binomial.pmf(100000, 100000, 0.001), 0.0);
+  }
+
+  @Test
+  public void testPmf() {
+    final double p = 0.2;
+    final BigDecimal bp = new BigDecimal(p);
+    final BigDecimal bq = BigDecimal.ONE.subtract(bp);
+    final int n = 300;
+    for (int k = 0; k <= n; ++k) {
+      final double expected =
+          new BigDecimal(choose(n, k))
+              .multiply(bp.pow(k))
+              .multiply(bq.pow(n - k))
+              .round(MathContext.DECIMAL128)
+              .doubleValue();
+      assertEquals(expected, Binomial.pmf(k, n, p), expected * 1E-13);
+    }
+  }
+
+  @Test
+  public void testPmf_Edges() {
+    assertEquals(1.0, Binomial.pmf(0, 0, 0.3), 0.0);
+    assertEquals(1.0 - 0.3, Binomial.pmf(0, 1, 0.3), 0.0);
+    assertEquals(0.3, Binomial.pmf(1, 1, 0.3), 0.0);
+    assertEquals(0.0, Binomial.pmf(-1, 5, 0.3), 0.0);
+    assertEquals(0.0, Binomial.pmf(6, 5, 0.3), 0.0);
+    assertEquals(1.0, Binomial.pmf(0, 5, 0.0), 0.0);
+    assertEquals(0.0, Binomial.pmf(1, 5, 0.0), 0.0);
+    assertEquals(1.0, Binomial.pmf(5, 5, 1.0), 0.0);
+    assertEquals(0.0, Binomial.pmf(4, 5, 1.0), 0.0);
+  }
+
+  /** The probabilities of all outcomes must sum to one even for many trials. */
+  @Test
+  public void testPmf_SumsToOne() {
+    for (final double p : new double[] {0.01, 0.17, 0.5, 0.93}) {
+      final int n = 6000;
+      final double[] terms = new double[n + 1];
+      for (int k = 0; k <= n; ++k) {
+        terms[k] = Binomial.pmf(k, n, p);
+      }
+      assertEquals(1.0, CompensatedSum.sum(terms), 1E-14);
+    }
+  }
+
+  private static BigInteger choose(int aN, int aK) {
+    BigInteger ans = BigInteger.ONE;
+    for (int i = 0; i < aK; ++i) {
+      ans = ans.multiply(BigInteger.valueOf(aN - i)).divide(BigInteger.valueOf(i + 1));
+    }
+    return ans;
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.math.numerics;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Test suite for {@link CompensatedSum}.
+ *
+ * @author Li Song
+ */
+public class CompensatedSumTest {
+
+  @Test
+  public void testAdd() {
+    final CompensatedSum cut = new CompensatedSum();
+    cut.add(1.0);
+    for (int i = 0; i < 1000000; ++i) {
+      cut.add(1E-16);
+    }
+    // Naive summation gives 1.0 as each small value is lost
+    assertEquals(1.0000000001, cut.value(), 1E-16);
+  }
+
+  @Test
+  public void testClear() {
+    final CompensatedSum cut = new CompensatedSum();
+    cut.add(1.0);
+    cut.add(1E-20);
+    cut.clear();
+    assertEquals(0.0, cut.value(), 0.0);
+  }
+
+  /** Neumaier's variant also handles values that are larger than the running sum. */
+  @Test
+  public void testSum_LargeCancellation() {
+    assertEquals(2.0, CompensatedSum.sum(new double[] {1.0, 1E100, 1.0, -1E100}), 0.0);
+  }
+
+  @Test
+  public void testSum_Range() {
+    final double[] values = {5.0, 1.0, 2.0, 3.0, 7.0};
+    assertEquals(6.0, CompensatedSum.sum(values, 1, 4), 0.0);
+    assertEquals(0.0, CompensatedSum.sum(values, 2, 2), 0.0);
+  }
+}
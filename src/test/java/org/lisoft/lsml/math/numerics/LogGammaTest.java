@@ -0,0 +1,75 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.math.numerics;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Test suite for {@link LogGamma}.
+ *
+ * @author Li Song
+ */
+public class LogGammaTest {
+
+  @Test
+  public void testLogChoose() {
+    assertEquals(Math.log(120), LogGamma.logChoose(10, 3), 1E-14);
+    assertEquals(0.0, LogGamma.logChoose(10, 0), 0.0);
+    assertEquals(Double.NEGATIVE_INFINITY, LogGamma.logChoose(10, 11), 0.0);
+    assertEquals(Double.NEGATIVE_INFINITY, LogGamma.logChoose(10, -1), 0.0);
+  }
+
+  @Test
+  public void testLogFactorial() {
+    double factorial = 1.0;
+    for (int n = 1; n <= 20; ++n) {
+      factorial *= n;
+      assertEquals(Math.log(factorial), LogGamma.logFactorial(n), 1E-14);
+    }
+    assertEquals(0.0, LogGamma.logFactorial(0), 0.0);
+  }
+
+  /** The table and the asymptotic series must agree where they meet. */
+  @Test
+  public void testLogFactorial_BeyondTable() {
+    for (int n = 1000; n < 1100; ++n) {
+      final double expected = LogGamma.logFactorial(n - 1) + Math.log(n);
+      assertEquals(expected, LogGamma.logFactorial(n), expected * 1E-15);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLogFactorial_Negative() {
+    LogGamma.logFactorial(-1);
+  }
+
+  @Test
+  public void testLogGamma() {
+    assertEquals(0.5 * Math.log(Math.PI), LogGamma.logGamma(0.5), 1E-14);
+    assertEquals(0.0, LogGamma.logGamma(1.0), 1E-15);
+    assertEquals(Math.log(362880), LogGamma.logGamma(10.0), 1E-14);
+    assertEquals(LogGamma.logFactorial(5000), LogGamma.logGamma(5001.0), 1E-11);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLogGamma_NonPositive() {
+    LogGamma.logGamma(0.0);
+  }
+}
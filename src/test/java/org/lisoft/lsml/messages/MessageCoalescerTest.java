@@ -0,0 +1,107 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.messages;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * A test suite for {@link MessageCoalescer}.
+ *
+ * @author Li Song
+ */
+public class MessageCoalescerTest {
+  private final List<Runnable> scheduled = new ArrayList<>();
+  private final MessageXBar xBar = new MessageXBar();
+  private final MessageCoalescer cut = new MessageCoalescer(xBar, scheduled::add);
+  private final MessageReceiver reader = mock(MessageReceiver.class);
+
+  @Test
+  public void testBurstIsDeliveredOnce() {
+    final Message msg0 = mock(ItemMessage.class);
+    final Message msg1 = mock(ArmourMessage.class);
+    final Message msg2 = mock(ArmourMessage.class);
+    cut.attach(reader);
+
+    xBar.post(msg0);
+    xBar.post(msg1);
+    xBar.post(msg2);
+
+    verifyNoInteractions(reader);
+    assertEquals(1, scheduled.size());
+    scheduled.get(0).run();
+
+    final ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+    verify(reader).receive(captor.capture());
+    final CoalescedMessage coalesced = (CoalescedMessage) captor.getValue();
+    assertEquals(List.of(msg0, msg1, msg2), coalesced.getMessages());
+    assertTrue(coalesced.contains(ArmourMessage.class));
+    assertFalse(coalesced.contains(UpgradesMessage.class));
+    assertTrue(CoalescedMessage.matches(coalesced, aMsg -> aMsg instanceof ItemMessage));
+    assertFalse(CoalescedMessage.matches(coalesced, aMsg -> aMsg instanceof OmniPodMessage));
+  }
+
+  @Test
+  public void testDetach() {
+    cut.attach(reader);
+    cut.detach(reader);
+    xBar.post(mock(Message.class));
+    scheduled.forEach(Runnable::run);
+    verifyNoInteractions(reader);
+  }
+
+  @Test
+  public void testFlushWithoutMessages() {
+    cut.attach(reader);
+    cut.flush();
+    verifyNoInteractions(reader);
+    assertTrue(scheduled.isEmpty());
+  }
+
+  @Test
+  public void testSingleMessageDeliveredAsIs() {
+    final Message msg = mock(Message.class);
+    cut.attach(reader);
+
+    xBar.post(msg);
+    scheduled.forEach(Runnable::run);
+
+    verify(reader).receive(msg);
+  }
+
+  @Test
+  public void testNewBurstAfterFlush() {
+    final Message msg0 = mock(Message.class);
+    final Message msg1 = mock(Message.class);
+    cut.attach(reader);
+
+    xBar.post(msg0);
+    cut.flush();
+    xBar.post(msg1);
+    cut.flush();
+
+    verify(reader).receive(msg0);
+    verify(reader).receive(msg1);
+    assertEquals(2, scheduled.size());
+  }
+}
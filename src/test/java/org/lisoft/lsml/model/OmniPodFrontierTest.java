@@ -0,0 +1,127 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.model;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.Test;
+import org.lisoft.mwo_data.mechs.ChassisOmniMech;
+import org.lisoft.mwo_data.mechs.HardPointType;
+import org.lisoft.mwo_data.mechs.Location;
+import org.lisoft.mwo_data.mechs.OmniPod;
+
+/**
+ * Test suite for the {@link OmniPodFrontier} class.
+ *
+ * @author Li Song
+ */
+public class OmniPodFrontierTest {
+
+  @Test
+  public void testFrontier_DominatedPointsRemoved() {
+    final OmniPod e2 = makePod(2, 0, 0);
+    final OmniPod b1 = makePod(0, 0, 1);
+    final OmniPod e2b1 = makePod(2, 0, 1);
+    final OmniPod e1 = makePod(1, 0, 0);
+    final OmniPod m2 = makePod(0, 2, 0);
+
+    final Map<Location, List<OmniPod>> allowed = new EnumMap<>(Location.class);
+    allowed.put(Location.RightArm, List.of(e2, b1));
+    allowed.put(Location.LeftArm, List.of(e1, m2));
+    assertEquals(4, new OmniPodFrontier(allowed).size());
+
+    allowed.put(Location.RightArm, List.of(e2, b1, e2b1));
+    final OmniPodFrontier cut = new OmniPodFrontier(allowed);
+    assertEquals(2, cut.size());
+
+    final Map<Location, OmniPod> pods = cut.select(3, 0, 1, 0, false).orElseThrow();
+    assertSame(e2b1, pods.get(Location.RightArm));
+    assertSame(e1, pods.get(Location.LeftArm));
+    assertFalse(cut.select(3, 2, 0, 0, false).isPresent());
+    assertFalse(cut.select(0, 0, 0, 0, true).isPresent());
+  }
+
+  @Test
+  public void testSelect_Empty() {
+    final OmniPodFrontier cut = new OmniPodFrontier(new EnumMap<>(Location.class));
+    assertEquals(1, cut.size());
+    assertTrue(cut.select(0, 0, 0, 0, false).orElseThrow().isEmpty());
+    assertFalse(cut.select(1, 0, 0, 0, false).isPresent());
+  }
+
+  /**
+   * The frontier must find a selection exactly when the back tracking solver does, and the
+   * selection must meet the requirements.
+   */
+  @Test
+  public void testSelectAnyPods_SameAsBackTracking() {
+    final OmniPodSelector selector = new OmniPodSelector();
+    for (final String name : List.of("HBR-A", "IFR-A", "SHC-PRIME", "TBR-PRIME", "ADR-PRIME")) {
+      final ChassisOmniMech chassis = (ChassisOmniMech) ChassisDB.lookup(name);
+      for (int energy = 0; energy <= 12; energy += 3) {
+        for (int missile = 0; missile <= 8; missile += 2) {
+          for (int ballistic = 0; ballistic <= 4; ++ballistic) {
+            for (int jumpJets = 0; jumpJets <= 6; jumpJets += 2) {
+              for (final boolean ecm : new boolean[] {false, true}) {
+                final Optional<Map<Location, OmniPod>> expected =
+                    selector.selectPods(chassis, energy, missile, ballistic, jumpJets, ecm);
+                final Optional<Map<Location, OmniPod>> actual =
+                    selector.selectAnyPods(chassis, energy, missile, ballistic, jumpJets, ecm);
+
+                final String msg = name + " " + energy + "/" + missile + "/" + ballistic;
+                assertEquals(msg, expected.isPresent(), actual.isPresent());
+                if (actual.isPresent()) {
+                  final Map<Location, OmniPod> pods = actual.get();
+                  pods.put(
+                      Location.CenterTorso,
+                      chassis.getComponent(Location.CenterTorso).getFixedOmniPod());
+                  assertTrue(msg, count(pods, HardPointType.ENERGY) >= energy);
+                  assertTrue(msg, count(pods, HardPointType.MISSILE) >= missile);
+                  assertTrue(msg, count(pods, HardPointType.BALLISTIC) >= ballistic);
+                  final int jj =
+                      chassis.getFixedJumpJets()
+                          + pods.values().stream().mapToInt(OmniPod::getJumpJetsMax).sum();
+                  assertTrue(msg, jj >= jumpJets);
+                  assertTrue(msg, !ecm || count(pods, HardPointType.ECM) > 0);
+                }
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private int count(Map<Location, OmniPod> aPods, HardPointType aType) {
+    return aPods.values().stream().mapToInt(aPod -> aPod.getHardPointCount(aType)).sum();
+  }
+
+  private OmniPod makePod(int aEnergy, int aMissile, int aBallistic) {
+    final OmniPod pod = mock(OmniPod.class);
+    when(pod.getHardPointCount(HardPointType.ENERGY)).thenReturn(aEnergy);
+    when(pod.getHardPointCount(HardPointType.MISSILE)).thenReturn(aMissile);
+    when(pod.getHardPointCount(HardPointType.BALLISTIC)).thenReturn(aBallistic);
+    return pod;
+  }
+}
@@ -18,8 +18,7 @@
 package org.lisoft.lsml.model;
 
 import static org.junit.Assert.*;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -293,6 +292,79 @@ public class SearchIndexTest {
     assertTrue(cut.query("hello").contains(l));
   }
 
+  @Test
+  public void testMergeTwiceReindexes() {
+    final Loadout l = makeLoadout();
+    when(l.getName()).thenReturn("nope").thenReturn("hello");
+    cut.merge(l);
+    cut.merge(l);
+
+    assertTrue(cut.query("nope").isEmpty());
+    assertEquals(1, cut.query("hello").size());
+  }
+
+  @Test
+  public void testQueryPrefixOfSeveralTerms() {
+    final Loadout l1 = makeLoadout();
+    when(l1.getName()).thenReturn("abc");
+    cut.merge(l1);
+
+    final Loadout l2 = makeLoadout();
+    when(l2.getName()).thenReturn("abd");
+    cut.merge(l2);
+
+    final Loadout l3 = makeLoadout();
+    when(l3.getName()).thenReturn("bcd");
+    cut.merge(l3);
+
+    final Collection<Loadout> ans = cut.query("ab");
+    assertEquals(2, ans.size());
+    assertTrue(ans.contains(l1));
+    assertTrue(ans.contains(l2));
+  }
+
+  @Test
+  public void testUnmergeThenMergeOther() {
+    final Loadout l1 = makeLoadout();
+    when(l1.getName()).thenReturn("abc");
+    cut.merge(l1);
+    cut.unmerge(l1);
+
+    final Loadout l2 = makeLoadout();
+    when(l2.getName()).thenReturn("abc");
+    cut.merge(l2);
+
+    final Collection<Loadout> ans = cut.query("abc");
+    assertEquals(1, ans.size());
+    assertTrue(ans.contains(l2));
+  }
+
+  @Test
+  public void testUpdateSingle() {
+    final Loadout l1 = makeLoadout();
+    when(l1.getName()).thenReturn("nope").thenReturn("hello");
+    cut.merge(l1);
+
+    final Loadout l2 = makeLoadout();
+    when(l2.getName()).thenReturn("nope");
+    cut.merge(l2);
+
+    cut.update(l1);
+
+    assertEquals(List.of(l2), List.copyOf(cut.query("nope")));
+    assertEquals(List.of(l1), List.copyOf(cut.query("hello")));
+    verify(l2, times(1)).getName();
+  }
+
+  @Test
+  public void testUpdateSingleNotInIndex() {
+    final Loadout l = makeLoadout();
+    when(l.getName()).thenReturn("abc");
+    cut.update(l);
+
+    assertTrue(cut.query("abc").isEmpty());
+  }
+
   private Loadout makeLoadout() {
     return makeLoadout(Faction.CLAN);
   }
@@ -23,6 +23,9 @@ import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
@@ -34,6 +37,7 @@ import org.lisoft.lsml.util.DecodingException;
 import org.lisoft.lsml.util.EncodingException;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.junit.MockitoJUnitRunner;
 
 /**
@@ -92,14 +96,14 @@ public class BatchImportExporterTest {
     when(coder.encodeHTTPTrampoline(loadout1)).thenReturn(code1http);
     when(coder.encodeHTTPTrampoline(loadout2)).thenReturn(code2http);
     when(coder.encodeHTTPTrampoline(loadout3)).thenReturn(code3http);
-    when(coder.parse(code1)).thenReturn(loadout1);
-    when(coder.parse(code2)).thenReturn(loadout2);
-    when(coder.parse(code2http)).thenReturn(loadout2);
-    when(coder.parse(code3)).thenReturn(loadout3);
-    when(coder.parse(code4)).thenReturn(loadout4);
-    when(coder.parse(code4http)).thenReturn(loadout4);
-    when(coder.parse(code5)).thenReturn(loadout5);
-    when(coder.parse(code6)).thenReturn(loadout6);
+    when(coder.parse(eq(code1), any())).thenReturn(loadout1);
+    when(coder.parse(eq(code2), any())).thenReturn(loadout2);
+    when(coder.parse(eq(code2http), any())).thenReturn(loadout2);
+    when(coder.parse(eq(code3), any())).thenReturn(loadout3);
+    when(coder.parse(eq(code4), any())).thenReturn(loadout4);
+    when(coder.parse(eq(code4http), any())).thenReturn(loadout4);
+    when(coder.parse(eq(code5), any())).thenReturn(loadout5);
+    when(coder.parse(eq(code6), any())).thenReturn(loadout6);
     when(loadout1.getName()).thenReturn(name1);
     when(loadout2.getName()).thenReturn(name2);
     when(loadout3.getName()).thenReturn(name3);
@@ -237,6 +241,136 @@ public class BatchImportExporterTest {
     assertSame(loadout6, parsedSub1sub1.getValues().get(1));
   }
 
+  @Test
+  public void testExport_EncodeErrorReported() {
+    final GarageDirectory<Loadout> root = new GarageDirectory<>("");
+    root.getValues().addAll(asList(loadout1, loadout2, loadout3));
+    final RuntimeException error = new RuntimeException();
+    when(coder.encodeLSML(loadout2)).thenThrow(error);
+
+    final String result = cut.export(root);
+
+    assertEquals("[]\n{" + name1 + "} " + code1 + "\n{" + name3 + "} " + code3 + "\n", result);
+    verify(errorReporting).error("Export error", "Unable to export loadout: " + name2, error);
+  }
+
+  @Test
+  public void testExport_Writer() throws IOException {
+    final GarageDirectory<Loadout> root = new GarageDirectory<>("");
+    final GarageDirectory<Loadout> sub1 = new GarageDirectory<>("sub1");
+    root.getValues().add(loadout1);
+    sub1.getValues().add(loadout2);
+    root.getDirectories().add(sub1);
+
+    final StringWriter writer = new StringWriter();
+    cut.export(root, writer);
+
+    assertEquals(cut.export(root), writer.toString());
+  }
+
+  @Test
+  public void testImportExport_Parallel() throws IOException {
+    final GarageDirectory<Loadout> root = new GarageDirectory<>("");
+    final List<Loadout> loadouts = asList(loadout1, loadout2, loadout3, loadout4, loadout5);
+    GarageDirectory<Loadout> dir = root;
+    for (int i = 0; i < 20; ++i) {
+      dir.getValues().addAll(loadouts);
+      dir.getValues().add(loadout6);
+      final GarageDirectory<Loadout> child = new GarageDirectory<>("sub" + i);
+      dir.getDirectories().add(child);
+      dir = child;
+    }
+    final String expected = cut.export(root);
+    final List<Integer> progress = new ArrayList<>();
+
+    cut.setParallelism(4);
+    cut.setProgressCallback(progress::add);
+    assertEquals(4, cut.getParallelism());
+    assertEquals(expected, cut.export(root));
+
+    progress.clear();
+    final GarageDirectory<Loadout> parsed = cut.parse(new StringReader(expected));
+    final int lines = expected.split("\n").length;
+    assertEquals(lines, progress.size());
+    for (int i = 0; i < lines; ++i) {
+      assertEquals(i + 1, progress.get(i).intValue());
+    }
+
+    assertEquals(expected, cut.export(parsed));
+    verifyNoInteractions(errorReporting);
+  }
+
+  @Test
+  public void testImport_BlankLinesIgnored() {
+    final String data = "\n{" + name1 + "} " + code1 + "\n  \n\n{" + name2 + "} " + code2 + "\n\n";
+
+    final GarageDirectory<Loadout> root = cut.parse(data);
+
+    assertEquals(asList(loadout1, loadout2), root.getValues());
+    verifyNoInteractions(errorReporting);
+  }
+
+  @Test
+  public void testImport_ParallelErrorsReportedInOrder() throws Exception {
+    final DecodingException error = mock(DecodingException.class);
+    when(coder.parse(eq("lsml://broken"), any())).thenThrow(error);
+    final String broken1 = "{bad1} lsml://broken";
+    final String broken2 = "{bad2 lsml://abc";
+    String data = "";
+    data += "{" + name1 + "} " + code1 + "\n";
+    data += broken1 + "\n";
+    data += "{" + name2 + "} " + code2 + "\n";
+    data += broken2 + "\n";
+    data += "{" + name3 + "} " + code3 + "\n";
+
+    cut.setParallelism(3);
+    final GarageDirectory<Loadout> root = cut.parse(data);
+
+    assertEquals(asList(loadout1, loadout2, loadout3), root.getValues());
+    final InOrder inOrder = inOrder(errorReporting);
+    inOrder.verify(errorReporting).error("Parse error", "Unable to parse line: " + broken1, error);
+    inOrder
+        .verify(errorReporting)
+        .error(eq("Parse error"), eq("Unable to parse line: " + broken2), any(IOException.class));
+  }
+
+  /** Errors in the data of a loadout are reported on the calling thread in input order. */
+  @Test
+  public void testImport_ParallelLoadoutErrorsReportedInOrder() throws Exception {
+    final List<Throwable> errors1 = List.of(new RuntimeException("1"));
+    final List<Throwable> errors3 = List.of(new RuntimeException("3"));
+    when(coder.parse(eq(code1), any()))
+        .thenAnswer(
+            aInvocation -> {
+              aInvocation.getArgument(1, ErrorReporter.class).error(null, loadout1, errors1);
+              return loadout1;
+            });
+    when(coder.parse(eq(code3), any()))
+        .thenAnswer(
+            aInvocation -> {
+              aInvocation.getArgument(1, ErrorReporter.class).error(null, loadout3, errors3);
+              return loadout3;
+            });
+    String data = "";
+    data += "{" + name1 + "} " + code1 + "\n";
+    data += "{" + name2 + "} " + code2 + "\n";
+    data += "{" + name3 + "} " + code3 + "\n";
+
+    cut.setParallelism(3);
+    final GarageDirectory<Loadout> root = cut.parse(data);
+
+    assertEquals(asList(loadout1, loadout2, loadout3), root.getValues());
+    final InOrder inOrder = inOrder(errorReporting);
+    inOrder.verify(errorReporting).error(null, loadout1, errors1);
+    inOrder.verify(errorReporting).error(null, loadout3, errors3);
+    verifyNoMoreInteractions(errorReporting);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetParallelism_Invalid() {
+    cut.setParallelism(0);
+  }
+
   @Test
   public void testImport_BadFormatReportedSpec() throws Exception {
     @SuppressWarnings("SpellCheckingInspection")
@@ -247,7 +381,7 @@ public class BatchImportExporterTest {
 
     cut.parse(data);
 
-    verify(coder, never()).parse(badLoadout);
+    verify(coder, never()).parse(eq(badLoadout), any());
     verify(errorReporting)
         .error(eq("Parse error"), eq("Unable to parse line: " + rubbish), errorArguments.capture());
 
@@ -264,7 +398,7 @@ public class BatchImportExporterTest {
     data += rubbishData + "\n";
 
     final DecodingException error = mock(DecodingException.class);
-    when(coder.parse(badLoadout)).thenThrow(error);
+    when(coder.parse(eq(badLoadout), any())).thenThrow(error);
 
     cut.parse(data);
 
@@ -0,0 +1,175 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.model.garage;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.lisoft.lsml.application.ErrorReporter;
+import org.lisoft.lsml.model.ChassisDB;
+import org.lisoft.lsml.model.export.LoadoutCoderV4;
+import org.lisoft.lsml.model.loadout.*;
+import org.lisoft.mwo_data.Faction;
+import org.lisoft.mwo_data.mechs.Chassis;
+import org.lisoft.mwo_data.mechs.ChassisClass;
+
+/**
+ * Test suite for {@link BinaryGarageSerializer}.
+ *
+ * @author Li Song
+ */
+public class BinaryGarageSerializerTest {
+  private final ErrorReporter erc = mock(ErrorReporter.class);
+  private final LoadoutFactory loadoutFactory = new DefaultLoadoutFactory();
+  private final BinaryGarageSerializer cut =
+      new BinaryGarageSerializer(new LoadoutCoderV4(erc, loadoutFactory));
+  private final GarageSerializer xmlSerializer =
+      new GarageSerializer(erc, loadoutFactory, new LoadoutBuilder());
+  @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void testAppend() throws Exception {
+    final Garage garage = makeGarage();
+    final File file = tmp.newFile("garage" + BinaryGarageSerializer.EXTENSION);
+    try (OutputStream out = new FileOutputStream(file)) {
+      cut.save(out, garage);
+    }
+
+    final Loadout appended = loadoutFactory.produceStock(ChassisDB.lookup("JR7-D"));
+    appended.setName("appended");
+    cut.append(file, List.of("Assault"), appended);
+    cut.append(file, List.of("new", "dir"), appended);
+
+    garage.getLoadoutRoot().makeDirsRecursive("Assault").getValues().add(appended);
+    garage.getLoadoutRoot().makeDirsRecursive("new/dir").getValues().add(appended);
+    assertEquals(garage, cut.load(file));
+  }
+
+  @Test
+  public void testLoad_Deferred() throws Exception {
+    final Garage loaded = cut.load(ByteBuffer.wrap(save(makeGarage())));
+
+    final LazyValueList<Loadout> values =
+        (LazyValueList<Loadout>) loaded.getLoadoutRoot().getDirectories().get(0).getValues();
+    assertFalse(values.isMaterialised(0));
+    assertEquals("first", values.getName(0));
+    assertEquals("first", values.get(0).getName());
+    assertTrue(values.isMaterialised(0));
+  }
+
+  @Test(expected = IOException.class)
+  public void testLoad_NotBinary() throws Exception {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    xmlSerializer.save(out, makeGarage());
+    cut.load(ByteBuffer.wrap(out.toByteArray()));
+  }
+
+  @Test
+  public void testSaveLoad() throws Exception {
+    final Garage garage = makeGarage();
+    final Loadout loadout = garage.getLoadoutRoot().getDirectories().get(0).getValues().get(0);
+    loadout.getWeaponGroups().setGroup(2, 1, true);
+    loadout.getWeaponGroups().setGroup(5, 15, true);
+
+    final Garage loaded = cut.load(ByteBuffer.wrap(save(garage)));
+
+    assertEquals(garage, loaded);
+    final Loadout loadedLoadout =
+        loaded.getLoadoutRoot().getDirectories().get(0).getValues().get(0);
+    for (int group = 0; group < WeaponGroups.MAX_GROUPS; ++group) {
+      for (int weapon = 0; weapon < WeaponGroups.MAX_WEAPONS; ++weapon) {
+        assertEquals(
+            loadout.getWeaponGroups().isInGroup(group, weapon),
+            loadedLoadout.getWeaponGroups().isInGroup(group, weapon));
+      }
+    }
+  }
+
+  @Test
+  public void testSave_CopiesDeferred() throws Exception {
+    final byte[] saved = save(makeGarage());
+    final Garage loaded = cut.load(ByteBuffer.wrap(saved));
+
+    assertArrayEquals(saved, save(loaded));
+    final LazyValueList<Loadout> values =
+        (LazyValueList<Loadout>) loaded.getLoadoutRoot().getDirectories().get(0).getValues();
+    assertFalse(values.isMaterialised(0));
+    assertNotNull(values.getSource(0));
+
+    values.get(0).setName("renamed");
+    assertNull(values.getSource(0));
+    assertEquals(loaded, cut.load(ByteBuffer.wrap(save(loaded))));
+  }
+
+  /** The binary format should be at least an order of magnitude smaller than the XML format. */
+  @Test
+  public void testSaveLoadAllStock() throws Exception {
+    final Garage garage = new Garage();
+    for (final ChassisClass chassisClass : ChassisClass.values()) {
+      if (chassisClass == ChassisClass.COLOSSAL) {
+        continue;
+      }
+      final GarageDirectory<Loadout> directory = new GarageDirectory<>(chassisClass.getUiName());
+      garage.getLoadoutRoot().getDirectories().add(directory);
+      for (final Chassis chassis : ChassisDB.lookup(chassisClass)) {
+        try {
+          directory.getValues().add(loadoutFactory.produceStock(chassis));
+        } catch (final Throwable e) {
+          // Ignore loadouts for which stock cannot be loaded due to errors in the data files.
+        }
+      }
+    }
+
+    final byte[] binary = save(garage);
+    assertEquals(garage, cut.load(ByteBuffer.wrap(binary)));
+
+    final ByteArrayOutputStream xml = new ByteArrayOutputStream();
+    xmlSerializer.save(xml, garage);
+    assertTrue(binary.length * 10 < xml.size());
+  }
+
+  private Garage makeGarage() throws Exception {
+    final Garage garage = new Garage();
+    final GarageDirectory<Loadout> assault = new GarageDirectory<>("Assault");
+    garage.getLoadoutRoot().getDirectories().add(assault);
+
+    final Loadout first = loadoutFactory.produceStock(ChassisDB.lookup("AS7-D-DC"));
+    first.setName("first");
+    assault.getValues().add(first);
+    garage.getLoadoutRoot().getValues().add(loadoutFactory.produceStock(ChassisDB.lookup("WHK-B")));
+
+    final DropShip dropShip = new DropShip(Faction.CLAN);
+    dropShip.setName("ship");
+    dropShip.setMech(1, loadoutFactory.produceStock(ChassisDB.lookup("TBR-PRIME")));
+    garage.getDropShipRoot().getDirectories().add(new GarageDirectory<>("ships"));
+    garage.getDropShipRoot().getDirectories().get(0).getValues().add(dropShip);
+    return garage;
+  }
+
+  private byte[] save(Garage aGarage) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    cut.save(out, aGarage);
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.model.garage;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.lisoft.lsml.application.ErrorReporter;
+import org.lisoft.lsml.messages.*;
+import org.lisoft.lsml.model.ChassisDB;
+import org.lisoft.lsml.model.loadout.*;
+import org.lisoft.mwo_data.Faction;
+
+/**
+ * Test suite for {@link GarageJournal}.
+ *
+ * @author Li Song
+ */
+public class GarageJournalTest {
+  private final ErrorReporter erc = mock(ErrorReporter.class);
+  private final LoadoutFactory loadoutFactory = new DefaultLoadoutFactory();
+  private final GarageSerializer serializer =
+      new GarageSerializer(erc, loadoutFactory, new LoadoutBuilder());
+  private final Garage garage = new Garage();
+  private final GarageDirectory<Loadout> subDir = new GarageDirectory<>("sub");
+  private byte[] saved;
+  private GarageJournal cut;
+
+  @Before
+  public void setup() {
+    garage.getLoadoutRoot().getDirectories().add(subDir);
+    garage.getLoadoutRoot().getValues().add(loadoutFactory.produceEmpty(ChassisDB.lookup("AS7-D")));
+    subDir.getValues().add(loadoutFactory.produceEmpty(ChassisDB.lookup("HBK-4J")));
+    subDir.getValues().add(loadoutFactory.produceEmpty(ChassisDB.lookup("TDR-5S")));
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    serializer.save(out, garage);
+    saved = out.toByteArray();
+    cut = new GarageJournal(garage, serializer);
+  }
+
+  @Test
+  public void testDirtyTracking() throws IOException {
+    assertFalse(cut.isDirty());
+
+    cut.receive(new LoadoutMessage(subDir.getValues().get(0), LoadoutMessage.Type.UPDATE));
+    assertTrue(cut.isDirty());
+
+    cut.write(new ByteArrayOutputStream(), true);
+    assertFalse(cut.isDirty());
+
+    cut.receive(new DropShipMessage());
+    assertTrue(cut.isDirty());
+    cut.clear();
+    assertFalse(cut.isDirty());
+  }
+
+  @Test
+  public void testReplay() throws IOException {
+    final ByteArrayOutputStream journal = new ByteArrayOutputStream();
+
+    // Edit a loadout in place
+    final Loadout edited = subDir.getValues().get(1);
+    edited.setName("edited");
+    cut.receive(new LoadoutMessage(edited, LoadoutMessage.Type.UPDATE));
+    cut.write(journal, true);
+
+    // Add a directory with a loadout, and a drop ship
+    final GarageDirectory<Loadout> newDir = new GarageDirectory<>("new");
+    newDir.getValues().add(loadoutFactory.produceEmpty(ChassisDB.lookup("JR7-D")));
+    subDir.getDirectories().add(newDir);
+    final GaragePath<Loadout> subPath =
+        new GaragePath<>(new GaragePath<>(garage.getLoadoutRoot()), subDir);
+    cut.receive(new GarageMessage<>(GarageMessageType.ADDED, new GaragePath<>(subPath, newDir)));
+    garage.getDropShipRoot().getValues().add(new DropShip(Faction.CLAN));
+    cut.receive(new DropShipMessage());
+
+    // Edit a loadout in the changed directory, covered by the directory record
+    subDir.getValues().get(0).setName("covered");
+    cut.receive(new LoadoutMessage(subDir.getValues().get(0), LoadoutMessage.Type.UPDATE));
+    cut.write(journal, false);
+
+    assertEquals(garage, replay(journal.toByteArray()));
+  }
+
+  @Test
+  public void testReplay_Truncated() throws IOException {
+    final ByteArrayOutputStream journal = new ByteArrayOutputStream();
+    final Loadout first = subDir.getValues().get(0);
+    first.setName("first");
+    cut.markDirty(first);
+    cut.write(journal, true);
+    final int firstLength = journal.size();
+
+    subDir.getValues().get(1).setName("second");
+    cut.markDirty(subDir.getValues().get(1));
+    cut.write(journal, false);
+
+    final Garage recovered = replay(Arrays.copyOf(journal.toByteArray(), journal.size() - 10));
+    final Garage firstOnly = replay(Arrays.copyOf(journal.toByteArray(), firstLength));
+    assertEquals(firstOnly, recovered);
+    final List<Loadout> values = recovered.getLoadoutRoot().getDirectories().get(0).getValues();
+    assertEquals("first", values.get(0).getName());
+    assertNotEquals("second", values.get(1).getName());
+  }
+
+  @Test(expected = IOException.class)
+  public void testReplay_Mismatch() throws IOException {
+    final ByteArrayOutputStream journal = new ByteArrayOutputStream();
+    cut.markDirty(subDir.getValues().get(1));
+    cut.write(journal, true);
+
+    final Garage other = serializer.load(new ByteArrayInputStream(saved));
+    other.getLoadoutRoot().getDirectories().get(0).getValues().remove(0);
+    final InputStream in = new ByteArrayInputStream(journal.toByteArray());
+    assertTrue(GarageJournal.isJournal(in));
+    GarageJournal.replay(in, other, serializer);
+  }
+
+  @Test
+  public void testIsJournal_NotAJournal() throws IOException {
+    final InputStream in = new BufferedInputStream(new ByteArrayInputStream(saved));
+    assertFalse(GarageJournal.isJournal(in));
+    assertEquals(saved[0], in.read());
+  }
+
+  private Garage replay(byte[] aJournal) throws IOException {
+    final Garage recovered = serializer.load(new ByteArrayInputStream(saved));
+    final InputStream in = new ByteArrayInputStream(aJournal);
+    assertTrue(GarageJournal.isJournal(in));
+    GarageJournal.replay(in, recovered, serializer);
+    return recovered;
+  }
+}
@@ -25,6 +25,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 import org.junit.Test;
@@ -98,6 +100,52 @@ public class GarageSerialiserTest {
     assertEquals(garage, loaded);
   }
 
+  /** Loadouts must be streamed from all directories, but loadouts in drop ships are skipped. */
+  @Test
+  public void testForEachLoadout() throws Exception {
+    final Garage garage = new Garage();
+    final GarageDirectory<Loadout> directory = new GarageDirectory<>("dir");
+    garage.getLoadoutRoot().getDirectories().add(directory);
+    final Loadout atlas = loadoutFactory.produceStock(ChassisDB.lookup("AS7-D-DC"));
+    final Loadout whk = loadoutFactory.produceStock(ChassisDB.lookup("WHK-B"));
+    directory.getValues().add(atlas);
+    garage.getLoadoutRoot().getValues().add(whk);
+    final DropShip dropShip = new DropShip(Faction.CLAN);
+    dropShip.setMech(0, loadoutFactory.produceStock(ChassisDB.lookup("TBR-PRIME")));
+    garage.getDropShipRoot().getValues().add(dropShip);
+
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    cut.save(outputStream, garage);
+    final List<Loadout> loadouts = new ArrayList<>();
+    cut.forEachLoadout(new ByteArrayInputStream(outputStream.toByteArray()), loadouts::add);
+
+    assertEquals(2, loadouts.size());
+    assertTrue(loadouts.contains(atlas));
+    assertTrue(loadouts.contains(whk));
+  }
+
+  @Test
+  public void testLoadDeferred() throws Exception {
+    final Garage garage = new Garage();
+    final GarageDirectory<Loadout> directory = new GarageDirectory<>("dir");
+    garage.getLoadoutRoot().getDirectories().add(directory);
+    directory.getValues().add(loadoutFactory.produceStock(ChassisDB.lookup("AS7-D-DC")));
+    garage.getLoadoutRoot().getValues().add(loadoutFactory.produceStock(ChassisDB.lookup("WHK-B")));
+    garage.getDropShipRoot().getValues().add(new DropShip(Faction.CLAN));
+
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    cut.save(outputStream, garage);
+    final Garage loaded = cut.loadDeferred(new ByteArrayInputStream(outputStream.toByteArray()));
+
+    final LazyValueList<Loadout> values =
+        (LazyValueList<Loadout>) loaded.getLoadoutRoot().getDirectories().get(0).getValues();
+    assertFalse(values.isMaterialised(0));
+    assertEquals(directory.getValues().get(0).getName(), values.getName(0));
+
+    assertEquals(garage, loaded);
+    assertTrue(values.isMaterialised(0));
+  }
+
   @Test
   public void testSaveLoadDropShips() throws IOException {
     final Garage garage = new Garage();
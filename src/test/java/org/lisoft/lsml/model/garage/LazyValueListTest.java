@@ -0,0 +1,144 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.model.garage;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+/**
+ * Test suite for {@link LazyValueList}.
+ *
+ * @author Li Song
+ */
+public class LazyValueListTest {
+  private final AtomicInteger decoded = new AtomicInteger();
+  private final LazyValueList<String> cut = new LazyValueList<>();
+
+  @Test
+  public void testClear_DoesNotDecode() {
+    cut.addDeferred("a", () -> decode("A"));
+    cut.clear();
+    assertTrue(cut.isEmpty());
+    assertEquals(0, decoded.get());
+  }
+
+  @Test
+  public void testGet_DecodesOnce() {
+    cut.add("x");
+    cut.addDeferred("a", () -> decode("A"));
+
+    assertEquals(2, cut.size());
+    assertTrue(cut.isMaterialised(0));
+    assertFalse(cut.isMaterialised(1));
+    assertEquals("a", cut.getName(1));
+    assertEquals(0, decoded.get());
+
+    assertEquals("A", cut.get(1));
+    assertEquals("A", cut.get(1));
+    assertEquals(1, decoded.get());
+    assertTrue(cut.isMaterialised(1));
+  }
+
+  @Test
+  public void testGet_DecodeFailure() {
+    cut.addDeferred(
+        "a",
+        () -> {
+          throw new IllegalStateException();
+        });
+
+    cut.materialiseAll();
+    assertFalse(cut.isMaterialised(0));
+    try {
+      cut.get(0);
+      fail("Expected exception!");
+    } catch (final IllegalStateException e) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testGetSource() {
+    cut.addDeferred("a", () -> decode("A"), "encoded");
+    cut.addDeferred("b", () -> decode("B"));
+
+    assertEquals("encoded", cut.getSource(0));
+    assertNull(cut.getSource(1));
+    cut.get(0);
+    assertNull(cut.getSource(0));
+  }
+
+  @Test
+  public void testListSemantics() {
+    cut.addDeferred("a", () -> decode("A"));
+    cut.addDeferred("b", () -> decode("B"));
+    cut.add(1, "x");
+
+    assertEquals(List.of("A", "x", "B"), cut);
+    assertEquals("A", cut.set(0, "y"));
+    assertEquals("x", cut.remove(1));
+    assertEquals(List.of("y", "B"), cut);
+  }
+
+  @Test
+  public void testRemove_DoesNotDecode() {
+    cut.addDeferred("a", () -> decode("A"));
+    cut.add("x");
+
+    assertNull(cut.remove(0));
+    assertEquals(List.of("x"), cut);
+    assertEquals(0, decoded.get());
+  }
+
+  @Test
+  public void testSet_DoesNotDecode() {
+    cut.addDeferred(
+        "a",
+        () -> {
+          throw new IllegalStateException();
+        });
+    cut.addDeferred("b", () -> decode("B"));
+
+    assertNull(cut.set(0, "x"));
+    assertNull(cut.set(1, "y"));
+    assertEquals(List.of("x", "y"), cut);
+    assertEquals(0, decoded.get());
+  }
+
+  @Test
+  public void testMaterialiseAll() {
+    cut.addDeferred("a", () -> decode("A"));
+    cut.addDeferred("b", () -> decode("B"));
+
+    cut.materialiseAll();
+
+    assertEquals(2, decoded.get());
+    assertTrue(cut.isMaterialised(0));
+    assertTrue(cut.isMaterialised(1));
+    assertEquals(List.of("A", "B"), cut);
+    assertEquals(2, decoded.get());
+  }
+
+  private String decode(String aValue) {
+    decoded.incrementAndGet();
+    return aValue;
+  }
+}
@@ -32,6 +32,7 @@ import org.lisoft.mwo_data.equipment.Engine;
 import org.lisoft.mwo_data.equipment.HeatSink;
 import org.lisoft.mwo_data.equipment.Internal;
 import org.lisoft.mwo_data.equipment.Item;
+import org.lisoft.mwo_data.equipment.JumpJet;
 import org.lisoft.mwo_data.mechs.ArmourSide;
 import org.lisoft.mwo_data.mechs.Component;
 import org.lisoft.mwo_data.mechs.HardPointType;
@@ -413,6 +414,91 @@ public abstract class ConfiguredComponentTest {
     assertEquals(3, cut.getItemsOfHardpointType(HardPointType.ENERGY));
   }
 
+  @Test
+  public final void testGetItemsOfHardpointType_AddRemove() {
+    final Item fixed = Mockito.mock(Item.class);
+    Mockito.when(fixed.getHardpointType()).thenReturn(HardPointType.ENERGY);
+    Mockito.when(fixed.getMass()).thenReturn(2.0);
+    internalFixedItems.add(fixed);
+
+    final Item item1 = Mockito.mock(Item.class);
+    Mockito.when(item1.getHardpointType()).thenReturn(HardPointType.ENERGY);
+    Mockito.when(item1.getMass()).thenReturn(5.0);
+    final Item item2 = Mockito.mock(Item.class);
+    Mockito.when(item2.getHardpointType()).thenReturn(HardPointType.MISSILE);
+    Mockito.when(item2.getMass()).thenReturn(7.0);
+
+    final ConfiguredComponent cut = makeDefaultCUT();
+    cut.addItem(item1);
+    cut.addItem(item2);
+    assertEquals(2, cut.getItemsOfHardpointType(HardPointType.ENERGY));
+    assertEquals(1, cut.getItemsOfHardpointType(HardPointType.MISSILE));
+    assertEquals(14.0, cut.getItemMass(), 0.0);
+
+    cut.removeItem(item1);
+    assertEquals(1, cut.getItemsOfHardpointType(HardPointType.ENERGY));
+    assertEquals(1, cut.getItemsOfHardpointType(HardPointType.MISSILE));
+    assertEquals(9.0, cut.getItemMass(), 0.0);
+    assertTrue(cut.checkAggregates());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public final void testCheckAggregates_StaleItemMass() {
+    final Item item = Mockito.mock(Item.class);
+    Mockito.when(item.getMass()).thenReturn(5.0);
+
+    final ConfiguredComponent cut = makeDefaultCUT();
+    cut.addItem(item);
+    assertEquals(5.0, cut.getItemMass(), 0.0);
+
+    Mockito.when(item.getMass()).thenReturn(7.0);
+    cut.checkAggregates();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public final void testCheckAggregates_StaleSlotsUsed() {
+    final Item item = Mockito.mock(Item.class);
+    Mockito.when(item.getSlots()).thenReturn(5);
+
+    final ConfiguredComponent cut = makeDefaultCUT();
+    cut.addItem(item);
+    assertEquals(5, cut.getSlotsUsed());
+
+    Mockito.when(item.getSlots()).thenReturn(7);
+    cut.checkAggregates();
+  }
+
+  @Test
+  public final void testGetExternalHeatSinksCount() {
+    internalFixedItems.add(ItemDB.SHS);
+    final ConfiguredComponent cut = makeDefaultCUT();
+    assertEquals(1, cut.getExternalHeatSinksCount());
+
+    cut.addItem(ItemDB.DHS);
+    cut.addItem(ItemDB.AMS);
+    cut.addItem(ItemDB.DHS);
+    assertEquals(3, cut.getExternalHeatSinksCount());
+
+    cut.removeItem(ItemDB.DHS);
+    assertEquals(2, cut.getExternalHeatSinksCount());
+  }
+
+  @Test
+  public final void testGetJumpJetCount() {
+    final JumpJet fixed = mock(JumpJet.class);
+    internalFixedItems.add(fixed);
+    final JumpJet jj = mock(JumpJet.class);
+
+    final ConfiguredComponent cut = makeDefaultCUT();
+    cut.addItem(jj);
+    cut.addItem(ItemDB.AMS);
+    cut.addItem(jj);
+    assertEquals(3, cut.getJumpJetCount());
+
+    cut.removeItem(jj);
+    assertEquals(2, cut.getJumpJetCount());
+  }
+
   @Test
   public final void testGetSlotsFreeUsed() {
     slots = 20;
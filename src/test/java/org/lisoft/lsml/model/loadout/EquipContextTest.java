@@ -0,0 +1,107 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.model.loadout;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.Collection;
+import java.util.Map;
+import org.junit.Test;
+import org.lisoft.lsml.model.ChassisDB;
+import org.lisoft.lsml.model.ItemDB;
+import org.lisoft.lsml.model.loadout.EquipResult.EquipResultType;
+import org.lisoft.mwo_data.equipment.Item;
+import org.lisoft.mwo_data.mechs.Chassis;
+import org.lisoft.mwo_data.mechs.Location;
+import org.lisoft.mwo_data.mechs.Upgrades;
+
+/**
+ * Test suite for {@link EquipContext} and {@link Loadout#evaluateEquippability(Collection)}.
+ *
+ * @author Li Song
+ */
+public class EquipContextTest {
+  private final LoadoutFactory loadoutFactory = new DefaultLoadoutFactory();
+
+  /** The batch evaluation must agree with {@link Loadout#canEquipDirectly(Item)} for all items. */
+  @Test
+  public void testEvaluateEquippability_SameAsCanEquipDirectly() throws Exception {
+    final Collection<Item> items = ItemDB.lookup(Item.class);
+    for (final String name : new String[] {"AS7-D-DC", "TBR-PRIME", "JR7-F", "KGC-000"}) {
+      final Chassis chassis = ChassisDB.lookup(name);
+      for (final Loadout loadout :
+          new Loadout[] {
+            loadoutFactory.produceEmpty(chassis), loadoutFactory.produceStock(chassis)
+          }) {
+        final Map<Item, EquipResult> results = loadout.evaluateEquippability(items);
+        for (final Item item : items) {
+          assertEquals(loadout + ": " + item, loadout.canEquipDirectly(item), results.get(item));
+        }
+      }
+    }
+  }
+
+  /** A single item that fails an early rule must not compute the rest of the loadout state. */
+  @Test
+  public void testEvaluate_NotSupported_Lazy() {
+    final Item item = mock(Item.class);
+    final Chassis chassis = mock(Chassis.class);
+    final Loadout loadout = mock(Loadout.class);
+    when(loadout.getChassis()).thenReturn(chassis);
+    when(chassis.isAllowed(item)).thenReturn(false);
+
+    assertEquals(
+        EquipResult.make(EquipResultType.NotSupported), new EquipContext(loadout).evaluate(item));
+
+    verify(loadout, never()).getFreeMass();
+    verifyNothingComputed(loadout);
+  }
+
+  /** Only the free mass is needed to reject a too heavy item. */
+  @Test
+  public void testEvaluateGlobal_TooHeavy_Lazy() {
+    final Item item = mock(Item.class);
+    final Chassis chassis = mock(Chassis.class);
+    final Loadout loadout = mock(Loadout.class);
+    when(loadout.getChassis()).thenReturn(chassis);
+    when(loadout.getUpgrades()).thenReturn(mock(Upgrades.class));
+    when(loadout.getFreeMass()).thenReturn(1.0);
+    when(chassis.isAllowed(item)).thenReturn(true);
+    when(item.getMass()).thenReturn(2.0);
+
+    final EquipContext cut = new EquipContext(loadout);
+    assertEquals(EquipResult.make(EquipResultType.TooHeavy), cut.evaluateGlobal(item));
+    assertEquals(EquipResult.make(EquipResultType.TooHeavy), cut.evaluateGlobal(item));
+
+    verify(loadout, times(1)).getFreeMass();
+    verifyNothingComputed(loadout);
+  }
+
+  private static void verifyNothingComputed(Loadout aLoadout) {
+    verify(aLoadout, never()).getFreeSlots();
+    verify(aLoadout, never()).getHardPointsCount(any());
+    verify(aLoadout, never()).getItemsOfHardPointType(any());
+    verify(aLoadout, never()).getJumpJetsMax();
+    verify(aLoadout, never()).getEngine();
+    verify(aLoadout, never()).items(any());
+    verify(aLoadout, never()).getComponent(any(Location.class));
+    verify(aLoadout, never()).getComponents();
+  }
+}
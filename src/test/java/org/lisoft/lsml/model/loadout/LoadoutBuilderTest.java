@@ -0,0 +1,192 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.model.loadout;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.lisoft.lsml.application.ErrorReporter;
+import org.lisoft.lsml.command.*;
+import org.lisoft.lsml.model.ChassisDB;
+import org.lisoft.lsml.model.ItemDB;
+import org.lisoft.lsml.util.CommandStack;
+import org.lisoft.lsml.util.CommandStack.Command;
+import org.lisoft.mwo_data.equipment.Consumable;
+import org.lisoft.mwo_data.equipment.Internal;
+import org.lisoft.mwo_data.equipment.Item;
+import org.lisoft.mwo_data.mechs.ArmourSide;
+import org.lisoft.mwo_data.mechs.Chassis;
+import org.lisoft.mwo_data.mechs.ChassisClass;
+import org.lisoft.mwo_data.mechs.Location;
+
+/**
+ * Test suite for {@link LoadoutBuilder}.
+ *
+ * @author Li Song
+ */
+public class LoadoutBuilderTest {
+  private final LoadoutBuilder cut = new LoadoutBuilder();
+  private final ErrorReporter errorReporter = mock(ErrorReporter.class);
+  private final LoadoutFactory loadoutFactory = new DefaultLoadoutFactory();
+
+  /**
+   * Broken data shall be rolled back and applied with the checked commands so that the same errors
+   * are reported as before.
+   */
+  @Test
+  public void testApplyAll_Fallback() throws Exception {
+    final Chassis chassis = ChassisDB.lookup("AS7-D");
+    final Loadout loadout = loadoutFactory.produceEmpty(chassis);
+    final Item engine = ItemDB.lookup("STD ENGINE 300");
+    final Item ac20 = ItemDB.lookup("AC/20");
+    cut.push(new CmdAddItem(null, loadout, loadout.getComponent(Location.CenterTorso), engine));
+    cut.push(new CmdAddItem(null, loadout, loadout.getComponent(Location.CenterTorso), engine));
+    cut.push(new CmdAddItem(null, loadout, loadout.getComponent(Location.RightTorso), ac20));
+
+    cut.applyAll();
+    cut.reportErrors(loadout, errorReporter);
+
+    assertEquals(1, countItems(loadout, engine));
+    assertEquals(1, countItems(loadout, ac20));
+    verify(errorReporter).error(any(), eq(loadout), anyList());
+  }
+
+  /** The trusted path shall produce exactly the same loadout as the checked commands. */
+  @Test
+  public void testApplyAll_SameAsCommands() throws Exception {
+    final List<Chassis> chassii = new ArrayList<>(ChassisDB.lookup(ChassisClass.LIGHT));
+    chassii.addAll(ChassisDB.lookup(ChassisClass.MEDIUM));
+    chassii.addAll(ChassisDB.lookup(ChassisClass.HEAVY));
+    chassii.addAll(ChassisDB.lookup(ChassisClass.ASSAULT));
+
+    for (final Chassis chassis : chassii) {
+      final Loadout stock;
+      try {
+        stock = loadoutFactory.produceStock(chassis);
+      } catch (final Throwable e) {
+        // Ignore loadouts that cannot be loaded due to errors in data files.
+        continue;
+      }
+
+      final Loadout checked = loadoutFactory.produceEmpty(chassis);
+      final LoadoutBuilder reference = new LoadoutBuilder();
+      pushCopy(stock, checked, reference);
+      final CommandStack stack = new CommandStack(0);
+      for (final Command command : reference.getAllCommands()) {
+        stack.pushAndApply(command);
+      }
+
+      final Loadout trusted = loadoutFactory.produceEmpty(chassis);
+      cut.reset();
+      pushCopy(stock, trusted, cut);
+      cut.applyAll();
+      cut.reportErrors(trusted, errorReporter);
+
+      assertEquals(checked, trusted);
+    }
+    verifyNoInteractions(errorReporter);
+  }
+
+  /** Applying valid commands shall not report any errors. */
+  @Test
+  public void testApplyAll_Valid() throws Exception {
+    final Chassis chassis = ChassisDB.lookup("AS7-D");
+    final Loadout loadout = loadoutFactory.produceEmpty(chassis);
+    final Item engine = ItemDB.lookup("STD ENGINE 300");
+    final Item ac20 = ItemDB.lookup("AC/20");
+    cut.push(new CmdAddItem(null, loadout, loadout.getComponent(Location.RightTorso), ac20));
+    cut.push(new CmdAddItem(null, loadout, loadout.getComponent(Location.CenterTorso), engine));
+    cut.push(new CmdSetArmour(null, loadout, Location.CenterTorso, ArmourSide.FRONT, 40, true));
+
+    cut.applyAll();
+    cut.reportErrors(loadout, errorReporter);
+
+    assertEquals(1, countItems(loadout, engine));
+    assertEquals(1, countItems(loadout, ac20));
+    assertEquals(40, loadout.getComponent(Location.CenterTorso).getArmour(ArmourSide.FRONT));
+    verifyNoInteractions(errorReporter);
+  }
+
+  private static int countItems(Loadout aLoadout, Item aItem) {
+    int ans = 0;
+    for (final Item item : aLoadout.items()) {
+      if (item == aItem) {
+        ans++;
+      }
+    }
+    return ans;
+  }
+
+  /** Pushes the commands needed to turn the empty loadout into a copy of the source. */
+  private static void pushCopy(Loadout aSource, Loadout aTarget, LoadoutBuilder aBuilder) {
+    aTarget.setName(aSource.getName());
+    if (aTarget instanceof final LoadoutStandard target) {
+      final LoadoutStandard source = (LoadoutStandard) aSource;
+      aBuilder.push(new CmdSetArmourType(null, target, source.getUpgrades().getArmour()));
+      aBuilder.push(new CmdSetStructureType(null, target, source.getUpgrades().getStructure()));
+      aBuilder.push(new CmdSetHeatSinkType(null, target, source.getUpgrades().getHeatSink()));
+    } else {
+      final LoadoutOmniMech source = (LoadoutOmniMech) aSource;
+      final LoadoutOmniMech target = (LoadoutOmniMech) aTarget;
+      for (final Location location : Location.values()) {
+        final ConfiguredComponentOmniMech component = source.getComponent(location);
+        if (!component.getInternalComponent().hasFixedOmniPod()) {
+          aBuilder.push(
+              new CmdSetOmniPod(
+                  null, target, target.getComponent(location), component.getOmniPod()));
+        }
+      }
+      for (final Location location : new Location[] {Location.LeftArm, Location.RightArm}) {
+        final ConfiguredComponentOmniMech component = source.getComponent(location);
+        for (final Item toggleable : new Item[] {ItemDB.LAA, ItemDB.HA}) {
+          aBuilder.push(
+              new CmdToggleItem(
+                  null,
+                  target,
+                  target.getComponent(location),
+                  toggleable,
+                  component.getToggleState(toggleable)));
+        }
+      }
+    }
+    aBuilder.push(new CmdSetGuidanceType(null, aTarget, aSource.getUpgrades().getGuidance()));
+
+    for (final ConfiguredComponent component : aSource.getComponents()) {
+      final Location location = component.getInternalComponent().getLocation();
+      for (final ArmourSide side : ArmourSide.allSides(component.getInternalComponent())) {
+        final int armour = component.getArmour(side);
+        final boolean manual = component.hasManualArmour();
+        aBuilder.push(new CmdSetArmour(null, aTarget, location, side, armour, manual));
+      }
+      for (final Item item : component.getItemsEquipped()) {
+        if (!(item instanceof Internal)) {
+          aBuilder.push(new CmdAddItem(null, aTarget, aTarget.getComponent(location), item));
+        }
+      }
+    }
+    for (final Consumable consumable : aSource.getConsumables()) {
+      aBuilder.push(new CmdAddModule(null, aTarget, consumable));
+    }
+  }
+}
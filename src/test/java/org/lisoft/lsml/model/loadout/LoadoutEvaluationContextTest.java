@@ -0,0 +1,125 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.model.loadout;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Collection;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.lisoft.lsml.messages.Message;
+import org.lisoft.lsml.messages.MessageXBar;
+import org.lisoft.lsml.model.helpers.MockLoadoutContainer;
+import org.lisoft.mwo_data.equipment.Weapon;
+import org.lisoft.mwo_data.modifiers.Modifier;
+
+/**
+ * Test suite for {@link LoadoutEvaluationContext}.
+ *
+ * @author Li Song
+ */
+public class LoadoutEvaluationContextTest {
+  private final MockLoadoutContainer mlc = new MockLoadoutContainer();
+  private final Collection<Modifier> modifiers = List.of(mock(Modifier.class));
+  private final Weapon weapon = mock(Weapon.class);
+  private final MessageXBar xBar = new MessageXBar();
+
+  @Before
+  public void setup() {
+    when(mlc.loadout.getAllModifiers()).thenReturn(modifiers);
+    when(mlc.loadout.items(Weapon.class)).thenReturn(List.of(weapon));
+    when(mlc.weaponGroups.getWeapons(1, mlc.loadout)).thenReturn(List.of(weapon));
+    when(weapon.getRangeEffectiveness(eq(100.0), any())).thenReturn(0.5);
+    when(weapon.getStat(eq("d/s"), any())).thenReturn(3.0);
+  }
+
+  @Test
+  public void testInvalidatedByMessageForLoadout() {
+    final LoadoutEvaluationContext cut = new LoadoutEvaluationContext(mlc.loadout, xBar);
+    cut.getModifiers();
+    cut.getWeapons(-1);
+    cut.getRangeEffectiveness(weapon, 100.0);
+    assertEquals(7.0, cut.memoise(this, () -> 7.0), 0.0);
+
+    final Message msg = mock(Message.class);
+    when(msg.isForMe(mlc.loadout)).thenReturn(true);
+    xBar.post(msg);
+
+    cut.getModifiers();
+    cut.getWeapons(-1);
+    cut.getRangeEffectiveness(weapon, 100.0);
+    assertEquals(8.0, cut.memoise(this, () -> 8.0), 0.0);
+
+    verify(mlc.loadout, times(2)).getAllModifiers();
+    verify(mlc.loadout, times(2)).items(Weapon.class);
+    verify(weapon, times(2)).getRangeEffectiveness(eq(100.0), any());
+  }
+
+  @Test
+  public void testMemoised() {
+    final LoadoutEvaluationContext cut = new LoadoutEvaluationContext(mlc.loadout, xBar);
+
+    for (int i = 0; i < 3; ++i) {
+      assertEquals(modifiers, List.copyOf(cut.getModifiers()));
+      assertEquals(List.of(weapon), cut.getWeapons(-1));
+      assertEquals(List.of(weapon), cut.getWeapons(1));
+      assertEquals(0.5, cut.getRangeEffectiveness(weapon, 100.0), 0.0);
+      assertEquals(3.0, cut.getStat(weapon, "d/s"), 0.0);
+      assertEquals(7.0, cut.memoise(this, () -> 7.0), 0.0);
+    }
+
+    verify(mlc.loadout, times(1)).getAllModifiers();
+    verify(mlc.loadout, times(1)).items(Weapon.class);
+    verify(mlc.weaponGroups, times(1)).getWeapons(1, mlc.loadout);
+    verify(weapon, times(1)).getRangeEffectiveness(eq(100.0), any());
+    verify(weapon, times(1)).getStat(eq("d/s"), any());
+  }
+
+  @Test
+  public void testNotInvalidatedByMessageForOtherLoadout() {
+    final LoadoutEvaluationContext cut = new LoadoutEvaluationContext(mlc.loadout, xBar);
+    cut.getModifiers();
+
+    final Message msg = mock(Message.class);
+    when(msg.isForMe(mlc.loadout)).thenReturn(false);
+    xBar.post(msg);
+    cut.getModifiers();
+
+    verify(mlc.loadout, times(1)).getAllModifiers();
+  }
+
+  @Test
+  public void testNotAttached() {
+    final LoadoutEvaluationContext cut = new LoadoutEvaluationContext(mlc.loadout);
+    assertSame(mlc.loadout, cut.getLoadout());
+
+    assertSame(modifiers, cut.getModifiers());
+    assertSame(modifiers, cut.getModifiers());
+    assertEquals(1.0, cut.memoise(this, () -> 1.0), 0.0);
+    assertEquals(2.0, cut.memoise(this, () -> 2.0), 0.0);
+
+    verify(mlc.loadout, times(2)).getAllModifiers();
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testWeaponsUnmodifiable() {
+    new LoadoutEvaluationContext(mlc.loadout, xBar).getWeapons(-1).clear();
+  }
+}
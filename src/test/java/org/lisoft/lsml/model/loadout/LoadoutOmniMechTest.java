@@ -326,6 +326,10 @@ public class LoadoutOmniMechTest extends LoadoutTest {
       when(components[i].getItemsEquipped()).thenReturn(empty);
     }
 
+    when(components[0].getExternalHeatSinksCount()).thenReturn(1);
+    when(components[2].getExternalHeatSinksCount()).thenReturn(3);
+    when(components[3].getExternalHeatSinksCount()).thenReturn(1);
+
     assertEquals(8, makeDefaultCUT().getTotalHeatSinksCount());
     assertEquals(5, makeDefaultCUT().getExternalHeatSinksCount());
   }
@@ -277,6 +277,10 @@ public class LoadoutStandardTest extends LoadoutTest {
       when(components[i].getItemsEquipped()).thenReturn(empty);
     }
 
+    when(components[2].getExternalHeatSinksCount()).thenReturn(3);
+    when(components[3].getExternalHeatSinksCount()).thenReturn(1);
+    when(components[4].getExternalHeatSinksCount()).thenReturn(1);
+
     Assert.assertEquals(8, makeDefaultCUT().getTotalHeatSinksCount());
     Assert.assertEquals(5, makeDefaultCUT().getExternalHeatSinksCount());
   }
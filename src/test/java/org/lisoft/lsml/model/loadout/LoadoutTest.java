@@ -504,42 +504,10 @@ public abstract class LoadoutTest {
 
   @Test
   public final void testGetJumpJetCount() {
-    final List<Item> empty = new ArrayList<>();
-    final List<Item> fixed1 = new ArrayList<>();
-    final List<Item> fixed2 = new ArrayList<>();
-    final List<Item> equipped1 = new ArrayList<>();
-    final List<Item> equipped2 = new ArrayList<>();
-
-    final JumpJet jj = mock(JumpJet.class);
-
-    fixed1.add(ItemDB.BAP);
-    fixed1.add(jj);
-
-    fixed2.add(ItemDB.SHS);
-
-    equipped1.add(ItemDB.AMS);
-    equipped1.add(jj);
-    equipped1.add(jj);
-
-    equipped2.add(ItemDB.DHS);
-    equipped2.add(ItemDB.DHS);
-    equipped2.add(ItemDB.DHS);
-
-    when(components[0].getItemsFixed()).thenReturn(fixed1);
-    when(components[0].getItemsEquipped()).thenReturn(equipped1);
-    when(components[1].getItemsFixed()).thenReturn(empty);
-    when(components[1].getItemsEquipped()).thenReturn(empty);
-    when(components[2].getItemsFixed()).thenReturn(empty);
-    when(components[2].getItemsEquipped()).thenReturn(equipped2);
-    when(components[3].getItemsFixed()).thenReturn(fixed2);
-    when(components[3].getItemsEquipped()).thenReturn(empty);
-
-    for (int i = 4; i < Location.values().length; ++i) {
-      when(components[i].getItemsFixed()).thenReturn(empty);
-      when(components[i].getItemsEquipped()).thenReturn(empty);
-    }
+    when(components[0].getJumpJetCount()).thenReturn(3); // 1 fixed + 2 equipped
+    when(components[2].getJumpJetCount()).thenReturn(2);
 
-    assertEquals(3, makeDefaultCUT().getJumpJetCount());
+    assertEquals(5, makeDefaultCUT().getJumpJetCount());
   }
 
   @Test
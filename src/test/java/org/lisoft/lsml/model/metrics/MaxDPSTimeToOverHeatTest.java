@@ -21,7 +21,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyDouble;
 
+import java.util.Optional;
 import org.junit.Test;
+import org.lisoft.lsml.model.metrics.helpers.HeatEventSolver;
 import org.mockito.Mockito;
 
 /**
@@ -50,6 +52,23 @@ public class MaxDPSTimeToOverHeatTest {
     assertEquals(60.0, cut.calculate(), 0.6); // 1% tolerance
   }
 
+  /** The analytic solution is exact and doesn't sample the heat over time. */
+  @Test
+  public void testCalculate_HeatEvents() {
+    final HeatCapacity capacity = Mockito.mock(HeatCapacity.class);
+    final HeatOverTime generation = Mockito.mock(HeatOverTime.class);
+    final HeatDissipation dissipation = Mockito.mock(HeatDissipation.class);
+
+    Mockito.when(capacity.calculate()).thenReturn(60.0);
+    Mockito.when(dissipation.calculate()).thenReturn(4.0);
+    Mockito.when(generation.getHeatEvents())
+        .thenReturn(Optional.of(HeatEventSolver.constant(5.0)));
+
+    final MaxDPSTimeToOverHeat cut = new MaxDPSTimeToOverHeat(capacity, generation, dissipation);
+    assertEquals(60.0, cut.calculate(), 0.0);
+    Mockito.verify(generation, Mockito.never()).calculate(anyDouble());
+  }
+
   /**
    * When heat is given as pulses the mech can cool down between pulses. But not to negative heat.
    */
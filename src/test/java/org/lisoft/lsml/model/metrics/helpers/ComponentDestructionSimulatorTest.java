@@ -18,6 +18,7 @@
 package org.lisoft.lsml.model.metrics.helpers;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.List;
@@ -99,6 +100,29 @@ public class ComponentDestructionSimulatorTest {
     assertEquals(P_hit, cut.getProbabilityOfDestruction(item), 0.0001);
   }
 
+  /**
+   * A component full of small items used to explode combinatorially. Items that only differ in
+   * identity must have the same probability of destruction, regardless of how many there are.
+   */
+  @Test(timeout = 5000)
+  public void testManySmallItems() {
+    final Item heatSink = makeTestItem(3, 10.0);
+    final Item ammoA = makeTestItem(1, 10.0);
+    final Item ammoB = makeTestItem(1, 10.0);
+    final ConfiguredComponent component =
+        makeTestComponent(
+            62.0,
+            Arrays.asList(heatSink, heatSink, heatSink, ammoA, ammoA, ammoA, ammoB, ammoB, ammoB));
+    final ComponentDestructionSimulator cut = new ComponentDestructionSimulator(component);
+
+    cut.simulate(null);
+
+    final double P_ammo = cut.getProbabilityOfDestruction(ammoA);
+    assertEquals(P_ammo, cut.getProbabilityOfDestruction(ammoB), 1E-9);
+    assertTrue(P_ammo > 0.0 && P_ammo <= 1.0);
+    assertTrue(cut.getProbabilityOfDestruction(heatSink) > P_ammo);
+  }
+
   // TODO: Add test to test with modifiers
 
   private ConfiguredComponent makeTestComponent(double aHP, List<Item> aItems) {
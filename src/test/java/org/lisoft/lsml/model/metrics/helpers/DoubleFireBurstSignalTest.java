@@ -37,6 +37,11 @@ import org.lisoft.mwo_data.modifiers.Modifier;
  */
 @SuppressWarnings("unchecked")
 public class DoubleFireBurstSignalTest {
+  /**
+   * The probabilities of the branches are computed in double precision in log space and may be a
+   * few ulp off, but an incomplete set of branches would be off by a whole branch.
+   */
+  private static final double MASS_TOLERANCE = 1e-14;
 
   @Test
   public void testAsymptoticRAC2() throws NoSuchItemException {
@@ -48,7 +53,7 @@ public class DoubleFireBurstSignalTest {
     double longTime = 10 * 60;
     assertEquals(
         weapon.getStat("d/s", modifiers), cut.integrateFromZeroTo(longTime) / longTime, 0.3);
-    assertEquals(1.0, cut.getProbabilityMass(), 0.0);
+    assertEquals(1.0, cut.getProbabilityMass(), MASS_TOLERANCE);
   }
 
   @Test
@@ -61,7 +66,7 @@ public class DoubleFireBurstSignalTest {
     double longTime = 10 * 60;
     assertEquals(
         weapon.getStat("d/s", modifiers), cut.integrateFromZeroTo(longTime) / longTime, 0.3);
-    assertEquals(1.0, cut.getProbabilityMass(), 0.0);
+    assertEquals(1.0, cut.getProbabilityMass(), MASS_TOLERANCE);
   }
 
   @Test
@@ -75,7 +80,7 @@ public class DoubleFireBurstSignalTest {
     double longTime = 60 * 60;
     assertEquals(
         weapon.getStat("d/s", modifiers), cut.integrateFromZeroTo(longTime) / longTime, 0.5);
-    assertEquals(1.0, cut.getProbabilityMass(), 0.0);
+    assertEquals(1.0, cut.getProbabilityMass(), MASS_TOLERANCE);
   }
 
   @Test
@@ -225,7 +230,7 @@ public class DoubleFireBurstSignalTest {
     double ans = cut.integrateFromZeroTo(duration);
     double expected = maxShots * weapon.getDamagePerShot();
     assertTrue(String.format("%f < %f", ans, expected), ans < expected);
-    assertEquals(1.0, cut.getProbabilityMass(), 0.0);
+    assertEquals(1.0, cut.getProbabilityMass(), MASS_TOLERANCE);
   }
 
   @Test
@@ -0,0 +1,128 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.model.metrics.helpers;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Test suite for {@link HeatEventSolver}.
+ *
+ * @author Li Song
+ */
+public class HeatEventSolverTest {
+
+  @Test
+  public void testOf_Unsupported() {
+    assertTrue(HeatEventSolver.of(List.of(aTime -> aTime)).isEmpty());
+    assertTrue(HeatEventSolver.of(List.of(new IntegratedPulseTrain(1.0, 2.0, 1.0))).isEmpty());
+  }
+
+  @Test
+  public void testTimeToCool() {
+    assertEquals(60.0 / (2.4 - 0.2), HeatEventSolver.constant(0.2).timeToCool(60, 2.4, 900), 0.0);
+  }
+
+  @Test
+  public void testTimeToCool_Impulses() {
+    final HeatEventSolver cut = make(new IntegratedImpulseTrain(4.0, 10.0));
+    // 60 after the impulse at t=0, 30 after the impulse at t=4 and zero at t=7.
+    assertEquals(7.0, cut.timeToCool(50.0, 10.0, 900), 1E-9);
+  }
+
+  @Test
+  public void testTimeToCool_Never() {
+    assertEquals(
+        Double.POSITIVE_INFINITY, HeatEventSolver.constant(3.0).timeToCool(60, 2.0, 900), 0.0);
+  }
+
+  @Test
+  public void testTimeToOverHeat_Constant() {
+    assertEquals(60.0 / (10 - 5), HeatEventSolver.constant(10).timeToOverHeat(60, 5, 900), 0.0);
+  }
+
+  @Test
+  public void testTimeToOverHeat_ConstantAtMaxTime() {
+    assertEquals(
+        Double.POSITIVE_INFINITY, HeatEventSolver.constant(10).timeToOverHeat(900, 9, 900), 0.0);
+  }
+
+  /** The heat after the impulse at t=k is 10 + 5k which reaches 52 after the 9th second. */
+  @Test
+  public void testTimeToOverHeat_Impulses() {
+    final HeatEventSolver cut = make(new IntegratedImpulseTrain(1.0, 10.0));
+    assertEquals(9.0, cut.timeToOverHeat(52, 5, 900), 0.0);
+  }
+
+  /** The capacity is reached exactly by the impulse at t=10, the skip estimate is an integer. */
+  @Test
+  public void testTimeToOverHeat_ImpulsesExactlyAtCapacity() {
+    final HeatEventSolver cut = make(new IntegratedImpulseTrain(1.0, 10.0));
+    assertEquals(10.0, cut.timeToOverHeat(60, 5, 900), 0.0);
+  }
+
+  /** The heat is 11 + k after the impulse at t=2k, skipping ahead must not miss the over heat. */
+  @Test
+  public void testTimeToOverHeat_ManyPeriods() {
+    final HeatEventSolver cut = make(new IntegratedImpulseTrain(2.0, 11.0));
+    assertEquals(178.0, cut.timeToOverHeat(100, 5, 900), 1E-9);
+  }
+
+  /**
+   * Incommensurate periods have no hyperperiod and must be solved by sweeping all events. The heat
+   * is 11 + k after the impulse at t=k*pi.
+   */
+  @Test
+  public void testTimeToOverHeat_Incommensurate() {
+    final HeatEventSolver cut =
+        make(new IntegratedImpulseTrain(Math.PI, 11.0), new IntegratedImpulseTrain(Math.E, 0.0));
+    assertEquals(89 * Math.PI, cut.timeToOverHeat(99.5, 10 / Math.PI, 900), 1E-9);
+  }
+
+  @Test
+  public void testTimeToOverHeat_InfinitePeriod() {
+    final HeatEventSolver cut = make(new IntegratedImpulseTrain(Double.POSITIVE_INFINITY, 5.0));
+    assertEquals(0.0, cut.timeToOverHeat(5, 1, 900), 0.0);
+    assertEquals(Double.POSITIVE_INFINITY, cut.timeToOverHeat(6, 1, 900), 0.0);
+  }
+
+  /**
+   * Heat rises by 8/s during each 2s pulse and falls by 2/s between them: 16 at t=2, 12 at t=4, 28
+   * at t=6, 24 at t=8 and 30 at t=8.75.
+   */
+  @Test
+  public void testTimeToOverHeat_Pulses() {
+    final HeatEventSolver cut = make(new IntegratedPulseTrain(4.0, 2.0, 10.0));
+    assertEquals(8.75, cut.timeToOverHeat(30, 2, 900), 1E-9);
+  }
+
+  /** The heat can't go below zero so a mech that cools down between shots never over heats. */
+  @Test
+  public void testTimeToOverHeat_SteadyState() {
+    final HeatEventSolver cut =
+        make(new IntegratedImpulseTrain(2.0, 5.0), new IntegratedConstantSignal(1.0));
+    assertEquals(Double.POSITIVE_INFINITY, cut.timeToOverHeat(6, 4, 900), 0.0);
+    assertEquals(0.0, cut.timeToOverHeat(5, 4, 900), 0.0);
+  }
+
+  private HeatEventSolver make(IntegratedSignal... aSignals) {
+    return HeatEventSolver.of(List.of(aSignals)).orElseThrow();
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.util;
+
+import static org.junit.Assert.*;
+
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.*;
+import org.junit.Test;
+
+/**
+ * Test suite for {@link TableHuffmanCoder}. The coder must be bit exact with the {@link Huffman1}
+ * and {@link Huffman2} coders it is created from, this is fuzz tested with the frequency tables
+ * of all LSML link versions.
+ *
+ * @author Li Song
+ */
+public class TableHuffmanCoderTest {
+  private static final int FUZZ_ITERATIONS = 2000;
+
+  @Test
+  public void testDecode_Offset() throws Exception {
+    final Map<Integer, Integer> table = loadTable("/coderstats_v4.bin");
+    final Huffman2<Integer> reference = new Huffman2<>(table, null);
+    final TableHuffmanCoder cut = TableHuffmanCoder.of(reference);
+    final List<Integer> symbols = randomSymbols(new Random(1), table);
+    final byte[] encoded = reference.encode(symbols);
+    final byte[] data = new byte[encoded.length + 3];
+    System.arraycopy(encoded, 0, data, 3, encoded.length);
+
+    assertEquals(symbols, toList(cut.decode(data, 3)));
+  }
+
+  @Test(expected = EncodingException.class)
+  public void testEncode_UnknownSymbol() throws Exception {
+    final TableHuffmanCoder cut =
+        TableHuffmanCoder.of(new Huffman2<>(loadTable("/coderstats_v3.bin"), null));
+    cut.encode(new int[] {Integer.MIN_VALUE}, 1);
+  }
+
+  @Test
+  public void testFuzz_V2() throws Exception {
+    final Map<Integer, Integer> table = loadTable("/coderstats_v2.bin");
+    final Huffman1<Integer> reference = new Huffman1<>(table, null);
+    fuzz(TableHuffmanCoder.of(reference), reference::encode, reference::decode, table);
+  }
+
+  @Test
+  public void testFuzz_V3() throws Exception {
+    final Map<Integer, Integer> table = loadTable("/coderstats_v3.bin");
+    final Huffman2<Integer> reference = new Huffman2<>(table, null);
+    fuzz(TableHuffmanCoder.of(reference), reference::encode, reference::decode, table);
+  }
+
+  @Test
+  public void testFuzz_V4() throws Exception {
+    final Map<Integer, Integer> table = loadTable("/coderstats_v4.bin");
+    final Huffman2<Integer> reference = new Huffman2<>(table, null);
+    fuzz(TableHuffmanCoder.of(reference), reference::encode, reference::decode, table);
+  }
+
+  /** Same example as {@link Huffman2Test#testGithubExample()}. */
+  @Test
+  public void testGithubExample() throws Exception {
+    final Map<Integer, Integer> table = new HashMap<>();
+    table.put((int) 'e', 2);
+    table.put((int) 'b', 4);
+    table.put((int) 'a', 1);
+    table.put((int) 'c', 2);
+    table.put((int) 'd', 1);
+    final TableHuffmanCoder cut = TableHuffmanCoder.of(new Huffman2<>(table, null));
+
+    assertArrayEquals(new byte[] {(byte) 0x68}, cut.encode(new int[] {'e'}, 1));
+    assertArrayEquals(new byte[] {(byte) 0xe8}, cut.encode(new int[] {'b'}, 1));
+    assertArrayEquals(new byte[] {(byte) 0xba}, cut.encode(new int[] {'a'}, 1));
+    assertArrayEquals(new byte[] {(byte) 0x28}, cut.encode(new int[] {'c'}, 1));
+    assertArrayEquals(new byte[] {(byte) 0x94}, cut.encode(new int[] {'d'}, 1));
+    // 0b1011 1001 = a, d and the first bit of STOP. The rest of STOP doesn't fit and is dropped
+    // instead of starting another byte, the end of the stream acts as the stop.
+    final byte[] ad = {(byte) 0xb9};
+    assertArrayEquals(ad, cut.encode(new int[] {'a', 'd'}, 2));
+    assertArrayEquals(new int[] {'a', 'd'}, cut.decode(ad, 0).toArray());
+  }
+
+  private interface Decoder {
+    List<Integer> decode(byte[] aBitstream) throws DecodingException;
+  }
+
+  private interface Encoder {
+    byte[] encode(List<Integer> aSymbols) throws EncodingException;
+  }
+
+  private static Map<Integer, Integer> loadTable(String aResource) throws Exception {
+    try (InputStream is = TableHuffmanCoderTest.class.getResourceAsStream(aResource);
+        ObjectInputStream in = new ObjectInputStream(is)) {
+      @SuppressWarnings("unchecked")
+      final Map<Integer, Integer> freqs = (Map<Integer, Integer>) in.readObject();
+      return freqs;
+    }
+  }
+
+  /**
+   * Draws symbols with the probabilities of the frequency table, like real loadouts. Uniformly
+   * drawn symbols may overflow the output buffer estimate of the reference coders.
+   */
+  private static List<Integer> randomSymbols(Random aRng, Map<Integer, Integer> aTable) {
+    final List<Integer> alphabet = new ArrayList<>();
+    final List<Integer> cumulative = new ArrayList<>();
+    int total = 0;
+    for (final Map.Entry<Integer, Integer> entry : aTable.entrySet()) {
+      if (entry.getValue() > 0) {
+        total += entry.getValue();
+        alphabet.add(entry.getKey());
+        cumulative.add(total);
+      }
+    }
+
+    final int n = aRng.nextInt(120);
+    final List<Integer> ans = new ArrayList<>(n);
+    for (int i = 0; i < n; ++i) {
+      final int index = Collections.binarySearch(cumulative, aRng.nextInt(total) + 1);
+      ans.add(alphabet.get(index < 0 ? -index - 1 : index));
+    }
+    return ans;
+  }
+
+  private static List<Integer> toList(IntCursor aCursor) {
+    final List<Integer> ans = new ArrayList<>();
+    while (aCursor.hasNext()) {
+      ans.add(aCursor.next());
+    }
+    return ans;
+  }
+
+  private void fuzz(
+      TableHuffmanCoder aCut,
+      Encoder aReferenceEncoder,
+      Decoder aReferenceDecoder,
+      Map<Integer, Integer> aTable)
+      throws Exception {
+    final Random rng = new Random(0);
+    for (int i = 0; i < FUZZ_ITERATIONS; ++i) {
+      // Valid streams must encode and decode identically.
+      final List<Integer> symbols = randomSymbols(rng, aTable);
+      final int[] raw = symbols.stream().mapToInt(Integer::intValue).toArray();
+      final byte[] expected = aReferenceEncoder.encode(symbols);
+      assertArrayEquals(expected, aCut.encode(raw, raw.length));
+      assertEquals(symbols, toList(aCut.decode(expected, 0)));
+
+      // Truncated streams must give the same partial result.
+      final byte[] truncated = Arrays.copyOf(expected, rng.nextInt(expected.length + 1));
+      assertEquals(aReferenceDecoder.decode(truncated), toList(aCut.decode(truncated, 0)));
+
+      // Random garbage must decode to the same garbage.
+      final byte[] garbage = new byte[rng.nextInt(64)];
+      rng.nextBytes(garbage);
+      assertEquals(aReferenceDecoder.decode(garbage), toList(aCut.decode(garbage, 0)));
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.view_fx;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import javafx.beans.property.SimpleStringProperty;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.lisoft.lsml.application.ErrorReporter;
+import org.lisoft.lsml.messages.DropShipMessage;
+import org.lisoft.lsml.messages.MessageXBar;
+import org.lisoft.lsml.model.garage.BinaryGarageSerializer;
+import org.lisoft.lsml.model.garage.Garage;
+import org.lisoft.lsml.model.garage.GarageSerializer;
+import org.lisoft.lsml.model.loadout.DefaultLoadoutFactory;
+import org.lisoft.lsml.model.loadout.LoadoutBuilder;
+
+/**
+ * Test suite for {@link GlobalGarage}.
+ *
+ * @author Li Song
+ */
+public class GlobalGarageTest {
+  private final ErrorReporter reporter = mock(ErrorReporter.class);
+  private final GarageSerializer serializer =
+      new GarageSerializer(reporter, new DefaultLoadoutFactory(), new LoadoutBuilder());
+  private final Settings settings = mock(Settings.class);
+  @Rule public TemporaryFolder tmp = new TemporaryFolder();
+  private final MessageXBar xBar = new MessageXBar();
+
+  @Before
+  public void setup() {
+    when(settings.getString(Settings.CORE_GARAGE_FILE)).thenReturn(new SimpleStringProperty());
+  }
+
+  /** The message bus only keeps weak references, the receiver must survive a garbage collection. */
+  @Test
+  public void testReceive_AfterGarbageCollection() throws Exception {
+    final File file = tmp.newFile("garage.lsxml");
+    try (OutputStream os = new FileOutputStream(file)) {
+      serializer.save(os, new Garage());
+    }
+    final GlobalGarage cut =
+        new GlobalGarage(settings, reporter, serializer, mock(BinaryGarageSerializer.class), xBar);
+    cut.open(file);
+    assertFalse(cut.isDirty());
+
+    System.gc();
+    xBar.post(new DropShipMessage());
+
+    assertTrue(cut.isDirty());
+  }
+}
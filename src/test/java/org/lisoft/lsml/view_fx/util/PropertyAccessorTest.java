@@ -0,0 +1,110 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.view_fx.util;
+
+import static org.junit.Assert.*;
+
+import java.util.Collection;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Test suite for {@link PropertyAccessor}.
+ *
+ * @author Li Song
+ */
+public class PropertyAccessorTest {
+  public static class Inner {
+    public Collection<String> lastArgument = List.of("not called");
+
+    public String getName() {
+      return "inner";
+    }
+
+    public double getRange(Collection<String> aModifiers) {
+      lastArgument = aModifiers;
+      return 3.5;
+    }
+
+    public String valueProperty() {
+      return "value";
+    }
+  }
+
+  public static class Outer {
+    private final Inner inner = new Inner();
+
+    public Inner getInner() {
+      return inner;
+    }
+
+    public int getSlots() {
+      return 7;
+    }
+  }
+
+  /** Overrides in subclasses of the resolved type must be honoured. */
+  public static class SubOuter extends Outer {
+    @Override
+    public int getSlots() {
+      return 9;
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOf_Missing() {
+    PropertyAccessor.of(Outer.class, "inner.foo");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOf_Malformed() {
+    PropertyAccessor.of(Outer.class, "inner..name");
+  }
+
+  @Test
+  public void testGet_Nested() {
+    final PropertyAccessor cut = PropertyAccessor.of(Outer.class, "inner.name");
+    assertFalse(cut.isNumeric());
+    assertEquals("inner", cut.get(new Outer()));
+  }
+
+  @Test
+  public void testGet_PropertyMethod() {
+    final PropertyAccessor cut = PropertyAccessor.of(Outer.class, "inner.value");
+    assertEquals("value", cut.get(new Outer()));
+  }
+
+  @Test
+  public void testGetDouble() {
+    final PropertyAccessor cut = PropertyAccessor.of(Outer.class, "slots");
+    assertTrue(cut.isNumeric());
+    assertEquals(7.0, cut.getDouble(new Outer()), 0.0);
+    assertEquals(9.0, cut.getDouble(new SubOuter()), 0.0);
+    assertEquals(9, cut.get(new SubOuter()));
+  }
+
+  /** Getters with arguments are called with <code>null</code> for all arguments. */
+  @Test
+  public void testGetDouble_NullArguments() {
+    final Outer outer = new Outer();
+    final PropertyAccessor cut = PropertyAccessor.of(Outer.class, "inner.range");
+    assertTrue(cut.isNumeric());
+    assertEquals(3.5, cut.getDouble(outer), 0.0);
+    assertNull(outer.getInner().lastArgument);
+  }
+}
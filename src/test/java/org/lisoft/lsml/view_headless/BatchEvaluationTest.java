@@ -0,0 +1,131 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.view_headless;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Test suite for {@link BatchEvaluation}.
+ *
+ * @author Li Song
+ */
+public class BatchEvaluationTest {
+  private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+  @Test
+  public void testParse() {
+    final BatchEvaluation.Options options =
+        BatchEvaluation.parse(
+            new String[] {
+              "--garage",
+              "--format",
+              "json",
+              "--metrics",
+              "alpha, sdps",
+              "--ranges",
+              "270,540.5",
+              "--threads",
+              "3",
+              "-o",
+              "out.json",
+              "garage.lsxml"
+            });
+    assertTrue(options.garage);
+    assertEquals(OutputFormat.JSON, options.format);
+    assertEquals(List.of(BatchMetric.ALPHA, BatchMetric.SUSTAINED_DPS), options.metrics);
+    assertEquals(List.of(270.0, 540.5), options.ranges);
+    assertEquals(3, options.threads);
+    assertEquals(Path.of("out.json"), options.output);
+    assertEquals(Path.of("garage.lsxml"), options.input);
+  }
+
+  @Test
+  public void testParse_Defaults() {
+    final BatchEvaluation.Options options = BatchEvaluation.parse(new String[] {});
+    assertFalse(options.garage);
+    assertFalse(options.help);
+    assertEquals(OutputFormat.CSV, options.format);
+    assertEquals(List.of(BatchMetric.values()), options.metrics);
+    assertTrue(options.ranges.isEmpty());
+    assertTrue(options.threads >= 1);
+    assertNull(options.input);
+    assertNull(options.output);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParse_GarageWithoutFile() {
+    BatchEvaluation.parse(new String[] {"--garage"});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParse_MissingValue() {
+    BatchEvaluation.parse(new String[] {"--metrics"});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParse_UnknownMetric() {
+    BatchEvaluation.parse(new String[] {"--metrics", "alpha,foo"});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParse_UnknownOption() {
+    BatchEvaluation.parse(new String[] {"--foo"});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParse_ZeroThreads() {
+    BatchEvaluation.parse(new String[] {"--threads", "0"});
+  }
+
+  /** Printing the help must not load the database. */
+  @Test
+  public void testRun_Help() {
+    final int code = run("--help");
+    assertEquals(BatchEvaluation.EXIT_OK, code);
+    assertTrue(err.toString(StandardCharsets.UTF_8).contains("--metrics"));
+    assertEquals(0, out.size());
+  }
+
+  @Test
+  public void testRun_Usage() {
+    final int code = run("--format", "xml");
+    assertEquals(BatchEvaluation.EXIT_USAGE, code);
+    assertTrue(err.toString(StandardCharsets.UTF_8).contains("Unknown format: xml"));
+    assertEquals(0, out.size());
+  }
+
+  private int run(String... aArgs) {
+    return BatchEvaluation.run(
+        aArgs,
+        () -> {
+          throw new AssertionError("Core component shouldn't be created!");
+        },
+        new ByteArrayInputStream(new byte[0]),
+        out,
+        new PrintStream(err, true, StandardCharsets.UTF_8));
+  }
+}
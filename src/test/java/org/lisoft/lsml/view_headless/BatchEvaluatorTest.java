@@ -0,0 +1,142 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.view_headless;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import org.lisoft.lsml.model.ChassisDB;
+import org.lisoft.lsml.model.export.Base64LoadoutCoder;
+import org.lisoft.lsml.model.loadout.DefaultLoadoutFactory;
+import org.lisoft.lsml.model.loadout.Loadout;
+import org.lisoft.lsml.model.metrics.AlphaStrike;
+import org.lisoft.lsml.model.metrics.TopSpeed;
+import org.lisoft.lsml.util.DecodingException;
+
+/**
+ * Test suite for {@link BatchEvaluator}.
+ *
+ * @author Li Song
+ */
+public class BatchEvaluatorTest {
+  private final Base64LoadoutCoder coder = mock(Base64LoadoutCoder.class);
+  private final Loadout loadout;
+  private final StringWriter output = new StringWriter();
+
+  public BatchEvaluatorTest() throws Exception {
+    loadout = new DefaultLoadoutFactory().produceStock(ChassisDB.lookup("AS7-D-DC"));
+  }
+
+  @Test
+  public void testColumns() throws IOException {
+    final BatchEvaluator cut =
+        new BatchEvaluator(
+            coder,
+            List.of(BatchMetric.ALPHA, BatchMetric.SPEED, BatchMetric.DPS),
+            List.of(0.0, 270.0, 540.5),
+            OutputFormat.CSV,
+            output,
+            1);
+    cut.close();
+
+    assertEquals(
+        List.of(
+            "index",
+            "name",
+            "chassis",
+            "alpha",
+            "alpha@270",
+            "alpha@540.5",
+            "speed",
+            "dps",
+            "dps@270",
+            "dps@540.5",
+            "error"),
+        cut.getColumns());
+    assertEquals(String.join(",", cut.getColumns()) + "\r\n", output.toString());
+  }
+
+  @Test
+  public void testEvaluateLinks() throws Exception {
+    when(coder.parse("lsml://good")).thenReturn(loadout);
+    when(coder.parse("lsml://bad")).thenThrow(new DecodingException("Bad link"));
+
+    final BatchEvaluator cut =
+        new BatchEvaluator(
+            coder,
+            List.of(BatchMetric.ALPHA, BatchMetric.SPEED),
+            List.of(270.0),
+            OutputFormat.CSV,
+            output,
+            2);
+    cut.evaluateLinks(
+        new BufferedReader(new StringReader("# comment\nlsml://good\n\n  lsml://bad  \n")));
+    cut.close();
+
+    assertEquals(1, cut.getFailures());
+    final String[] lines = output.toString().split("\r\n");
+    assertEquals(3, lines.length);
+
+    final String expectedGood =
+        String.join(
+            ",",
+            "0",
+            loadout.getName(),
+            loadout.getChassis().getName(),
+            Double.toString(new AlphaStrike(loadout).calculate(270.0)),
+            Double.toString(new TopSpeed(loadout).calculate()),
+            "");
+    final Set<String> rows = Set.of(lines[1], lines[2]);
+    assertTrue(rows.contains(expectedGood));
+    assertTrue(rows.contains("1,,,,,Bad link"));
+  }
+
+  /** All rows must be written exactly once even when there are more loadouts than slots. */
+  @Test
+  public void testEvaluateLinks_Many() throws Exception {
+    when(coder.parse(anyString())).thenReturn(loadout);
+    final int links = 200;
+    final StringBuilder input = new StringBuilder();
+    for (int i = 0; i < links; ++i) {
+      input.append("lsml://").append(i).append('\n');
+    }
+
+    final BatchEvaluator cut =
+        new BatchEvaluator(
+            coder, List.of(BatchMetric.HEAT_CAPACITY), List.of(), OutputFormat.JSON, output, 4);
+    cut.evaluateLinks(new BufferedReader(new StringReader(input.toString())));
+    cut.close();
+
+    assertEquals(0, cut.getFailures());
+    final String[] lines = output.toString().split("\n");
+    assertEquals(links, lines.length);
+    final Set<String> indices = new HashSet<>();
+    for (final String line : lines) {
+      indices.add(line.substring(0, line.indexOf(',')));
+    }
+    assertEquals(links, indices.size());
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.lsml.view_headless;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Test suite for {@link OutputFormat}.
+ *
+ * @author Li Song
+ */
+public class OutputFormatTest {
+  private final List<String> columns = List.of("index", "name", "value", "error");
+  private final StringWriter writer = new StringWriter();
+
+  @Test
+  public void testCsvHeader() throws IOException {
+    OutputFormat.CSV.writeHeader(writer, columns);
+    assertEquals("index,name,value,error\r\n", writer.toString());
+  }
+
+  @Test
+  public void testCsvRow() throws IOException {
+    OutputFormat.CSV.writeRow(writer, columns, new Object[] {3, "AS7-D-DC", 12.5, null});
+    assertEquals("3,AS7-D-DC,12.5,\r\n", writer.toString());
+  }
+
+  @Test
+  public void testCsvRow_NonFinite() throws IOException {
+    OutputFormat.CSV.writeRow(
+        writer, columns, new Object[] {0, "x", Double.POSITIVE_INFINITY, Double.NaN});
+    assertEquals("0,x,,\r\n", writer.toString());
+  }
+
+  @Test
+  public void testCsvRow_Quoting() throws IOException {
+    OutputFormat.CSV.writeRow(
+        writer, columns, new Object[] {0, "a,b", "say \"hi\"", "line\nbreak"});
+    assertEquals("0,\"a,b\",\"say \"\"hi\"\"\",\"line\nbreak\"\r\n", writer.toString());
+  }
+
+  @Test
+  public void testJsonHeader() throws IOException {
+    OutputFormat.JSON.writeHeader(writer, columns);
+    assertEquals("", writer.toString());
+  }
+
+  @Test
+  public void testJsonRow() throws IOException {
+    OutputFormat.JSON.writeRow(
+        writer, columns, new Object[] {3, "a \"b\"\\\n\u0001", Double.NaN, null});
+    assertEquals(
+        "{\"index\":3,\"name\":\"a \\\"b\\\"\\\\\\n\\u0001\",\"value\":null,\"error\":null}\n",
+        writer.toString());
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.mwo_data;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.lisoft.lsml.view_fx.LiSongMechLab;
+
+/**
+ * Test suite for {@link DatabaseSnapshot}.
+ *
+ * @author Li Song
+ */
+public class DatabaseSnapshotTest {
+  @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void testReadFile() throws IOException {
+    final Database database = LiSongMechLab.getDatabase();
+    final File file = writeSnapshot(database);
+
+    final Database cut = Database.readSnapshot(file, database.getVersion());
+
+    assertEquals(toXml(database), toXml(cut));
+  }
+
+  @Test(expected = IOException.class)
+  public void testReadFile_DifferentDataVersion() throws IOException {
+    final File file = writeSnapshot(LiSongMechLab.getDatabase());
+    Database.readSnapshot(file, "not the data version");
+  }
+
+  @Test(expected = IOException.class)
+  public void testRead_NotASnapshot() throws IOException {
+    final byte[] xml = "<?xml version=\"1.0\"?><database/>".getBytes(StandardCharsets.UTF_8);
+    Database.readSnapshot(new ByteArrayInputStream(xml));
+  }
+
+  /**
+   * The snapshot must reproduce the exact same object graph, which is verified by comparing the
+   * XML serialisation of the original and the read back database.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    final Database database = LiSongMechLab.getDatabase();
+
+    final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+    database.writeSnapshot(snapshot);
+    final Database cut = Database.readSnapshot(new ByteArrayInputStream(snapshot.toByteArray()));
+
+    assertNotSame(database, cut);
+    assertEquals(database.getVersion(), cut.getVersion());
+    assertEquals(database.getChecksums(), cut.getChecksums());
+    assertEquals(toXml(database), toXml(cut));
+  }
+
+  private File writeSnapshot(Database aDatabase) throws IOException {
+    final File file = tmp.newFile("database.bin");
+    try (OutputStream os = new FileOutputStream(file)) {
+      aDatabase.writeSnapshot(os);
+    }
+    return file;
+  }
+
+  private String toXml(Database aDatabase) throws IOException {
+    final ByteArrayOutputStream os = new ByteArrayOutputStream();
+    aDatabase.writeToStream(os);
+    return os.toString(StandardCharsets.UTF_8);
+  }
+}
@@ -329,7 +329,7 @@ public class ChassisFilterTest {
 
   private void acceptAllOmniMechHardpoints() {
     final Optional<Map<Location, OmniPod>> pods = Optional.of(new HashMap<>());
-    when(omniPodSelector.selectPods(
+    when(omniPodSelector.selectAnyPods(
             any(ChassisOmniMech.class), anyInt(), anyInt(), anyInt(), anyInt(), anyBoolean()))
         .thenReturn(pods);
   }
@@ -96,4 +96,33 @@ public class MaxMovementProfileTest {
     // Arm 2 + Leg 2 will give max of 0.1 + 0.6
     assertEquals(3.7, cut.getTorsoPitchSpeed(null), Math.ulp(4.0));
   }
+
+  /** Values without extra modifiers are computed once, extra modifiers are applied to each pod. */
+  @Test
+  public void testGetTorsoPitchSpeed_Memoised() {
+    MovementProfile base = Mockito.mock(MovementProfile.class);
+    Modifier extra = Mockito.mock(Modifier.class);
+    Modifier quirk = Mockito.mock(Modifier.class);
+    Collection<Modifier> arm_omnipod1 = new ArrayList<>();
+    Collection<Modifier> arm_omnipod2 = new ArrayList<>();
+    arm_omnipod2.add(quirk);
+
+    List<List<Collection<Modifier>>> groups = new ArrayList<>();
+    groups.add(List.of(arm_omnipod1, arm_omnipod2));
+
+    MaxMovementProfile cut = new MaxMovementProfile(base, groups);
+
+    Mockito.when(base.getTorsoPitchSpeed(null)).thenReturn(3.0);
+    Mockito.when(base.getTorsoPitchSpeed(arm_omnipod1)).thenReturn(3.0);
+    Mockito.when(base.getTorsoPitchSpeed(arm_omnipod2)).thenReturn(3.5);
+    Mockito.when(base.getTorsoPitchSpeed(List.of(extra))).thenReturn(4.0);
+    Mockito.when(base.getTorsoPitchSpeed(Mockito.argThat(c -> c != null && c.size() == 2)))
+        .thenReturn(5.0);
+
+    assertEquals(3.5, cut.getTorsoPitchSpeed(null), 0.0);
+    assertEquals(3.5, cut.getTorsoPitchSpeed(null), 0.0);
+    Mockito.verify(base, Mockito.times(1)).getTorsoPitchSpeed(null);
+
+    assertEquals(5.0, cut.getTorsoPitchSpeed(List.of(extra)), 0.0);
+  }
 }
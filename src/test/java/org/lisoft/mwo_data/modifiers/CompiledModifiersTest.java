@@ -0,0 +1,124 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.mwo_data.modifiers;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Test suite for {@link CompiledModifiers}.
+ *
+ * @author Li Song
+ */
+public class CompiledModifiersTest {
+  private final List<Modifier> modifiers = new ArrayList<>();
+
+  @Test
+  public void testOf_AlreadyCompiled() {
+    final CompiledModifiers cut = new CompiledModifiers(modifiers);
+    assertSame(cut, CompiledModifiers.of(cut));
+  }
+
+  @Test
+  public void testSizeAndContents() {
+    final Modifier a = makeModifier(Operation.ADD, 1.0, "foo", null);
+    final Modifier b = makeModifier(Operation.MUL, 0.1, "bar", "baz");
+    modifiers.add(a);
+    modifiers.add(b);
+
+    final CompiledModifiers cut = new CompiledModifiers(modifiers);
+    modifiers.clear();
+
+    assertEquals(2, cut.size());
+    assertTrue(cut.contains(a));
+    assertTrue(cut.contains(b));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testUnmodifiable() {
+    new CompiledModifiers(modifiers).add(makeModifier(Operation.ADD, 1.0, "foo", null));
+  }
+
+  @Test
+  public void testValue_Empty() {
+    final Attribute attribute = new Attribute(3.0, List.of("foo"), "bar");
+    assertEquals(3.0, new CompiledModifiers(null).value(attribute), 0.0);
+    assertEquals(3.0, new CompiledModifiers(Collections.emptyList()).value(attribute), 0.0);
+  }
+
+  /** The compiled evaluation must give exactly the same result as the un-compiled evaluation. */
+  @Test
+  public void testValue_SameAsUncompiled() {
+    final String[] selectors = {"foo", "bar", "all", "baz"};
+    final String[] specifiers = {null, "cooldown", "all", "heat"};
+    double value = 0.013;
+    for (final String selector : selectors) {
+      for (final String specifier : specifiers) {
+        modifiers.add(makeModifier(Operation.ADD, value, selector, specifier));
+        modifiers.add(makeModifier(Operation.MUL, value / 7, selector, specifier));
+        value *= 1.7;
+      }
+    }
+    modifiers.add(makeModifier(Operation.ADD, 0.3, Arrays.asList("foo", "bar"), null));
+
+    final CompiledModifiers cut = new CompiledModifiers(modifiers);
+    for (final String specifier : specifiers) {
+      for (final List<String> attributeSelectors :
+          List.of(List.of("foo"), List.of("bar", "foo"), List.of("fail"), List.of("baz"))) {
+        final Attribute attribute = new Attribute(5.0, attributeSelectors, specifier);
+        final double expected = attribute.value(modifiers);
+        assertEquals(expected, cut.value(attribute), 0.0);
+        assertEquals(expected, attribute.value(cut), 0.0);
+        // Memoised value must be returned on the second evaluation too
+        assertEquals(expected, attribute.value(cut), 0.0);
+      }
+    }
+  }
+
+  /** The memoised sums must not depend on the base value of the attribute. */
+  @Test
+  public void testValue_BaseValueChange() {
+    modifiers.add(makeModifier(Operation.ADD, 1.0, "foo", null));
+    modifiers.add(makeModifier(Operation.MUL, 0.5, "foo", null));
+    final CompiledModifiers cut = new CompiledModifiers(modifiers);
+    final Attribute attribute = new Attribute(1.0, List.of("foo"));
+
+    assertEquals(3.0, attribute.value(cut), 0.0);
+    attribute.setBaseValue(3.0);
+    assertEquals(6.0, attribute.value(cut), 0.0);
+    assertEquals(6.0, new Attribute(3.0, List.of("foo")).value(cut), 0.0);
+  }
+
+  private Modifier makeModifier(
+      Operation aOperation, double aValue, String aSelector, String aSpecifier) {
+    return makeModifier(aOperation, aValue, List.of(aSelector), aSpecifier);
+  }
+
+  private Modifier makeModifier(
+      Operation aOperation, double aValue, List<String> aSelectors, String aSpecifier) {
+    final ModifierDescription description =
+        new ModifierDescription(
+            "name", "key", aOperation, aSelectors, aSpecifier, ModifierType.INDETERMINATE);
+    return new Modifier(description, aValue);
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Li Song Mechlab - A 'mech building tool for PGI's MechWarrior: Online.
+ * Copyright (C) 2013-2023  Li Song
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lisoft.mwo_data.mwo_parser;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test suite for {@link ArchiveIndex}.
+ *
+ * @author Li Song
+ */
+public class ArchiveIndexTest {
+  private static final ArchiveIndex.ArchiveOpener FAIL =
+      aArchive -> {
+        throw new AssertionError("Archive should not be read: " + aArchive);
+      };
+  private static final File PATH = new File("Game/Libs/Items/Weapons.xml");
+
+  @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void testFind_CaseInsensitive() throws IOException {
+    final File archive = makeArchive("Libs/Items/weapons.xml", "foo");
+    final ArchiveIndex cut = new ArchiveIndex(root());
+    try (ZipFile zipFile = new ZipFile(archive)) {
+      cut.scan(aArchive -> zipFile);
+    }
+
+    final ArchiveIndex.Entry entry = cut.find(PATH);
+    assertNotNull(entry);
+    assertEquals(archive, entry.archive);
+    assertEquals("Libs/Items/weapons.xml", entry.name);
+    assertNull(cut.find(new File("Game/Libs/Items/Other.xml")));
+  }
+
+  @Test
+  public void testLoad_Corrupt() throws IOException {
+    final File indexFile = tmp.newFile("index");
+    Files.writeString(indexFile.toPath(), "garbage");
+    assertNull(ArchiveIndex.load(indexFile, root()).find(PATH));
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    final File archive = makeArchive("Libs/Items/Weapons.xml", "foo");
+    final File indexFile = new File(tmp.getRoot(), "index");
+    final long crc;
+    try (ZipFile zipFile = new ZipFile(archive)) {
+      final ArchiveIndex cut = ArchiveIndex.load(indexFile, root());
+      cut.scan(aArchive -> zipFile);
+      cut.save(indexFile);
+      crc = zipFile.getEntry("Libs/Items/Weapons.xml").getCrc();
+    }
+
+    final ArchiveIndex loaded = ArchiveIndex.load(indexFile, root());
+    final ArchiveIndex.Entry entry = loaded.find(PATH);
+    assertNotNull(entry);
+    assertEquals(crc, entry.crc);
+    assertEquals(archive, entry.archive);
+
+    // Unchanged archives must not be re-read
+    loaded.scan(FAIL);
+    assertNotNull(loaded.find(PATH));
+  }
+
+  @Test
+  public void testStaleArchive() throws IOException {
+    final File archive = makeArchive("Libs/Items/Weapons.xml", "foo");
+    final File indexFile = new File(tmp.getRoot(), "index");
+    try (ZipFile zipFile = new ZipFile(archive)) {
+      final ArchiveIndex cut = ArchiveIndex.load(indexFile, root());
+      cut.scan(aArchive -> zipFile);
+      cut.save(indexFile);
+    }
+
+    makeArchive("Libs/Items/Weapons.xml", "patched contents");
+    final ArchiveIndex loaded = ArchiveIndex.load(indexFile, root());
+    assertNull(loaded.find(PATH));
+
+    try (ZipFile zipFile = new ZipFile(archive)) {
+      loaded.scan(aArchive -> zipFile);
+      final long crc = zipFile.getEntry("Libs/Items/Weapons.xml").getCrc();
+      assertEquals(crc, loaded.find(PATH).crc);
+    }
+  }
+
+  private File makeArchive(String aEntry, String aContents) throws IOException {
+    final File dir = new File(tmp.getRoot(), "Game");
+    if (!dir.isDirectory()) {
+      assertTrue(dir.mkdirs());
+    }
+    final File archive = new File(dir, "GameData.pak");
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive))) {
+      out.putNextEntry(new ZipEntry(aEntry));
+      out.write(aContents.getBytes(StandardCharsets.UTF_8));
+      out.closeEntry();
+    }
+    return archive;
+  }
+
+  private Path root() {
+    return tmp.getRoot().toPath();
+  }
+}